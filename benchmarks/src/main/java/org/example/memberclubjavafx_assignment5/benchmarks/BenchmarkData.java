@@ -0,0 +1,79 @@
+package org.example.memberclubjavafx_assignment5.benchmarks;
+
+import org.example.memberclubjavafx_assignment5.model.Item;
+import org.example.memberclubjavafx_assignment5.model.enums.ItemStatus;
+import org.example.memberclubjavafx_assignment5.service.Inventory;
+import org.example.memberclubjavafx_assignment5.service.MemberRegistry;
+import org.example.memberclubjavafx_assignment5.service.MembershipService;
+import org.example.memberclubjavafx_assignment5.service.RentalService;
+import org.example.memberclubjavafx_assignment5.system.MemberIdGenerator;
+import org.example.memberclubjavafx_assignment5.system.SyntheticDataGenerator;
+import java.time.LocalDateTime;
+
+/**
+ * Builds the same data set every time for a given size and seed, so benchmark runs can be compared.
+ * The data comes from SyntheticDataGenerator: for a size N we create about N rentals over one year,
+ * N / 10 items of all twelve types and N / 10 members.
+ */
+public class BenchmarkData {
+
+    // The generated history ends at this fixed point, so the data never depends on when the benchmark runs
+    public static final LocalDateTime BASE_TIME = LocalDateTime.of(2025, 6, 1, 12, 0);
+
+    // Each item is rented about this many times in the generated year
+    private static final int RENTALS_PER_ITEM = 10;
+
+    public final Inventory inventory;
+    public final MemberRegistry memberRegistry;
+    public final RentalService rentalService;
+    public final MembershipService membershipService;
+
+    public final int itemCount;
+    public final int memberCount;
+    public final int rentalCount;
+
+    // An item that is not rented out, for benchmarks that rent something
+    public final String freeItemId;
+
+    /**
+     * Creates the data set.
+     * @param size about how many rentals to create
+     * @param seed seed for the random numbers
+     */
+    public BenchmarkData(int size, long seed) {
+
+        this.inventory = new Inventory();
+        this.memberRegistry = new MemberRegistry();
+        this.rentalService = new RentalService(inventory, memberRegistry);
+        this.membershipService = new MembershipService(memberRegistry, new MemberIdGenerator());
+
+        SyntheticDataGenerator generator = new SyntheticDataGenerator(seed, Math.max(10, size / 10),
+                Math.max(12, size / RENTALS_PER_ITEM), 1, RENTALS_PER_ITEM, BASE_TIME);
+
+        SyntheticDataGenerator.Summary summary = generator.generate(inventory::addItem, memberRegistry::addMember, rentalService::addRental);
+
+        this.itemCount = summary.items();
+        this.memberCount = summary.members();
+        this.rentalCount = rentalService.getAllRentals().size();
+
+        this.freeItemId = inventory.getAllItems().stream()
+                .filter(item -> item.getStatus() == ItemStatus.AVAILABLE)
+                .map(Item::getId)
+                .findFirst()
+                .orElseThrow();
+    }
+
+    /**
+     * Returns the id of member number {@code index}.
+     */
+    public static int memberId(int index) {
+        return index + 1;
+    }
+
+    /**
+     * Returns the id of rental number {@code index}.
+     */
+    public static String rentalId(int index) {
+        return RentalService.createRentalId(index + 1);
+    }
+}
@@ -0,0 +1,65 @@
+package org.example.memberclubjavafx_assignment5.benchmarks;
+
+import org.example.memberclubjavafx_assignment5.model.Rental;
+import org.example.memberclubjavafx_assignment5.service.RentalColumnStore;
+import org.openjdk.jmh.annotations.*;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the dashboard revenue sums from the column store with the old way
+ * (walking through every Rental object).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx4g"})
+public class DashboardBenchmark {
+
+    // The dashboard's yearly chart asks for one sum per day for about a year
+    private static final int DAYS = 366;
+
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    private RentalColumnStore columnStore;
+    private List<Rental> rentals;
+    private long firstEpochDay;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+
+        BenchmarkData data = new BenchmarkData(size, 42L);
+        columnStore = data.rentalService.getColumnStore();
+        rentals = data.rentalService.getAllRentals();
+        firstEpochDay = BenchmarkData.BASE_TIME.toLocalDate().minusDays(DAYS - 1).toEpochDay();
+    }
+
+    @Benchmark
+    public long[] revenueByDayColumnStore() {
+        return columnStore.sumCostByDay(firstEpochDay, DAYS);
+    }
+
+    @Benchmark
+    public long[] revenueByDayObjectScan() {
+
+        long[] result = new long[DAYS];
+
+        for (Rental rental : rentals) {
+
+            long day = rental.getStartDate().toLocalDate().toEpochDay() - firstEpochDay;
+
+            if (day >= 0 && day < DAYS) {
+                result[(int) day] += rental.getTotalCostOre();
+            }
+        }
+        return result;
+    }
+
+    @Benchmark
+    public long totalRevenueColumnStore() {
+        return columnStore.sumCost();
+    }
+}
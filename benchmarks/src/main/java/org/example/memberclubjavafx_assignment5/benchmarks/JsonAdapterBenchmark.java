@@ -0,0 +1,94 @@
+package org.example.memberclubjavafx_assignment5.benchmarks;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import org.example.memberclubjavafx_assignment5.model.Item;
+import org.example.memberclubjavafx_assignment5.model.Member;
+import org.example.memberclubjavafx_assignment5.model.Rental;
+import org.example.memberclubjavafx_assignment5.service.GsonConfig;
+import org.openjdk.jmh.annotations.*;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the two ways Gson can read and write our objects (without the disk):
+ * 'reflective' is the old RuntimeTypeAdapterFactory and reflection, 'streaming' is ItemTypeAdapter, MemberTypeAdapter
+ * and RentalTypeAdapter. Both give exactly the same JSON.
+ *
+ * Run with '-prof gc' to also see how many bytes each way allocates per call (gc.alloc.rate.norm).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx4g"})
+public class JsonAdapterBenchmark {
+
+    private static final Type ITEM_LIST = new TypeToken<ArrayList<Item>>(){}.getType();
+    private static final Type MEMBER_LIST = new TypeToken<ArrayList<Member>>(){}.getType();
+    private static final Type RENTAL_LIST = new TypeToken<ArrayList<Rental>>(){}.getType();
+
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    @Param({"reflective", "streaming"})
+    public String adapters;
+
+    private Gson gson;
+
+    private List<Item> items;
+    private List<Member> members;
+    private List<Rental> rentals;
+
+    private String itemsJson;
+    private String membersJson;
+    private String rentalsJson;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+
+        BenchmarkData data = new BenchmarkData(size, 42L);
+        items = data.inventory.getAllItems();
+        members = data.memberRegistry.getAllMembers();
+        rentals = new ArrayList<>(data.rentalService.getAllRentals());
+
+        gson = adapters.equals("reflective") ? GsonConfig.createReflectiveGson() : GsonConfig.createGson();
+
+        itemsJson = gson.toJson(items, ITEM_LIST);
+        membersJson = gson.toJson(members, MEMBER_LIST);
+        rentalsJson = gson.toJson(rentals, RENTAL_LIST);
+    }
+
+    @Benchmark
+    public String itemsToJson() {
+        return gson.toJson(items, ITEM_LIST);
+    }
+
+    @Benchmark
+    public List<Item> itemsFromJson() {
+        return gson.fromJson(itemsJson, ITEM_LIST);
+    }
+
+    @Benchmark
+    public String membersToJson() {
+        return gson.toJson(members, MEMBER_LIST);
+    }
+
+    @Benchmark
+    public List<Member> membersFromJson() {
+        return gson.fromJson(membersJson, MEMBER_LIST);
+    }
+
+    @Benchmark
+    public String rentalsToJson() {
+        return gson.toJson(rentals, RENTAL_LIST);
+    }
+
+    @Benchmark
+    public List<Rental> rentalsFromJson() {
+        return gson.fromJson(rentalsJson, RENTAL_LIST);
+    }
+}
@@ -0,0 +1,115 @@
+package org.example.memberclubjavafx_assignment5.benchmarks;
+
+import org.example.memberclubjavafx_assignment5.model.Item;
+import org.example.memberclubjavafx_assignment5.model.Member;
+import org.example.memberclubjavafx_assignment5.model.Rental;
+import org.example.memberclubjavafx_assignment5.model.User;
+import org.example.memberclubjavafx_assignment5.service.StorageService;
+import org.example.memberclubjavafx_assignment5.system.IoExecutor;
+import org.openjdk.jmh.annotations.*;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Compares reading and writing the four JSON files one after another (how ClubSystem did it before)
+ * with reading and writing them at the same time in an IoExecutor scope (how ClubSystem does it now).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx4g"})
+public class ParallelIoBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    private Path folder;
+    private StorageService storageService;
+    private IoExecutor ioExecutor;
+
+    private List<User> users;
+    private List<Item> items;
+    private List<Member> members;
+    private List<Rental> rentals;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+
+        BenchmarkData data = new BenchmarkData(size, 42L);
+        users = new ArrayList<>(List.of(new User("bench", "0000", "Bench", "Mark")));
+        items = data.inventory.getAllItems();
+        members = data.memberRegistry.getAllMembers();
+        rentals = new ArrayList<>(data.rentalService.getAllRentals());
+
+        folder = Files.createTempDirectory("memberclub-bench");
+        storageService = new StorageService(folder.toString() + "/");
+        ioExecutor = new IoExecutor();
+
+        // Write the files once so the load benchmarks have something to read
+        saveSequential();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+
+        ioExecutor.shutdown();
+
+        try (Stream<Path> files = Files.walk(folder)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public void saveSequential() {
+        storageService.saveUsers(users);
+        storageService.saveItems(items);
+        storageService.saveMembers(members);
+        storageService.saveRentals(rentals);
+    }
+
+    @Benchmark
+    public void saveParallel() {
+
+        try (IoExecutor.Scope scope = ioExecutor.openScope("bench.save")) {
+
+            scope.fork(() -> { storageService.saveUsers(users); return null; });
+            scope.fork(() -> { storageService.saveItems(items); return null; });
+            scope.fork(() -> { storageService.saveMembers(members); return null; });
+            scope.fork(() -> { storageService.saveRentals(rentals); return null; });
+
+            scope.joinUninterruptibly();
+        }
+    }
+
+    @Benchmark
+    public int loadSequential() {
+        return storageService.loadUsers().size()
+                + storageService.loadItems().size()
+                + storageService.loadMembers().size()
+                + storageService.loadRentals().size();
+    }
+
+    @Benchmark
+    public int loadParallel() throws InterruptedException {
+
+        try (IoExecutor.Scope scope = ioExecutor.openScope("bench.load")) {
+
+            IoExecutor.Subtask<List<User>> loadedUsers = scope.fork(storageService::loadUsers);
+            IoExecutor.Subtask<List<Item>> loadedItems = scope.fork(storageService::loadItems);
+            IoExecutor.Subtask<List<Member>> loadedMembers = scope.fork(storageService::loadMembers);
+            IoExecutor.Subtask<List<Rental>> loadedRentals = scope.fork(storageService::loadRentals);
+
+            scope.join();
+
+            return loadedUsers.get().size() + loadedItems.get().size() + loadedMembers.get().size() + loadedRentals.get().size();
+        }
+    }
+}
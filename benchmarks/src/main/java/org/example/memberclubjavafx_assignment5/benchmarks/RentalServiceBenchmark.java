@@ -0,0 +1,94 @@
+package org.example.memberclubjavafx_assignment5.benchmarks;
+
+import org.example.memberclubjavafx_assignment5.model.Item;
+import org.example.memberclubjavafx_assignment5.model.Member;
+import org.example.memberclubjavafx_assignment5.model.Rental;
+import org.example.memberclubjavafx_assignment5.model.enums.RentalPeriod;
+import org.openjdk.jmh.annotations.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the rental service and the lookups the views use the most.
+ * Run with for example: java -jar target/benchmarks.jar RentalServiceBenchmark -rf json
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx4g"})
+public class RentalServiceBenchmark {
+
+    // Number of items and rentals in the data set
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    private BenchmarkData data;
+
+    // A copy of the rentals from the start, so every iteration starts with the same list
+    private List<Rental> originalRentals;
+
+    // Rental ids to look up, picked once so the lookups are the same every run
+    private String[] lookupIds;
+    private int lookupIndex;
+
+    // An item that is free to rent (only every tenth rental is active, so item 1 is free)
+    private String freeItemId;
+    private int memberId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+
+        data = new BenchmarkData(size, 42L);
+        originalRentals = new ArrayList<>(data.rentalService.getAllRentals());
+
+        Random random = new Random(7L);
+        lookupIds = new String[1024];
+
+        for (int i = 0; i < lookupIds.length; i++) {
+            lookupIds[i] = BenchmarkData.rentalId(random.nextInt(data.rentalCount));
+        }
+
+        freeItemId = data.freeItemId;
+        memberId = BenchmarkData.memberId(0);
+    }
+
+    // rentAndReturn adds one rental per call, so we go back to the original list before each iteration
+    @Setup(Level.Iteration)
+    public void resetRentals() {
+        data.rentalService.setRentals(originalRentals);
+    }
+
+    @Benchmark
+    public Rental rentAndReturn() {
+
+        // rentItem and returnItem are measured together, otherwise the free items would run out
+        Rental rental = data.rentalService.rentItem(memberId, freeItemId, 2, RentalPeriod.DAILY);
+        data.rentalService.returnItem(rental.getRentalId());
+        return rental;
+    }
+
+    @Benchmark
+    public Rental getRental() {
+        String id = lookupIds[lookupIndex++ & (lookupIds.length - 1)];
+        return data.rentalService.getRental(id);
+    }
+
+    @Benchmark
+    public List<Rental> getActiveRentals() {
+        return data.rentalService.getActiveRentals();
+    }
+
+    @Benchmark
+    public List<Item> getAllItems() {
+        return data.inventory.getAllItems();
+    }
+
+    @Benchmark
+    public List<Member> searchMemberByName() {
+        return data.membershipService.searchMemberByName("an");
+    }
+}
@@ -0,0 +1,129 @@
+package org.example.memberclubjavafx_assignment5.benchmarks;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import org.example.memberclubjavafx_assignment5.model.Item;
+import org.example.memberclubjavafx_assignment5.model.Member;
+import org.example.memberclubjavafx_assignment5.model.Rental;
+import org.example.memberclubjavafx_assignment5.service.GsonConfig;
+import org.example.memberclubjavafx_assignment5.service.StorageService;
+import org.openjdk.jmh.annotations.*;
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Measures saving and loading the JSON files, and Gson on its own (without the disk).
+ * The files are written to a temporary folder, never to the real 'data/' folder.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx4g"})
+public class StorageBenchmark {
+
+    private static final Type ITEM_LIST = new TypeToken<ArrayList<Item>>(){}.getType();
+    private static final Type RENTAL_LIST = new TypeToken<ArrayList<Rental>>(){}.getType();
+
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    private Path folder;
+    private StorageService storageService;
+    private Gson gson;
+
+    private List<Item> items;
+    private List<Member> members;
+    private List<Rental> rentals;
+
+    // Ready made JSON text for the 'fromJson' benchmarks
+    private String itemsJson;
+    private String rentalsJson;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+
+        BenchmarkData data = new BenchmarkData(size, 42L);
+        items = data.inventory.getAllItems();
+        members = data.memberRegistry.getAllMembers();
+        rentals = new ArrayList<>(data.rentalService.getAllRentals());
+
+        folder = Files.createTempDirectory("memberclub-bench");
+        storageService = new StorageService(folder.toString() + "/");
+        gson = GsonConfig.createGson();
+
+        // Write the files once so the load benchmarks have something to read
+        storageService.saveItems(items);
+        storageService.saveMembers(members);
+        storageService.saveRentals(rentals);
+
+        itemsJson = gson.toJson(items, ITEM_LIST);
+        rentalsJson = gson.toJson(rentals, RENTAL_LIST);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+
+        try (Stream<Path> files = Files.walk(folder)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public void saveItems() {
+        storageService.saveItems(items);
+    }
+
+    @Benchmark
+    public List<Item> loadItems() {
+        return storageService.loadItems();
+    }
+
+    @Benchmark
+    public void saveMembers() {
+        storageService.saveMembers(members);
+    }
+
+    @Benchmark
+    public List<Member> loadMembers() {
+        return storageService.loadMembers();
+    }
+
+    @Benchmark
+    public void saveRentals() {
+        storageService.saveRentals(rentals);
+    }
+
+    @Benchmark
+    public List<Rental> loadRentals() {
+        return storageService.loadRentals();
+    }
+
+    @Benchmark
+    public String gsonItemsToJson() {
+        return gson.toJson(items, ITEM_LIST);
+    }
+
+    @Benchmark
+    public List<Item> gsonItemsFromJson() {
+        return gson.fromJson(itemsJson, ITEM_LIST);
+    }
+
+    @Benchmark
+    public String gsonRentalsToJson() {
+        return gson.toJson(rentals, RENTAL_LIST);
+    }
+
+    @Benchmark
+    public List<Rental> gsonRentalsFromJson() {
+        return gson.fromJson(rentalsJson, RENTAL_LIST);
+    }
+}
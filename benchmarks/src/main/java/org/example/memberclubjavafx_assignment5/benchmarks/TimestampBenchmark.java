@@ -0,0 +1,132 @@
+package org.example.memberclubjavafx_assignment5.benchmarks;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import org.example.memberclubjavafx_assignment5.service.TimestampCodec;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares writing and reading 1000 dates the old way (DateTimeFormatter, what LocalDateTimeAdapter did)
+ * with TimestampCodec, both as ISO text and as epoch seconds.
+ * Run with '-prof gc' to also see the bytes allocated per call.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class TimestampBenchmark {
+
+    private static final int COUNT = 1000;
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
+
+    private final TimestampCodec isoCodec = new TimestampCodec(TimestampCodec.Encoding.ISO);
+    private final TimestampCodec epochCodec = new TimestampCodec(TimestampCodec.Encoding.EPOCH_SECONDS);
+
+    private LocalDateTime[] dates;
+    private String[] isoTexts;
+    private String isoJson;
+    private String epochJson;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+
+        // Whole minutes like the generated data, and every fourth date with fractions like LocalDateTime.now()
+        Random random = new Random(42L);
+        dates = new LocalDateTime[COUNT];
+        isoTexts = new String[COUNT];
+
+        for (int i = 0; i < COUNT; i++) {
+            LocalDateTime date = BenchmarkData.BASE_TIME.minusMinutes(random.nextInt(2_000_000));
+            dates[i] = i % 4 == 0 ? date.withNano(random.nextInt(1_000_000_000)) : date;
+            isoTexts[i] = dates[i].format(FORMATTER);
+        }
+
+        isoJson = writeArray(isoCodec);
+        epochJson = writeArray(epochCodec);
+    }
+
+    @Benchmark
+    public void formatterFormat(Blackhole blackhole) {
+        for (LocalDateTime date : dates) {
+            blackhole.consume(date.format(FORMATTER));
+        }
+    }
+
+    @Benchmark
+    public void codecFormat(Blackhole blackhole) {
+        for (LocalDateTime date : dates) {
+            blackhole.consume(TimestampCodec.format(date));
+        }
+    }
+
+    @Benchmark
+    public void formatterParse(Blackhole blackhole) {
+        for (String text : isoTexts) {
+            blackhole.consume(LocalDateTime.parse(text, FORMATTER));
+        }
+    }
+
+    @Benchmark
+    public void codecParse(Blackhole blackhole) {
+        for (String text : isoTexts) {
+            blackhole.consume(TimestampCodec.parse(text));
+        }
+    }
+
+    @Benchmark
+    public String writeIsoJson() throws IOException {
+        return writeArray(isoCodec);
+    }
+
+    @Benchmark
+    public String writeEpochJson() throws IOException {
+        return writeArray(epochCodec);
+    }
+
+    @Benchmark
+    public void readIsoJson(Blackhole blackhole) throws IOException {
+        readArray(isoJson, blackhole);
+    }
+
+    @Benchmark
+    public void readEpochJson(Blackhole blackhole) throws IOException {
+        readArray(epochJson, blackhole);
+    }
+
+    // Writes all dates as a JSON array with a codec
+    private String writeArray(TimestampCodec codec) throws IOException {
+
+        StringWriter text = new StringWriter();
+
+        try (JsonWriter out = new JsonWriter(text)) {
+            out.beginArray();
+            for (LocalDateTime date : dates) {
+                codec.write(out, date);
+            }
+            out.endArray();
+        }
+        return text.toString();
+    }
+
+    // Reads a JSON array of dates (the codec reads both ways, so either codec would do)
+    private void readArray(String json, Blackhole blackhole) throws IOException {
+
+        try (JsonReader in = new JsonReader(new StringReader(json))) {
+            in.beginArray();
+            while (in.hasNext()) {
+                blackhole.consume(isoCodec.read(in));
+            }
+            in.endArray();
+        }
+    }
+}
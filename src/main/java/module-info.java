@@ -9,15 +9,25 @@ module org.example.memberclubjavafx_assignment5 {
     requires com.google.gson;
     requires java.sql;
     requires java.desktop;
+    requires java.management;
+    requires jdk.jfr;
+    requires jdk.httpserver;
+    requires java.net.http;
     requires gson.extras;
     requires org.kordamp.ikonli.core;
 
     opens org.example.memberclubjavafx_assignment5 to javafx.fxml;
     exports org.example.memberclubjavafx_assignment5;
 
+    // The metric classes are read by the JMX server
+    exports org.example.memberclubjavafx_assignment5.diagnostics;
+
     opens org.example.memberclubjavafx_assignment5.model to com.google.gson, javafx.base;
     opens org.example.memberclubjavafx_assignment5.model.camping to com.google.gson;
     opens org.example.memberclubjavafx_assignment5.model.fishing to com.google.gson;
     opens org.example.memberclubjavafx_assignment5.model.vehicles to com.google.gson;
     opens org.example.memberclubjavafx_assignment5.model.enums to com.google.gson;
+
+    // The server messages are records that Gson reads and writes
+    opens org.example.memberclubjavafx_assignment5.server to com.google.gson;
 }
\ No newline at end of file
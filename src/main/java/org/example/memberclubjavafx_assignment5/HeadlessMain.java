@@ -0,0 +1,427 @@
+package org.example.memberclubjavafx_assignment5;
+
+import org.example.memberclubjavafx_assignment5.exceptions.DataDirectoryLockedException;
+import org.example.memberclubjavafx_assignment5.model.Item;
+import org.example.memberclubjavafx_assignment5.model.Member;
+import org.example.memberclubjavafx_assignment5.model.Money;
+import org.example.memberclubjavafx_assignment5.model.Rental;
+import org.example.memberclubjavafx_assignment5.model.enums.ItemType;
+import org.example.memberclubjavafx_assignment5.model.enums.RentalPeriod;
+import org.example.memberclubjavafx_assignment5.model.enums.RentalStatus;
+import org.example.memberclubjavafx_assignment5.server.ClubClient;
+import org.example.memberclubjavafx_assignment5.server.ClubServer;
+import org.example.memberclubjavafx_assignment5.service.AvailabilityForecast;
+import org.example.memberclubjavafx_assignment5.service.IntegrityChecker;
+import org.example.memberclubjavafx_assignment5.service.RentalColumnStore;
+import org.example.memberclubjavafx_assignment5.service.RentalIdCsv;
+import org.example.memberclubjavafx_assignment5.service.ReturnOutcome;
+import org.example.memberclubjavafx_assignment5.service.StorageService;
+import org.example.memberclubjavafx_assignment5.system.ClubSystem;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Starts the club system without a window, for batch jobs, imports and servers.
+ * It only uses the core packages (model, service, pricing, system), so it runs without JavaFX.
+ *
+ * Usage: HeadlessMain [--data folder | --server url] command [arguments]
+ * Commands: stats, overdue, check, forecast [type], follow, rent memberId itemId days, return rentalId... (or --csv file), import folder, serve [port]
+ *
+ * With --server the commands stats, rent and return are sent to a running server (see "serve") instead of using a data folder.
+ */
+public class HeadlessMain {
+
+    /**
+     * The entry point.
+     * @param args the command line arguments
+     */
+    public static void main(String[] args) {
+
+        String dataFolder = "data/";
+        String serverUrl = null;
+
+        // Optional data folder or server before the command
+        if (args.length >= 2 && args[0].equals("--data")) {
+            dataFolder = args[1].endsWith("/") ? args[1] : args[1] + "/";
+            args = Arrays.copyOfRange(args, 2, args.length);
+
+        } else if (args.length >= 2 && args[0].equals("--server")) {
+            serverUrl = args[1];
+            args = Arrays.copyOfRange(args, 2, args.length);
+        }
+
+        if (args.length == 0) {
+            printUsage();
+            return;
+        }
+
+        if (serverUrl != null) {
+            runRemote(serverUrl, args);
+            return;
+        }
+
+        // Commands that only read open the folder read-only, so they also work while a desk has it open
+        boolean readOnly = args[0].equals("stats") || args[0].equals("overdue") || args[0].equals("check") || args[0].equals("forecast")
+                || args[0].equals("follow");
+
+        long loadStart = System.nanoTime();
+        ClubSystem system;
+
+        try {
+            system = new ClubSystem(dataFolder, readOnly ? StorageService.AccessMode.READ_ONLY : StorageService.AccessMode.PRIMARY);
+
+        } catch (DataDirectoryLockedException exception) {
+            System.err.println("Fel: " + exception.getMessage());
+            System.exit(1);
+            return;
+        }
+        long loadMillis = (System.nanoTime() - loadStart) / 1_000_000;
+
+        try {
+
+            switch (args[0]) {
+                case "stats" -> printStats(system, loadMillis);
+                case "overdue" -> printOverdue(system);
+                case "check" -> printIntegrity(system);
+                case "forecast" -> printForecast(system, args);
+                case "rent" -> rent(system, args);
+                case "return" -> returnRental(system, args);
+                case "import" -> importFolder(system, args);
+                case "follow" -> {
+                    // Runs until the program is stopped (Ctrl+C), there is nothing to save
+                    follow(system);
+                    return;
+                }
+                case "serve" -> {
+                    // The server saves and stops everything itself when the program is stopped
+                    serve(system, args);
+                    return;
+                }
+                default -> {
+                    System.err.println("Okänt kommando: " + args[0]);
+                    printUsage();
+                }
+            }
+
+        } catch (RuntimeException exception) {
+            System.err.println("Fel: " + exception.getMessage());
+            system.stopBackgroundTasks();
+            System.exit(1);
+        }
+
+        // Commands that change something save on the way out, the others leave the files alone
+        if (args[0].equals("rent") || args[0].equals("return") || args[0].equals("import")) {
+            system.shutdown();
+        } else {
+            system.stopBackgroundTasks();
+        }
+    }
+
+    // Prints how to use the launcher
+    private static void printUsage() {
+        System.out.println("Användning: HeadlessMain [--data mapp | --server adress] kommando");
+        System.out.println("  stats                          Visar antal, intäkter, starttid och minne");
+        System.out.println("  overdue                        Listar försenade uthyrningar");
+        System.out.println("  check                          Kontrollerar att artiklar, medlemmar och uthyrningar stämmer överens");
+        System.out.println("  forecast [typ]                 Visar när uthyrda artiklar väntas tillbaka, t.ex. forecast KAYAK");
+        System.out.println("  follow                         Följer datamappen skrivskyddat och visar siffrorna när en kassa sparar");
+        System.out.println("  rent medlemsId artikelId dagar Hyr ut en artikel");
+        System.out.println("  return uthyrningsId ...        Lämnar tillbaka en eller flera uthyrningar");
+        System.out.println("  return --csv fil               Lämnar tillbaka uthyrningarna i en CSV-fil (ID i första kolumnen)");
+        System.out.println("  import mapp                    Lägger till artiklar, medlemmar och uthyrningar från en annan datamapp");
+        System.out.println("  serve [port]                   Startar servern för flera kassor (standard " + ClubServer.DEFAULT_PORT + "), stoppas med Ctrl+C");
+        System.out.println("Med --server http://localhost:" + ClubServer.DEFAULT_PORT + " skickas stats, rent och return till en server");
+    }
+
+    // follow: prints the numbers again every time the program that writes to the folder saves
+    private static void follow(ClubSystem system) {
+
+        CountDownLatch stopped = new CountDownLatch(1);
+
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            system.stopBackgroundTasks();
+            stopped.countDown();
+        }, "Follow-Shutdown"));
+
+        // One line for each kind of object that changed
+        system.addDataChangeListener(change -> System.out.println(LocalDateTime.now().withNano(0) + "  "
+                + change.type().getSimpleName() + ": " + change.added().size() + " nya, "
+                + change.updated().size() + " ändrade, " + change.removed().size() + " borttagna"));
+
+        // There is no window thread here, so the changes are applied right on the watcher thread, then the numbers are printed
+        system.startWatching(apply -> {
+            apply.run();
+            printStats(system, -1);
+            System.out.println();
+        });
+
+        System.out.println("Följer datamappen skrivskyddat, avsluta med Ctrl+C");
+
+        try {
+            stopped.await();
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // serve [port]: runs the server until the program is stopped (Ctrl+C), the data is saved on the way out
+    private static void serve(ClubSystem system, String[] args) {
+
+        int port = args.length >= 2 ? Integer.parseInt(args[1]) : ClubServer.DEFAULT_PORT;
+        ClubServer server;
+
+        try {
+            server = new ClubServer(system, port);
+        } catch (IOException exception) {
+            throw new IllegalStateException("Kunde inte starta servern på port " + port + ": " + exception.getMessage(), exception);
+        }
+
+        CountDownLatch stopped = new CountDownLatch(1);
+
+        // Ctrl+C runs the shutdown hooks. The program ends when the hooks are done, so the last save has to happen in here.
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.stop();
+            system.shutdown();
+            stopped.countDown();
+        }, "Server-Shutdown"));
+
+        server.start();
+
+        try {
+            stopped.await();
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // The commands that can be sent to a server with --server
+    private static void runRemote(String serverUrl, String[] args) {
+
+        try (ClubClient client = new ClubClient(serverUrl)) {
+
+            switch (args[0]) {
+
+                case "stats" -> {
+                    ClubServer.Stats stats = client.getStats();
+                    System.out.println("Artiklar:         " + stats.items());
+                    System.out.println("Medlemmar:        " + stats.members());
+                    System.out.println("Uthyrningar:      " + stats.rentals());
+                    System.out.println("Aktiva:           " + stats.activeRentals());
+                    System.out.println("Försenade:        " + stats.overdueRentals());
+                    System.out.println("Total intäkt:     " + Money.format(stats.totalRevenueOre()) + " SEK");
+                }
+
+                case "rent" -> {
+                    if (args.length < 4) {
+                        throw new IllegalArgumentException("rent behöver medlemsId, artikelId och antal dagar");
+                    }
+
+                    Rental rental = client.rentItem(Integer.parseInt(args[1]), args[2], Integer.parseInt(args[3]), RentalPeriod.DAILY);
+                    System.out.println("Skapade " + rental.getRentalId() + " (" + Money.format(rental.getTotalCostOre()) + " SEK)");
+                }
+
+                case "return" -> {
+                    if (args.length < 2) {
+                        throw new IllegalArgumentException("return behöver ett uthyrnings-ID");
+                    }
+
+                    client.returnItem(args[1]);
+                    System.out.println("Återlämnade " + args[1]);
+                }
+
+                default -> {
+                    System.err.println("Kommandot " + args[0] + " går inte att köra mot en server");
+                    printUsage();
+                }
+            }
+
+        } catch (RuntimeException exception) {
+            System.err.println("Fel: " + exception.getMessage());
+            System.exit(1);
+        }
+    }
+
+    // check: lists everything that doesn't agree. The item statuses were already put right by the load (and printed then).
+    private static void printIntegrity(ClubSystem system) {
+
+        IntegrityChecker.Report report = system.checkIntegrity();
+
+        for (IntegrityChecker.Problem problem : report.problems()) {
+            System.out.println(problem);
+        }
+        System.out.println(report.summary());
+    }
+
+    // forecast [type]: when the rented items of one type (or every type) are expected back
+    private static void printForecast(ClubSystem system, String[] args) {
+
+        ItemType[] types = args.length >= 2 ? new ItemType[]{ItemType.valueOf(args[1].toUpperCase())} : ItemType.values();
+        LocalDateTime now = LocalDateTime.now();
+
+        for (ItemType type : types) {
+
+            AvailabilityForecast.Outlook outlook = system.getAvailabilityForecast().outlook(type, now);
+            System.out.println(type + " (" + outlook.rentedOut() + " uthyrda): " + outlook.describe(type.name().toLowerCase()));
+        }
+    }
+
+    // Prints the dashboard numbers plus startup time and memory use
+    private static void printStats(ClubSystem system, long loadMillis) {
+
+        RentalColumnStore columnStore = system.getRentalService().getColumnStore();
+
+        System.out.println("Artiklar:         " + system.getInventory().getItemCount());
+        System.out.println("Medlemmar:        " + system.getMemberRegistry().getMemberCount());
+        System.out.println("Uthyrningar:      " + columnStore.size());
+        System.out.println("Aktiva:           " + columnStore.countByStatus(RentalStatus.ACTIVE));
+        System.out.println("Försenade:        " + columnStore.countOverdue(LocalDateTime.now()));
+        System.out.println("Total intäkt:     " + Money.format(columnStore.sumCost()) + " SEK");
+
+        // -1 means only the numbers (used by follow)
+        if (loadMillis < 0) {
+            return;
+        }
+
+        // The time since the JVM started includes starting Java itself, the load time is only our own files
+        long sinceStart = ProcessHandle.current().info().startInstant()
+                .map(start -> Duration.between(start, Instant.now()).toMillis())
+                .orElse(-1L);
+
+        Runtime runtime = Runtime.getRuntime();
+        long usedMegabytes = (runtime.totalMemory() - runtime.freeMemory()) / (1024 * 1024);
+
+        System.out.println("Laddningstid:     " + loadMillis + " ms");
+        System.out.println("Tid sedan start:  " + sinceStart + " ms");
+        System.out.println("Minne (heap):     " + usedMegabytes + " MB");
+    }
+
+    // Lists all active rentals that should have been returned
+    private static void printOverdue(ClubSystem system) {
+
+        int count = 0;
+
+        for (Rental rental : system.getRentalService().getActiveRentals()) {
+
+            if (rental.isLate()) {
+                System.out.println(rental.getRentalId() + "  medlem " + rental.getMemberId() + "  " + rental.getItemId()
+                        + "  " + rental.getHoursLate() + " h sen");
+                count++;
+            }
+        }
+        System.out.println(count + " försenade uthyrningar");
+    }
+
+    // rent memberId itemId days
+    private static void rent(ClubSystem system, String[] args) {
+
+        if (args.length < 4) {
+            throw new IllegalArgumentException("rent behöver medlemsId, artikelId och antal dagar");
+        }
+
+        Rental rental = system.getRentalService().rentItem(Integer.parseInt(args[1]), args[2], Integer.parseInt(args[3]), RentalPeriod.DAILY);
+        System.out.println("Skapade " + rental.getRentalId() + " (" + Money.format(rental.getTotalCostOre()) + " SEK)");
+    }
+
+    // return rentalId
+    // return rentalId [rentalId ...] or return --csv file: returns them all and prints what happened to each one
+    private static void returnRental(ClubSystem system, String[] args) {
+
+        if (args.length < 2) {
+            throw new IllegalArgumentException("return behöver ett uthyrnings-ID");
+        }
+
+        List<String> rentalIds;
+
+        if (args[1].equals("--csv")) {
+
+            if (args.length < 3) {
+                throw new IllegalArgumentException("return --csv behöver en fil");
+            }
+
+            try {
+                rentalIds = RentalIdCsv.read(Path.of(args[2]));
+            } catch (IOException exception) {
+                throw new IllegalArgumentException("Kunde inte läsa " + args[2] + ": " + exception.getMessage(), exception);
+            }
+
+        } else {
+            rentalIds = Arrays.asList(args).subList(1, args.length);
+        }
+
+        List<ReturnOutcome> outcomes = system.getRentalService().returnItems(rentalIds);
+        long returned = outcomes.stream().filter(ReturnOutcome::isReturned).count();
+        long penalties = outcomes.stream().mapToLong(ReturnOutcome::penaltyOre).sum();
+
+        for (ReturnOutcome outcome : outcomes) {
+            System.out.println(outcome);
+        }
+        System.out.println("Återlämnade " + returned + " av " + outcomes.size() + ", förseningsavgifter " + Money.format(penalties) + " SEK");
+    }
+
+    // import folder: adds everything from another data folder that we don't already have
+    private static void importFolder(ClubSystem system, String[] args) {
+
+        if (args.length < 2) {
+            throw new IllegalArgumentException("import behöver en mapp");
+        }
+
+        String folder = args[1].endsWith("/") ? args[1] : args[1] + "/";
+        StorageService source = new StorageService(folder);
+
+        int items = 0;
+        int members = 0;
+        int rentals = 0;
+
+        for (Item item : source.loadItems()) {
+
+            if (system.getInventory().getItem(item.getId()) == null) {
+                system.getInventory().addItem(item);
+                system.getItemIdGenerator().registerExistingId(item.getId());
+                items++;
+            }
+        }
+
+        int maxMemberId = 0;
+
+        for (Member member : system.getMemberRegistry().getAllMembers()) {
+            maxMemberId = Math.max(maxMemberId, member.getId());
+        }
+
+        for (Member member : source.loadMembers()) {
+
+            if (system.getMemberRegistry().getMember(member.getId()) == null) {
+                system.getMemberRegistry().addMember(member);
+                maxMemberId = Math.max(maxMemberId, member.getId());
+                members++;
+            }
+        }
+
+        // New members created later must not get an imported id
+        system.getMemberIdGenerator().setNextId(maxMemberId + 1);
+
+        // A set of the ids we have, so we don't search the whole list for every imported rental
+        Set<String> knownRentalIds = new HashSet<>();
+
+        for (Rental rental : system.getRentalService().getAllRentals()) {
+            knownRentalIds.add(rental.getRentalId());
+        }
+
+        for (Rental rental : source.loadRentals()) {
+
+            if (knownRentalIds.add(rental.getRentalId())) {
+                system.getRentalService().addRental(rental);
+                rentals++;
+            }
+        }
+
+        System.out.println("Importerade " + items + " artiklar, " + members + " medlemmar och " + rentals + " uthyrningar från " + folder);
+    }
+}
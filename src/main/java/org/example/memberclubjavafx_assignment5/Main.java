@@ -2,6 +2,7 @@ package org.example.memberclubjavafx_assignment5;
 
 import atlantafx.base.theme.NordDark;
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.scene.Node;
 import javafx.scene.Scene;
 import javafx.scene.control.Control;
@@ -11,9 +12,12 @@ import javafx.scene.paint.Color;
 import javafx.scene.shape.Rectangle;
 import javafx.stage.Stage;
 import javafx.stage.StageStyle;
+import org.example.memberclubjavafx_assignment5.exceptions.DataDirectoryLockedException;
 import org.example.memberclubjavafx_assignment5.model.User;
+import org.example.memberclubjavafx_assignment5.service.StorageService;
 import org.example.memberclubjavafx_assignment5.system.ClubSystem;
 import org.example.memberclubjavafx_assignment5.view.CustomWindowFrame;
+import org.example.memberclubjavafx_assignment5.view.FxStallDetector;
 import org.example.memberclubjavafx_assignment5.view.LoginView;
 import org.example.memberclubjavafx_assignment5.view.MainLayout;
 import org.example.memberclubjavafx_assignment5.view.WindowResizeHandler;
@@ -40,6 +44,9 @@ public class Main extends Application {
     // This class makes our window look custom
     private CustomWindowFrame windowFrame;
 
+    // Watches the JavaFX thread and logs when the window freezes
+    private FxStallDetector stallDetector;
+
     /**
      * This is the very first method that runs when you start the program.
      * @param args Command line arguments, we don't really use them here.
@@ -66,11 +73,15 @@ public class Main extends Application {
         // We save the main window so we can use it later in other methods.
         this.window = primaryStage;
 
+        // Start watching the JavaFX thread first, so slow loading is caught as well
+        stallDetector = new FxStallDetector();
+        stallDetector.start();
+
         // Setup Stage and System
         window.initStyle(StageStyle.TRANSPARENT);
 
         // Create the main system object that manages all data
-        system = new ClubSystem();
+        system = openSystem();
 
         // Set the default theme for our application
         Application.setUserAgentStylesheet(new NordDark().getUserAgentStylesheet());
@@ -114,6 +125,32 @@ public class Main extends Application {
         resizeHandler.initializePositions();
     }
 
+    /**
+     * Opens the data folder for writing. If another desk already has it open, we open it read-only instead
+     * and follow what that desk saves, so this window can still show live data without overwriting anything.
+     * Either way we watch the folder, so changes from the other desk (or a hand-edited file) show up by themselves.
+     */
+    private ClubSystem openSystem() {
+
+        ClubSystem openedSystem;
+
+        try {
+            openedSystem = new ClubSystem();
+
+        } catch (DataDirectoryLockedException exception) {
+
+            System.out.println(exception.getMessage() + ". Startar skrivskyddat.");
+            openedSystem = new ClubSystem("data/", StorageService.AccessMode.READ_ONLY);
+        }
+
+        // The changes must be put in the lists on the JavaFX thread, since the tables show the same lists
+        openedSystem.startWatching(Platform::runLater);
+        openedSystem.addDataChangeListener(change -> System.out.println("Läste in ändringar i datamappen: "
+                + change.size() + " st " + change.type().getSimpleName()));
+
+        return openedSystem;
+    }
+
     /**
      * This method is called just before the application closes.
      */
@@ -122,6 +159,8 @@ public class Main extends Application {
 
         // If the system 'exists', tell it to save data and shut down
         if (system != null) system.shutdown();
+
+        if (stallDetector != null) stallDetector.stop();
     }
 
     /**
@@ -0,0 +1,19 @@
+package org.example.memberclubjavafx_assignment5.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Java Flight Recorder event for one autosave tick. The event duration is how long the save took.
+ */
+@Name("org.example.memberclub.Autosave")
+@Label("Autosave")
+@Category({"Member Club", "Persistence"})
+@Description("The autosave timer saved all data")
+public class AutosaveEvent extends jdk.jfr.Event {
+
+    @Label("Succeeded")
+    public boolean succeeded;
+}
@@ -0,0 +1,48 @@
+package org.example.memberclubjavafx_assignment5.diagnostics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A number that only goes up, for example how many saves failed.
+ * It uses a LongAdder, so many threads can count at the same time without waiting for each other.
+ */
+public class Counter implements Metric, CounterMXBean {
+
+    private final String name;
+    private final LongAdder count;
+
+    Counter(String name) {
+        this.name = name;
+        this.count = new LongAdder();
+    }
+
+    /**
+     * Adds one.
+     */
+    public void increment() {
+        count.increment();
+    }
+
+    /**
+     * Adds a number.
+     * @param amount how much to add
+     */
+    public void add(long amount) {
+        count.add(amount);
+    }
+
+    @Override
+    public long getCount() {
+        return count.sum();
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public String getKind() {
+        return "Räknare";
+    }
+}
@@ -0,0 +1,9 @@
+package org.example.memberclubjavafx_assignment5.diagnostics;
+
+/**
+ * What a Counter shows in JMX tools like JConsole or VisualVM.
+ */
+public interface CounterMXBean {
+
+    long getCount();
+}
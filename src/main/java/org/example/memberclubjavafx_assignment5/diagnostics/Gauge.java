@@ -0,0 +1,46 @@
+package org.example.memberclubjavafx_assignment5.diagnostics;
+
+import java.util.function.LongSupplier;
+
+/**
+ * A number that is read when someone asks for it, for example how many rentals are active right now.
+ * Nothing is stored, the supplier is called every time.
+ */
+public class Gauge implements Metric, GaugeMXBean {
+
+    private final String name;
+
+    // Volatile because a new ClubSystem can replace the supplier while another thread reads it
+    private volatile LongSupplier supplier;
+
+    Gauge(String name, LongSupplier supplier) {
+        this.name = name;
+        this.supplier = supplier;
+    }
+
+    // Used by the registry when the same gauge is registered again
+    void setSupplier(LongSupplier supplier) {
+        this.supplier = supplier;
+    }
+
+    @Override
+    public long getValue() {
+
+        // A gauge must never break the screen or JMX, so errors just give -1
+        try {
+            return supplier.getAsLong();
+        } catch (RuntimeException exception) {
+            return -1;
+        }
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public String getKind() {
+        return "Mätare";
+    }
+}
@@ -0,0 +1,9 @@
+package org.example.memberclubjavafx_assignment5.diagnostics;
+
+/**
+ * What a Gauge shows in JMX tools like JConsole or VisualVM.
+ */
+public interface GaugeMXBean {
+
+    long getValue();
+}
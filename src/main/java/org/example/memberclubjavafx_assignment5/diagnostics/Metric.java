@@ -0,0 +1,17 @@
+package org.example.memberclubjavafx_assignment5.diagnostics;
+
+/**
+ * Something the MetricsRegistry keeps track of: a counter, a gauge or a timer.
+ */
+public interface Metric {
+
+    /**
+     * Returns the name, for example "rental.rent".
+     */
+    String getName();
+
+    /**
+     * Returns the kind of metric, shown in the diagnostics screen ("Räknare", "Mätare" or "Timer").
+     */
+    String getKind();
+}
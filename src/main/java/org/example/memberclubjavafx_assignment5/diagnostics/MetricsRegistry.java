@@ -0,0 +1,117 @@
+package org.example.memberclubjavafx_assignment5.diagnostics;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Keeps all counters, gauges and timers of the program in one place.
+ * Services ask for a metric by name (the same name always gives the same object) and update it while they work.
+ * Every metric is also published as a JMX MBean under "org.example.memberclub", so JConsole or VisualVM can read it,
+ * and the diagnostics screen lists them all.
+ *
+ * Start the program with -Dmemberclub.metrics=false to turn off the timers.
+ */
+public final class MetricsRegistry {
+
+    // The JMX domain all our MBeans are registered under
+    public static final String JMX_DOMAIN = "org.example.memberclub";
+
+    // Read once at startup, so checking it costs nothing
+    private static final boolean ENABLED = !"false".equalsIgnoreCase(System.getProperty("memberclub.metrics"));
+
+    // All metrics by name. ConcurrentHashMap so services on different threads can register at the same time.
+    private static final Map<String, Metric> METRICS = new ConcurrentHashMap<>();
+
+    private MetricsRegistry() {
+    }
+
+    /**
+     * Returns the counter with the given name, and creates it the first time.
+     * @param name for example "storage.errors"
+     * @return the counter
+     */
+    public static Counter counter(String name) {
+        return get(name, Counter.class, () -> new Counter(name), "Counter");
+    }
+
+    /**
+     * Returns the timer with the given name, and creates it the first time.
+     * @param name for example "rental.rent"
+     * @return the timer
+     */
+    public static Timer timer(String name) {
+        return get(name, Timer.class, () -> new Timer(name), "Timer");
+    }
+
+    /**
+     * Registers a gauge. If a gauge with the same name exists, it starts reading from the new supplier instead
+     * (for example when a new ClubSystem is created).
+     * @param name for example "rentals.active"
+     * @param supplier called every time someone reads the value
+     * @return the gauge
+     */
+    public static Gauge gauge(String name, LongSupplier supplier) {
+
+        Gauge gauge = get(name, Gauge.class, () -> new Gauge(name, supplier), "Gauge");
+        gauge.setSupplier(supplier);
+
+        return gauge;
+    }
+
+    /**
+     * Returns all metrics sorted by name.
+     */
+    public static List<Metric> getMetrics() {
+
+        List<Metric> metrics = new ArrayList<>(METRICS.values());
+        metrics.sort(Comparator.comparing(Metric::getName));
+
+        return metrics;
+    }
+
+    /**
+     * Checks if the timers are turned on.
+     */
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    // Finds or creates a metric and checks that it is of the expected kind
+    private static <T extends Metric> T get(String name, Class<T> kind, Supplier<T> factory, String jmxType) {
+
+        Metric metric = METRICS.computeIfAbsent(name, key -> {
+            T created = factory.get();
+            registerMBean(created, jmxType);
+            return created;
+        });
+
+        if (!kind.isInstance(metric)) {
+            throw new IllegalArgumentException("Måttet '" + name + "' finns redan som " + metric.getKind());
+        }
+        return kind.cast(metric);
+    }
+
+    // Publishes a metric in JMX. If it doesn't work (for example a name clash), the metric still works inside the program.
+    private static void registerMBean(Metric metric, String jmxType) {
+
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = new ObjectName(JMX_DOMAIN + ":type=" + jmxType + ",name=" + ObjectName.quote(metric.getName()));
+
+            if (!server.isRegistered(objectName)) {
+                server.registerMBean(metric, objectName);
+            }
+
+        } catch (Exception exception) {
+            System.err.println("Kunde inte registrera " + metric.getName() + " i JMX: " + exception.getMessage());
+        }
+    }
+}
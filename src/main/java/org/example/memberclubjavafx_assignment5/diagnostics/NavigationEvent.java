@@ -0,0 +1,19 @@
+package org.example.memberclubjavafx_assignment5.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Java Flight Recorder event for switching screens. The event duration is how long it took to build the new screen.
+ */
+@Name("org.example.memberclub.Navigation")
+@Label("Navigation")
+@Category({"Member Club", "User Interface"})
+@Description("The user opened a screen from the sidebar")
+public class NavigationEvent extends jdk.jfr.Event {
+
+    @Label("View")
+    public String view;
+}
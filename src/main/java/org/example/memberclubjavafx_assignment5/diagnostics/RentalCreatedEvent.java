@@ -0,0 +1,45 @@
+package org.example.memberclubjavafx_assignment5.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Java Flight Recorder event for a new rental. The event duration is how long rentItem took.
+ */
+@Name("org.example.memberclub.RentalCreated")
+@Label("Rental Created")
+@Category({"Member Club", "Rentals"})
+@Description("A rental was created (or failed to be created)")
+public class RentalCreatedEvent extends jdk.jfr.Event {
+
+    @Label("Rental Id")
+    public String rentalId;
+
+    @Label("Member Id")
+    public int memberId;
+
+    @Label("Item Id")
+    public String itemId;
+
+    @Label("Item Type")
+    public String itemType;
+
+    @Label("Booked Duration")
+    @Description("Hours or days, see Period")
+    public int bookedDuration;
+
+    @Label("Period")
+    public String period;
+
+    @Label("Bundle Size")
+    public int bundleSize;
+
+    @Label("Cost (öre)")
+    public long costOre;
+
+    @Label("Error")
+    @Description("The exception class if the rental failed, otherwise empty")
+    public String error;
+}
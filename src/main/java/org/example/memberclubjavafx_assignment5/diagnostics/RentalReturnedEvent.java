@@ -0,0 +1,36 @@
+package org.example.memberclubjavafx_assignment5.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Java Flight Recorder event for a returned rental. The event duration is how long returnItem took.
+ */
+@Name("org.example.memberclub.RentalReturned")
+@Label("Rental Returned")
+@Category({"Member Club", "Rentals"})
+@Description("A rental was returned (or failed to be returned)")
+public class RentalReturnedEvent extends jdk.jfr.Event {
+
+    @Label("Rental Id")
+    public String rentalId;
+
+    @Label("Item Id")
+    public String itemId;
+
+    @Label("Item Type")
+    public String itemType;
+
+    @Label("Rented Hours")
+    @Description("Hours from start to return")
+    public long rentedHours;
+
+    @Label("Hours Late")
+    public long hoursLate;
+
+    @Label("Error")
+    @Description("The exception class if the return failed, otherwise empty")
+    public String error;
+}
@@ -0,0 +1,26 @@
+package org.example.memberclubjavafx_assignment5.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Java Flight Recorder event for a search or table filter. The event duration is how long the search took.
+ */
+@Name("org.example.memberclub.Search")
+@Label("Search")
+@Category({"Member Club", "User Interface"})
+@Description("A member or item search was run")
+public class SearchEvent extends jdk.jfr.Event {
+
+    @Label("Source")
+    @Description("Where the search came from, for example the member table")
+    public String source;
+
+    @Label("Query")
+    public String query;
+
+    @Label("Results")
+    public int results;
+}
@@ -0,0 +1,34 @@
+package org.example.memberclubjavafx_assignment5.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Java Flight Recorder event for reading or writing one JSON file. The event duration is the time it took.
+ */
+@Name("org.example.memberclub.Storage")
+@Label("Storage")
+@Category({"Member Club", "Persistence"})
+@Description("One JSON file was read or written by StorageService")
+public class StorageEvent extends jdk.jfr.Event {
+
+    @Label("Operation")
+    @Description("READ or WRITE")
+    public String operation;
+
+    @Label("File")
+    public String file;
+
+    @Label("Size")
+    @DataAmount
+    public long bytes;
+
+    @Label("Objects")
+    public int objects;
+
+    @Label("Succeeded")
+    public boolean succeeded;
+}
@@ -0,0 +1,127 @@
+package org.example.memberclubjavafx_assignment5.diagnostics;
+
+import org.example.memberclubjavafx_assignment5.system.LatencyHistogram;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Measures how long an operation takes. It keeps the count, the mean, the max and a histogram for percentiles.
+ *
+ * Usage:
+ *     long start = System.nanoTime();
+ *     ... the work ...
+ *     timer.record(start);
+ *
+ * Recording is lock-free (a few atomic additions), so it is cheap enough to leave on all the time.
+ * The histogram uses the same buckets as LatencyHistogram, so percentiles are within about 1.6%.
+ */
+public class Timer implements Metric, TimerMXBean {
+
+    private final String name;
+
+    private final AtomicLongArray buckets;
+    private final LongAdder count;
+    private final LongAdder totalNanos;
+    private final LongAccumulator maxNanos;
+
+    Timer(String name) {
+        this.name = name;
+        this.buckets = new AtomicLongArray(LatencyHistogram.BUCKET_COUNT);
+        this.count = new LongAdder();
+        this.totalNanos = new LongAdder();
+        this.maxNanos = new LongAccumulator(Math::max, 0);
+    }
+
+    /**
+     * Records the time from {@code startNanos} until now.
+     * @param startNanos the value of System.nanoTime() when the operation started
+     */
+    public void record(long startNanos) {
+        recordNanos(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Records a duration.
+     * @param nanos how long the operation took, in nanoseconds
+     */
+    public void recordNanos(long nanos) {
+
+        if (!MetricsRegistry.isEnabled()) {
+            return;
+        }
+
+        long value = Math.max(0, nanos);
+
+        buckets.incrementAndGet(LatencyHistogram.indexOf(value));
+        count.increment();
+        totalNanos.add(value);
+        maxNanos.accumulate(value);
+    }
+
+    /**
+     * Copies the current numbers into a histogram, for percentiles.
+     * Other threads may record while we copy, so the copy can be a few values behind. That's fine for monitoring.
+     * @return a new histogram with the recorded values
+     */
+    public LatencyHistogram snapshot() {
+
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        for (int i = 0; i < buckets.length(); i++) {
+
+            long bucketCount = buckets.get(i);
+
+            if (bucketCount > 0) {
+                histogram.record(LatencyHistogram.highestValueIn(i), bucketCount);
+            }
+        }
+        return histogram;
+    }
+
+    @Override
+    public long getCount() {
+        return count.sum();
+    }
+
+    @Override
+    public double getMeanMicros() {
+        long total = count.sum();
+        return total == 0 ? 0 : totalNanos.sum() / 1000.0 / total;
+    }
+
+    @Override
+    public double getP50Micros() {
+        return percentileMicros(50);
+    }
+
+    @Override
+    public double getP99Micros() {
+        return percentileMicros(99);
+    }
+
+    @Override
+    public double getP999Micros() {
+        return percentileMicros(99.9);
+    }
+
+    @Override
+    public double getMaxMicros() {
+        return maxNanos.get() / 1000.0;
+    }
+
+    // The snapshot only knows the top of each bucket, so we never report more than the real max
+    private double percentileMicros(double percentile) {
+        return Math.min(snapshot().getValueAtPercentile(percentile), maxNanos.get()) / 1000.0;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public String getKind() {
+        return "Timer";
+    }
+}
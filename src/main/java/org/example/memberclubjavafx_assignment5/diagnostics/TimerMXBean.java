@@ -0,0 +1,19 @@
+package org.example.memberclubjavafx_assignment5.diagnostics;
+
+/**
+ * What a Timer shows in JMX tools like JConsole or VisualVM. All times are in microseconds.
+ */
+public interface TimerMXBean {
+
+    long getCount();
+
+    double getMeanMicros();
+
+    double getP50Micros();
+
+    double getP99Micros();
+
+    double getP999Micros();
+
+    double getMaxMicros();
+}
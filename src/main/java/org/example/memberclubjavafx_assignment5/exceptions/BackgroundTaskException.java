@@ -0,0 +1,17 @@
+package org.example.memberclubjavafx_assignment5.exceptions;
+
+/**
+ * Exception thrown when a task on the I/O executor fails with a checked exception.
+ * Runtime exceptions from a task are passed on as they are.
+ */
+public class BackgroundTaskException extends RuntimeException {
+
+    /**
+     * Creates a new BackgroundTaskException with a message and cause.
+     * @param message the error message
+     * @param cause the exception the task threw
+     */
+    public BackgroundTaskException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
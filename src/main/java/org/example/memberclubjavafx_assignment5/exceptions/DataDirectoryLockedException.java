@@ -0,0 +1,25 @@
+package org.example.memberclubjavafx_assignment5.exceptions;
+
+/**
+ * Exception thrown when the data folder can't be written to:
+ * either another program already has it open for writing, or this program opened it read-only.
+ */
+public class DataDirectoryLockedException extends RuntimeException {
+
+    /**
+     * Creates a new DataDirectoryLockedException with a message.
+     * @param message the error message
+     */
+    public DataDirectoryLockedException(String message) {
+        super(message);
+    }
+
+    /**
+     * Creates a new DataDirectoryLockedException with a message and cause.
+     * @param message the error message
+     * @param cause the underlying cause
+     */
+    public DataDirectoryLockedException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
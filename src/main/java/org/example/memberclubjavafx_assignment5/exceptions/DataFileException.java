@@ -0,0 +1,27 @@
+package org.example.memberclubjavafx_assignment5.exceptions;
+
+/**
+ * Exception thrown when a data file can't be read or written.
+ * On reload the file is missing for a moment, or it doesn't parse (for example after a hand edit with a typo),
+ * and the reloader then keeps what it has instead of treating the file as empty.
+ * On save the disk is full or the folder can't be written, and the save is then not counted as done.
+ */
+public class DataFileException extends RuntimeException {
+
+    /**
+     * Creates a new DataFileException with a message.
+     * @param message the error message
+     */
+    public DataFileException(String message) {
+        super(message);
+    }
+
+    /**
+     * Creates a new DataFileException with a message and cause.
+     * @param message the error message
+     * @param cause the underlying cause
+     */
+    public DataFileException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
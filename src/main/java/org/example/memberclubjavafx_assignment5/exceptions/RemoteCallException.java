@@ -0,0 +1,24 @@
+package org.example.memberclubjavafx_assignment5.exceptions;
+
+/**
+ * Exception thrown when a call to the club server fails (the server can't be reached or answers with an unknown error).
+ */
+public class RemoteCallException extends RuntimeException {
+
+    /**
+     * Creates a new RemoteCallException with a message.
+     * @param message the error message
+     */
+    public RemoteCallException(String message) {
+        super(message);
+    }
+
+    /**
+     * Creates a new RemoteCallException with a message and cause.
+     * @param message the error message
+     * @param cause the underlying cause
+     */
+    public RemoteCallException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,48 @@
+package org.example.memberclubjavafx_assignment5.exceptions;
+
+/**
+ * Exception thrown when someone tries to save a change based on an old copy of an item, member or rental.
+ * Someone else (another desk, a batch job or the server) changed it after it was read,
+ * so the window should show the latest version and let the user decide again instead of overwriting that change.
+ */
+public class VersionConflictException extends RuntimeException {
+
+    private final String entityId;
+    private final long expectedVersion;
+    private final long currentVersion;
+
+    /**
+     * Creates a new VersionConflictException.
+     * @param message the error message
+     * @param entityId the id of the item, member or rental
+     * @param expectedVersion the version the change was based on
+     * @param currentVersion the version it has now
+     */
+    public VersionConflictException(String message, String entityId, long expectedVersion, long currentVersion) {
+        super(message);
+        this.entityId = entityId;
+        this.expectedVersion = expectedVersion;
+        this.currentVersion = currentVersion;
+    }
+
+    /**
+     * Creates a new VersionConflictException with only a message (used when the error comes back from the server).
+     * @param message the error message
+     */
+    public VersionConflictException(String message) {
+        this(message, null, -1, -1);
+    }
+
+    // Getters
+    public String getEntityId() {
+        return entityId;
+    }
+
+    public long getExpectedVersion() {
+        return expectedVersion;
+    }
+
+    public long getCurrentVersion() {
+        return currentVersion;
+    }
+}
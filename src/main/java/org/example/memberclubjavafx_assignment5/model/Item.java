@@ -13,26 +13,31 @@ public abstract class Item {
 
     private final String id;
     private String name;
-    private double pricePerDay;
-    private double pricePerHour;
+    // Prices are stored in öre (see Money), the field names end with 'Ore' so old save files in kronor can be told apart
+    private long pricePerDayOre;
+    private long pricePerHourOre;
     private ItemStatus status;
     private int year;
     private Color color;
 
+    // Goes up every time the item changes. Cached price quotes use it to know they are old,
+    // and the services use it to turn down an edit that was based on an older copy (see VersionConflictException).
+    private long version;
+
     /**
      * Creates a new item with the given information.
      * @param id unique identifier for the item
      * @param name name of the item
-     * @param pricePerDay rental price per day
-     * @param pricePerHour rental price per hour
+     * @param pricePerDay rental price per day in öre
+     * @param pricePerHour rental price per hour in öre
      * @param year model year
      * @param color item color
      */
-    public Item(String id, String name, double pricePerDay, double pricePerHour, int year, Color color) {
+    public Item(String id, String name, long pricePerDay, long pricePerHour, int year, Color color) {
         this.id = id;
         this.name = name;
-        this.pricePerDay = pricePerDay;
-        this.pricePerHour = pricePerHour;
+        this.pricePerDayOre = pricePerDay;
+        this.pricePerHourOre = pricePerHour;
         this.status = ItemStatus.AVAILABLE;
         this.year = year;
         this.color = color;
@@ -47,12 +52,12 @@ public abstract class Item {
         return name;
     }
 
-    public double getPricePerDay() {
-        return pricePerDay;
+    public long getPricePerDayOre() {
+        return pricePerDayOre;
     }
 
-    public double getPricePerHour() {
-        return pricePerHour;
+    public long getPricePerHourOre() {
+        return pricePerHourOre;
     }
 
     public ItemStatus getStatus() {
@@ -67,29 +72,55 @@ public abstract class Item {
         return color;
     }
 
+    public long getVersion() {
+        return version;
+    }
+
     // Setters
     public void setName(String name) {
         this.name = name;
+        this.version++;
     }
 
-    public void setPricePerDay(double pricePerDay) {
-        this.pricePerDay = pricePerDay;
+    public void setPricePerDayOre(long pricePerDayOre) {
+        this.pricePerDayOre = pricePerDayOre;
+        this.version++;
     }
 
-    public void setPricePerHour(double pricePerHour) {
-        this.pricePerHour = pricePerHour;
+    public void setPricePerHourOre(long pricePerHourOre) {
+        this.pricePerHourOre = pricePerHourOre;
+        this.version++;
     }
 
     public void setStatus(ItemStatus status) {
         this.status = status;
+        this.version++;
     }
 
     public void setYear(int year) {
         this.year = year;
+        this.version++;
     }
 
     public void setColor(Color color) {
         this.color = color;
+        this.version++;
+    }
+
+    /**
+     * Counts a change that didn't go through the setters above (for example the brand or weight in a subclass).
+     */
+    public void markChanged() {
+        this.version++;
+    }
+
+    /**
+     * Puts back the version an item had when it was saved. Only used when an item is loaded from a file,
+     * since the constructor and setters that rebuild it count as changes.
+     * @param version the saved version
+     */
+    public void restoreVersion(long version) {
+        this.version = version;
     }
 
     /**
@@ -126,7 +157,7 @@ public abstract class Item {
     // Returns string representation of Item for easy printing or debugging
     @Override
     public String toString() {
-        return "Item{" + "id=" + id + ", namn=" + name + ", pris/dag=" + pricePerDay + ", pris/timme=" + pricePerHour
+        return "Item{" + "id=" + id + ", namn=" + name + ", pris/dag=" + Money.format(pricePerDayOre) + ", pris/timme=" + Money.format(pricePerHourOre)
                 + ", år=" + year + ", färg=" + color + ", status=" + status + "}";
     }
 }
\ No newline at end of file
@@ -20,6 +20,9 @@ public class Member {
     private MembershipLevel membershipLevel;
     private final List<String> rentalHistory;
 
+    // Goes up every time the member changes, so an edit based on an older copy can be turned down
+    private long version;
+
     /**
      * Constructor that creates a new member with the given information.
      * @param id unique member id
@@ -68,25 +71,34 @@ public class Member {
         return rentalHistory;
     }
 
+    public long getVersion() {
+        return version;
+    }
+
     // Setters
     public void setFirstName(String firstName) {
         this.firstName = firstName;
+        this.version++;
     }
 
     public void setLastName(String lastName) {
         this.lastName = lastName;
+        this.version++;
     }
 
     public void setPhone(String phone) {
         this.phone = phone;
+        this.version++;
     }
 
     public void setEmail(String email) {
         this.email = email;
+        this.version++;
     }
 
     public void setMembershipLevel(MembershipLevel membershipLevel) {
         this.membershipLevel = membershipLevel;
+        this.version++;
     }
 
     /**
@@ -95,6 +107,16 @@ public class Member {
      */
     public void addRental(String rentalId) {
         rentalHistory.add(rentalId);
+        this.version++;
+    }
+
+    /**
+     * Puts back the version a member had when it was saved. Only used when a member is loaded from a file,
+     * since adding the rental history one by one counts as changes.
+     * @param version the saved version
+     */
+    public void restoreVersion(long version) {
+        this.version = version;
     }
 
     // Returns string representation of Member for easy printing or debugging
@@ -0,0 +1,107 @@
+package org.example.memberclubjavafx_assignment5.model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Helper class for money. All prices, costs and revenue in the program are stored as a {@code long}
+ * number of öre (1 krona = 100 öre) instead of a {@code double} number of kronor.
+ * A double can't store most decimal numbers exactly (0.1 is really 0.1000000000000000055...),
+ * so summing many prices slowly drifts away from the correct total. Whole öre in a long never drift.
+ *
+ * The rounding rules are:
+ * - List prices (price per unit times number of units) are exact, no rounding needed.
+ * - A discount or surcharge is applied to the whole line and rounded ONCE to the nearest öre (half up).
+ * - Sums (cart total, revenue, dashboard) just add whole öre, so they are always exact.
+ */
+public final class Money {
+
+    // How many öre there are in one krona
+    public static final long ORE_PER_KRONA = 100;
+
+    // A factor is read as a decimal number with at most this many decimals. That removes the tiny error
+    // a double gets when factors are multiplied together (0.8 * 1.1 is 0.8800000000000001 as a double).
+    private static final int FACTOR_DECIMALS = 10;
+
+    // Only static helpers, so nobody should create a Money object
+    private Money() {
+    }
+
+    /**
+     * Converts kronor to öre, rounded to the nearest öre.
+     * Only used where kronor come from the outside (old save files).
+     * @param kronor amount in kronor
+     * @return amount in öre
+     */
+    public static long ofKronor(double kronor) {
+        return BigDecimal.valueOf(kronor).movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+
+    /**
+     * Multiplies an amount with a factor (for example 0.8 for a 20% discount) and rounds once to the nearest öre.
+     * Halves are rounded up (away from zero), so 12.5 öre becomes 13 öre and 45 öre * 0.7 = 31.5 öre becomes 32.
+     * The multiplication is done with BigDecimal, like ofKronor. With doubles 45 * 0.7 is 31.499999999999996 and rounds to 31.
+     * @param ore amount in öre
+     * @param factor the multiplier
+     * @return the new amount in öre
+     */
+    public static long multiply(long ore, double factor) {
+
+        // No rounding needed when nothing changes
+        if (factor == 1.0) {
+            return ore;
+        }
+
+        // valueOf uses the shortest decimal that gives the same double, so 0.7 really is 0.7
+        BigDecimal exactFactor = BigDecimal.valueOf(factor).setScale(FACTOR_DECIMALS, RoundingMode.HALF_UP);
+
+        return BigDecimal.valueOf(ore).multiply(exactFactor).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+
+    /**
+     * Reads an amount typed by the user, for example "150", "149,50" or "149.5".
+     * @param text the text to read
+     * @return amount in öre
+     * @throws NumberFormatException if the text is not a number or has more than two decimals
+     */
+    public static long parse(String text) {
+
+        if (text == null) {
+            throw new NumberFormatException("Inget belopp angivet");
+        }
+
+        // Accept both Swedish decimal comma and decimal point
+        BigDecimal kronor = new BigDecimal(text.trim().replace(',', '.'));
+
+        try {
+            // setScale without rounding fails if the user typed parts of an öre
+            return kronor.setScale(2, RoundingMode.UNNECESSARY).movePointRight(2).longValueExact();
+        } catch (ArithmeticException e) {
+            throw new NumberFormatException("Ogiltigt belopp: " + text);
+        }
+    }
+
+    /**
+     * Formats an amount as kronor with two decimals and a decimal comma, for example "149,50".
+     * @param ore amount in öre
+     * @return the formatted amount
+     */
+    public static String format(long ore) {
+
+        String sign = (ore < 0) ? "-" : "";
+        long abs = Math.abs(ore);
+        long kronor = abs / ORE_PER_KRONA;
+        long rest = abs % ORE_PER_KRONA;
+
+        return sign + kronor + "," + (rest < 10 ? "0" : "") + rest;
+    }
+
+    /**
+     * Converts öre to kronor as a double. Only for drawing charts, never for calculations.
+     * @param ore amount in öre
+     * @return amount in kronor
+     */
+    public static double toKronor(long ore) {
+        return ore / (double) ORE_PER_KRONA;
+    }
+}
@@ -1,5 +1,6 @@
 package org.example.memberclubjavafx_assignment5.model;
 
+import org.example.memberclubjavafx_assignment5.model.enums.RentalPeriod;
 import org.example.memberclubjavafx_assignment5.model.enums.RentalStatus;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
@@ -12,18 +13,37 @@ public class Rental {
     private final LocalDateTime startDate;
     private final LocalDateTime expectedReturnDate;
     private LocalDateTime endDate;
-    private final double totalCost;
+    // The cost in öre (see Money), named 'Ore' so old save files in kronor can be told apart
+    private final long totalCostOre;
     private RentalStatus status;
 
-    public Rental(String rentalId, int memberId, String itemId, LocalDateTime startDate, LocalDateTime expectedReturnDate, LocalDateTime endDate, double totalCost) {
+    // What was booked (null and 0 in files saved before these fields existed)
+    private final RentalPeriod period;
+    private final int duration;
+
+    // The price before discounts at the time of booking, so the receipt never has to guess it
+    private final long listPriceOre;
+
+    // Goes up when the rental is returned or cancelled, so a second desk can't return it again from an old copy
+    private long version;
+
+    public Rental(String rentalId, int memberId, String itemId, LocalDateTime startDate, LocalDateTime expectedReturnDate, LocalDateTime endDate, long totalCostOre) {
+        this(rentalId, memberId, itemId, startDate, expectedReturnDate, endDate, totalCostOre, null, 0, 0);
+    }
+
+    public Rental(String rentalId, int memberId, String itemId, LocalDateTime startDate, LocalDateTime expectedReturnDate, LocalDateTime endDate,
+                  long totalCostOre, RentalPeriod period, int duration, long listPriceOre) {
         this.rentalId = rentalId;
         this.memberId = memberId;
         this.itemId = itemId;
         this.startDate = startDate;
         this.expectedReturnDate = expectedReturnDate;
         this.endDate = endDate;
-        this.totalCost = totalCost;
+        this.totalCostOre = totalCostOre;
         this.status = RentalStatus.ACTIVE;
+        this.period = period;
+        this.duration = duration;
+        this.listPriceOre = listPriceOre;
     }
 
     // ... Getters ... (som tidigare)
@@ -33,9 +53,51 @@ public class Rental {
     public LocalDateTime getStartDate() { return startDate; }
     public LocalDateTime getEndDate() { return endDate; }
     public LocalDateTime getExpectedReturnDate() { return expectedReturnDate; }
-    public double getTotalCost() { return totalCost; }
+    public long getTotalCostOre() { return totalCostOre; }
     public RentalStatus getStatus() { return status; }
-    public void setStatus(RentalStatus status) { this.status = status; }
+    public long getListPriceOre() { return listPriceOre; }
+    public long getVersion() { return version; }
+    public void setStatus(RentalStatus status) { this.status = status; this.version++; }
+
+    /**
+     * Puts back the version a rental had when it was saved. Only used when a rental is loaded from a file.
+     */
+    public void restoreVersion(long version) { this.version = version; }
+
+    /**
+     * Returns true if the booked period was saved with the rental (false for rentals from before that field existed).
+     */
+    public boolean hasSavedPeriod() { return period != null; }
+
+    /**
+     * Returns the booked period. Old rentals didn't save it, so then we guess it from the dates
+     * (at least one whole day between start and expected return means a daily rental).
+     */
+    public RentalPeriod getBookedPeriod() {
+        if (period != null) return period;
+        return (getBookedDays() > 0) ? RentalPeriod.DAILY : RentalPeriod.HOURLY;
+    }
+
+    /**
+     * Returns the booked duration in hours or days (see getBookedPeriod). Guessed from the dates for old rentals.
+     */
+    public int getBookedDuration() {
+        if (period != null) return duration;
+        if (expectedReturnDate == null) return 0;
+
+        long days = getBookedDays();
+        if (days > 0) return (int) days;
+
+        // Show at least 1 hour if the dates are the same
+        long hours = ChronoUnit.HOURS.between(startDate, expectedReturnDate);
+        return (hours <= 0) ? 1 : (int) hours;
+    }
+
+    // Whole calendar days between start and expected return
+    private long getBookedDays() {
+        if (expectedReturnDate == null) return 0;
+        return ChronoUnit.DAYS.between(startDate.toLocalDate(), expectedReturnDate.toLocalDate());
+    }
 
     public long getDurationInDays() {
         if (endDate == null) return 0;
@@ -49,10 +111,12 @@ public class Rental {
     public void complete() {
         this.endDate = LocalDateTime.now();
         this.status = RentalStatus.COMPLETED;
+        this.version++;
     }
 
     public void cancel() {
         this.status = RentalStatus.CANCELLED;
+        this.version++;
     }
 
     // --- NEW DOMAIN LOGIC ---
@@ -79,10 +143,12 @@ public class Rental {
 
     /**
      * Calculates the penalty fee based on the item's hourly price.
+     * Whole hours times a price in öre, so the result is exact.
+     * @return the fee in öre
      */
-    public double calculatePenaltyFee(Item item) {
-        if (!isLate() || item == null) return 0.0;
-        return getHoursLate() * item.getPricePerHour();
+    public long calculatePenaltyFee(Item item) {
+        if (!isLate() || item == null) return 0;
+        return getHoursLate() * item.getPricePerHourOre();
     }
 
     @Override
@@ -18,8 +18,8 @@ public class Backpack extends CampingEquipment {
      * Constructor that creates a new backpack with given specifications.
      * @param id unique identifier
      * @param name name of the backpack
-     * @param pricePerDay rental price per day
-     * @param pricePerHour rental price per hour
+     * @param pricePerDay rental price per day in öre
+     * @param pricePerHour rental price per hour in öre
      * @param year model year
      * @param color item color
      * @param material material type
@@ -28,7 +28,7 @@ public class Backpack extends CampingEquipment {
      * @param volume volume in liters
      * @param backpackType type of backpack
      */
-    public Backpack(String id, String name, double pricePerDay, double pricePerHour, int year, Color color, Material material,
+    public Backpack(String id, String name, long pricePerDay, long pricePerHour, int year, Color color, Material material,
                     double weight, String brand, int volume, BackpackType backpackType) {
 
         // Call parent constructors (CampingEquipment, which calls Item)
@@ -20,15 +20,15 @@ public abstract class CampingEquipment extends Item {
      * Constructor that creates new camping equipment with given information.
      * @param id unique identifier
      * @param name name of equipment
-     * @param pricePerDay rental price per day
-     * @param pricePerHour rental price per hour
+     * @param pricePerDay rental price per day in öre
+     * @param pricePerHour rental price per hour in öre
      * @param year model year
      * @param color item color
      * @param material material type
      * @param weight weight in kilograms
      * @param brand brand name
      */
-    public CampingEquipment(String id, String name, double pricePerDay, double pricePerHour, int year, Color color,
+    public CampingEquipment(String id, String name, long pricePerDay, long pricePerHour, int year, Color color,
                             Material material, double weight, String brand) {
 
         // Call parent constructor (Item Class)
@@ -19,8 +19,8 @@ public class Lantern extends CampingEquipment {
      * Constructor that creates a new lantern with given specifications.
      * @param id unique identifier
      * @param name name of the lantern
-     * @param pricePerDay rental price per day
-     * @param pricePerHour rental price per hour
+     * @param pricePerDay rental price per day in öre
+     * @param pricePerHour rental price per hour in öre
      * @param year model year
      * @param color item color
      * @param material material type
@@ -29,7 +29,7 @@ public class Lantern extends CampingEquipment {
      * @param brightness brightness in lumens
      * @param powerSource power source type
      */
-    public Lantern(String id, String name, double pricePerDay, double pricePerHour, int year, Color color, Material material,
+    public Lantern(String id, String name, long pricePerDay, long pricePerHour, int year, Color color, Material material,
                    double weight, String brand, int brightness, PowerSource powerSource) {
 
         // Call parent constructors (CampingEquipment, which calls Item)
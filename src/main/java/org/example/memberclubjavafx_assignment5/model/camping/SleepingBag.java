@@ -18,8 +18,8 @@ public class SleepingBag extends CampingEquipment {
      * Constructor that creates a new sleeping bag with given specifications.
      * @param id unique identifier
      * @param name name of the sleeping bag
-     * @param pricePerDay rental price per day
-     * @param pricePerHour rental price per hour
+     * @param pricePerDay rental price per day in öre
+     * @param pricePerHour rental price per hour in öre
      * @param year model year
      * @param color item color
      * @param material material type
@@ -28,7 +28,7 @@ public class SleepingBag extends CampingEquipment {
      * @param temperatureRating lowest comfortable temperature in Celsius
      * @param seasonRating season suitability
      */
-    public SleepingBag(String id, String name, double pricePerDay, double pricePerHour, int year, Color color,
+    public SleepingBag(String id, String name, long pricePerDay, long pricePerHour, int year, Color color,
                        Material material, double weight, String brand, double temperatureRating, SeasonRating seasonRating) {
 
         // Call parent constructors (CampingEquipment, which calls Item)
@@ -16,8 +16,8 @@ public class Tent extends CampingEquipment {
      * Constructor that creates a new tent with given specifications.
      * @param id unique identifier
      * @param name name of the tent
-     * @param pricePerDay rental price per day
-     * @param pricePerHour rental price per hour
+     * @param pricePerDay rental price per day in öre
+     * @param pricePerHour rental price per hour in öre
      * @param year model year
      * @param color item color
      * @param material material type
@@ -27,7 +27,7 @@ public class Tent extends CampingEquipment {
      * @param seasonRating season suitability
      * @param tentType type of tent structure
      */
-    public Tent(String id, String name, double pricePerDay, double pricePerHour, int year, Color color, Material material,
+    public Tent(String id, String name, long pricePerDay, long pricePerHour, int year, Color color, Material material,
                 double weight, String brand, int capacity, SeasonRating seasonRating, TentType tentType) {
 
         // Call parent constructors (CampingEquipment, which calls Item)
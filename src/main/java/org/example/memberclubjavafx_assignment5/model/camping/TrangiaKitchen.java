@@ -18,8 +18,8 @@ public class TrangiaKitchen extends CampingEquipment {
      * Constructor that creates a new Trangia kitchen with given specifications.
      * @param id unique identifier
      * @param name name of the kitchen
-     * @param pricePerDay rental price per day
-     * @param pricePerHour rental price per hour
+     * @param pricePerDay rental price per day in öre
+     * @param pricePerHour rental price per hour in öre
      * @param year model year
      * @param color item color
      * @param material material type
@@ -28,7 +28,7 @@ public class TrangiaKitchen extends CampingEquipment {
      * @param burners number of burners
      * @param fuelType fuel type
      */
-    public TrangiaKitchen(String id, String name, double pricePerDay, double pricePerHour, int year, Color color, Material material,
+    public TrangiaKitchen(String id, String name, long pricePerDay, long pricePerHour, int year, Color color, Material material,
                           double weight, String brand, int burners, FuelType fuelType) {
 
         // Call parent constructors (CampingEquipment, which calls Item)
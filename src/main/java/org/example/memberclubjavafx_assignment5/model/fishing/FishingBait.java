@@ -19,8 +19,8 @@ public class FishingBait extends FishingEquipment {
      * Constructor that creates new fishing bait with given specifications.
      * @param id unique identifier
      * @param name name of the bait
-     * @param pricePerDay rental price per day
-     * @param pricePerHour rental price per hour
+     * @param pricePerDay rental price per day in öre
+     * @param pricePerHour rental price per hour in öre
      * @param year model year
      * @param color item color
      * @param material material type
@@ -29,7 +29,7 @@ public class FishingBait extends FishingEquipment {
      * @param baitType type of bait
      * @param quantity number of pieces in package
      */
-    public FishingBait(String id, String name, double pricePerDay, double pricePerHour, int year, Color color,
+    public FishingBait(String id, String name, long pricePerDay, long pricePerHour, int year, Color color,
                        Material material, double weight, String brand, BaitType baitType, int quantity) {
 
         // Call parent constructors (FishingEquipment, which calls Item)
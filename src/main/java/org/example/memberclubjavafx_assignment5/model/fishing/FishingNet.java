@@ -20,8 +20,8 @@ public class FishingNet extends FishingEquipment {
      * Constructor that creates a new fishing net with given specifications.
      * @param id unique identifier
      * @param name name of the net
-     * @param pricePerDay rental price per day
-     * @param pricePerHour rental price per hour
+     * @param pricePerDay rental price per day in öre
+     * @param pricePerHour rental price per hour in öre
      * @param year model year
      * @param color item color
      * @param material material type
@@ -30,7 +30,7 @@ public class FishingNet extends FishingEquipment {
      * @param netSize size of the net (SMALL, MEDIUM, LARGE)
      * @param meshSize mesh size in millimeters
      */
-    public FishingNet(String id, String name, double pricePerDay, double pricePerHour, int year, Color color,
+    public FishingNet(String id, String name, long pricePerDay, long pricePerHour, int year, Color color,
                       Material material, double weight, String brand, NetSize netSize, double meshSize) {
 
         // Call parent constructors (FishingEquipment, which calls Item)
@@ -19,8 +19,8 @@ public class FishingRod extends FishingEquipment {
      * Constructor that creates a new fishing rod with given specifications.
      * @param id unique identifier
      * @param name name of the rod
-     * @param pricePerDay rental price per day
-     * @param pricePerHour rental price per hour
+     * @param pricePerDay rental price per day in öre
+     * @param pricePerHour rental price per hour in öre
      * @param year model year
      * @param color item color
      * @param material material type
@@ -29,7 +29,7 @@ public class FishingRod extends FishingEquipment {
      * @param rodLength length in meters
      * @param rodType type of fishing rod
      */
-    public FishingRod(String id, String name, double pricePerDay, double pricePerHour,  int year, Color color,
+    public FishingRod(String id, String name, long pricePerDay, long pricePerHour,  int year, Color color,
                       Material material, double weight, String brand, double rodLength, RodType rodType) {
 
         // Call parent constructors (FishingEquipment, which calls Item)
@@ -17,8 +17,8 @@ public abstract class Boat extends WaterVehicle {
      * Constructor that creates a new boat with given information.
      * @param id unique identifier
      * @param name name of boat
-     * @param pricePerDay rental price per day
-     * @param pricePerHour rental price per hour
+     * @param pricePerDay rental price per day in öre
+     * @param pricePerHour rental price per hour in öre
      * @param year model year
      * @param color item color
      * @param material material type
@@ -29,7 +29,7 @@ public abstract class Boat extends WaterVehicle {
      * @param hasFishFinder whether boat has fish finder equipment
      * @param maxSpeed maximum speed in knots
      */
-    public Boat(String id, String name, double pricePerDay, double pricePerHour, int year, Color color, Material material,
+    public Boat(String id, String name, long pricePerDay, long pricePerHour, int year, Color color, Material material,
                 double weight, String brand, int capacity, double length, boolean hasFishFinder, double maxSpeed) {
 
         // Call parent constructors (WaterVehicle, which calls Item)
@@ -18,8 +18,8 @@ public class ElectricBoat extends Boat {
      * Constructor that creates a new electric boat with given specifications.
      * @param id unique identifier
      * @param name name of the boat
-     * @param pricePerDay rental price per day
-     * @param pricePerHour rental price per hour
+     * @param pricePerDay rental price per day in öre
+     * @param pricePerHour rental price per hour in öre
      * @param year model year
      * @param color item color
      * @param material material type
@@ -32,7 +32,7 @@ public class ElectricBoat extends Boat {
      * @param batteryCapacity battery capacity in kilowatt hours
      * @param chargeTime charging time in hours
      */
-    public ElectricBoat(String id, String name, double pricePerDay, double pricePerHour, int year, Color color,
+    public ElectricBoat(String id, String name, long pricePerDay, long pricePerHour, int year, Color color,
                         Material material, double weight, String brand, int capacity, double length, boolean hasFishFinder,
                         double maxSpeed, double batteryCapacity, int chargeTime) {
 
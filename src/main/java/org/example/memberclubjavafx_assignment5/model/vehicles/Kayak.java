@@ -18,8 +18,8 @@ public class Kayak extends WaterVehicle {
      * Constructor that creates a new kayak with given specifications.
      * @param id unique identifier
      * @param name name of the kayak
-     * @param pricePerDay rental price per day
-     * @param pricePerHour rental price per hour
+     * @param pricePerDay rental price per day in öre
+     * @param pricePerHour rental price per hour in öre
      * @param year model year
      * @param color item color
      * @param material material type
@@ -30,7 +30,7 @@ public class Kayak extends WaterVehicle {
      * @param seats number of seat positions
      * @param kayakType type of kayak
      */
-    public Kayak(String id, String name, double pricePerDay, double pricePerHour, int year, Color color, Material material,
+    public Kayak(String id, String name, long pricePerDay, long pricePerHour, int year, Color color, Material material,
                  double weight, String brand, int capacity, double length, int seats, KayakType kayakType) {
 
         // Call parent constructors (WaterVehicle, which calls Item)
@@ -17,8 +17,8 @@ public class RowBoat extends Boat {
      * Constructor that creates a new row boat with given specifications.
      * @param id unique identifier
      * @param name name of the boat
-     * @param pricePerDay rental price per day
-     * @param pricePerHour rental price per hour
+     * @param pricePerDay rental price per day in öre
+     * @param pricePerHour rental price per hour in öre
      * @param year model year
      * @param color item color
      * @param material material type
@@ -30,7 +30,7 @@ public class RowBoat extends Boat {
      * @param maxSpeed maximum speed in knots
      * @param oars number of oars
      */
-    public RowBoat(String id, String name, double pricePerDay, double pricePerHour, int year, Color color,
+    public RowBoat(String id, String name, long pricePerDay, long pricePerHour, int year, Color color,
                    Material material, double weight, String brand, int capacity, double length, boolean hasFishFinder,
                    double maxSpeed, int oars) {
 
@@ -20,8 +20,8 @@ public abstract class WaterVehicle extends Item {
      * Constructor that creates new water vehicle with given information.
      * @param id unique identifier
      * @param name name of vehicle
-     * @param pricePerDay rental price per day
-     * @param pricePerHour rental price per hour
+     * @param pricePerDay rental price per day in öre
+     * @param pricePerHour rental price per hour in öre
      * @param year model year
      * @param color item color
      * @param material material type
@@ -30,7 +30,7 @@ public abstract class WaterVehicle extends Item {
      * @param capacity number of persons
      * @param length length in meters
      */
-    public WaterVehicle(String id, String name, double pricePerDay, double pricePerHour, int year, Color color,
+    public WaterVehicle(String id, String name, long pricePerDay, long pricePerHour, int year, Color color,
                         Material material, double weight, String brand, int capacity, double length) {
 
         // Call parent constructor (Item Class)
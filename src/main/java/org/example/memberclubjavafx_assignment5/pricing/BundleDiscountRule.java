@@ -0,0 +1,24 @@
+package org.example.memberclubjavafx_assignment5.pricing;
+
+/**
+ * Gives a discount on every item when several items are booked together.
+ */
+public class BundleDiscountRule implements PricingRule {
+
+    private final int minItems;
+    private final double factor;
+
+    /**
+     * @param minItems the smallest number of items in the booking that gets the discount
+     * @param factor the price multiplier (0.95 means 5% discount)
+     */
+    public BundleDiscountRule(int minItems, double factor) {
+        this.minItems = minItems;
+        this.factor = factor;
+    }
+
+    @Override
+    public void compileInto(PricingTable table) {
+        table.addBundleTier(minItems, factor);
+    }
+}
@@ -0,0 +1,33 @@
+package org.example.memberclubjavafx_assignment5.pricing;
+
+import org.example.memberclubjavafx_assignment5.model.enums.ItemType;
+import org.example.memberclubjavafx_assignment5.model.enums.MembershipLevel;
+import org.example.memberclubjavafx_assignment5.model.enums.RentalPeriod;
+
+/**
+ * Gives every member of a certain level the same discount on all items.
+ */
+public class MembershipDiscountRule implements PricingRule {
+
+    private final MembershipLevel level;
+    private final double factor;
+
+    /**
+     * @param level the membership level that gets the discount
+     * @param factor the price multiplier (0.8 means 20% discount)
+     */
+    public MembershipDiscountRule(MembershipLevel level, double factor) {
+        this.level = level;
+        this.factor = factor;
+    }
+
+    @Override
+    public void compileInto(PricingTable table) {
+
+        for (ItemType type : ItemType.values()) {
+            for (RentalPeriod period : RentalPeriod.values()) {
+                table.multiplyBase(type, level, period, factor);
+            }
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package org.example.memberclubjavafx_assignment5.pricing;
+
+import org.example.memberclubjavafx_assignment5.model.enums.RentalPeriod;
+
+/**
+ * Gives a discount for long rentals, for example 10% off when renting for a week or more.
+ */
+public class MultiDayTierRule implements PricingRule {
+
+    private final RentalPeriod period;
+    private final int minDuration;
+    private final double factor;
+
+    /**
+     * @param period the period the tier applies to (days or hours)
+     * @param minDuration the shortest rental that gets the discount
+     * @param factor the price multiplier (0.9 means 10% discount)
+     */
+    public MultiDayTierRule(RentalPeriod period, int minDuration, double factor) {
+        this.period = period;
+        this.minDuration = minDuration;
+        this.factor = factor;
+    }
+
+    @Override
+    public void compileInto(PricingTable table) {
+        table.addDurationTier(period, minDuration, factor);
+    }
+}
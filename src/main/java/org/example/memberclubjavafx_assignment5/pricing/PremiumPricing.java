@@ -2,6 +2,7 @@ package org.example.memberclubjavafx_assignment5.pricing;
 
 import org.example.memberclubjavafx_assignment5.model.Item;
 import org.example.memberclubjavafx_assignment5.model.Member;
+import org.example.memberclubjavafx_assignment5.model.Money;
 import org.example.memberclubjavafx_assignment5.model.enums.RentalPeriod;
 
 /**
@@ -15,15 +16,20 @@ public class PremiumPricing implements PricePolicy {
 
     // Implements the pricing calculation from PricePolicy interface
     @Override
-    public double calculatePrice(Item item, Member member, int duration, RentalPeriod period) {
+    public long calculatePrice(Item item, Member member, int duration, RentalPeriod period) {
 
-        // Calculate cost based on rental period (hourly or daily) with premium discount
+        // Calculate cost based on rental period (hourly or daily) with premium discount (rounded once to whole öre)
         if (period == RentalPeriod.HOURLY) {
-            return item.getPricePerHour() * duration * PREMIUM_DISCOUNT;
+            return Money.multiply(item.getPricePerHourOre() * duration, PREMIUM_DISCOUNT);
         } else {
-            return item.getPricePerDay() * duration * PREMIUM_DISCOUNT;
+            return Money.multiply(item.getPricePerDayOre() * duration, PREMIUM_DISCOUNT);
         }
 
     }
-}
 
+    // Returns the discount multiplier so the pricing engine can reuse it
+    @Override
+    public double getDiscountFactor() {
+        return PREMIUM_DISCOUNT;
+    }
+}
@@ -16,7 +16,16 @@ public interface PricePolicy {
      * @param member the member renting
      * @param duration rental duration (hours or days depending on period)
      * @param period billing period (HOURLY or DAILY)
-     * @return total cost in SEK
+     * @return total cost in öre (see Money)
      */
-    double calculatePrice(Item item, Member member, int duration, RentalPeriod period);
+    long calculatePrice(Item item, Member member, int duration, RentalPeriod period);
+
+    /**
+     * Returns the multiplier this policy applies to the list price.
+     * The pricing engine uses it to build its membership discount rules.
+     * @return 1.0 for no discount, 0.8 for 20% discount and so on
+     */
+    default double getDiscountFactor() {
+        return 1.0;
+    }
 }
@@ -0,0 +1,154 @@
+package org.example.memberclubjavafx_assignment5.pricing;
+
+import org.example.memberclubjavafx_assignment5.model.enums.ItemType;
+import org.example.memberclubjavafx_assignment5.model.enums.RentalPeriod;
+import java.time.Month;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Reads the extra pricing rules (on top of the membership discounts) from the system property 'memberclub.pricingRules'.
+ * Without the property no extra rule is used, so prices only change when somebody turns a rule on.
+ *
+ * The rules are separated by ';' and the parts of a rule by ':'. Item types are optional, leaving them out means all types.
+ * - weekend=1.1:KAYAK,ROW_BOAT             10% more when the rental starts on a Saturday or Sunday
+ * - season=JUNE,JULY,AUGUST:1.2:KAYAK      20% more when the rental starts in those months
+ * - multiday=DAILY:7:0.9                   10% off when renting for 7 days or more
+ * - bundle=3:0.95                          5% off every item when 3 or more items are booked together
+ * For example: -Dmemberclub.pricingRules="weekend=1.1:KAYAK;bundle=3:0.95"
+ */
+public class PricingConfig {
+
+    public static final String PROPERTY = "memberclub.pricingRules";
+
+    // Only static helpers
+    private PricingConfig() {
+    }
+
+    /**
+     * The extra rules from the system property.
+     * @return the rules, empty if the property isn't set
+     * @throws IllegalArgumentException if the property can't be read, so a typo never silently changes the prices
+     */
+    public static List<PricingRule> configuredRules() {
+        return parse(System.getProperty(PROPERTY));
+    }
+
+    /**
+     * Reads rules written as described in the class comment.
+     * @param text the rules, null or blank for none
+     * @return the rules in the order they were written
+     * @throws IllegalArgumentException if a rule is unknown or a part of it is wrong
+     */
+    public static List<PricingRule> parse(String text) {
+
+        List<PricingRule> rules = new ArrayList<>();
+
+        if (text == null || text.isBlank()) {
+            return rules;
+        }
+
+        for (String ruleText : text.split(";")) {
+
+            if (ruleText.isBlank()) {
+                continue;
+            }
+
+            try {
+                rules.add(parseRule(ruleText.trim()));
+
+            } catch (IllegalArgumentException exception) {
+                throw new IllegalArgumentException("Ogiltig prisregel '" + ruleText.trim() + "': " + exception.getMessage(), exception);
+            }
+        }
+        return rules;
+    }
+
+    private static PricingRule parseRule(String ruleText) {
+
+        int equals = ruleText.indexOf('=');
+
+        if (equals < 0) {
+            throw new IllegalArgumentException("saknar '='");
+        }
+
+        String name = ruleText.substring(0, equals).trim().toLowerCase(Locale.ROOT);
+        String[] parts = ruleText.substring(equals + 1).split(":", -1);
+
+        return switch (name) {
+            case "weekend" -> {
+                checkParts(parts, 1, 2);
+                yield new WeekendSurchargeRule(factor(parts[0]), types(parts, 1));
+            }
+            case "season" -> {
+                checkParts(parts, 2, 3);
+                yield new SeasonSurchargeRule(months(parts[0]), factor(parts[1]), types(parts, 2));
+            }
+            case "multiday" -> {
+                checkParts(parts, 3, 3);
+                yield new MultiDayTierRule(RentalPeriod.valueOf(parts[0].trim().toUpperCase(Locale.ROOT)), minimum(parts[1]), factor(parts[2]));
+            }
+            case "bundle" -> {
+                checkParts(parts, 2, 2);
+                yield new BundleDiscountRule(minimum(parts[0]), factor(parts[1]));
+            }
+            default -> throw new IllegalArgumentException("okänd regel, använd weekend, season, multiday eller bundle");
+        };
+    }
+
+    private static void checkParts(String[] parts, int min, int max) {
+
+        if (parts.length < min || parts.length > max) {
+            throw new IllegalArgumentException("fel antal delar");
+        }
+    }
+
+    private static double factor(String text) {
+
+        double factor = Double.parseDouble(text.trim());
+
+        // A factor of 0 would make things free, and NaN or infinity would break every price
+        if (!(factor > 0) || Double.isInfinite(factor)) {
+            throw new IllegalArgumentException("faktorn måste vara större än 0");
+        }
+        return factor;
+    }
+
+    private static int minimum(String text) {
+
+        int minimum = Integer.parseInt(text.trim());
+
+        if (minimum < 1) {
+            throw new IllegalArgumentException("minsta antal måste vara minst 1");
+        }
+        return minimum;
+    }
+
+    private static Set<Month> months(String text) {
+
+        Set<Month> months = EnumSet.noneOf(Month.class);
+
+        for (String month : text.split(",")) {
+            months.add(Month.valueOf(month.trim().toUpperCase(Locale.ROOT)));
+        }
+        return months;
+    }
+
+    // The types in parts[index], or an empty set (all types) if that part is missing or blank
+    private static Set<ItemType> types(String[] parts, int index) {
+
+        Set<ItemType> types = EnumSet.noneOf(ItemType.class);
+
+        if (index >= parts.length || parts[index].isBlank()) {
+            return types;
+        }
+
+        for (String type : parts[index].split(",")) {
+            types.add(ItemType.valueOf(type.trim().toUpperCase(Locale.ROOT)));
+        }
+        return types;
+    }
+}
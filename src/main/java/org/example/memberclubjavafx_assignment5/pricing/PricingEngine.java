@@ -0,0 +1,142 @@
+package org.example.memberclubjavafx_assignment5.pricing;
+
+import org.example.memberclubjavafx_assignment5.model.Item;
+import org.example.memberclubjavafx_assignment5.model.Member;
+import org.example.memberclubjavafx_assignment5.model.Money;
+import org.example.memberclubjavafx_assignment5.model.enums.MembershipLevel;
+import org.example.memberclubjavafx_assignment5.model.enums.RentalPeriod;
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The pricing engine that the cart, the receipt and the rental service all use.
+ * It is built from a list of {@code PricingRule}s that are compiled once into a {@code PricingTable}.
+ * After that, a price is the list price times a few multipliers read from flat arrays, with no new objects created.
+ * All amounts are whole öre. The multipliers are combined first and the line is rounded only once at the end,
+ * so the cart, the receipt and the stored rental always get exactly the same number.
+ * The engine is itself a {@code PricePolicy}, so it can be used wherever a pricing strategy is expected.
+ */
+public class PricingEngine implements PricePolicy {
+
+    // All multipliers, filled once by the rules
+    private final PricingTable table;
+
+    /**
+     * Creates an engine and compiles the rules into its table.
+     * @param rules the rules to use
+     */
+    public PricingEngine(List<PricingRule> rules) {
+
+        this.table = new PricingTable();
+
+        for (PricingRule rule : rules) {
+            rule.compileInto(table);
+        }
+    }
+
+    /**
+     * Creates the engine we use today: only the membership discounts from the pricing strategies.
+     * @return a new engine with the default rules
+     */
+    public static PricingEngine createDefault() {
+        return createDefault(List.of());
+    }
+
+    /**
+     * Creates an engine with the membership discounts and some extra rules, for example the ones turned on
+     * through {@link PricingConfig} (weekend and season surcharges, multi-day tiers and bundle discounts).
+     * @param extraRules the rules on top of the membership discounts
+     * @return a new engine
+     */
+    public static PricingEngine createDefault(List<PricingRule> extraRules) {
+
+        List<PricingRule> rules = new ArrayList<>();
+
+        // Reuse the discount from each strategy, so the numbers only exist in one place
+        for (MembershipLevel level : MembershipLevel.values()) {
+            rules.add(new MembershipDiscountRule(level, PricingFactory.getPricing(level).getDiscountFactor()));
+        }
+
+        rules.addAll(extraRules);
+
+        return new PricingEngine(rules);
+    }
+
+    // Implements the pricing calculation from PricePolicy interface (one item, starting now)
+    @Override
+    public long calculatePrice(Item item, Member member, int duration, RentalPeriod period) {
+
+        MembershipLevel level = (member != null) ? member.getMembershipLevel() : null;
+        return calculatePrice(item, level, duration, period, LocalDateTime.now(), 1);
+    }
+
+    /**
+     * Calculates the price for one item with all rules applied.
+     * @param item the item being rented
+     * @param level the member's level, or null for standard pricing
+     * @param duration rental duration (hours or days depending on period)
+     * @param period billing period (HOURLY or DAILY)
+     * @param start when the rental starts (used for weekend and season rules)
+     * @param bundleSize how many items are booked together
+     * @return total cost in öre, rounded once to the nearest öre
+     */
+    public long calculatePrice(Item item, MembershipLevel level, int duration, RentalPeriod period, LocalDateTime start, int bundleSize) {
+        return Money.multiply(calculateListPrice(item, duration, period), getFactor(item, level, duration, period, start, bundleSize));
+    }
+
+    /**
+     * Calculates the price without any discounts or surcharges (the 'ordinary' price on the receipt).
+     * @param item the item being rented
+     * @param duration rental duration (hours or days depending on period)
+     * @param period billing period (HOURLY or DAILY)
+     * @return the list price in öre (exact, no rounding)
+     */
+    public long calculateListPrice(Item item, int duration, RentalPeriod period) {
+
+        if (period == RentalPeriod.HOURLY) {
+            return item.getPricePerHourOre() * duration;
+        } else {
+            return item.getPricePerDayOre() * duration;
+        }
+    }
+
+    /**
+     * Checks if two booking sizes get the same bundle discount.
+     * The cart uses this to know when it must price every line again.
+     * @return true if both sizes give the same bundle factor
+     */
+    public boolean isSameBundleTier(int itemCount, int otherItemCount) {
+        return Double.compare(table.bundleFactor(itemCount), table.bundleFactor(otherItemCount)) == 0;
+    }
+
+    /**
+     * Returns the combined multiplier of all rules for a rental.
+     * @return 1.0 if no rule applies, lower for discounts and higher for surcharges
+     */
+    public double getFactor(Item item, MembershipLevel level, int duration, RentalPeriod period, LocalDateTime start, int bundleSize) {
+
+        int type = item.getItemType().ordinal();
+        int levelIndex = (level != null) ? level.ordinal() : MembershipLevel.STANDARD.ordinal();
+        int periodIndex = period.ordinal();
+
+        double factor = table.baseFactor(type, levelIndex, periodIndex);
+
+        if (start != null) {
+
+            DayOfWeek day = start.getDayOfWeek();
+
+            if (day == DayOfWeek.SATURDAY || day == DayOfWeek.SUNDAY) {
+                factor *= table.weekendFactor(type, periodIndex);
+            }
+
+            factor *= table.seasonFactor(type, start.getMonthValue() - 1);
+        }
+
+        factor *= table.durationFactor(periodIndex, duration);
+        factor *= table.bundleFactor(bundleSize);
+
+        return factor;
+    }
+}
@@ -5,9 +5,19 @@ import org.example.memberclubjavafx_assignment5.model.enums.MembershipLevel;
 /**
  * Factory class that creates the appropriate pricing strategy
  * based on membership level.
+ * The strategies have no state, so we create one of each and hand out the same object every time.
  */
 public class PricingFactory {
 
+    // One shared object per strategy
+    private static final PricePolicy STANDARD_PRICING = new StandardPricing();
+    private static final PricePolicy STUDENT_PRICING = new StudentPricing();
+    private static final PricePolicy PREMIUM_PRICING = new PremiumPricing();
+
+    // The engine is built from the strategies above, so it must be created after them.
+    // Extra rules are only added when they are turned on with the system property (see PricingConfig).
+    private static final PricingEngine DEFAULT_ENGINE = PricingEngine.createDefault(PricingConfig.configuredRules());
+
     /**
      * Returns the correct PricePolicy for a given membership level.
      * @param level the membership level
@@ -15,28 +25,30 @@ public class PricingFactory {
      */
     public static PricePolicy getPricing(MembershipLevel level) {
 
-        // Match membership level to corresponding pricing strategy
-        switch (level) {
+        // Fallback to standard pricing if level is null
+        if (level == null) {
+            return STANDARD_PRICING;
+        }
 
-            // No discount
-            case STANDARD -> {
-                return new StandardPricing();
-            }
+        // Match membership level to corresponding pricing strategy
+        return switch (level) {
 
             // 20% discount
-            case STUDENT -> {
-                return new StudentPricing();
-            }
+            case STUDENT -> STUDENT_PRICING;
 
             // 30% discount
-            case PREMIUM -> {
-                return new PremiumPricing();
-            }
-
-            // Fallback to standard pricing if level is null or unexpected
-            default -> {
-                return new StandardPricing();
-            }
-        }
+            case PREMIUM -> PREMIUM_PRICING;
+
+            // No discount
+            default -> STANDARD_PRICING;
+        };
+    }
+
+    /**
+     * Returns the shared pricing engine: the membership discounts, plus any rules turned on in 'memberclub.pricingRules'.
+     * @return the default pricing engine
+     */
+    public static PricingEngine getEngine() {
+        return DEFAULT_ENGINE;
     }
 }
@@ -0,0 +1,15 @@
+package org.example.memberclubjavafx_assignment5.pricing;
+
+/**
+ * Interface for one pricing rule (a discount or a surcharge).
+ * Rules are not evaluated for every price. Instead each rule writes its multipliers
+ * into a {@code PricingTable} once, when the {@code PricingEngine} is created.
+ */
+public interface PricingRule {
+
+    /**
+     * Adds the multipliers of this rule to the table.
+     * @param table the table that is being built
+     */
+    void compileInto(PricingTable table);
+}
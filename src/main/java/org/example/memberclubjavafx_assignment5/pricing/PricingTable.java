@@ -0,0 +1,148 @@
+package org.example.memberclubjavafx_assignment5.pricing;
+
+import org.example.memberclubjavafx_assignment5.model.enums.ItemType;
+import org.example.memberclubjavafx_assignment5.model.enums.MembershipLevel;
+import org.example.memberclubjavafx_assignment5.model.enums.RentalPeriod;
+import java.util.Arrays;
+
+/**
+ * The 'compiled' form of all pricing rules.
+ * Every multiplier lives in a flat array, so finding the price for a rental only takes a few array reads.
+ * Rules fill the table through the {@code multiply...} and {@code add...Tier} methods.
+ */
+public class PricingTable {
+
+    // Sizes of the different dimensions
+    private static final int TYPES = ItemType.values().length;
+    private static final int LEVELS = MembershipLevel.values().length;
+    private static final int PERIODS = RentalPeriod.values().length;
+    private static final int MONTHS = 12;
+
+    // Multiplier per (item type, membership level, period)
+    private final double[] baseFactors = filled(TYPES * LEVELS * PERIODS);
+
+    // Multiplier per (item type, period) used when the rental starts on a Saturday or Sunday
+    private final double[] weekendFactors = filled(TYPES * PERIODS);
+
+    // Multiplier per (item type, month) where month 0 is January
+    private final double[] seasonFactors = filled(TYPES * MONTHS);
+
+    // Duration tiers per period, sorted by the minimum duration
+    private final int[][] tierMinDurations = new int[PERIODS][0];
+    private final double[][] tierFactors = new double[PERIODS][0];
+
+    // Bundle tiers (number of items in the same booking), sorted by the minimum count
+    private int[] bundleMinItems = new int[0];
+    private double[] bundleFactors = new double[0];
+
+    /**
+     * Multiplies the base factor of one (item type, membership level, period) cell.
+     */
+    public void multiplyBase(ItemType type, MembershipLevel level, RentalPeriod period, double factor) {
+        baseFactors[baseIndex(type.ordinal(), level.ordinal(), period.ordinal())] *= factor;
+    }
+
+    /**
+     * Multiplies the weekend factor of one (item type, period) cell.
+     */
+    public void multiplyWeekend(ItemType type, RentalPeriod period, double factor) {
+        weekendFactors[type.ordinal() * PERIODS + period.ordinal()] *= factor;
+    }
+
+    /**
+     * Multiplies the season factor of one (item type, month) cell.
+     * @param monthIndex 0 for January up to 11 for December
+     */
+    public void multiplySeason(ItemType type, int monthIndex, double factor) {
+        seasonFactors[type.ordinal() * MONTHS + monthIndex] *= factor;
+    }
+
+    /**
+     * Adds a duration tier. Rentals that are at least {@code minDuration} long get the factor.
+     * If several tiers match, only the one with the highest minimum is used.
+     */
+    public void addDurationTier(RentalPeriod period, int minDuration, double factor) {
+
+        int p = period.ordinal();
+        int[] mins = Arrays.copyOf(tierMinDurations[p], tierMinDurations[p].length + 1);
+        double[] factors = Arrays.copyOf(tierFactors[p], tierFactors[p].length + 1);
+
+        insertSorted(mins, factors, minDuration, factor);
+
+        tierMinDurations[p] = mins;
+        tierFactors[p] = factors;
+    }
+
+    /**
+     * Adds a bundle tier. Bookings with at least {@code minItems} items get the factor on every item.
+     * If several tiers match, only the one with the highest minimum is used.
+     */
+    public void addBundleTier(int minItems, double factor) {
+
+        int[] mins = Arrays.copyOf(bundleMinItems, bundleMinItems.length + 1);
+        double[] factors = Arrays.copyOf(bundleFactors, bundleFactors.length + 1);
+
+        insertSorted(mins, factors, minItems, factor);
+
+        bundleMinItems = mins;
+        bundleFactors = factors;
+    }
+
+    // Reads used by the engine
+
+    double baseFactor(int type, int level, int period) {
+        return baseFactors[baseIndex(type, level, period)];
+    }
+
+    double weekendFactor(int type, int period) {
+        return weekendFactors[type * PERIODS + period];
+    }
+
+    double seasonFactor(int type, int monthIndex) {
+        return seasonFactors[type * MONTHS + monthIndex];
+    }
+
+    double durationFactor(int period, int duration) {
+        return findTier(tierMinDurations[period], tierFactors[period], duration);
+    }
+
+    double bundleFactor(int itemCount) {
+        return findTier(bundleMinItems, bundleFactors, itemCount);
+    }
+
+    // Finds the tier with the highest minimum that is still below or equal to the value
+    private static double findTier(int[] mins, double[] factors, int value) {
+
+        for (int i = mins.length - 1; i >= 0; i--) {
+            if (value >= mins[i]) {
+                return factors[i];
+            }
+        }
+        return 1.0;
+    }
+
+    // Inserts a new tier in the last (empty) slot and moves it down until the array is sorted
+    private static void insertSorted(int[] mins, double[] factors, int min, double factor) {
+
+        int i = mins.length - 1;
+
+        while (i > 0 && mins[i - 1] > min) {
+            mins[i] = mins[i - 1];
+            factors[i] = factors[i - 1];
+            i--;
+        }
+
+        mins[i] = min;
+        factors[i] = factor;
+    }
+
+    private static int baseIndex(int type, int level, int period) {
+        return (type * LEVELS + level) * PERIODS + period;
+    }
+
+    private static double[] filled(int length) {
+        double[] array = new double[length];
+        Arrays.fill(array, 1.0);
+        return array;
+    }
+}
@@ -0,0 +1,82 @@
+package org.example.memberclubjavafx_assignment5.pricing;
+
+/**
+ * An immutable price breakdown for one cart line, a whole cart or a rental.
+ * All amounts are in öre (see Money). The total is always list price - discount + penalty.
+ * A surcharge (for example a weekend rule) shows up as a negative discount.
+ */
+public final class Quote {
+
+    // A quote for nothing, used as the start value when adding quotes together
+    public static final Quote EMPTY = new Quote(0, 0, 0);
+
+    private final long listPriceOre;
+    private final long discountOre;
+    private final long penaltyOre;
+
+    private Quote(long listPriceOre, long discountOre, long penaltyOre) {
+        this.listPriceOre = listPriceOre;
+        this.discountOre = discountOre;
+        this.penaltyOre = penaltyOre;
+    }
+
+    /**
+     * Creates a quote from the list price and the price after discounts.
+     * @param listPriceOre the price before any rules
+     * @param priceOre the price after all rules (before penalties)
+     * @param penaltyOre late fees, 0 if there are none
+     * @return the new quote
+     */
+    public static Quote of(long listPriceOre, long priceOre, long penaltyOre) {
+        return new Quote(listPriceOre, listPriceOre - priceOre, penaltyOre);
+    }
+
+    // Getters
+    public long getListPriceOre() {
+        return listPriceOre;
+    }
+
+    public long getDiscountOre() {
+        return discountOre;
+    }
+
+    public long getPenaltyOre() {
+        return penaltyOre;
+    }
+
+    public long getTotalOre() {
+        return listPriceOre - discountOre + penaltyOre;
+    }
+
+    /**
+     * Checks if the rules made the price lower than the list price.
+     * @return true if there is a discount
+     */
+    public boolean hasDiscount() {
+        return discountOre > 0;
+    }
+
+    /**
+     * Adds another quote to this one (for example one more line in the cart).
+     * @param other the quote to add
+     * @return a new quote with the sums
+     */
+    public Quote plus(Quote other) {
+        return new Quote(listPriceOre + other.listPriceOre, discountOre + other.discountOre, penaltyOre + other.penaltyOre);
+    }
+
+    /**
+     * Removes another quote from this one (for example a line that was removed from the cart).
+     * @param other the quote to remove
+     * @return a new quote with the differences
+     */
+    public Quote minus(Quote other) {
+        return new Quote(listPriceOre - other.listPriceOre, discountOre - other.discountOre, penaltyOre - other.penaltyOre);
+    }
+
+    // Returns string representation for easy printing or debugging
+    @Override
+    public String toString() {
+        return "Quote{" + "lista=" + listPriceOre + ", rabatt=" + discountOre + ", avgift=" + penaltyOre + ", totalt=" + getTotalOre() + "}";
+    }
+}
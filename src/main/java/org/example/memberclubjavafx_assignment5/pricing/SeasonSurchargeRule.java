@@ -0,0 +1,37 @@
+package org.example.memberclubjavafx_assignment5.pricing;
+
+import org.example.memberclubjavafx_assignment5.model.enums.ItemType;
+import java.time.Month;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Adds a surcharge (or a discount) for rentals that start in certain months, like boats in the summer.
+ */
+public class SeasonSurchargeRule implements PricingRule {
+
+    private final Set<Month> months;
+    private final double factor;
+    private final Set<ItemType> types;
+
+    /**
+     * @param months the months the rule applies to
+     * @param factor the price multiplier (1.2 means 20% more expensive)
+     * @param types the item types the rule applies to, or an empty set for all types
+     */
+    public SeasonSurchargeRule(Set<Month> months, double factor, Set<ItemType> types) {
+        this.months = EnumSet.copyOf(months);
+        this.factor = factor;
+        this.types = types.isEmpty() ? EnumSet.allOf(ItemType.class) : EnumSet.copyOf(types);
+    }
+
+    @Override
+    public void compileInto(PricingTable table) {
+
+        for (ItemType type : types) {
+            for (Month month : months) {
+                table.multiplySeason(type, month.ordinal(), factor);
+            }
+        }
+    }
+}
@@ -12,13 +12,13 @@ public class StandardPricing implements PricePolicy {
 
     // Implements the pricing calculation from PricePolicy interface
     @Override
-    public double calculatePrice(Item item, Member member, int duration, RentalPeriod period) {
+    public long calculatePrice(Item item, Member member, int duration, RentalPeriod period) {
 
         // Calculate cost based on a rental period (hourly or daily)
         if (period == RentalPeriod.HOURLY) {
-            return item.getPricePerHour() * duration;
+            return item.getPricePerHourOre() * duration;
         } else {
-            return item.getPricePerDay() * duration;
+            return item.getPricePerDayOre() * duration;
         }
     }
 }
@@ -0,0 +1,34 @@
+package org.example.memberclubjavafx_assignment5.pricing;
+
+import org.example.memberclubjavafx_assignment5.model.enums.ItemType;
+import org.example.memberclubjavafx_assignment5.model.enums.RentalPeriod;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Adds a surcharge when a rental starts on a Saturday or Sunday.
+ */
+public class WeekendSurchargeRule implements PricingRule {
+
+    private final double factor;
+    private final Set<ItemType> types;
+
+    /**
+     * @param factor the price multiplier (1.1 means 10% more expensive)
+     * @param types the item types the surcharge applies to, or an empty set for all types
+     */
+    public WeekendSurchargeRule(double factor, Set<ItemType> types) {
+        this.factor = factor;
+        this.types = types.isEmpty() ? EnumSet.allOf(ItemType.class) : EnumSet.copyOf(types);
+    }
+
+    @Override
+    public void compileInto(PricingTable table) {
+
+        for (ItemType type : types) {
+            for (RentalPeriod period : RentalPeriod.values()) {
+                table.multiplyWeekend(type, period, factor);
+            }
+        }
+    }
+}
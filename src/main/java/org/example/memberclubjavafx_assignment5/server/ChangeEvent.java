@@ -0,0 +1,23 @@
+package org.example.memberclubjavafx_assignment5.server;
+
+import org.example.memberclubjavafx_assignment5.model.Rental;
+import org.example.memberclubjavafx_assignment5.model.enums.ItemStatus;
+
+/**
+ * One change on the server, sent to all connected clients so their local copies stay up to date.
+ * @param sequence a number that grows by one for every change, so a client knows where it is in the stream
+ * @param type what happened
+ * @param rental the rental after the change
+ * @param itemId the item the rental is for
+ * @param itemStatus the status the item got
+ */
+public record ChangeEvent(long sequence, Type type, Rental rental, String itemId, ItemStatus itemStatus) {
+
+    /**
+     * The kinds of changes.
+     */
+    public enum Type {
+        RENTED,
+        RETURNED
+    }
+}
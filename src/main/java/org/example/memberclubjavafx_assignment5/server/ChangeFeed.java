@@ -0,0 +1,126 @@
+package org.example.memberclubjavafx_assignment5.server;
+
+import org.example.memberclubjavafx_assignment5.model.Rental;
+import org.example.memberclubjavafx_assignment5.model.enums.ItemStatus;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Keeps the latest changes on the server so clients can ask "what happened after number N?".
+ * A client that asks when nothing new has happened waits (long polling) until a change comes or the wait time is over,
+ * so changes reach the other desks almost at once without the clients asking all the time.
+ *
+ * Only the latest 10 000 changes are kept. A client that is further behind is told to load everything again.
+ */
+public class ChangeFeed {
+
+    // How many changes we keep
+    private static final int CAPACITY = 10_000;
+
+    private final ArrayDeque<ChangeEvent> events;
+    private long lastSequence;
+
+    // A ReentrantLock and not 'synchronized', since the waiting clients run on virtual threads
+    private final ReentrantLock lock;
+    private final Condition changed;
+
+    /**
+     * Creates an empty feed.
+     */
+    public ChangeFeed() {
+        this.events = new ArrayDeque<>();
+        this.lock = new ReentrantLock();
+        this.changed = lock.newCondition();
+    }
+
+    /**
+     * Adds a change and wakes up all waiting clients.
+     * @return the new event with its sequence number
+     */
+    public ChangeEvent publish(ChangeEvent.Type type, Rental rental, String itemId, ItemStatus itemStatus) {
+
+        lock.lock();
+
+        try {
+            ChangeEvent event = new ChangeEvent(++lastSequence, type, rental, itemId, itemStatus);
+
+            events.addLast(event);
+
+            if (events.size() > CAPACITY) {
+                events.removeFirst();
+            }
+
+            changed.signalAll();
+            return event;
+
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the changes after a sequence number, and waits for one if there are none yet.
+     * @param sequence the last sequence number the client has seen
+     * @param waitMillis how long to wait for a change (0 to answer at once)
+     * @return the changes, or a batch with resync set if the client is too far behind
+     * @throws InterruptedException if the waiting thread is interrupted
+     */
+    public Batch since(long sequence, long waitMillis) throws InterruptedException {
+
+        lock.lock();
+
+        try {
+            long remainingNanos = TimeUnit.MILLISECONDS.toNanos(waitMillis);
+
+            while (lastSequence <= sequence && remainingNanos > 0) {
+                remainingNanos = changed.awaitNanos(remainingNanos);
+            }
+
+            // The events the client needs are no longer kept (or the client comes from an older server run)
+            long oldestKept = events.isEmpty() ? lastSequence + 1 : events.peekFirst().sequence();
+
+            if (sequence + 1 < oldestKept || sequence > lastSequence) {
+                return new Batch(lastSequence, true, List.of());
+            }
+
+            List<ChangeEvent> newEvents = new ArrayList<>();
+
+            for (ChangeEvent event : events) {
+                if (event.sequence() > sequence) {
+                    newEvents.add(event);
+                }
+            }
+            return new Batch(lastSequence, false, newEvents);
+
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the sequence number of the latest change.
+     */
+    public long getLastSequence() {
+
+        lock.lock();
+
+        try {
+            return lastSequence;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * The answer to a client that asks for changes.
+     * @param lastSequence the newest sequence number on the server
+     * @param resync true if the client must load everything again
+     * @param events the changes after the client's sequence number
+     */
+    public record Batch(long lastSequence, boolean resync, List<ChangeEvent> events) {
+    }
+}
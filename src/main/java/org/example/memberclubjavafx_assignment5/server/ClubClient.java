@@ -0,0 +1,352 @@
+package org.example.memberclubjavafx_assignment5.server;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.reflect.TypeToken;
+import org.example.memberclubjavafx_assignment5.exceptions.ItemNotAvailableException;
+import org.example.memberclubjavafx_assignment5.exceptions.ItemNotFoundException;
+import org.example.memberclubjavafx_assignment5.exceptions.MemberNotFoundException;
+import org.example.memberclubjavafx_assignment5.exceptions.RemoteCallException;
+import org.example.memberclubjavafx_assignment5.exceptions.RentalNotFoundException;
+import org.example.memberclubjavafx_assignment5.exceptions.VersionConflictException;
+import org.example.memberclubjavafx_assignment5.model.Item;
+import org.example.memberclubjavafx_assignment5.model.Member;
+import org.example.memberclubjavafx_assignment5.model.Rental;
+import org.example.memberclubjavafx_assignment5.model.enums.ItemStatus;
+import org.example.memberclubjavafx_assignment5.model.enums.RentalPeriod;
+import org.example.memberclubjavafx_assignment5.service.GsonConfig;
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * A front desk's connection to the ClubServer.
+ * It keeps a local copy of the items, members and rentals, so looking things up never waits for the network.
+ * A background virtual thread asks the server for changes (long polling) and updates the copy as soon as another desk
+ * rents or returns something. Renting and returning are sent to the server, which decides if they are allowed.
+ *
+ * Errors from the server are thrown as the same exceptions the local services use (for example ItemNotAvailableException),
+ * so the calling code looks the same as with a local ClubSystem.
+ */
+public class ClubClient implements AutoCloseable {
+
+    // How long the server may hold one change request open
+    private static final long POLL_WAIT_MILLIS = 20_000;
+
+    private static final Type RENTAL_LIST = new TypeToken<List<Rental>>(){}.getType();
+
+    private final URI baseUri;
+    private final HttpClient httpClient;
+    private final Gson gson;
+
+    // The local copy
+    private final Map<String, Item> items;
+    private final Map<Integer, Member> members;
+    private final Map<String, Rental> rentals;
+
+    // The number of the latest change that is in the copy
+    private volatile long lastSequence;
+
+    // Everyone who wants to know about changes (called from the background thread)
+    private final List<Consumer<ChangeEvent>> listeners;
+
+    private volatile boolean running;
+    private Thread changeThread;
+
+    /**
+     * Creates a client. Call connect() to load the data and start following changes.
+     * @param baseUrl for example "http://localhost:8765"
+     */
+    public ClubClient(String baseUrl) {
+        this.baseUri = URI.create(baseUrl.endsWith("/") ? baseUrl : baseUrl + "/");
+        this.httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+        this.gson = GsonConfig.createCompactGson();
+        this.items = new ConcurrentHashMap<>();
+        this.members = new ConcurrentHashMap<>();
+        this.rentals = new ConcurrentHashMap<>();
+        this.listeners = new CopyOnWriteArrayList<>();
+    }
+
+    /**
+     * Loads everything from the server and starts following the changes in the background.
+     * @throws RemoteCallException if the server can't be reached
+     */
+    public void connect() {
+
+        loadSnapshot();
+
+        running = true;
+        changeThread = Thread.ofVirtual().name("Club-Client-Changes").start(this::followChanges);
+    }
+
+    /**
+     * Stops following changes.
+     */
+    @Override
+    public void close() {
+
+        running = false;
+
+        if (changeThread != null) {
+            changeThread.interrupt();
+        }
+    }
+
+    /**
+     * Rents an item on the server.
+     * @return the new rental
+     * @throws MemberNotFoundException if the member does not exist
+     * @throws ItemNotFoundException if the item does not exist
+     * @throws ItemNotAvailableException if another desk rented it first
+     */
+    public Rental rentItem(int memberId, String itemId, int duration, RentalPeriod period) {
+
+        Rental rental = post("rent", new ClubServer.RentRequest(memberId, itemId, duration, period, 1), Rental.class);
+
+        // Update our own copy at once, the same change also comes through the stream later
+        applyRental(rental, ItemStatus.RENTED);
+        return rental;
+    }
+
+    /**
+     * Returns a rental on the server. The version from the local copy is sent along when there is one.
+     * Without it the server still refuses a rental that another desk already returned.
+     * @return the completed rental
+     * @throws RentalNotFoundException if the rental does not exist
+     * @throws VersionConflictException if the rental changed on the server after the local copy was updated, or is already returned
+     */
+    public Rental returnItem(String rentalId) {
+
+        Rental cached = rentals.get(rentalId);
+        Long expectedVersion = cached != null ? cached.getVersion() : null;
+
+        Rental rental = post("return", new ClubServer.ReturnRequest(rentalId, expectedVersion), Rental.class);
+
+        applyRental(rental, ItemStatus.AVAILABLE);
+        return rental;
+    }
+
+    /**
+     * Asks the server for the dashboard numbers.
+     */
+    public ClubServer.Stats getStats() {
+        return get("stats", ClubServer.Stats.class);
+    }
+
+    /**
+     * Asks the server for a member's rentals (not from the local copy).
+     * @param memberId the member
+     * @param activeOnly true to only get rentals that are not returned
+     */
+    public List<Rental> queryRentals(int memberId, boolean activeOnly) {
+        return get("rentals?memberId=" + memberId + "&active=" + activeOnly, RENTAL_LIST);
+    }
+
+    /**
+     * Adds a listener that is told about every change from the server.
+     * @param listener called from the background thread, a window must move the update to the JavaFX thread itself
+     */
+    public void addChangeListener(Consumer<ChangeEvent> listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Removes a listener.
+     */
+    public void removeChangeListener(Consumer<ChangeEvent> listener) {
+        listeners.remove(listener);
+    }
+
+    // Reading from the local copy
+    public Item getItem(String itemId) {
+        return items.get(itemId);
+    }
+
+    public Member getMember(int memberId) {
+        return members.get(memberId);
+    }
+
+    public Rental getRental(String rentalId) {
+        return rentals.get(rentalId);
+    }
+
+    public Collection<Item> getAllItems() {
+        return items.values();
+    }
+
+    public Collection<Member> getAllMembers() {
+        return members.values();
+    }
+
+    public List<Rental> getActiveRentals() {
+
+        List<Rental> active = new ArrayList<>();
+
+        for (Rental rental : rentals.values()) {
+            if (rental.isActive()) {
+                active.add(rental);
+            }
+        }
+        return active;
+    }
+
+    public long getLastSequence() {
+        return lastSequence;
+    }
+
+    // Replaces the local copy with everything from the server
+    private void loadSnapshot() {
+
+        ClubServer.Snapshot snapshot = get("snapshot", ClubServer.Snapshot.class);
+
+        items.clear();
+        members.clear();
+        rentals.clear();
+
+        for (Item item : snapshot.items()) {
+            items.put(item.getId(), item);
+        }
+        for (Member member : snapshot.members()) {
+            members.put(member.getId(), member);
+        }
+        for (Rental rental : snapshot.rentals()) {
+            rentals.put(rental.getRentalId(), rental);
+        }
+
+        lastSequence = snapshot.sequence();
+    }
+
+    // The loop of the background thread
+    private void followChanges() {
+
+        while (running) {
+
+            try {
+                ChangeFeed.Batch batch = get("changes?since=" + lastSequence + "&waitMs=" + POLL_WAIT_MILLIS, ChangeFeed.Batch.class);
+
+                if (batch.resync()) {
+                    // We missed too much (or the server was restarted), so we start over
+                    loadSnapshot();
+                    continue;
+                }
+
+                for (ChangeEvent event : batch.events()) {
+
+                    applyRental(event.rental(), event.itemStatus());
+                    lastSequence = event.sequence();
+
+                    for (Consumer<ChangeEvent> listener : listeners) {
+                        listener.accept(event);
+                    }
+                }
+
+            } catch (RemoteCallException exception) {
+
+                if (!running) {
+                    return;
+                }
+
+                // The server is gone for the moment, try again in a second
+                System.err.println("Tappade kontakten med servern: " + exception.getMessage());
+
+                try {
+                    Thread.sleep(1000);
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+            }
+        }
+    }
+
+    // Puts a rental and the new item status into the local copy
+    private void applyRental(Rental rental, ItemStatus itemStatus) {
+
+        // Our own return is put in the copy at once, so the stream may bring the older "rented" change afterwards.
+        // The version tells which copy is newer, and an older one is ignored.
+        Rental known = rentals.get(rental.getRentalId());
+
+        if (known != null && known.getVersion() > rental.getVersion()) {
+            return;
+        }
+
+        rentals.put(rental.getRentalId(), rental);
+
+        Item item = items.get(rental.getItemId());
+
+        if (item != null) {
+            item.setStatus(itemStatus);
+        }
+    }
+
+    // Sends a GET request and reads the answer
+    private <T> T get(String path, Type type) {
+        return send(HttpRequest.newBuilder(baseUri.resolve(path)).GET(), type);
+    }
+
+    // Sends a POST request with a JSON body and reads the answer
+    private <T> T post(String path, Object body, Type type) {
+
+        HttpRequest.Builder request = HttpRequest.newBuilder(baseUri.resolve(path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(gson.toJson(body)));
+
+        return send(request, type);
+    }
+
+    // Sends the request and turns error answers back into our exceptions
+    private <T> T send(HttpRequest.Builder request, Type type) {
+
+        HttpResponse<String> response;
+
+        try {
+            response = httpClient.send(request.timeout(Duration.ofMillis(POLL_WAIT_MILLIS + 10_000)).build(),
+                    HttpResponse.BodyHandlers.ofString());
+
+        } catch (IOException exception) {
+            throw new RemoteCallException("Kunde inte nå servern på " + baseUri, exception);
+
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new RemoteCallException("Anropet avbröts", exception);
+        }
+
+        try {
+            if (response.statusCode() == 200) {
+                return gson.fromJson(response.body(), type);
+            }
+
+            ClubServer.ErrorResponse error = gson.fromJson(response.body(), ClubServer.ErrorResponse.class);
+            throw toException(response.statusCode(), error);
+
+        } catch (JsonParseException exception) {
+            throw new RemoteCallException("Servern svarade med något som inte är JSON (status " + response.statusCode() + ")", exception);
+        }
+    }
+
+    // Turns an error answer back into the exception the server threw
+    private static RuntimeException toException(int status, ClubServer.ErrorResponse error) {
+
+        String message = error != null ? error.error() : "Fel från servern";
+        String type = error != null ? error.type() : "";
+
+        return switch (type) {
+            case "MemberNotFoundException" -> new MemberNotFoundException(message);
+            case "ItemNotFoundException" -> new ItemNotFoundException(message);
+            case "RentalNotFoundException" -> new RentalNotFoundException(message);
+            case "ItemNotAvailableException" -> new ItemNotAvailableException(message);
+            case "VersionConflictException" -> new VersionConflictException(message);
+            default -> status == 400 ? new IllegalArgumentException(message) : new RemoteCallException(message + " (status " + status + ")");
+        };
+    }
+}
@@ -0,0 +1,395 @@
+package org.example.memberclubjavafx_assignment5.server;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.example.memberclubjavafx_assignment5.diagnostics.MetricsRegistry;
+import org.example.memberclubjavafx_assignment5.diagnostics.Timer;
+import org.example.memberclubjavafx_assignment5.exceptions.ItemNotAvailableException;
+import org.example.memberclubjavafx_assignment5.exceptions.ItemNotFoundException;
+import org.example.memberclubjavafx_assignment5.exceptions.MemberNotFoundException;
+import org.example.memberclubjavafx_assignment5.exceptions.RentalNotFoundException;
+import org.example.memberclubjavafx_assignment5.exceptions.VersionConflictException;
+import org.example.memberclubjavafx_assignment5.model.Item;
+import org.example.memberclubjavafx_assignment5.model.Member;
+import org.example.memberclubjavafx_assignment5.model.Rental;
+import org.example.memberclubjavafx_assignment5.model.enums.ItemStatus;
+import org.example.memberclubjavafx_assignment5.model.enums.RentalPeriod;
+import org.example.memberclubjavafx_assignment5.model.enums.RentalStatus;
+import org.example.memberclubjavafx_assignment5.service.GsonConfig;
+import org.example.memberclubjavafx_assignment5.service.RentalColumnStore;
+import org.example.memberclubjavafx_assignment5.system.ClubSystem;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Lets several front desks share one ClubSystem, instead of every desk having its own data folder.
+ * The server owns the data, and the desks talk to it with small JSON messages over HTTP (see ClubClient).
+ * It only listens on this computer's loopback address (127.0.0.1), so it can't be reached from the network by mistake.
+ *
+ * Endpoints:
+ *   GET  /snapshot                      everything (items, members, rentals) plus the current change number
+ *   GET  /rentals?memberId=1&active=true rentals, optionally filtered
+ *   GET  /stats                         the dashboard numbers
+ *   POST /rent    {"memberId":1,"itemId":"TENT-001","duration":2,"period":"DAILY"}
+ *   POST /return  {"rentalId":"RENT-1001","expectedVersion":0}
+ *   GET  /changes?since=N&waitMs=20000  the changes after number N (waits for one if there are none yet)
+ *
+ * The services are not thread safe, so every request that touches the data holds one lock.
+ * Each request runs on its own virtual thread, so clients waiting for changes cost almost nothing.
+ * The data is saved by the normal autosave job and when the server stops.
+ */
+public class ClubServer {
+
+    // The port the server uses if no other port is given
+    public static final int DEFAULT_PORT = 8765;
+
+    // The longest time a client may wait for changes in one request
+    private static final long MAX_WAIT_MILLIS = 30_000;
+
+    static {
+        // The JDK server holds back small answers while it waits for an ACK (Nagle's algorithm), which added about 40 ms
+        // to every call in the load test. Must be set before the first HttpServer is created, and can still be overridden with -D.
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    private final ClubSystem system;
+    private final HttpServer httpServer;
+    private final ExecutorService requestThreads;
+    private final ChangeFeed changeFeed;
+    private final Gson gson;
+
+    // Held while a request reads or changes the data
+    private final ReentrantLock stateLock;
+
+    /**
+     * Creates the server. Call start() to begin taking requests.
+     * @param system the system that owns the data
+     * @param port the port to listen on (0 picks a free port, see getPort())
+     * @throws IOException if the port can't be used
+     */
+    public ClubServer(ClubSystem system, int port) throws IOException {
+
+        this.system = system;
+        this.changeFeed = new ChangeFeed();
+        this.gson = GsonConfig.createCompactGson();
+        this.stateLock = new ReentrantLock();
+
+        this.httpServer = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        this.requestThreads = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("Server-", 0).factory());
+        this.httpServer.setExecutor(requestThreads);
+
+        httpServer.createContext("/snapshot", exchange -> handle(exchange, "GET", this::snapshot));
+        httpServer.createContext("/rentals", exchange -> handle(exchange, "GET", this::rentals));
+        httpServer.createContext("/stats", exchange -> handle(exchange, "GET", this::stats));
+        httpServer.createContext("/rent", exchange -> handle(exchange, "POST", this::rent));
+        httpServer.createContext("/return", exchange -> handle(exchange, "POST", this::returnRental));
+        httpServer.createContext("/changes", exchange -> handle(exchange, "GET", this::changes));
+    }
+
+    /**
+     * Starts taking requests.
+     */
+    public void start() {
+        httpServer.start();
+        System.out.println("Servern lyssnar på http://localhost:" + getPort());
+    }
+
+    /**
+     * Stops the server. Requests that are running get a second to finish. The data is not saved here, call system.shutdown() for that.
+     */
+    public void stop() {
+        httpServer.stop(1);
+        requestThreads.shutdownNow();
+    }
+
+    /**
+     * Returns the port the server listens on.
+     */
+    public int getPort() {
+        return httpServer.getAddress().getPort();
+    }
+
+    /**
+     * Returns the change feed, so tools on the server can see the changes too.
+     */
+    public ChangeFeed getChangeFeed() {
+        return changeFeed;
+    }
+
+    // GET /snapshot
+    private Object snapshot(HttpExchange exchange) {
+
+        stateLock.lock();
+
+        try {
+            // The change number is read under the same lock, so the client knows exactly which changes are not in the snapshot
+            return new Snapshot(changeFeed.getLastSequence(),
+                    system.getInventory().snapshot(),
+                    system.getMemberRegistry().snapshot(),
+                    system.getRentalService().getAllRentals());
+
+        } finally {
+            stateLock.unlock();
+        }
+    }
+
+    // GET /rentals?memberId=1&active=true
+    private Object rentals(HttpExchange exchange) {
+
+        Map<String, String> query = parseQuery(exchange.getRequestURI());
+
+        Integer memberId = query.containsKey("memberId") ? Integer.valueOf(query.get("memberId")) : null;
+        boolean activeOnly = Boolean.parseBoolean(query.get("active"));
+
+        stateLock.lock();
+
+        try {
+            List<Rental> result = new ArrayList<>();
+
+            for (Rental rental : system.getRentalService().getAllRentals()) {
+
+                if (memberId != null && rental.getMemberId() != memberId) continue;
+                if (activeOnly && !rental.isActive()) continue;
+
+                result.add(rental);
+            }
+            return result;
+
+        } finally {
+            stateLock.unlock();
+        }
+    }
+
+    // GET /stats
+    private Object stats(HttpExchange exchange) {
+
+        stateLock.lock();
+
+        try {
+            RentalColumnStore columnStore = system.getRentalService().getColumnStore();
+
+            return new Stats(system.getInventory().getItemCount(),
+                    system.getMemberRegistry().getMemberCount(),
+                    columnStore.size(),
+                    columnStore.countByStatus(RentalStatus.ACTIVE),
+                    columnStore.countOverdue(LocalDateTime.now()),
+                    columnStore.sumCost());
+
+        } finally {
+            stateLock.unlock();
+        }
+    }
+
+    // POST /rent
+    private Object rent(HttpExchange exchange) throws IOException {
+
+        RentRequest request = readBody(exchange, RentRequest.class);
+
+        if (request.itemId() == null || request.period() == null || request.duration() <= 0) {
+            throw new IllegalArgumentException("memberId, itemId, duration och period måste anges");
+        }
+
+        stateLock.lock();
+
+        try {
+            Rental rental = system.getRentalService().rentItem(request.memberId(), request.itemId(), request.duration(),
+                    request.period(), Math.max(1, request.bundleSize()));
+
+            changeFeed.publish(ChangeEvent.Type.RENTED, rental, rental.getItemId(), ItemStatus.RENTED);
+            return rental;
+
+        } finally {
+            stateLock.unlock();
+        }
+    }
+
+    // POST /return
+    private Object returnRental(HttpExchange exchange) throws IOException {
+
+        ReturnRequest request = readBody(exchange, ReturnRequest.class);
+
+        if (request.rentalId() == null) {
+            throw new IllegalArgumentException("rentalId måste anges");
+        }
+
+        stateLock.lock();
+
+        try {
+            // Without a version only the rental's state is checked: a rental that is already returned gives a conflict
+            system.getRentalService().returnItem(request.rentalId(), request.expectedVersion() != null ? request.expectedVersion() : -1);
+
+            Rental rental = system.getRentalService().getRental(request.rentalId());
+            Item item = system.getInventory().getItem(rental.getItemId());
+            ItemStatus status = item != null ? item.getStatus() : ItemStatus.AVAILABLE;
+
+            changeFeed.publish(ChangeEvent.Type.RETURNED, rental, rental.getItemId(), status);
+            return rental;
+
+        } finally {
+            stateLock.unlock();
+        }
+    }
+
+    // GET /changes?since=N&waitMs=20000. Doesn't take the state lock, the feed has its own.
+    private Object changes(HttpExchange exchange) throws InterruptedException {
+
+        Map<String, String> query = parseQuery(exchange.getRequestURI());
+
+        long since = Long.parseLong(query.getOrDefault("since", "0"));
+        long waitMillis = Math.min(MAX_WAIT_MILLIS, Long.parseLong(query.getOrDefault("waitMs", "0")));
+
+        return changeFeed.since(since, waitMillis);
+    }
+
+    /**
+     * Runs one request: checks the method, runs the handler and sends the result as JSON.
+     * Errors are sent as {"error": "...", "type": "ItemNotAvailableException"} with a fitting status code,
+     * so the client can throw the same exception again.
+     */
+    private void handle(HttpExchange exchange, String method, Handler handler) throws IOException {
+
+        Timer timer = MetricsRegistry.timer("server." + exchange.getHttpContext().getPath().substring(1));
+        long start = System.nanoTime();
+
+        try (exchange) {
+
+            int status;
+            Object body;
+
+            if (!exchange.getRequestMethod().equals(method)) {
+                status = 405;
+                body = new ErrorResponse("Endast " + method + " stöds", "MethodNotAllowed");
+
+            } else {
+
+                try {
+                    body = handler.handle(exchange);
+                    status = 200;
+
+                } catch (MemberNotFoundException | ItemNotFoundException | RentalNotFoundException exception) {
+                    status = 404;
+                    body = new ErrorResponse(exception.getMessage(), exception.getClass().getSimpleName());
+
+                } catch (ItemNotAvailableException | VersionConflictException exception) {
+                    status = 409;
+                    body = new ErrorResponse(exception.getMessage(), exception.getClass().getSimpleName());
+
+                } catch (IllegalArgumentException | JsonParseException exception) {
+                    status = 400;
+                    body = new ErrorResponse(exception.getMessage(), exception.getClass().getSimpleName());
+
+                } catch (InterruptedException exception) {
+                    // The server is stopping
+                    Thread.currentThread().interrupt();
+                    status = 503;
+                    body = new ErrorResponse("Servern stängs av", "ServiceUnavailable");
+
+                } catch (Exception exception) {
+                    status = 500;
+                    body = new ErrorResponse(exception.getMessage(), exception.getClass().getSimpleName());
+                }
+            }
+
+            byte[] json = gson.toJson(body).getBytes(StandardCharsets.UTF_8);
+
+            exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+            exchange.sendResponseHeaders(status, json.length);
+
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(json);
+            }
+
+        } finally {
+            timer.record(start);
+        }
+    }
+
+    // Reads the request body as JSON
+    private <T> T readBody(HttpExchange exchange, Class<T> type) throws IOException {
+
+        try (InputStream in = exchange.getRequestBody()) {
+
+            T request = gson.fromJson(new String(in.readAllBytes(), StandardCharsets.UTF_8), type);
+
+            if (request == null) {
+                throw new IllegalArgumentException("Tom förfrågan");
+            }
+            return request;
+        }
+    }
+
+    // Splits "a=1&b=2" into a map (our values never need URL decoding)
+    private static Map<String, String> parseQuery(URI uri) {
+
+        Map<String, String> result = new HashMap<>();
+        String query = uri.getRawQuery();
+
+        if (query == null) {
+            return result;
+        }
+
+        for (String pair : query.split("&")) {
+
+            int equals = pair.indexOf('=');
+
+            if (equals > 0) {
+                result.put(pair.substring(0, equals), pair.substring(equals + 1));
+            }
+        }
+        return result;
+    }
+
+    // The work of one endpoint
+    private interface Handler {
+        Object handle(HttpExchange exchange) throws Exception;
+    }
+
+    /**
+     * Everything the client needs to fill its local copy.
+     * @param sequence the change number the snapshot matches, the client asks for changes after it
+     */
+    public record Snapshot(long sequence, List<Item> items, List<Member> members, List<Rental> rentals) {
+    }
+
+    /**
+     * The dashboard numbers.
+     */
+    public record Stats(int items, int members, int rentals, int activeRentals, int overdueRentals, long totalRevenueOre) {
+    }
+
+    /**
+     * The body of POST /rent. bundleSize is optional (0 means 1).
+     */
+    public record RentRequest(int memberId, String itemId, int duration, RentalPeriod period, int bundleSize) {
+    }
+
+    /**
+     * The body of POST /return. With expectedVersion the return is turned down (409) if the rental changed after the client read it.
+     */
+    public record ReturnRequest(String rentalId, Long expectedVersion) {
+    }
+
+    /**
+     * The body of an error answer.
+     * @param type the simple class name of the exception
+     */
+    public record ErrorResponse(String error, String type) {
+    }
+}
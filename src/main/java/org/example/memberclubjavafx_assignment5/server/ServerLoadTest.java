@@ -0,0 +1,356 @@
+package org.example.memberclubjavafx_assignment5.server;
+
+import org.example.memberclubjavafx_assignment5.exceptions.ItemNotAvailableException;
+import org.example.memberclubjavafx_assignment5.model.Item;
+import org.example.memberclubjavafx_assignment5.model.Rental;
+import org.example.memberclubjavafx_assignment5.model.enums.ItemStatus;
+import org.example.memberclubjavafx_assignment5.model.enums.RentalPeriod;
+import org.example.memberclubjavafx_assignment5.system.ClubSystem;
+import org.example.memberclubjavafx_assignment5.system.LatencyHistogram;
+import org.example.memberclubjavafx_assignment5.system.SyntheticDataGenerator;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A load test for server mode, run entirely on this computer.
+ * It starts a ClubServer on a free port over a generated data set, connects N clients (each one like a front desk)
+ * and lets every client rent and return as fast as it can for a number of seconds.
+ * Afterwards it prints the throughput and how long the slowest calls took, plus how many changes the clients got through the stream.
+ *
+ * Usage: ServerLoadTest [--clients 8] [--seconds 10] [--warmup 2] [--members 200] [--items 2000] [--seed 42] [--server http://localhost:8765]
+ * With --server the test drives an already running server instead of starting its own (it then changes that server's data!).
+ */
+public class ServerLoadTest {
+
+    private final int clients;
+    private final int seconds;
+    private final int warmupSeconds;
+    private final SplittableRandom seedRandom;
+
+    // Set when the warmup is over, before that nothing is recorded
+    private volatile boolean recording;
+    private volatile boolean running;
+
+    // Changes that arrived through the streams of all clients
+    private final LongAdder streamedEvents = new LongAdder();
+
+    /**
+     * Creates a load test.
+     * @param clients the number of clients that run at the same time
+     * @param seconds how long to measure
+     * @param warmupSeconds how long to run before measuring
+     * @param seed decides which items and members the clients pick
+     */
+    public ServerLoadTest(int clients, int seconds, int warmupSeconds, long seed) {
+
+        if (clients < 1 || seconds < 1) {
+            throw new IllegalArgumentException("Antal klienter och sekunder måste vara minst 1");
+        }
+
+        this.clients = clients;
+        this.seconds = seconds;
+        this.warmupSeconds = Math.max(0, warmupSeconds);
+        this.seedRandom = new SplittableRandom(seed);
+    }
+
+    /**
+     * Runs the test against a server.
+     * @param baseUrl the address of the server, for example "http://localhost:8765"
+     * @return the combined results of all clients
+     */
+    public Result run(String baseUrl) throws InterruptedException {
+
+        List<Worker> workers = new ArrayList<>();
+        List<Thread> threads = new ArrayList<>();
+
+        for (int i = 0; i < clients; i++) {
+
+            ClubClient client = new ClubClient(baseUrl);
+            client.connect();
+            client.addChangeListener(event -> {
+                if (recording) {
+                    streamedEvents.increment();
+                }
+            });
+
+            Worker worker = new Worker(client, seedRandom.split());
+            workers.add(worker);
+        }
+
+        running = true;
+
+        // Every client gets its own virtual thread, like a desk that only waits for the server
+        for (Worker worker : workers) {
+            threads.add(Thread.ofVirtual().name("Load-Client-" + threads.size()).start(worker));
+        }
+
+        Thread.sleep(warmupSeconds * 1000L);
+        recording = true;
+
+        long start = System.nanoTime();
+        Thread.sleep(seconds * 1000L);
+        recording = false;
+        long elapsedNanos = System.nanoTime() - start;
+
+        running = false;
+
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        Result result = new Result(clients, elapsedNanos);
+
+        for (Worker worker : workers) {
+            worker.client.close();
+            result.add(worker);
+        }
+        result.streamedEvents = streamedEvents.sum();
+
+        return result;
+    }
+
+    /**
+     * One client that rents and returns in a closed loop.
+     */
+    private class Worker implements Runnable {
+
+        private final ClubClient client;
+        private final SplittableRandom random;
+        private final List<String> itemIds;
+        private final List<Integer> memberIds;
+
+        // The rentals this client made and hasn't returned yet
+        private final Deque<String> ownRentals = new ArrayDeque<>();
+
+        private final LatencyHistogram rentHistogram = new LatencyHistogram();
+        private final LatencyHistogram returnHistogram = new LatencyHistogram();
+        private long conflicts;
+        private long errors;
+
+        private Worker(ClubClient client, SplittableRandom random) {
+            this.client = client;
+            this.random = random;
+
+            // Copies of the ids, so we can pick at random without going through the whole cache every time
+            this.itemIds = new ArrayList<>();
+            this.memberIds = new ArrayList<>();
+
+            for (Item item : client.getAllItems()) {
+                itemIds.add(item.getId());
+            }
+            client.getAllMembers().forEach(member -> memberIds.add(member.getId()));
+        }
+
+        @Override
+        public void run() {
+
+            while (running) {
+
+                // Keep a few rentals going, then return them again, so the items don't run out
+                boolean rent = ownRentals.size() < 3 || (ownRentals.size() < 10 && random.nextBoolean());
+                long start = System.nanoTime();
+
+                try {
+                    if (rent) {
+                        String itemId = pickAvailableItem();
+
+                        if (itemId == null) {
+                            continue;
+                        }
+
+                        int memberId = memberIds.get(random.nextInt(memberIds.size()));
+                        Rental rental = client.rentItem(memberId, itemId, 1 + random.nextInt(3), RentalPeriod.DAILY);
+                        ownRentals.add(rental.getRentalId());
+
+                        if (recording) {
+                            rentHistogram.record(System.nanoTime() - start);
+                        }
+
+                    } else {
+                        client.returnItem(ownRentals.poll());
+
+                        if (recording) {
+                            returnHistogram.record(System.nanoTime() - start);
+                        }
+                    }
+
+                } catch (ItemNotAvailableException exception) {
+
+                    // Another client rented the same item first. That is normal with many desks, so it is counted apart.
+                    if (recording) {
+                        conflicts++;
+                    }
+
+                } catch (RuntimeException exception) {
+
+                    if (recording) {
+                        errors++;
+                    }
+                }
+            }
+
+            // Give the items back, so the next run starts with the same amount of free items
+            while (!ownRentals.isEmpty()) {
+                try {
+                    client.returnItem(ownRentals.poll());
+                } catch (RuntimeException exception) {
+                    errors++;
+                }
+            }
+        }
+
+        // Picks an item that is free according to the local copy (it may still be taken by the time the server gets the call)
+        private String pickAvailableItem() {
+
+            for (int attempt = 0; attempt < 20; attempt++) {
+
+                Item item = client.getItem(itemIds.get(random.nextInt(itemIds.size())));
+
+                if (item != null && item.getStatus() == ItemStatus.AVAILABLE) {
+                    return item.getId();
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * The combined numbers of all clients.
+     */
+    public static class Result {
+
+        private final int clients;
+        private final long elapsedNanos;
+        private final LatencyHistogram rentHistogram = new LatencyHistogram();
+        private final LatencyHistogram returnHistogram = new LatencyHistogram();
+        private long conflicts;
+        private long errors;
+        private long streamedEvents;
+
+        private Result(int clients, long elapsedNanos) {
+            this.clients = clients;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        private void add(Worker worker) {
+            rentHistogram.add(worker.rentHistogram);
+            returnHistogram.add(worker.returnHistogram);
+            conflicts += worker.conflicts;
+            errors += worker.errors;
+        }
+
+        /**
+         * Returns the report as text.
+         */
+        public String toText() {
+
+            double elapsedSeconds = elapsedNanos / 1e9;
+            long operations = rentHistogram.getCount() + returnHistogram.getCount();
+
+            StringBuilder text = new StringBuilder();
+            text.append("Klienter: ").append(clients).append(", mättid: ").append(Math.round(elapsedSeconds)).append(" s\n");
+            text.append("Operationer: ").append(operations)
+                    .append(" (").append(Math.round(operations / elapsedSeconds)).append(" per sekund)\n");
+            text.append("Krockar (artikeln redan uthyrd): ").append(conflicts).append(", fel: ").append(errors).append('\n');
+            text.append("Ändringar via strömmen: ").append(streamedEvents)
+                    .append(" (").append(Math.round(streamedEvents / elapsedSeconds)).append(" per sekund till alla klienter)\n");
+            appendLatency(text, "Hyra", rentHistogram);
+            appendLatency(text, "Återlämna", returnHistogram);
+
+            return text.toString();
+        }
+
+        private static void appendLatency(StringBuilder text, String name, LatencyHistogram histogram) {
+
+            if (histogram.getCount() == 0) {
+                text.append(name).append(": inga mätvärden\n");
+                return;
+            }
+
+            text.append(name).append(": ").append(histogram.getCount()).append(" st, ")
+                    .append("p50 ").append(toMicros(histogram.getValueAtPercentile(50))).append(" µs, ")
+                    .append("p99 ").append(toMicros(histogram.getValueAtPercentile(99))).append(" µs, ")
+                    .append("p99.9 ").append(toMicros(histogram.getValueAtPercentile(99.9))).append(" µs, ")
+                    .append("max ").append(toMicros(histogram.getMax())).append(" µs\n");
+        }
+
+        private static long toMicros(long nanos) {
+            return nanos / 1000;
+        }
+    }
+
+    /**
+     * Runs the load test from the command line and prints the report.
+     * @param args the settings, all are optional
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+
+        int clients = 8;
+        int seconds = 10;
+        int warmupSeconds = 2;
+        int members = 200;
+        int items = 2000;
+        long seed = 42;
+        String serverUrl = null;
+
+        for (int i = 0; i + 1 < args.length; i += 2) {
+
+            String value = args[i + 1];
+
+            switch (args[i]) {
+                case "--clients" -> clients = Integer.parseInt(value);
+                case "--seconds" -> seconds = Integer.parseInt(value);
+                case "--warmup" -> warmupSeconds = Integer.parseInt(value);
+                case "--members" -> members = Integer.parseInt(value);
+                case "--items" -> items = Integer.parseInt(value);
+                case "--seed" -> seed = Long.parseLong(value);
+                case "--server" -> serverUrl = value;
+                default -> throw new IllegalArgumentException("Okänd inställning: " + args[i]);
+            }
+        }
+
+        ServerLoadTest test = new ServerLoadTest(clients, seconds, warmupSeconds, seed);
+
+        if (serverUrl != null) {
+            System.out.print(test.run(serverUrl).toText());
+            return;
+        }
+
+        // Our own server over a fresh data set in a temporary folder, with a short history so it starts fast
+        Path folder = Files.createTempDirectory("memberclub-server-test");
+        new SyntheticDataGenerator(seed, members, items, 1, 2, LocalDate.now().atStartOfDay()).writeTo(folder + "/");
+
+        ClubSystem system = new ClubSystem(folder + "/");
+        ClubServer server = new ClubServer(system, 0);
+        server.start();
+
+        try {
+            System.out.println("Startar " + clients + " klienter mot http://localhost:" + server.getPort() + " ...");
+            System.out.print(test.run("http://localhost:" + server.getPort()).toText());
+
+        } finally {
+            server.stop();
+            system.stopBackgroundTasks();
+            deleteFolder(folder);
+        }
+    }
+
+    // Removes the temporary data folder, a failed delete is not worth stopping the report for
+    private static void deleteFolder(Path folder) {
+
+        try (var paths = Files.walk(folder)) {
+            paths.sorted((a, b) -> b.getNameCount() - a.getNameCount()).forEach(path -> path.toFile().delete());
+
+        } catch (IOException exception) {
+            System.err.println("Kunde inte ta bort " + folder + ": " + exception.getMessage());
+        }
+    }
+}
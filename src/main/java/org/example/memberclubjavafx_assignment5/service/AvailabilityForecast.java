@@ -0,0 +1,294 @@
+package org.example.memberclubjavafx_assignment5.service;
+
+import org.example.memberclubjavafx_assignment5.model.Rental;
+import org.example.memberclubjavafx_assignment5.model.enums.ItemType;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Answers 'when is the next kayak back?' and 'how many tents are back by Friday?' when every item of a type is rented out.
+ *
+ * For every ItemType the active rentals are kept sorted by their expected return date, earliest first, like a min-heap.
+ * We use a TreeSet instead of a PriorityQueue because a return can remove any rental, not just the first one,
+ * and a TreeSet does that in O(log n) where a PriorityQueue has to search.
+ * - the next return of a type is the first entry, and the next one that isn't late yet is found with ceiling, both O(log n)
+ * - the number back before a time only walks the rentals that are back before it
+ * - the expected return of one item is a map lookup
+ *
+ * RentalService keeps it up to date on every rent, return and load, so nothing is ever built from the whole history.
+ * Rentals without an expected return date, or for items we don't know, are left out (the integrity check reports those).
+ */
+public class AvailabilityForecast {
+
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("HH:mm");
+    private static final DateTimeFormatter DAY_FORMAT = DateTimeFormatter.ofPattern("EEEE d/M", Locale.forLanguageTag("sv-SE"));
+
+    // Earliest return first. The rental id decides between two rentals that are due at the same minute.
+    private static final Comparator<ExpectedReturn> BY_RETURN_DATE =
+            Comparator.comparing(ExpectedReturn::expectedReturnDate).thenComparing(ExpectedReturn::rentalId);
+
+    // The active rentals of each type, earliest return first
+    private final Map<ItemType, TreeSet<ExpectedReturn>> byType = new EnumMap<>(ItemType.class);
+
+    // Rental id -> where it is filed, so a return can find and remove it
+    private final Map<String, Filed> byRentalId = new HashMap<>();
+
+    // Item id -> when it is expected back
+    private final Map<String, ExpectedReturn> byItemId = new HashMap<>();
+
+    // Rentals and returns come from the JavaFX thread and the server's virtual threads (so a ReentrantLock, not 'synchronized').
+    // Everything in here is a few map and tree operations, so nobody waits long.
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /**
+     * One rented item and when it should come back.
+     * @param rentalId the active rental
+     * @param itemId the rented item
+     * @param expectedReturnDate when the member should bring it back
+     */
+    public record ExpectedReturn(String rentalId, String itemId, LocalDateTime expectedReturnDate) {
+
+        /**
+         * True if it should already have been returned.
+         */
+        public boolean isOverdue(LocalDateTime now) {
+            return expectedReturnDate.isBefore(now);
+        }
+    }
+
+    // An entry and the type tree it is in
+    private record Filed(ItemType type, ExpectedReturn expectedReturn) {
+    }
+
+    /**
+     * The outlook for one item type, as shown when none is available.
+     * @param type the item type
+     * @param rentedOut how many of the type are rented out right now
+     * @param overdue how many of those should already have been returned (they can turn up at any moment)
+     * @param next the rental that is due back first of those that aren't late yet, or null if there is none
+     * @param backToday how many are due back before midnight (late ones included)
+     * @param friday the Friday the next number is counted to (the coming one, or next week's if today is Friday)
+     * @param backByFriday how many are due back before that Friday ends (late ones included)
+     * @param now the time the outlook was made
+     */
+    public record Outlook(ItemType type, int rentedOut, int overdue, ExpectedReturn next, int backToday, LocalDate friday, int backByFriday, LocalDateTime now) {
+
+        /**
+         * The outlook in a couple of sentences, for example
+         * "Nästa kajak väntas tillbaka kl 14:30. 1 st är försenade och kan komma när som helst. 2 st väntas tillbaka i dag, 3 st senast fredag 23/10."
+         * @param typeName the name of the type in the sentences, for example "kajak"
+         */
+        public String describe(String typeName) {
+
+            if (rentedOut == 0) {
+                return "Ingen " + typeName + " är uthyrd, så ingen väntas tillbaka.";
+            }
+
+            String text = next != null
+                    ? "Nästa " + typeName + " väntas tillbaka " + when(next.expectedReturnDate(), now) + "."
+                    : "Alla uthyrda är försenade.";
+
+            if (overdue > 0) {
+                text += " " + overdue + " st är försenade och kan komma när som helst.";
+            }
+
+            return text + " " + backToday + " st väntas tillbaka i dag, " + backByFriday + " st senast " + DAY_FORMAT.format(friday) + ".";
+        }
+    }
+
+    /**
+     * Files a rental, if it is active. Called by RentalService when a rental is created or loaded.
+     * @param rental the rental
+     * @param type the type of the rented item, or null if the item is unknown
+     */
+    public void add(Rental rental, ItemType type) {
+
+        if (!rental.isActive() || rental.getExpectedReturnDate() == null || type == null) {
+            return;
+        }
+
+        ExpectedReturn expectedReturn = new ExpectedReturn(rental.getRentalId(), rental.getItemId(), rental.getExpectedReturnDate());
+
+        lock.lock();
+
+        try {
+            // The same rental filed again (a reload) replaces the old entry
+            removeLocked(rental.getRentalId());
+
+            byType.computeIfAbsent(type, key -> new TreeSet<>(BY_RETURN_DATE)).add(expectedReturn);
+            byRentalId.put(rental.getRentalId(), new Filed(type, expectedReturn));
+            byItemId.put(rental.getItemId(), expectedReturn);
+
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Takes a rental out, for example when it is returned. Does nothing if it isn't filed.
+     */
+    public void remove(Rental rental) {
+
+        lock.lock();
+
+        try {
+            removeLocked(rental.getRentalId());
+
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Forgets everything, before all rentals are loaded again.
+     */
+    public void clear() {
+
+        lock.lock();
+
+        try {
+            byType.clear();
+            byRentalId.clear();
+            byItemId.clear();
+
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * The rental of a type that is due back first. It may already be late.
+     * @return the earliest expected return, or null if nothing of the type is rented out
+     */
+    public ExpectedReturn nextReturn(ItemType type) {
+
+        lock.lock();
+
+        try {
+            TreeSet<ExpectedReturn> returns = byType.get(type);
+            return returns == null || returns.isEmpty() ? null : returns.first();
+
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Counts the rented items of a type that are due back at or before a time (late ones included).
+     */
+    public int countReturningBy(ItemType type, LocalDateTime deadline) {
+
+        lock.lock();
+
+        try {
+            return countLocked(type, deadline);
+
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * When one item is expected back.
+     * @return the expected return, or null if the item isn't rented out
+     */
+    public ExpectedReturn expectedReturnOf(String itemId) {
+
+        lock.lock();
+
+        try {
+            return byItemId.get(itemId);
+
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Everything the booking screen shows for a type, read in one go so the numbers agree with each other.
+     * @param type the item type
+     * @param now the time to count from
+     */
+    public Outlook outlook(ItemType type, LocalDateTime now) {
+
+        LocalDate today = now.toLocalDate();
+
+        // The coming Friday. On a Friday we look a week ahead, since 'today' already covers today.
+        LocalDate friday = today.plusDays(1);
+        while (friday.getDayOfWeek() != DayOfWeek.FRIDAY) {
+            friday = friday.plusDays(1);
+        }
+
+        lock.lock();
+
+        try {
+            TreeSet<ExpectedReturn> returns = byType.get(type);
+
+            if (returns == null) {
+                return new Outlook(type, 0, 0, null, 0, friday, 0, now);
+            }
+
+            // The first rental that is due now or later, everything before it is late
+            ExpectedReturn next = returns.ceiling(probe(now));
+
+            return new Outlook(type, returns.size(), countLocked(type, now.minusNanos(1)), next,
+                    countLocked(type, today.atTime(23, 59, 59)), friday, countLocked(type, friday.atTime(23, 59, 59)), now);
+
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void removeLocked(String rentalId) {
+
+        Filed filed = byRentalId.remove(rentalId);
+
+        if (filed == null) {
+            return;
+        }
+
+        byType.get(filed.type()).remove(filed.expectedReturn());
+        byItemId.remove(filed.expectedReturn().itemId(), filed.expectedReturn());
+    }
+
+    private int countLocked(ItemType type, LocalDateTime deadline) {
+
+        TreeSet<ExpectedReturn> returns = byType.get(type);
+
+        if (returns == null) {
+            return 0;
+        }
+
+        // Everything sorted before this point is due at or before the deadline
+        return returns.headSet(probe(deadline.plusNanos(1))).size();
+    }
+
+    // A search point that sorts before every real rental due at that time (the empty id sorts first)
+    private static ExpectedReturn probe(LocalDateTime time) {
+        return new ExpectedReturn("", null, time);
+    }
+
+    // "kl 14:30" today, "i morgon kl 09:00", otherwise "fredag 24/10 kl 14:30"
+    private static String when(LocalDateTime time, LocalDateTime now) {
+
+        LocalDate day = time.toLocalDate();
+        String clock = "kl " + TIME_FORMAT.format(time);
+
+        if (day.equals(now.toLocalDate())) {
+            return clock;
+        }
+        if (day.equals(now.toLocalDate().plusDays(1))) {
+            return "i morgon " + clock;
+        }
+        return DAY_FORMAT.format(day) + " " + clock;
+    }
+}
@@ -0,0 +1,127 @@
+package org.example.memberclubjavafx_assignment5.service;
+
+import org.example.memberclubjavafx_assignment5.exceptions.DataDirectoryLockedException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Makes sure only one program at a time writes to a data folder.
+ * It takes an operating system lock on the file ".lock" in the folder. The operating system lets go of the lock
+ * by itself when the program ends, even after a crash, so there is never an old lock to clean up by hand.
+ *
+ * The file also contains who holds the lock (process id and start time), so the error message can say who it is.
+ */
+public class DataDirectoryLock implements AutoCloseable {
+
+    // The name of the lock file in the data folder
+    public static final String FILE_NAME = ".lock";
+
+    // We lock one byte far after the text, because Windows doesn't let other programs read a locked part of a file
+    private static final long LOCK_POSITION = 1L << 20;
+
+    // Folders this program has locked. On Linux, closing any file handle to the lock file lets go of all of the
+    // program's locks on it, so a second ClubSystem in the same program must never even open the file.
+    private static final Set<Path> LOCKED_HERE = ConcurrentHashMap.newKeySet();
+
+    private final Path file;
+    private final FileChannel channel;
+    private final FileLock lock;
+
+    private DataDirectoryLock(Path file, FileChannel channel, FileLock lock) {
+        this.file = file;
+        this.channel = channel;
+        this.lock = lock;
+    }
+
+    /**
+     * Takes the lock on a data folder.
+     * @param folderPath the data folder
+     * @return the lock, close it to let go
+     * @throws DataDirectoryLockedException if another program (or another ClubSystem in this program) already has the folder
+     */
+    public static DataDirectoryLock acquire(String folderPath) {
+
+        Path file = Path.of(folderPath, FILE_NAME).toAbsolutePath().normalize();
+
+        if (!LOCKED_HERE.add(file)) {
+            throw new DataDirectoryLockedException("Datamappen " + folderPath + " används redan av det här programmet");
+        }
+
+        FileChannel channel = null;
+
+        try {
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+            FileLock lock = channel.tryLock(LOCK_POSITION, 1, false);
+
+            if (lock == null) {
+                channel.close();
+                LOCKED_HERE.remove(file);
+                throw new DataDirectoryLockedException("Datamappen " + folderPath + " används redan av " + describeOwner(file));
+            }
+
+            // Write down who we are, for the message another program shows
+            String owner = "process " + ProcessHandle.current().pid() + ", startad " + LocalDateTime.now().withNano(0);
+            channel.truncate(0);
+            channel.write(ByteBuffer.wrap(owner.getBytes(StandardCharsets.UTF_8)), 0);
+            channel.force(false);
+
+            return new DataDirectoryLock(file, channel, lock);
+
+        } catch (IOException exception) {
+
+            closeQuietly(channel);
+            LOCKED_HERE.remove(file);
+            throw new DataDirectoryLockedException("Kunde inte låsa datamappen " + folderPath + ": " + exception.getMessage(), exception);
+        }
+    }
+
+    /**
+     * Lets go of the lock. The file is left in place, deleting it could remove a lock another program just took.
+     */
+    @Override
+    public void close() {
+
+        try {
+            lock.release();
+        } catch (IOException exception) {
+            System.err.println("Kunde inte släppa låset på " + file + ": " + exception.getMessage());
+        }
+        closeQuietly(channel);
+        LOCKED_HERE.remove(file);
+    }
+
+    // The text the owner wrote in the lock file
+    private static String describeOwner(Path file) {
+
+        try {
+            String text = Files.readString(file, StandardCharsets.UTF_8).trim();
+            return text.isEmpty() ? "ett annat program" : text;
+
+        } catch (IOException exception) {
+            return "ett annat program";
+        }
+    }
+
+    private static void closeQuietly(FileChannel channel) {
+
+        if (channel == null) {
+            return;
+        }
+
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+            // Nothing more we can do, the operating system closes it when the program ends
+        }
+    }
+}
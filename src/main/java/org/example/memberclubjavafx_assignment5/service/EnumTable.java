@@ -0,0 +1,64 @@
+package org.example.memberclubjavafx_assignment5.service;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A lookup table between the constants of an enum and their names in the JSON files.
+ * The table is built once, so reading a value is one map lookup and writing one is an array lookup.
+ * @param <E> the enum
+ */
+final class EnumTable<E extends Enum<E>> {
+
+    // Name -> constant, for reading
+    private final Map<String, E> byName = new HashMap<>();
+
+    // Ordinal -> name, for writing
+    private final String[] names;
+
+    private EnumTable(Class<E> enumClass) {
+
+        E[] constants = enumClass.getEnumConstants();
+        names = new String[constants.length];
+
+        for (E constant : constants) {
+            byName.put(constant.name(), constant);
+            names[constant.ordinal()] = constant.name();
+        }
+    }
+
+    /**
+     * Builds the table for an enum.
+     */
+    static <E extends Enum<E>> EnumTable<E> of(Class<E> enumClass) {
+        return new EnumTable<>(enumClass);
+    }
+
+    /**
+     * Reads a constant. A name we don't know (or null) gives null, the same as Gson's own enum handling.
+     */
+    E read(JsonReader in) throws IOException {
+
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        return byName.get(in.nextString());
+    }
+
+    /**
+     * Writes a constant as its name (null is left out of the file).
+     */
+    void write(JsonWriter out, E value) throws IOException {
+
+        if (value == null) {
+            out.nullValue();
+        } else {
+            out.value(names[value.ordinal()]);
+        }
+    }
+}
@@ -4,6 +4,8 @@ import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.typeadapters.RuntimeTypeAdapterFactory;
 import org.example.memberclubjavafx_assignment5.model.Item;
+import org.example.memberclubjavafx_assignment5.model.Member;
+import org.example.memberclubjavafx_assignment5.model.Rental;
 import org.example.memberclubjavafx_assignment5.model.camping.*;
 import org.example.memberclubjavafx_assignment5.model.fishing.*;
 import org.example.memberclubjavafx_assignment5.model.vehicles.*;
@@ -21,6 +23,49 @@ public class GsonConfig {
      */
     public static Gson createGson() {
 
+        // Pretty printing makes the files easy to read for a human
+        return createBuilder().setPrettyPrinting().create();
+    }
+
+    /**
+     * Builds a Gson object with the same settings but without pretty printing.
+     * Used for the server, where nobody reads the JSON and the extra spaces only make the messages bigger.
+     * @return The Gson tool.
+     */
+    public static Gson createCompactGson() {
+        return createBuilder().create();
+    }
+
+    /**
+     * Builds a Gson object that reads and writes items, members and rentals the old way, through reflection.
+     * The files are the same as with createGson(). Kept so the benchmarks can compare the two ways,
+     * and as a reference if a file ever loads differently with the streaming adapters.
+     * @return The Gson tool.
+     */
+    public static Gson createReflectiveGson() {
+        return createReflectiveBuilder().setPrettyPrinting().create();
+    }
+
+    // The settings both versions share
+    private static GsonBuilder createBuilder() {
+
+        // Dates are ISO text, or seconds if the program was started with -Dmemberclub.timestamps=epoch
+        TimestampCodec timestamps = new TimestampCodec(TimestampCodec.configuredEncoding());
+
+        /*
+        Items, members and rentals have their own adapters that read and write the JSON text directly.
+        The item adapter is registered for the whole Item hierarchy, so a Tent is also written with its "type" label.
+         */
+        return new GsonBuilder()
+                .registerTypeHierarchyAdapter(Item.class, new ItemTypeAdapter())
+                .registerTypeAdapter(Member.class, new MemberTypeAdapter())
+                .registerTypeAdapter(Rental.class, new RentalTypeAdapter(timestamps))
+                .registerTypeAdapter(LocalDateTime.class, timestamps);
+    }
+
+    // The settings we used before the streaming adapters
+    private static GsonBuilder createReflectiveBuilder() {
+
         /*
         We have a list of 'Item' objects. But an item can be many things, like a tent or a kayak.
         This helps Gson understand which specific type of item it is looking at.
@@ -48,7 +93,14 @@ public class GsonConfig {
         adapterFactory.registerSubtype(ElectricBoat.class, "ElectricBoat");
         adapterFactory.registerSubtype(RowBoat.class, "RowBoat");
 
-        // Build the final Gson tool with all our settings (we use a helper to save dates and times, and we use pretty printing for better readability)
-        return new GsonBuilder().registerTypeAdapterFactory(adapterFactory).registerTypeAdapter(LocalDateTime.class, new LocalDateTimeAdapter()).setPrettyPrinting().create();
+        /*
+        Build the final Gson tool with all our settings (TimestampCodec saves dates and times).
+        The money migration is registered AFTER the type factory. Gson asks the last registered factory first,
+        so old prices in kronor are converted to öre before the type label is read.
+         */
+        return new GsonBuilder()
+                .registerTypeAdapterFactory(adapterFactory)
+                .registerTypeAdapterFactory(new LegacyMoneyAdapterFactory())
+                .registerTypeAdapter(LocalDateTime.class, new TimestampCodec(TimestampCodec.Encoding.ISO));
     }
 }
\ No newline at end of file
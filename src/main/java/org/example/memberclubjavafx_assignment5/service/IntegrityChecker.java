@@ -0,0 +1,359 @@
+package org.example.memberclubjavafx_assignment5.service;
+
+import org.example.memberclubjavafx_assignment5.model.Item;
+import org.example.memberclubjavafx_assignment5.model.Member;
+import org.example.memberclubjavafx_assignment5.model.Rental;
+import org.example.memberclubjavafx_assignment5.model.enums.ItemStatus;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Checks that items, members and rentals agree with each other.
+ *
+ * The status of an item is saved in items.json, but the rental that explains it is in rentals.json.
+ * After a crash between two saves, or an edit by hand, the files can disagree: an item is RENTED without an active rental,
+ * or AVAILABLE while someone has it. Then the item can't be rented at all, or it can be rented twice.
+ *
+ * {@link #reconcile()} runs after every load. It goes through the rentals once to find the active rental of each item,
+ * then through the items once, and sets the status that the rentals say. What it can't fix safely is only reported.
+ * {@link #check()} is the bigger check for the diagnostics screen and 'HeadlessMain check'. It changes nothing,
+ * and it checks the items, members and rentals at the same time on the fork/join pool.
+ */
+public class IntegrityChecker {
+
+    /**
+     * The kinds of problems we look for.
+     */
+    public enum ProblemType {
+
+        // The item says RENTED but no rental is active for it
+        RENTED_WITHOUT_RENTAL("Uthyrd utan aktiv uthyrning"),
+
+        // The item says AVAILABLE but a rental for it is active
+        AVAILABLE_BUT_RENTED("Ledig men uthyrd"),
+
+        // The item is BROKEN but a rental for it is active (we don't guess which one is right)
+        BROKEN_BUT_RENTED("Trasig men uthyrd"),
+
+        // More than one active rental for the same item
+        RENTED_TWICE("Uthyrd flera gånger"),
+
+        // The rental points to an item that doesn't exist
+        UNKNOWN_ITEM("Okänd artikel"),
+
+        // The rental points to a member that doesn't exist
+        UNKNOWN_MEMBER("Okänd medlem"),
+
+        // A member's history has a rental id that doesn't exist, or belongs to someone else
+        DANGLING_HISTORY_ID("Okänd uthyrning i historik"),
+
+        // The same rental id twice in the rentals, or twice in a member's history
+        DUPLICATE_ID("Dubblett-ID");
+
+        private final String label;
+
+        ProblemType(String label) {
+            this.label = label;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+    }
+
+    /**
+     * One problem that was found.
+     * @param type what kind of problem
+     * @param id the item, member or rental it is about
+     * @param description a sentence for the user
+     * @param fixed true if reconcile() fixed it
+     */
+    public record Problem(ProblemType type, String id, String description, boolean fixed) {
+
+        @Override
+        public String toString() {
+            return type.getLabel() + " (" + id + "): " + description;
+        }
+    }
+
+    /**
+     * What a check found.
+     * @param problems all problems, empty if everything agrees
+     * @param items how many items were checked
+     * @param members how many members were checked
+     * @param rentals how many rentals were checked
+     * @param nanos how long the check took
+     */
+    public record Report(List<Problem> problems, int items, int members, int rentals, long nanos) {
+
+        public boolean isClean() {
+            return problems.isEmpty();
+        }
+
+        public long fixedCount() {
+            return problems.stream().filter(Problem::fixed).count();
+        }
+
+        /**
+         * One line for the console or a notification, for example "Kontrollerade 1000 artiklar, ... 3 problem (2 rättade)".
+         */
+        public String summary() {
+
+            String checked = "Kontrollerade " + items + " artiklar, " + members + " medlemmar och " + rentals + " uthyrningar på "
+                    + nanos / 1_000_000 + " ms: ";
+
+            if (isClean()) {
+                return checked + "inga problem";
+            }
+            return checked + problems.size() + " problem (" + fixedCount() + " rättade)";
+        }
+    }
+
+    private final Inventory inventory;
+    private final MemberRegistry memberRegistry;
+    private final RentalService rentalService;
+
+    /**
+     * Constructor.
+     */
+    public IntegrityChecker(Inventory inventory, MemberRegistry memberRegistry, RentalService rentalService) {
+        this.inventory = inventory;
+        this.memberRegistry = memberRegistry;
+        this.rentalService = rentalService;
+    }
+
+    /**
+     * Makes the item statuses agree with the active rentals, and reports what couldn't be fixed.
+     * - RENTED without an active rental becomes AVAILABLE
+     * - AVAILABLE with an active rental becomes RENTED
+     * - BROKEN with an active rental, two active rentals for one item, and rentals for unknown items are only reported
+     * Must run where the registries may be changed (the JavaFX thread in the app), like the load itself.
+     * @return what was found and fixed
+     */
+    public Report reconcile() {
+
+        long start = System.nanoTime();
+
+        List<Item> items = inventory.snapshot();
+        List<Rental> rentals = rentalService.getAllRentals();
+
+        RentalIndex index = RentalIndex.build(rentals);
+        List<Problem> problems = new ArrayList<>(index.problems());
+
+        for (Item item : items) {
+
+            Rental active = index.activeByItem().get(item.getId());
+            ProblemType type = statusProblem(item, active);
+
+            if (type == null) {
+                continue;
+            }
+
+            // A broken item stays broken, someone has to look at it
+            boolean fixed = type != ProblemType.BROKEN_BUT_RENTED;
+
+            if (fixed) {
+                item.setStatus(active != null ? ItemStatus.RENTED : ItemStatus.AVAILABLE);
+            }
+            problems.add(itemProblem(type, item, active, fixed));
+        }
+
+        // Active rentals for items we don't have can't be fixed here (the item may come back in the next file)
+        for (Rental rental : index.activeByItem().values()) {
+
+            if (inventory.getItem(rental.getItemId()) == null) {
+                problems.add(unknownItem(rental));
+            }
+        }
+
+        return new Report(problems, items.size(), memberRegistry.getMemberCount(), rentals.size(), System.nanoTime() - start);
+    }
+
+    /**
+     * Checks everything without changing anything: item statuses, rentals that point to missing items or members,
+     * member histories with unknown rental ids, and duplicate ids.
+     * Works on snapshots, so it can run on a background thread while the desk keeps working.
+     * @return what was found
+     */
+    public Report check() {
+
+        long start = System.nanoTime();
+
+        List<Item> items = inventory.snapshot();
+        List<Member> members = memberRegistry.snapshot();
+        List<Rental> rentals = rentalService.getAllRentals();
+
+        // The index is needed by all three checks, so it is built first (one pass over the rentals)
+        RentalIndex index = RentalIndex.build(rentals);
+
+        // Then the three checks run at the same time
+        ForkJoinTask<List<Problem>> itemTask = ForkJoinTask.adapt(() -> checkItems(items, index));
+        ForkJoinTask<List<Problem>> memberTask = ForkJoinTask.adapt(() -> checkMembers(members, index));
+        ForkJoinTask<List<Problem>> rentalTask = ForkJoinTask.adapt(() -> checkRentals(rentals));
+
+        ForkJoinTask.invokeAll(itemTask, memberTask, rentalTask);
+
+        List<Problem> problems = new ArrayList<>(index.problems());
+        problems.addAll(itemTask.join());
+        problems.addAll(memberTask.join());
+        problems.addAll(rentalTask.join());
+
+        return new Report(problems, items.size(), members.size(), rentals.size(), System.nanoTime() - start);
+    }
+
+    // The item statuses against the active rentals, like reconcile() but without fixing
+    private static List<Problem> checkItems(List<Item> items, RentalIndex index) {
+
+        List<Problem> problems = new ArrayList<>();
+
+        for (Item item : items) {
+
+            Rental active = index.activeByItem().get(item.getId());
+            ProblemType type = statusProblem(item, active);
+
+            if (type != null) {
+                problems.add(itemProblem(type, item, active, false));
+            }
+        }
+        return problems;
+    }
+
+    // What is wrong with the status of an item, given its active rental (or null), or null if nothing is
+    private static ProblemType statusProblem(Item item, Rental active) {
+
+        ItemStatus status = item.getStatus();
+
+        if (active == null) {
+            return status == ItemStatus.RENTED ? ProblemType.RENTED_WITHOUT_RENTAL : null;
+        }
+        if (status == ItemStatus.AVAILABLE) {
+            return ProblemType.AVAILABLE_BUT_RENTED;
+        }
+        if (status == ItemStatus.BROKEN) {
+            return ProblemType.BROKEN_BUT_RENTED;
+        }
+        return null;
+    }
+
+    private static Problem itemProblem(ProblemType type, Item item, Rental active, boolean fixed) {
+
+        String description = switch (type) {
+            case RENTED_WITHOUT_RENTAL -> item.getName() + " är markerad som uthyrd men har ingen aktiv uthyrning" + (fixed ? ", nu ledig" : "");
+            case AVAILABLE_BUT_RENTED -> item.getName() + " är markerad som ledig men har " + active.getRentalId() + (fixed ? ", nu uthyrd" : "");
+            default -> item.getName() + " är trasig men har den aktiva uthyrningen " + active.getRentalId();
+        };
+        return new Problem(type, item.getId(), description, fixed);
+    }
+
+    // Every id in a member's history must be a rental of that member, and only be there once
+    private static List<Problem> checkMembers(List<Member> members, RentalIndex index) {
+
+        List<Problem> problems = new ArrayList<>();
+
+        for (Member member : members) {
+
+            Set<String> seen = new HashSet<>();
+            String memberId = String.valueOf(member.getId());
+
+            // A copy, since the JavaFX thread may add a rental to the history while we read it
+            for (String rentalId : new ArrayList<>(member.getRentalHistory())) {
+
+                if (rentalId == null) {
+                    continue;
+                }
+
+                if (!seen.add(rentalId)) {
+                    problems.add(new Problem(ProblemType.DUPLICATE_ID, memberId,
+                            rentalId + " finns flera gånger i historiken för " + member.getFirstName() + " " + member.getLastName(), false));
+                    continue;
+                }
+
+                Rental rental = index.byId().get(rentalId);
+
+                if (rental == null) {
+                    problems.add(new Problem(ProblemType.DANGLING_HISTORY_ID, memberId,
+                            rentalId + " i historiken för " + member.getFirstName() + " " + member.getLastName() + " finns inte", false));
+
+                } else if (rental.getMemberId() != member.getId()) {
+                    problems.add(new Problem(ProblemType.DANGLING_HISTORY_ID, memberId,
+                            rentalId + " i historiken för " + member.getFirstName() + " " + member.getLastName()
+                                    + " tillhör medlem " + rental.getMemberId(), false));
+                }
+            }
+        }
+        return problems;
+    }
+
+    // Every rental must point to an item and a member we have (finished rentals for removed items are reported too)
+    private List<Problem> checkRentals(List<Rental> rentals) {
+
+        List<Problem> problems = new ArrayList<>();
+
+        for (Rental rental : rentals) {
+
+            if (inventory.getItem(rental.getItemId()) == null) {
+                problems.add(unknownItem(rental));
+            }
+
+            if (memberRegistry.getMember(rental.getMemberId()) == null) {
+                problems.add(new Problem(ProblemType.UNKNOWN_MEMBER, rental.getRentalId(),
+                        "Uthyrningen gäller medlem " + rental.getMemberId() + " som inte finns", false));
+            }
+        }
+        return problems;
+    }
+
+    private static Problem unknownItem(Rental rental) {
+        return new Problem(ProblemType.UNKNOWN_ITEM, rental.getRentalId(),
+                "Uthyrningen gäller artikel " + rental.getItemId() + " som inte finns", false);
+    }
+
+    /**
+     * Everything we learn from one pass over the rentals.
+     * @param byId rental id -> rental (the first one, if the id is there twice)
+     * @param activeByItem item id -> its active rental (see RentalService.newerActiveRental if there are several)
+     * @param problems duplicate rental ids and items with more than one active rental
+     */
+    private record RentalIndex(Map<String, Rental> byId, Map<String, Rental> activeByItem, List<Problem> problems) {
+
+        static RentalIndex build(List<Rental> rentals) {
+
+            Map<String, Rental> byId = new HashMap<>(rentals.size() * 2);
+            Map<String, Rental> activeByItem = new HashMap<>();
+            List<Problem> problems = new ArrayList<>();
+
+            for (Rental rental : rentals) {
+
+                if (byId.putIfAbsent(rental.getRentalId(), rental) != null) {
+                    problems.add(new Problem(ProblemType.DUPLICATE_ID, rental.getRentalId(),
+                            "Uthyrningen finns flera gånger i historiken", false));
+                    continue;
+                }
+
+                if (!rental.isActive()) {
+                    continue;
+                }
+
+                Rental other = activeByItem.get(rental.getItemId());
+
+                if (other == null) {
+                    activeByItem.put(rental.getItemId(), rental);
+
+                } else {
+
+                    // Keep the same one as the rental service, so the check and a return agree on which rental holds the item
+                    activeByItem.put(rental.getItemId(), RentalService.newerActiveRental(other, rental));
+
+                    problems.add(new Problem(ProblemType.RENTED_TWICE, rental.getItemId(),
+                            "Både " + other.getRentalId() + " och " + rental.getRentalId() + " är aktiva", false));
+                }
+            }
+            return new RentalIndex(byId, activeByItem, problems);
+        }
+    }
+}
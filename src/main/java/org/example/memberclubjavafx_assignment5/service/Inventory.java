@@ -1,25 +1,27 @@
 package org.example.memberclubjavafx_assignment5.service;
 
+import org.example.memberclubjavafx_assignment5.exceptions.ItemNotFoundException;
+import org.example.memberclubjavafx_assignment5.exceptions.VersionConflictException;
 import org.example.memberclubjavafx_assignment5.model.Item;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
+import java.util.function.Consumer;
 
 /**
  * This class keeps track of all the items we have.
- * It uses a HashMap so we can find items quickly using their ID.
+ * It uses a map so we can find items quickly using their ID.
+ * The map is a SnapshotMap, so the JavaFX thread, the server and the autosave can all use it at the same time.
  */
 public class Inventory {
 
     // We store items here. The ID is the key.
-    private final Map<String, Item> items;
+    private final SnapshotMap<String, Item> items;
 
     /**
      * Constructor that creates an empty list (map) for items.
      */
     public Inventory() {
-        this.items = new HashMap<>();
+        this.items = new SnapshotMap<>();
     }
 
     /**
@@ -37,6 +39,37 @@ public class Inventory {
         return items.get(itemId);
     }
 
+    /**
+     * Changes an item, but only if nobody else changed it after it was read.
+     * @param itemId the item to change
+     * @param expectedVersion the version of the item when the form was filled in (item.getVersion())
+     * @param changes sets the new values on the item
+     * @throws ItemNotFoundException if the item has been removed
+     * @throws VersionConflictException if the item has changed since then. Nothing is changed, show the new values and let the user try again.
+     */
+    public void updateItem(String itemId, long expectedVersion, Consumer<Item> changes) {
+
+        Item item = items.get(itemId);
+
+        if (item == null) {
+            throw new ItemNotFoundException("Artikeln med ID " + itemId + " finns inte längre");
+        }
+
+        // Only this item is locked, so edits of different items never wait for each other
+        synchronized (item) {
+
+            if (item.getVersion() != expectedVersion) {
+                throw new VersionConflictException("Artikeln " + item.getName() + " har ändrats av någon annan sedan du öppnade den",
+                        itemId, expectedVersion, item.getVersion());
+            }
+
+            changes.accept(item);
+
+            // Counts the change even if only subclass fields (brand, weight...) were set
+            item.markChanged();
+        }
+    }
+
     /**
      * Removes an item from the list.
      */
@@ -49,8 +82,16 @@ public class Inventory {
      */
     public List<Item> getAllItems() {
 
-        // Create a new ArrayList from the map values and return it
-        return new ArrayList<>(items.values());
+        // Create a new ArrayList from the snapshot, so the caller can sort or change it
+        return new ArrayList<>(items.snapshot());
+    }
+
+    /**
+     * Returns all items as they are right now, in a list that can't be changed.
+     * Cheaper than getAllItems (the list is shared until an item is added or removed), used when saving.
+     */
+    public List<Item> snapshot() {
+        return items.snapshot();
     }
 
     /**
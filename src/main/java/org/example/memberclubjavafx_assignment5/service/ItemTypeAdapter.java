@@ -0,0 +1,359 @@
+package org.example.memberclubjavafx_assignment5.service;
+
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import org.example.memberclubjavafx_assignment5.model.Item;
+import org.example.memberclubjavafx_assignment5.model.Money;
+import org.example.memberclubjavafx_assignment5.model.camping.*;
+import org.example.memberclubjavafx_assignment5.model.enums.*;
+import org.example.memberclubjavafx_assignment5.model.fishing.*;
+import org.example.memberclubjavafx_assignment5.model.vehicles.*;
+import java.io.IOException;
+
+/**
+ * Reads and writes all twelve kinds of items straight from and to the JSON text.
+ *
+ * The old way (RuntimeTypeAdapterFactory, still available as GsonConfig.createReflectiveGson) first read each item into
+ * a JsonElement tree, looked for the "type" label in it and then filled in the fields through reflection, so every item
+ * was built twice. Here each value is read once into a small holder, and the item is created with its normal constructor.
+ *
+ * The files look exactly like before: the same "type" labels, the same field names and the same order
+ * (the subclass fields first, then the ones from Item). Old files with prices in kronor are still read.
+ */
+public class ItemTypeAdapter extends TypeAdapter<Item> {
+
+    // One table per enum, built once
+    private static final EnumTable<Color> COLORS = EnumTable.of(Color.class);
+    private static final EnumTable<ItemStatus> STATUSES = EnumTable.of(ItemStatus.class);
+    private static final EnumTable<Material> MATERIALS = EnumTable.of(Material.class);
+    private static final EnumTable<SeasonRating> SEASON_RATINGS = EnumTable.of(SeasonRating.class);
+    private static final EnumTable<TentType> TENT_TYPES = EnumTable.of(TentType.class);
+    private static final EnumTable<BackpackType> BACKPACK_TYPES = EnumTable.of(BackpackType.class);
+    private static final EnumTable<PowerSource> POWER_SOURCES = EnumTable.of(PowerSource.class);
+    private static final EnumTable<FuelType> FUEL_TYPES = EnumTable.of(FuelType.class);
+    private static final EnumTable<BaitType> BAIT_TYPES = EnumTable.of(BaitType.class);
+    private static final EnumTable<NetSize> NET_SIZES = EnumTable.of(NetSize.class);
+    private static final EnumTable<RodType> ROD_TYPES = EnumTable.of(RodType.class);
+    private static final EnumTable<KayakType> KAYAK_TYPES = EnumTable.of(KayakType.class);
+
+    @Override
+    public void write(JsonWriter out, Item item) throws IOException {
+
+        if (item == null) {
+            out.nullValue();
+            return;
+        }
+
+        out.beginObject();
+
+        // Camping
+        if (item instanceof Tent tent) {
+            out.name("type").value("Tent");
+            out.name("capacity").value(tent.getCapacity());
+            out.name("seasonRating");
+            SEASON_RATINGS.write(out, tent.getSeasonRating());
+            out.name("tentType");
+            TENT_TYPES.write(out, tent.getTentType());
+            writeCamping(out, tent);
+
+        } else if (item instanceof Backpack backpack) {
+            out.name("type").value("Backpack");
+            out.name("volume").value(backpack.getVolume());
+            out.name("backpackType");
+            BACKPACK_TYPES.write(out, backpack.getBackpackType());
+            writeCamping(out, backpack);
+
+        } else if (item instanceof SleepingBag sleepingBag) {
+            out.name("type").value("SleepingBag");
+            out.name("temperatureRating").value(sleepingBag.getTemperatureRating());
+            out.name("seasonRating");
+            SEASON_RATINGS.write(out, sleepingBag.getSeasonRating());
+            writeCamping(out, sleepingBag);
+
+        } else if (item instanceof TrangiaKitchen trangia) {
+            out.name("type").value("Trangia");
+            out.name("burners").value(trangia.getBurners());
+            out.name("fuelType");
+            FUEL_TYPES.write(out, trangia.getFuelType());
+            writeCamping(out, trangia);
+
+        } else if (item instanceof Lantern lantern) {
+            out.name("type").value("Lantern");
+            out.name("brightness").value(lantern.getBrightness());
+            out.name("powerSource");
+            POWER_SOURCES.write(out, lantern.getPowerSource());
+            writeCamping(out, lantern);
+
+        // Fishing
+        } else if (item instanceof FishingRod rod) {
+            out.name("type").value("Rod");
+            out.name("rodLength").value(rod.getRodLength());
+            out.name("rodType");
+            ROD_TYPES.write(out, rod.getRodType());
+            writeFishing(out, rod);
+
+        } else if (item instanceof FishingNet net) {
+            out.name("type").value("Net");
+            out.name("netSize");
+            NET_SIZES.write(out, net.getNetSize());
+            out.name("meshSize").value(net.getMeshSize());
+            writeFishing(out, net);
+
+        } else if (item instanceof FishingBait bait) {
+            out.name("type").value("Bait");
+            out.name("baitType");
+            BAIT_TYPES.write(out, bait.getBaitType());
+            out.name("quantity").value(bait.getQuantity());
+            writeFishing(out, bait);
+
+        // Water vehicles
+        } else if (item instanceof Kayak kayak) {
+            out.name("type").value("Kayak");
+            out.name("seats").value(kayak.getSeats());
+            out.name("kayakType");
+            KAYAK_TYPES.write(out, kayak.getKayakType());
+            writeWaterVehicle(out, kayak);
+
+        } else if (item instanceof MotorBoat motorBoat) {
+            out.name("type").value("MotorBoat");
+            out.name("enginePower").value(motorBoat.getEnginePower());
+            out.name("fuelType");
+            FUEL_TYPES.write(out, motorBoat.getFuelType());
+            writeBoat(out, motorBoat);
+
+        } else if (item instanceof ElectricBoat electricBoat) {
+            out.name("type").value("ElectricBoat");
+            out.name("batteryCapacity").value(electricBoat.getBatteryCapacity());
+            out.name("chargeTime").value(electricBoat.getChargeTime());
+            writeBoat(out, electricBoat);
+
+        } else if (item instanceof RowBoat rowBoat) {
+            out.name("type").value("RowBoat");
+            out.name("oars").value(rowBoat.getOars());
+            writeBoat(out, rowBoat);
+
+        } else {
+            throw new JsonParseException("Okänd artikeltyp: " + item.getClass().getSimpleName());
+        }
+
+        // The fields every item has
+        out.name("id").value(item.getId());
+        out.name("name").value(item.getName());
+        out.name("pricePerDayOre").value(item.getPricePerDayOre());
+        out.name("pricePerHourOre").value(item.getPricePerHourOre());
+        out.name("status");
+        STATUSES.write(out, item.getStatus());
+        out.name("year").value(item.getYear());
+        out.name("color");
+        COLORS.write(out, item.getColor());
+        out.name("version").value(item.getVersion());
+
+        out.endObject();
+    }
+
+    private static void writeCamping(JsonWriter out, CampingEquipment equipment) throws IOException {
+        out.name("material");
+        MATERIALS.write(out, equipment.getMaterial());
+        out.name("weight").value(equipment.getWeight());
+        out.name("brand").value(equipment.getBrand());
+    }
+
+    private static void writeFishing(JsonWriter out, FishingEquipment equipment) throws IOException {
+        out.name("material");
+        MATERIALS.write(out, equipment.getMaterial());
+        out.name("weight").value(equipment.getWeight());
+        out.name("brand").value(equipment.getBrand());
+    }
+
+    private static void writeBoat(JsonWriter out, Boat boat) throws IOException {
+        out.name("hasFishFinder").value(boat.isHasFishFinder());
+        out.name("maxSpeed").value(boat.getMaxSpeed());
+        writeWaterVehicle(out, boat);
+    }
+
+    private static void writeWaterVehicle(JsonWriter out, WaterVehicle vehicle) throws IOException {
+        out.name("material");
+        MATERIALS.write(out, vehicle.getMaterial());
+        out.name("weight").value(vehicle.getWeight());
+        out.name("brand").value(vehicle.getBrand());
+        out.name("capacity").value(vehicle.getCapacity());
+        out.name("length").value(vehicle.getLength());
+    }
+
+    @Override
+    public Item read(JsonReader in) throws IOException {
+
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+
+        // The "type" label can be anywhere in the object (someone may have edited the file), so we collect all values first
+        Fields fields = new Fields();
+
+        in.beginObject();
+
+        while (in.hasNext()) {
+
+            switch (in.nextName()) {
+
+                // Item
+                case "type" -> fields.type = StreamingJson.nextStringOrNull(in);
+                case "id" -> fields.id = StreamingJson.nextStringOrNull(in);
+                case "name" -> fields.name = StreamingJson.nextStringOrNull(in);
+                case "pricePerDayOre" -> {
+                    fields.pricePerDayOre = StreamingJson.nextLong(in);
+                    fields.hasPricesInOre = true;
+                }
+                case "pricePerHourOre" -> fields.pricePerHourOre = StreamingJson.nextLong(in);
+                case "status" -> fields.status = STATUSES.read(in);
+                case "year" -> fields.year = StreamingJson.nextInt(in);
+                case "color" -> fields.color = COLORS.read(in);
+                case "version" -> fields.version = StreamingJson.nextLong(in);
+
+                // Prices in kronor, from files saved before prices were in öre
+                case "pricePerDay" -> fields.pricePerDayKronor = StreamingJson.nextDouble(in);
+                case "pricePerHour" -> fields.pricePerHourKronor = StreamingJson.nextDouble(in);
+
+                // Shared by camping, fishing and water vehicles
+                case "material" -> fields.material = MATERIALS.read(in);
+                case "weight" -> fields.weight = StreamingJson.nextDouble(in);
+                case "brand" -> fields.brand = StreamingJson.nextStringOrNull(in);
+                case "capacity" -> fields.capacity = StreamingJson.nextInt(in);
+
+                // One or more kinds of items
+                case "seasonRating" -> fields.seasonRating = SEASON_RATINGS.read(in);
+                case "tentType" -> fields.tentType = TENT_TYPES.read(in);
+                case "volume" -> fields.volume = StreamingJson.nextInt(in);
+                case "backpackType" -> fields.backpackType = BACKPACK_TYPES.read(in);
+                case "temperatureRating" -> fields.temperatureRating = StreamingJson.nextDouble(in);
+                case "burners" -> fields.burners = StreamingJson.nextInt(in);
+                case "fuelType" -> fields.fuelType = FUEL_TYPES.read(in);
+                case "brightness" -> fields.brightness = StreamingJson.nextInt(in);
+                case "powerSource" -> fields.powerSource = POWER_SOURCES.read(in);
+                case "rodLength" -> fields.rodLength = StreamingJson.nextDouble(in);
+                case "rodType" -> fields.rodType = ROD_TYPES.read(in);
+                case "netSize" -> fields.netSize = NET_SIZES.read(in);
+                case "meshSize" -> fields.meshSize = StreamingJson.nextDouble(in);
+                case "baitType" -> fields.baitType = BAIT_TYPES.read(in);
+                case "quantity" -> fields.quantity = StreamingJson.nextInt(in);
+                case "seats" -> fields.seats = StreamingJson.nextInt(in);
+                case "kayakType" -> fields.kayakType = KAYAK_TYPES.read(in);
+                case "length" -> fields.length = StreamingJson.nextDouble(in);
+                case "hasFishFinder" -> fields.hasFishFinder = StreamingJson.nextBoolean(in);
+                case "maxSpeed" -> fields.maxSpeed = StreamingJson.nextDouble(in);
+                case "enginePower" -> fields.enginePower = StreamingJson.nextInt(in);
+                case "batteryCapacity" -> fields.batteryCapacity = StreamingJson.nextDouble(in);
+                case "chargeTime" -> fields.chargeTime = StreamingJson.nextInt(in);
+                case "oars" -> fields.oars = StreamingJson.nextInt(in);
+
+                // A field we don't know, for example from a newer version of the program
+                default -> in.skipValue();
+            }
+        }
+
+        in.endObject();
+
+        return create(fields);
+    }
+
+    // Creates the right kind of item from the values that were read
+    private static Item create(Fields f) {
+
+        if (f.type == null) {
+            throw new JsonParseException("Artikeln " + f.id + " saknar \"type\"");
+        }
+
+        // The öre fields win if a file has both (the same rule as LegacyMoneyAdapterFactory)
+        long day = f.hasPricesInOre ? f.pricePerDayOre : Money.ofKronor(f.pricePerDayKronor);
+        long hour = f.hasPricesInOre ? f.pricePerHourOre : Money.ofKronor(f.pricePerHourKronor);
+
+        Item item = switch (f.type) {
+            case "Tent" -> new Tent(f.id, f.name, day, hour, f.year, f.color, f.material, f.weight, f.brand,
+                    f.capacity, f.seasonRating, f.tentType);
+            case "Backpack" -> new Backpack(f.id, f.name, day, hour, f.year, f.color, f.material, f.weight, f.brand,
+                    f.volume, f.backpackType);
+            case "SleepingBag" -> new SleepingBag(f.id, f.name, day, hour, f.year, f.color, f.material, f.weight, f.brand,
+                    f.temperatureRating, f.seasonRating);
+            case "Trangia" -> new TrangiaKitchen(f.id, f.name, day, hour, f.year, f.color, f.material, f.weight, f.brand,
+                    f.burners, f.fuelType);
+            case "Lantern" -> new Lantern(f.id, f.name, day, hour, f.year, f.color, f.material, f.weight, f.brand,
+                    f.brightness, f.powerSource);
+            case "Rod" -> new FishingRod(f.id, f.name, day, hour, f.year, f.color, f.material, f.weight, f.brand,
+                    f.rodLength, f.rodType);
+            case "Net" -> new FishingNet(f.id, f.name, day, hour, f.year, f.color, f.material, f.weight, f.brand,
+                    f.netSize, f.meshSize);
+            case "Bait" -> new FishingBait(f.id, f.name, day, hour, f.year, f.color, f.material, f.weight, f.brand,
+                    f.baitType, f.quantity);
+            case "Kayak" -> new Kayak(f.id, f.name, day, hour, f.year, f.color, f.material, f.weight, f.brand,
+                    f.capacity, f.length, f.seats, f.kayakType);
+            case "MotorBoat" -> new MotorBoat(f.id, f.name, day, hour, f.year, f.color, f.material, f.weight, f.brand,
+                    f.capacity, f.length, f.hasFishFinder, f.maxSpeed, f.enginePower, f.fuelType);
+            case "ElectricBoat" -> new ElectricBoat(f.id, f.name, day, hour, f.year, f.color, f.material, f.weight, f.brand,
+                    f.capacity, f.length, f.hasFishFinder, f.maxSpeed, f.batteryCapacity, f.chargeTime);
+            case "RowBoat" -> new RowBoat(f.id, f.name, day, hour, f.year, f.color, f.material, f.weight, f.brand,
+                    f.capacity, f.length, f.hasFishFinder, f.maxSpeed, f.oars);
+            default -> throw new JsonParseException("Okänd artikeltyp: " + f.type);
+        };
+
+        // The constructor makes every item available, the file knows better
+        if (f.status != null) {
+            item.setStatus(f.status);
+        }
+
+        // Last, since the setter above counts as a change
+        item.restoreVersion(f.version);
+
+        return item;
+    }
+
+    // Every value any kind of item can have, filled in while reading
+    private static final class Fields {
+
+        String type;
+        String id;
+        String name;
+        long pricePerDayOre;
+        long pricePerHourOre;
+        boolean hasPricesInOre;
+        double pricePerDayKronor;
+        double pricePerHourKronor;
+        ItemStatus status;
+        int year;
+        Color color;
+        long version;
+
+        Material material;
+        double weight;
+        String brand;
+        int capacity;
+
+        SeasonRating seasonRating;
+        TentType tentType;
+        int volume;
+        BackpackType backpackType;
+        double temperatureRating;
+        int burners;
+        FuelType fuelType;
+        int brightness;
+        PowerSource powerSource;
+        double rodLength;
+        RodType rodType;
+        NetSize netSize;
+        double meshSize;
+        BaitType baitType;
+        int quantity;
+        int seats;
+        KayakType kayakType;
+        double length;
+        boolean hasFishFinder;
+        double maxSpeed;
+        int enginePower;
+        double batteryCapacity;
+        int chargeTime;
+        int oars;
+    }
+}
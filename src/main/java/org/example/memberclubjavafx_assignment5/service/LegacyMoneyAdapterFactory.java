@@ -0,0 +1,80 @@
+package org.example.memberclubjavafx_assignment5.service;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import org.example.memberclubjavafx_assignment5.model.Item;
+import org.example.memberclubjavafx_assignment5.model.Money;
+import org.example.memberclubjavafx_assignment5.model.Rental;
+import java.io.IOException;
+
+/**
+ * This class lets us load save files from before money was stored in öre.
+ * Old files have "pricePerDay": 150.0 (kronor as a decimal number), new files have "pricePerDayOre": 15000.
+ * When an item or rental is loaded we look for the old names, convert them to öre and rename them.
+ * Saving always writes the new names, so a file is migrated the first time it is saved again.
+ * Only the reflective Gson (GsonConfig.createReflectiveGson) uses this now, the streaming adapters read the old names themselves.
+ */
+public class LegacyMoneyAdapterFactory implements TypeAdapterFactory {
+
+    @Override
+    public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+
+        Class<? super T> rawType = type.getRawType();
+
+        /*
+        We only care about lists of items and rentals.
+        We match Item exactly and not the subclasses (like Tent). Otherwise Gson would pick our adapter
+        for the real class when saving, and the "type" label would be left out of the file.
+         */
+        if (rawType != Item.class && rawType != Rental.class) {
+            return null;
+        }
+
+        // The adapter Gson would have used without us (for items that is the 'type' label factory)
+        TypeAdapter<T> delegate = gson.getDelegateAdapter(this, type);
+        TypeAdapter<JsonElement> elementAdapter = gson.getAdapter(JsonElement.class);
+
+        return new TypeAdapter<T>() {
+
+            @Override
+            public void write(JsonWriter out, T value) throws IOException {
+                delegate.write(out, value);
+            }
+
+            @Override
+            public T read(JsonReader in) throws IOException {
+
+                JsonElement tree = elementAdapter.read(in);
+
+                if (tree != null && tree.isJsonObject()) {
+                    JsonObject object = tree.getAsJsonObject();
+                    migrate(object, "pricePerDay", "pricePerDayOre");
+                    migrate(object, "pricePerHour", "pricePerHourOre");
+                    migrate(object, "totalCost", "totalCostOre");
+                }
+
+                return delegate.fromJsonTree(tree);
+            }
+        };
+    }
+
+    // Replaces an old kronor field with the new öre field (only if the file doesn't already have the new one)
+    private static void migrate(JsonObject object, String oldName, String newName) {
+
+        if (!object.has(oldName) || object.has(newName)) {
+            return;
+        }
+
+        JsonElement oldValue = object.remove(oldName);
+
+        if (oldValue != null && oldValue.isJsonPrimitive()) {
+            object.addProperty(newName, Money.ofKronor(oldValue.getAsDouble()));
+        }
+    }
+}
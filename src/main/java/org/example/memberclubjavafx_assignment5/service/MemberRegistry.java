@@ -2,24 +2,22 @@ package org.example.memberclubjavafx_assignment5.service;
 
 import org.example.memberclubjavafx_assignment5.model.Member;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 /**
  * This class keeps track of all the members in the club.
- * It works just like the Inventory but for people.
+ * It works just like the Inventory but for people (also with a SnapshotMap, so several threads can use it).
  */
 public class MemberRegistry {
 
     // We store members here. The ID is the key.
-    private final Map<Integer, Member> members;
+    private final SnapshotMap<Integer, Member> members;
 
     /**
      * Constructor that creates an empty list (map) for members.
      */
     public MemberRegistry() {
-        this.members = new HashMap<>();
+        this.members = new SnapshotMap<>();
     }
 
     /**
@@ -41,20 +39,22 @@ public class MemberRegistry {
      */
     public boolean removeMember(int memberId) {
 
-        if (members.containsKey(memberId)) {
-            members.remove(memberId);
-            return true;
-
-        } else {
-            return false;
-        }
+        // remove gives back the member that was removed, or null if there was no such member
+        return members.remove(memberId) != null;
     }
 
     /**
      * Returns a list of everyone in the club.
      */
     public List<Member> getAllMembers() {
-        return new ArrayList<>(members.values());
+        return new ArrayList<>(members.snapshot());
+    }
+
+    /**
+     * Returns all members as they are right now, in a list that can't be changed (used when saving).
+     */
+    public List<Member> snapshot() {
+        return members.snapshot();
     }
 
     /**
@@ -0,0 +1,114 @@
+package org.example.memberclubjavafx_assignment5.service;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import org.example.memberclubjavafx_assignment5.model.Member;
+import org.example.memberclubjavafx_assignment5.model.enums.MembershipLevel;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads and writes members straight from and to the JSON text, without reflection (see ItemTypeAdapter).
+ * The files look exactly like before.
+ */
+public class MemberTypeAdapter extends TypeAdapter<Member> {
+
+    private static final EnumTable<MembershipLevel> LEVELS = EnumTable.of(MembershipLevel.class);
+
+    @Override
+    public void write(JsonWriter out, Member member) throws IOException {
+
+        if (member == null) {
+            out.nullValue();
+            return;
+        }
+
+        out.beginObject();
+        out.name("id").value(member.getId());
+        out.name("firstName").value(member.getFirstName());
+        out.name("lastName").value(member.getLastName());
+        out.name("phone").value(member.getPhone());
+        out.name("email").value(member.getEmail());
+        out.name("membershipLevel");
+        LEVELS.write(out, member.getMembershipLevel());
+
+        out.name("rentalHistory").beginArray();
+
+        for (String rentalId : member.getRentalHistory()) {
+            out.value(rentalId);
+        }
+
+        out.endArray();
+        out.name("version").value(member.getVersion());
+        out.endObject();
+    }
+
+    @Override
+    public Member read(JsonReader in) throws IOException {
+
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+
+        int id = 0;
+        String firstName = null;
+        String lastName = null;
+        String phone = null;
+        String email = null;
+        MembershipLevel level = null;
+        List<String> rentalHistory = null;
+        long version = 0;
+
+        in.beginObject();
+
+        while (in.hasNext()) {
+
+            switch (in.nextName()) {
+                case "id" -> id = StreamingJson.nextInt(in);
+                case "firstName" -> firstName = StreamingJson.nextStringOrNull(in);
+                case "lastName" -> lastName = StreamingJson.nextStringOrNull(in);
+                case "phone" -> phone = StreamingJson.nextStringOrNull(in);
+                case "email" -> email = StreamingJson.nextStringOrNull(in);
+                case "membershipLevel" -> level = LEVELS.read(in);
+                case "rentalHistory" -> rentalHistory = readRentalHistory(in);
+                case "version" -> version = StreamingJson.nextLong(in);
+                default -> in.skipValue();
+            }
+        }
+
+        in.endObject();
+
+        Member member = new Member(id, firstName, lastName, phone, email, level);
+
+        if (rentalHistory != null) {
+            member.getRentalHistory().addAll(rentalHistory);
+        }
+
+        member.restoreVersion(version);
+        return member;
+    }
+
+    // The ids of the member's rentals
+    private static List<String> readRentalHistory(JsonReader in) throws IOException {
+
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+
+        List<String> rentalIds = new ArrayList<>();
+
+        in.beginArray();
+
+        while (in.hasNext()) {
+            rentalIds.add(StreamingJson.nextStringOrNull(in));
+        }
+
+        in.endArray();
+        return rentalIds;
+    }
+}
@@ -1,5 +1,9 @@
 package org.example.memberclubjavafx_assignment5.service;
 
+import org.example.memberclubjavafx_assignment5.diagnostics.MetricsRegistry;
+import org.example.memberclubjavafx_assignment5.diagnostics.SearchEvent;
+import org.example.memberclubjavafx_assignment5.diagnostics.Timer;
+import org.example.memberclubjavafx_assignment5.exceptions.VersionConflictException;
 import org.example.memberclubjavafx_assignment5.model.Member;
 import org.example.memberclubjavafx_assignment5.model.enums.MembershipLevel;
 import org.example.memberclubjavafx_assignment5.system.MemberIdGenerator;
@@ -13,6 +17,9 @@ import java.util.List;
  */
 public class MembershipService {
 
+    // Measures member searches for the diagnostics screen
+    private static final Timer SEARCH_TIMER = MetricsRegistry.timer("search.members");
+
     // This is where the actual list of members is kept
     private final MemberRegistry memberRegistry;
 
@@ -91,20 +98,38 @@ public class MembershipService {
     }
 
     /**
-     * Updates all the details of a member.
+     * Updates all the details of a member, whatever has changed since it was read (the last save wins).
      * We use the same validation rules here as when we create a new member.
      */
     public void updateMemberDetails(Member member, String fName, String lName, String phone, String email, MembershipLevel level) {
+        updateMemberDetails(member, member.getVersion(), fName, lName, phone, email, level);
+    }
+
+    /**
+     * Updates all the details of a member, but only if nobody else changed the member after it was read.
+     * @param expectedVersion the version of the member when the form was filled in (member.getVersion())
+     * @throws VersionConflictException if the member has changed since then. Nothing is changed, show the new details and let the user try again.
+     */
+    public void updateMemberDetails(Member member, long expectedVersion, String fName, String lName, String phone, String email, MembershipLevel level) {
 
         // Check if the new info is valid before saving
         MemberValidator.validate(fName, lName, email, phone, level);
 
-        // Apply the changes
-        member.setFirstName(fName);
-        member.setLastName(lName);
-        member.setPhone(phone);
-        member.setEmail(email);
-        member.setMembershipLevel(level);
+        // Only this member is locked, and only for the check and the setters, so edits of different members never wait for each other
+        synchronized (member) {
+
+            if (member.getVersion() != expectedVersion) {
+                throw new VersionConflictException("Medlemmen " + member.getFirstName() + " " + member.getLastName()
+                        + " har ändrats av någon annan sedan du öppnade den", String.valueOf(member.getId()), expectedVersion, member.getVersion());
+            }
+
+            // Apply the changes
+            member.setFirstName(fName);
+            member.setLastName(lName);
+            member.setPhone(phone);
+            member.setEmail(email);
+            member.setMembershipLevel(level);
+        }
     }
 
     /**
@@ -120,6 +145,12 @@ public class MembershipService {
      * @return A list of all matching members.
      */
     public List<Member> searchMemberByName(String searchTerm) {
+        long start = System.nanoTime();
+
+        // Flight recorder event for the search (costs almost nothing when no recording is running)
+        SearchEvent event = new SearchEvent();
+        event.begin();
+
         List<Member> allMembers = memberRegistry.getAllMembers();
         List<Member> results = new ArrayList<>();
 
@@ -131,6 +162,15 @@ public class MembershipService {
                 results.add(member);
             }
         }
+
+        SEARCH_TIMER.record(start);
+
+        if (event.shouldCommit()) {
+            event.source = "MembershipService";
+            event.query = searchTerm;
+            event.results = results.size();
+            event.commit();
+        }
         return results;
     }
 }
\ No newline at end of file
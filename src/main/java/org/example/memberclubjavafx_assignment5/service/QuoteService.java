@@ -0,0 +1,150 @@
+package org.example.memberclubjavafx_assignment5.service;
+
+import org.example.memberclubjavafx_assignment5.model.Item;
+import org.example.memberclubjavafx_assignment5.model.Rental;
+import org.example.memberclubjavafx_assignment5.model.enums.MembershipLevel;
+import org.example.memberclubjavafx_assignment5.model.enums.RentalPeriod;
+import org.example.memberclubjavafx_assignment5.pricing.PricingEngine;
+import org.example.memberclubjavafx_assignment5.pricing.Quote;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The one place that answers 'what does this cost?'.
+ * The cart, the booking dialog, the receipt and the rental service all ask this class instead of doing their own math.
+ * Quotes for cart lines are remembered (cached), so the same item with the same settings is only priced once.
+ */
+public class QuoteService {
+
+    // When the cache gets this big we empty it, so it can't grow forever
+    private static final int MAX_CACHED_QUOTES = 10_000;
+
+    // The engine with all the price rules
+    private final PricingEngine pricingEngine;
+
+    // Remembered quotes. ConcurrentHashMap because autosave and the UI can ask at the same time.
+    private final Map<QuoteKey, Quote> cache;
+
+    // Remembered prices for one hour or one day, the item lists show one for every row
+    private final Map<UnitPriceKey, Long> unitPrices;
+
+    /**
+     * Constructor.
+     * @param pricingEngine the engine that calculates the prices
+     */
+    public QuoteService(PricingEngine pricingEngine) {
+        this.pricingEngine = pricingEngine;
+        this.cache = new ConcurrentHashMap<>();
+        this.unitPrices = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Returns the quote for one line in a booking.
+     * @param item the item being rented
+     * @param level the member's level, or null for standard pricing
+     * @param duration rental duration (hours or days depending on period)
+     * @param period billing period (HOURLY or DAILY)
+     * @param start when the rental starts (weekend and season rules depend on the day)
+     * @param bundleSize how many items are booked together
+     * @return the price breakdown
+     */
+    public Quote quote(Item item, MembershipLevel level, int duration, RentalPeriod period, LocalDateTime start, int bundleSize) {
+
+        // Everything that can change the price is part of the key (the item version changes when the price is edited)
+        QuoteKey key = new QuoteKey(item.getId(), item.getVersion(), level, duration, period, start.toLocalDate(), bundleSize);
+
+        Quote cached = cache.get(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        if (cache.size() >= MAX_CACHED_QUOTES) {
+            cache.clear();
+        }
+
+        long listPrice = pricingEngine.calculateListPrice(item, duration, period);
+        long price = pricingEngine.calculatePrice(item, level, duration, period, start, bundleSize);
+
+        Quote quote = Quote.of(listPrice, price, 0);
+        cache.put(key, quote);
+
+        return quote;
+    }
+
+    /**
+     * Returns the ordinary price for one hour or one day, like the item lists show it.
+     * @param item the item
+     * @param period HOURLY or DAILY
+     * @return the list price in öre
+     */
+    public long unitPrice(Item item, RentalPeriod period) {
+
+        // The version is in the key, so an edited price is never read from the cache
+        UnitPriceKey key = new UnitPriceKey(item.getId(), item.getVersion(), period);
+
+        Long cached = unitPrices.get(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        if (unitPrices.size() >= MAX_CACHED_QUOTES) {
+            unitPrices.clear();
+        }
+
+        long price = pricingEngine.calculateListPrice(item, 1, period);
+        unitPrices.put(key, price);
+
+        return price;
+    }
+
+    /**
+     * Returns the quote for a rental that already exists (receipt, returns).
+     * The total is the stored cost, it is never priced again. Late fees are added if the rental is overdue.
+     * @param rental the rental
+     * @param item the rented item, or null if it has been removed
+     * @return the price breakdown
+     */
+    public Quote quoteRental(Rental rental, Item item) {
+
+        long listPrice = rental.getListPriceOre();
+
+        // Old rentals didn't save the list price, so we calculate it from what was booked
+        if (listPrice == 0 && item != null) {
+            listPrice = pricingEngine.calculateListPrice(item, rental.getBookedDuration(), rental.getBookedPeriod());
+        }
+
+        // Without an item we can't know the list price, so we show the stored cost without a discount
+        if (listPrice == 0) {
+            listPrice = rental.getTotalCostOre();
+        }
+
+        return Quote.of(listPrice, rental.getTotalCostOre(), rental.calculatePenaltyFee(item));
+    }
+
+    /**
+     * Forgets all quotes for an item. Called when the item's price is edited.
+     * (The version in the key already stops old quotes from being used, this just frees the memory.)
+     * @param itemId the item that changed
+     */
+    public void invalidate(String itemId) {
+        cache.keySet().removeIf(key -> key.itemId().equals(itemId));
+        unitPrices.keySet().removeIf(key -> key.itemId().equals(itemId));
+    }
+
+    /**
+     * Forgets all quotes.
+     */
+    public void clear() {
+        cache.clear();
+        unitPrices.clear();
+    }
+
+    // The cache key, a record gives us equals and hashCode for free
+    private record QuoteKey(String itemId, long itemVersion, MembershipLevel level, int duration, RentalPeriod period, LocalDate day, int bundleSize) {
+    }
+
+    private record UnitPriceKey(String itemId, long itemVersion, RentalPeriod period) {
+    }
+}
@@ -0,0 +1,424 @@
+package org.example.memberclubjavafx_assignment5.service;
+
+import org.example.memberclubjavafx_assignment5.model.Rental;
+import org.example.memberclubjavafx_assignment5.model.enums.ItemType;
+import org.example.memberclubjavafx_assignment5.model.enums.MembershipLevel;
+import org.example.memberclubjavafx_assignment5.model.enums.RentalStatus;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * This class keeps a 'columnar' copy of all rentals that we use for statistics (dashboard and reports).
+ * Instead of one object per rental, every field lives in its own primitive array (one array per column).
+ * When we sum up revenue we then only walk through the arrays we need, which is a lot faster than
+ * jumping between Rental, Item and Member objects for every row.
+ * The store is kept up to date by {@code RentalService}, so it always mirrors the rental list.
+ *
+ * It is read from many threads (the dashboard, the overdue scan, the JMX gauges and fork/join tasks) while
+ * the JavaFX thread and the server write to it. Like SnapshotList, the arrays and the row count are published
+ * together as one Columns object in a volatile field. A query reads that field once and only looks at its own rows.
+ * A new row is never torn. An update (a return) writes the end date and the status of an existing row in place,
+ * so a query that runs at the same moment can see the new status with the old end date. No query reads both columns,
+ * and copying two whole columns for every return would cost far more than it saves.
+ */
+public class RentalColumnStore {
+
+    // Value used for a missing end date (rental not returned yet)
+    public static final long NO_END = Long.MIN_VALUE;
+
+    // Value used for a missing start date (old or hand edited files). Such a row is before every date range,
+    // so it only counts in the all-time sums.
+    public static final long NO_START = Long.MIN_VALUE;
+
+    // Value used when we don't know the item type or membership level (item or member was removed)
+    public static final byte UNKNOWN = -1;
+
+    // Number of seconds in one day, used to turn an epoch second into an epoch day
+    private static final long SECONDS_PER_DAY = 86_400L;
+
+    // Below this many rows we sum on the calling thread, above it we split the work with fork/join
+    private static final int PARALLEL_THRESHOLD = 50_000;
+
+    // Start size of the arrays, they grow when needed
+    private static final int INITIAL_CAPACITY = 64;
+
+    // The arrays and how many rows are filled, swapped as one piece so a reader always sees a matching set.
+    // A new row is written past the old size before the new Columns is published, so a reader never sees half a row.
+    private volatile Columns columns = allocate(INITIAL_CAPACITY);
+
+    // Lets us find the row of a rental quickly when it is returned (only used while holding writeLock)
+    private final Map<String, Integer> rowByRentalId;
+
+    // Writers take turns (a ReentrantLock and not 'synchronized', the server writes from virtual threads)
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    /**
+     * Constructor that creates an empty store.
+     */
+    public RentalColumnStore() {
+        this.rowByRentalId = new HashMap<>();
+    }
+
+    /**
+     * Removes all rows from the store.
+     * The old arrays are left as they are, since a query may still be reading them.
+     */
+    public void clear() {
+
+        writeLock.lock();
+
+        try {
+            rowByRentalId.clear();
+            columns = allocate(INITIAL_CAPACITY);
+
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Adds a rental as a new row.
+     * If the rental already has a row, that row is updated instead.
+     * @param rental the rental to add
+     * @param itemType the type of the rented item, or null if unknown
+     * @param level the membership level of the member, or null if unknown
+     */
+    public void add(Rental rental, ItemType itemType, MembershipLevel level) {
+
+        writeLock.lock();
+
+        try {
+            Integer existingRow = rowByRentalId.get(rental.getRentalId());
+
+            if (existingRow != null) {
+                updateLocked(existingRow, rental);
+                return;
+            }
+
+            Columns current = columns;
+
+            // Full, move to arrays twice as big (the old ones stay with the queries that use them)
+            if (current.size() == current.startEpoch().length) {
+                current = grow(current);
+            }
+
+            int row = current.size();
+
+            current.startEpoch()[row] = rental.getStartDate() != null ? toEpochSecond(rental.getStartDate()) : NO_START;
+            current.expectedReturnEpoch()[row] = rental.getExpectedReturnDate() != null ? toEpochSecond(rental.getExpectedReturnDate()) : NO_END;
+            current.endEpoch()[row] = rental.getEndDate() != null ? toEpochSecond(rental.getEndDate()) : NO_END;
+            current.cost()[row] = rental.getTotalCostOre();
+            current.itemTypeOrdinal()[row] = itemType != null ? (byte) itemType.ordinal() : UNKNOWN;
+            current.memberLevelOrdinal()[row] = level != null ? (byte) level.ordinal() : UNKNOWN;
+            current.statusOrdinal()[row] = toStatusOrdinal(rental.getStatus());
+
+            rowByRentalId.put(rental.getRentalId(), row);
+
+            // Publish the new row
+            columns = current.withSize(row + 1);
+
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Copies the fields that can change (end date and status) from the rental into its row.
+     * @param rental the rental that was changed (for example returned)
+     */
+    public void update(Rental rental) {
+
+        writeLock.lock();
+
+        try {
+            Integer row = rowByRentalId.get(rental.getRentalId());
+
+            if (row != null) {
+                updateLocked(row, rental);
+            }
+
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Counts how many rows we have.
+     */
+    public int size() {
+        return columns.size();
+    }
+
+    /**
+     * Sums the cost of all rentals.
+     * @return total cost in öre
+     */
+    public long sumCost() {
+        return sumCost(Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    /**
+     * Sums the cost of all rentals that started within the given range.
+     * @param fromEpochSecond start of the range (inclusive)
+     * @param toEpochSecond end of the range (exclusive)
+     * @return total cost in öre
+     */
+    public long sumCost(long fromEpochSecond, long toEpochSecond) {
+        return aggregate(Grouping.TOTAL, fromEpochSecond, toEpochSecond, 0, 1)[0];
+    }
+
+    /**
+     * Sums the cost per item type for rentals that started within the given range.
+     * @param fromEpochSecond start of the range (inclusive)
+     * @param toEpochSecond end of the range (exclusive)
+     * @return an array indexed by {@code ItemType.ordinal()}
+     */
+    public long[] sumCostByItemType(long fromEpochSecond, long toEpochSecond) {
+        return aggregate(Grouping.ITEM_TYPE, fromEpochSecond, toEpochSecond, 0, ItemType.values().length);
+    }
+
+    /**
+     * Sums the cost per membership level for rentals that started within the given range.
+     * @param fromEpochSecond start of the range (inclusive)
+     * @param toEpochSecond end of the range (exclusive)
+     * @return an array indexed by {@code MembershipLevel.ordinal()}
+     */
+    public long[] sumCostByMembershipLevel(long fromEpochSecond, long toEpochSecond) {
+        return aggregate(Grouping.MEMBER_LEVEL, fromEpochSecond, toEpochSecond, 0, MembershipLevel.values().length);
+    }
+
+    /**
+     * Sums the cost per day for a number of days in a row.
+     * @param firstEpochDay the first day (as {@code LocalDate.toEpochDay()})
+     * @param days how many days to include
+     * @return an array where index 0 is the first day
+     */
+    public long[] sumCostByDay(long firstEpochDay, int days) {
+
+        long from = firstEpochDay * SECONDS_PER_DAY;
+        long to = (firstEpochDay + days) * SECONDS_PER_DAY;
+
+        return aggregate(Grouping.DAY, from, to, firstEpochDay, days);
+    }
+
+    /**
+     * Counts the rentals with a certain status.
+     * @param status the status to count
+     * @return number of matching rentals
+     */
+    public int countByStatus(RentalStatus status) {
+
+        byte wanted = (byte) status.ordinal();
+
+        // Read once, so the whole count works on the same arrays and row count
+        Columns current = columns;
+        byte[] statuses = current.statusOrdinal();
+        int rows = current.size();
+        int count = 0;
+
+        for (int i = 0; i < rows; i++) {
+            if (statuses[i] == wanted) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Counts active rentals whose expected return time has already passed.
+     * @param now the current time
+     * @return number of overdue rentals
+     */
+    public int countOverdue(LocalDateTime now) {
+
+        long nowEpoch = toEpochSecond(now);
+        byte active = (byte) RentalStatus.ACTIVE.ordinal();
+
+        // Read once, so the whole count works on the same arrays and row count
+        Columns current = columns;
+        byte[] statuses = current.statusOrdinal();
+        long[] expectedReturns = current.expectedReturnEpoch();
+        int rows = current.size();
+        int count = 0;
+
+        for (int i = 0; i < rows; i++) {
+            if (statuses[i] == active && expectedReturns[i] != NO_END && expectedReturns[i] < nowEpoch) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Turns a date and time into seconds since 1970-01-01T00:00.
+     * We treat the local time as if it was UTC, so dividing by one day gives the same number as {@code LocalDate.toEpochDay()}.
+     * @param dateTime the date and time to convert
+     * @return the epoch second
+     */
+    public static long toEpochSecond(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    /**
+     * Runs an aggregation over the cost column, either on this thread or split over all cores.
+     */
+    private long[] aggregate(Grouping grouping, long from, long to, long firstEpochDay, int buckets) {
+
+        // We read the columns once so the whole query (and every fork/join part) works on the same arrays
+        Columns current = columns;
+        BucketSumTask task = new BucketSumTask(current, grouping, from, to, firstEpochDay, buckets, 0, current.size());
+
+        if (current.size() < PARALLEL_THRESHOLD) {
+            return task.compute();
+        }
+
+        return ForkJoinPool.commonPool().invoke(task);
+    }
+
+    // Status as a byte, a missing status (old or hand edited files) is stored as UNKNOWN
+    private static byte toStatusOrdinal(RentalStatus status) {
+        return status != null ? (byte) status.ordinal() : UNKNOWN;
+    }
+
+    // Copies the fields that can change into an existing row, then publishes again so readers see the change.
+    // The two writes are not one step for a reader, see the class comment.
+    private void updateLocked(int row, Rental rental) {
+
+        Columns current = columns;
+
+        current.endEpoch()[row] = rental.getEndDate() != null ? toEpochSecond(rental.getEndDate()) : NO_END;
+        current.statusOrdinal()[row] = toStatusOrdinal(rental.getStatus());
+
+        columns = current.withSize(current.size());
+    }
+
+    // Creates fresh, empty arrays with the given capacity
+    private static Columns allocate(int capacity) {
+        return new Columns(new long[capacity], new long[capacity], new long[capacity], new long[capacity],
+                new byte[capacity], new byte[capacity], new byte[capacity], 0);
+    }
+
+    // Doubles the size of every array and keeps the existing rows
+    private static Columns grow(Columns current) {
+        int capacity = current.startEpoch().length * 2;
+        return new Columns(
+                Arrays.copyOf(current.startEpoch(), capacity),
+                Arrays.copyOf(current.expectedReturnEpoch(), capacity),
+                Arrays.copyOf(current.endEpoch(), capacity),
+                Arrays.copyOf(current.cost(), capacity),
+                Arrays.copyOf(current.itemTypeOrdinal(), capacity),
+                Arrays.copyOf(current.memberLevelOrdinal(), capacity),
+                Arrays.copyOf(current.statusOrdinal(), capacity),
+                current.size());
+    }
+
+    /**
+     * The different ways we can group the sums.
+     */
+    private enum Grouping {
+        TOTAL,
+        ITEM_TYPE,
+        MEMBER_LEVEL,
+        DAY
+    }
+
+    /**
+     * One array per column and how many rows are filled. Row 'i' in every array belongs to the same rental.
+     * A query reads the current Columns once when it starts and never looks past its size.
+     */
+    private record Columns(long[] startEpoch, long[] expectedReturnEpoch, long[] endEpoch, long[] cost,
+                           byte[] itemTypeOrdinal, byte[] memberLevelOrdinal, byte[] statusOrdinal, int size) {
+
+        // The same arrays with another row count
+        Columns withSize(int newSize) {
+            return new Columns(startEpoch, expectedReturnEpoch, endEpoch, cost, itemTypeOrdinal, memberLevelOrdinal, statusOrdinal, newSize);
+        }
+    }
+
+    /**
+     * A fork/join task that sums costs into buckets for a part of the rows.
+     * Big ranges are split in two halves that run in parallel, and the halves are added together afterwards.
+     */
+    private static class BucketSumTask extends RecursiveTask<long[]> {
+
+        private final Columns columns;
+        private final Grouping grouping;
+        private final long from;
+        private final long to;
+        private final long firstEpochDay;
+        private final int buckets;
+        private final int startRow;
+        private final int endRow;
+
+        BucketSumTask(Columns columns, Grouping grouping, long from, long to, long firstEpochDay, int buckets, int startRow, int endRow) {
+            this.columns = columns;
+            this.grouping = grouping;
+            this.from = from;
+            this.to = to;
+            this.firstEpochDay = firstEpochDay;
+            this.buckets = buckets;
+            this.startRow = startRow;
+            this.endRow = endRow;
+        }
+
+        @Override
+        protected long[] compute() {
+
+            // Split the work if the range is big enough
+            if (endRow - startRow > PARALLEL_THRESHOLD) {
+
+                int middle = (startRow + endRow) >>> 1;
+
+                BucketSumTask left = new BucketSumTask(columns, grouping, from, to, firstEpochDay, buckets, startRow, middle);
+                BucketSumTask right = new BucketSumTask(columns, grouping, from, to, firstEpochDay, buckets, middle, endRow);
+
+                left.fork();
+                long[] rightResult = right.compute();
+                long[] leftResult = left.join();
+
+                for (int i = 0; i < buckets; i++) {
+                    leftResult[i] += rightResult[i];
+                }
+                return leftResult;
+            }
+
+            long[] result = new long[buckets];
+            long[] starts = columns.startEpoch();
+            long[] costs = columns.cost();
+            byte[] types = columns.itemTypeOrdinal();
+            byte[] levels = columns.memberLevelOrdinal();
+
+            for (int i = startRow; i < endRow; i++) {
+
+                long start = starts[i];
+
+                // Skip rows outside the date range
+                if (start < from || start >= to) {
+                    continue;
+                }
+
+                switch (grouping) {
+                    case TOTAL -> result[0] += costs[i];
+                    case ITEM_TYPE -> {
+                        if (types[i] != UNKNOWN) {
+                            result[types[i]] += costs[i];
+                        }
+                    }
+                    case MEMBER_LEVEL -> {
+                        if (levels[i] != UNKNOWN) {
+                            result[levels[i]] += costs[i];
+                        }
+                    }
+                    case DAY -> result[(int) (Math.floorDiv(start, SECONDS_PER_DAY) - firstEpochDay)] += costs[i];
+                }
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package org.example.memberclubjavafx_assignment5.service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads a list of rental ids from a CSV file, for bulk returns (see RentalService.returnItems).
+ *
+ * The id is the first column. Commas, semicolons (what Excel uses with Swedish settings) and tabs all work as separators,
+ * so a column copied out of a spreadsheet can be used as it is. Empty lines are skipped, and so is a first line
+ * without digits, since that is a header like "rentalId" (every rental id has a number in it).
+ */
+public final class RentalIdCsv {
+
+    private RentalIdCsv() {
+    }
+
+    /**
+     * Reads the rental ids from a file.
+     * @param file the CSV file
+     * @return the ids in the order of the file
+     * @throws IOException if the file can't be read
+     */
+    public static List<String> read(Path file) throws IOException {
+
+        List<String> ids = new ArrayList<>();
+        boolean firstLine = true;
+
+        for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+
+            // Excel may put a byte order mark in front of the first line
+            if (firstLine && line.startsWith("\uFEFF")) {
+                line = line.substring(1);
+            }
+
+            String id = firstCell(line);
+
+            if (!id.isEmpty() && !(firstLine && !containsDigit(id))) {
+                ids.add(id);
+            }
+
+            if (!line.isBlank()) {
+                firstLine = false;
+            }
+        }
+        return ids;
+    }
+
+    // The text before the first separator, without spaces and quotes
+    private static String firstCell(String line) {
+
+        int end = line.length();
+
+        for (int i = 0; i < line.length(); i++) {
+
+            char c = line.charAt(i);
+
+            if (c == ',' || c == ';' || c == '\t') {
+                end = i;
+                break;
+            }
+        }
+
+        String cell = line.substring(0, end).trim();
+
+        if (cell.length() >= 2 && cell.startsWith("\"") && cell.endsWith("\"")) {
+            cell = cell.substring(1, cell.length() - 1).trim();
+        }
+        return cell;
+    }
+
+    private static boolean containsDigit(String text) {
+
+        for (int i = 0; i < text.length(); i++) {
+
+            if (Character.isDigit(text.charAt(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
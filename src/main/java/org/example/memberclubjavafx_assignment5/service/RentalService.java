@@ -1,21 +1,35 @@
 package org.example.memberclubjavafx_assignment5.service;
 
+import org.example.memberclubjavafx_assignment5.diagnostics.Counter;
+import org.example.memberclubjavafx_assignment5.diagnostics.MetricsRegistry;
+import org.example.memberclubjavafx_assignment5.diagnostics.RentalCreatedEvent;
+import org.example.memberclubjavafx_assignment5.diagnostics.RentalReturnedEvent;
+import org.example.memberclubjavafx_assignment5.diagnostics.Timer;
 import org.example.memberclubjavafx_assignment5.exceptions.ItemNotAvailableException;
 import org.example.memberclubjavafx_assignment5.exceptions.ItemNotFoundException;
 import org.example.memberclubjavafx_assignment5.exceptions.MemberNotFoundException;
 import org.example.memberclubjavafx_assignment5.exceptions.RentalNotFoundException;
+import org.example.memberclubjavafx_assignment5.exceptions.VersionConflictException;
 import org.example.memberclubjavafx_assignment5.model.Item;
 import org.example.memberclubjavafx_assignment5.model.Member;
 import org.example.memberclubjavafx_assignment5.model.Rental;
 import org.example.memberclubjavafx_assignment5.model.enums.ItemStatus;
 import org.example.memberclubjavafx_assignment5.model.enums.RentalPeriod;
-import org.example.memberclubjavafx_assignment5.pricing.PricePolicy;
+import org.example.memberclubjavafx_assignment5.pricing.PricingEngine;
 import org.example.memberclubjavafx_assignment5.pricing.PricingFactory;
+import org.example.memberclubjavafx_assignment5.pricing.Quote;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * This class handles all the logic for renting items.
@@ -24,27 +38,69 @@ import java.util.Set;
  */
 public class RentalService {
 
+    // Metrics for the diagnostics screen and JMX
+    private static final Timer RENT_TIMER = MetricsRegistry.timer("rental.rent");
+    private static final Timer RETURN_TIMER = MetricsRegistry.timer("rental.return");
+    private static final Counter RENT_ERRORS = MetricsRegistry.counter("rental.rent.errors");
+    private static final Counter RETURN_ERRORS = MetricsRegistry.counter("rental.return.errors");
+
+    // Which of two active rentals of one item is the newer: the later start, and for the same start the higher rental number.
+    // The ids are compared by length first, so RENT-1000 comes after RENT-999.
+    private static final Comparator<Rental> ACTIVE_RENTAL_ORDER = Comparator
+            .comparing(Rental::getStartDate, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparingInt(rental -> rental.getRentalId().length())
+            .thenComparing(Rental::getRentalId);
+
     // We need access to the inventory to check if items exist
     private final Inventory inventory;
 
     // We need access to members to know who is renting
     private final MemberRegistry memberRegistry;
 
-    // This list stores every rental history
-    private final List<Rental> rentals;
+    // Calculates the price of every rental (the same engine as the cart and the receipt use)
+    private final PricingEngine pricingEngine;
+
+    // Gives out price quotes, shared with the cart, the booking dialog and the receipt
+    private final QuoteService quoteService;
+
+    // This list stores every rental history.
+    // A SnapshotList, so a save or a report on another thread can take the whole history without copying it.
+    private final SnapshotList<Rental> rentals;
+
+    // Rental id -> rental, so finding a rental doesn't mean searching the whole history
+    private final Map<String, Rental> rentalsById = new ConcurrentHashMap<>();
+
+    // Item id -> the active rental of that item, for returns by scanning the item (see getActiveRentalForItem)
+    private final Map<String, Rental> activeRentalByItem = new ConcurrentHashMap<>();
 
-    // A simple counter to create unique IDs
-    private int rentalCounter;
+    // A columnar copy of the rentals that the dashboard and reports use for fast sums
+    private final RentalColumnStore columnStore;
+
+    // The active rentals per item type, sorted by when they are due back (for 'next kayak free at 14:30')
+    private final AvailabilityForecast forecast;
+
+    // A counter to create unique IDs. Atomic, so two desks renting at the same time never get the same number
+    private final AtomicInteger rentalCounter = new AtomicInteger(1);
+
+    /**
+     * Constructor that uses the default pricing engine.
+     */
+    public RentalService(Inventory inventory, MemberRegistry memberRegistry) {
+        this(inventory, memberRegistry, PricingFactory.getEngine());
+    }
 
     /**
      * Constructor.
      * Starts the counter at 1 and prepares the empty list.
      */
-    public RentalService(Inventory inventory, MemberRegistry memberRegistry) {
+    public RentalService(Inventory inventory, MemberRegistry memberRegistry, PricingEngine pricingEngine) {
         this.inventory = inventory;
         this.memberRegistry = memberRegistry;
-        this.rentals = new ArrayList<>();
-        this.rentalCounter = 1;
+        this.pricingEngine = pricingEngine;
+        this.quoteService = new QuoteService(pricingEngine);
+        this.rentals = new SnapshotList<>();
+        this.columnStore = new RentalColumnStore();
+        this.forecast = new AvailabilityForecast();
     }
 
     /**
@@ -60,6 +116,53 @@ public class RentalService {
      * @throws ItemNotAvailableException if the item is not available for rental.
      */
     public Rental rentItem(int memberId, String itemId, int duration, RentalPeriod period) {
+        return rentItem(memberId, itemId, duration, period, 1);
+    }
+
+    /**
+     * Creates a new rental that is part of a booking with several items.
+     * Works like {@link #rentItem(int, String, int, RentalPeriod)}, but the number of items lets the pricing engine apply bundle discounts.
+     * @param bundleSize How many items are booked together.
+     * @return The created Rental receipt.
+     */
+    public Rental rentItem(int memberId, String itemId, int duration, RentalPeriod period, int bundleSize) {
+
+        // Measure every rental (also the ones that fail) so the diagnostics screen shows how long they take
+        long start = System.nanoTime();
+
+        // The flight recorder event costs almost nothing when no recording is running
+        RentalCreatedEvent event = new RentalCreatedEvent();
+        event.begin();
+
+        try {
+            Rental rental = createRental(memberId, itemId, duration, period, bundleSize);
+
+            event.rentalId = rental.getRentalId();
+            event.costOre = rental.getTotalCostOre();
+            return rental;
+
+        } catch (RuntimeException exception) {
+            RENT_ERRORS.increment();
+            event.error = exception.getClass().getSimpleName();
+            throw exception;
+
+        } finally {
+            RENT_TIMER.record(start);
+
+            if (event.shouldCommit()) {
+                event.memberId = memberId;
+                event.itemId = itemId;
+                event.itemType = getItemTypeName(itemId);
+                event.bookedDuration = duration;
+                event.period = String.valueOf(period);
+                event.bundleSize = bundleSize;
+                event.commit();
+            }
+        }
+    }
+
+    // Does the actual work for rentItem
+    private Rental createRental(int memberId, String itemId, int duration, RentalPeriod period, int bundleSize) {
 
         // Validate that the member exists
         Member member = memberRegistry.getMember(memberId);
@@ -73,35 +176,42 @@ public class RentalService {
             throw new ItemNotFoundException("Ingen artikel hittades med ID: " + itemId);
         }
 
-        // Validate that the item is available
-        if (item.getStatus() != ItemStatus.AVAILABLE) {
-            throw new ItemNotAvailableException("Artikeln '" + item.getName() + "' är inte tillgänglig (Status: " + item.getStatus() + ")");
-        }
+        LocalDateTime now;
+        Quote quote;
 
-        // Calculate the price (we use a 'Factory' here to get the right price rules for this member)
-        PricePolicy pricing = PricingFactory.getPricing(member.getMembershipLevel());
-        double totalCost = pricing.calculatePrice(item, member, duration, period);
+        // Check, price and claim the item. If someone changed the item while we priced it we price it again,
+        // and if someone rented it first we stop, so an item is never rented twice.
+        while (true) {
 
-        // Generate an ID (we add zeros to the front so the numbers aligns better in lists)
-        String idString;
+            long seenVersion = item.getVersion();
+
+            // Validate that the item is available
+            if (item.getStatus() != ItemStatus.AVAILABLE) {
+                throw new ItemNotAvailableException("Artikeln '" + item.getName() + "' är inte tillgänglig (Status: " + item.getStatus() + ")");
+            }
 
-        if (this.rentalCounter < 10) {
-            idString = "00" + this.rentalCounter;
+            // Calculate the dates
+            now = LocalDateTime.now();
 
-        } else if (this.rentalCounter < 100) {
-            idString = "0" + this.rentalCounter;
+            // Get the price (in öre) from the same quote the cart showed
+            quote = quoteService.quote(item, member.getMembershipLevel(), duration, period, now, bundleSize);
 
-        } else {
-            idString = "" + this.rentalCounter;
-        }
+            // The check and the change belong together, in the same way as Inventory.updateItem
+            synchronized (item) {
 
-        String rentalId = "RENT-" + idString;
+                if (item.getVersion() == seenVersion && item.getStatus() == ItemStatus.AVAILABLE) {
+
+                    // Mark the item as 'rented' so no one else can rent it
+                    item.setStatus(ItemStatus.RENTED);
+                    break;
+                }
+            }
+        }
 
-        // Increase the counter so the next rental gets a new number
-        this.rentalCounter = this.rentalCounter + 1;
+        // Generate an ID, the counter moves on so the next rental gets a new number
+        String rentalId = createRentalId(rentalCounter.getAndIncrement());
 
-        // Calculate the dates
-        LocalDateTime now = LocalDateTime.now();
+        // Calculate the expected return date
         LocalDateTime expectedReturnDate;
 
         // Add hours or days depending on what the user chose
@@ -112,16 +222,17 @@ public class RentalService {
         }
 
         // Create the actual Rental object (the receipt)
-        Rental rental = new Rental(rentalId, memberId, itemId, now, expectedReturnDate, null, totalCost);
-
-        // Update the system status and mark the item as 'rented' so no one else can rent it
-        item.setStatus(ItemStatus.RENTED);
+        Rental rental = new Rental(rentalId, memberId, itemId, now, expectedReturnDate, null, quote.getTotalOre(), period, duration, quote.getListPriceOre());
 
         // Add the rental ID to the member's history
         member.addRental(rentalId);
 
         // Save the rental in our main list
         this.rentals.add(rental);
+        index(rental);
+
+        // Keep the statistics columns in sync
+        columnStore.add(rental, item.getItemType(), member.getMembershipLevel());
 
         return rental;
     }
@@ -131,8 +242,71 @@ public class RentalService {
      * Finds the rental, marks it as done, and makes the item available again.
      * @param rentalId The ID of the rental to return.
      * @throws RentalNotFoundException if the rental ID is not found.
+     * @throws VersionConflictException if the rental is already returned. Nothing is changed.
      */
     public void returnItem(String rentalId) {
+        returnItem(rentalId, -1);
+    }
+
+    /**
+     * Returns an item, but only if nobody else changed the rental after it was read (for example returned it at another desk).
+     * @param rentalId The ID of the rental to return.
+     * @param expectedVersion the version of the rental when it was shown (rental.getVersion()), or -1 to skip the check
+     * @throws RentalNotFoundException if the rental ID is not found.
+     * @throws VersionConflictException if the rental has changed since then, or is already returned. Nothing is changed.
+     */
+    public void returnItem(String rentalId, long expectedVersion) {
+
+        long start = System.nanoTime();
+
+        RentalReturnedEvent event = new RentalReturnedEvent();
+        event.begin();
+
+        try {
+            completeRental(rentalId, expectedVersion);
+
+        } catch (RuntimeException exception) {
+            RETURN_ERRORS.increment();
+            event.error = exception.getClass().getSimpleName();
+            throw exception;
+
+        } finally {
+            RETURN_TIMER.record(start);
+
+            if (event.shouldCommit()) {
+                fillReturnedEvent(event, rentalId);
+                event.commit();
+            }
+        }
+    }
+
+    // Adds the rental details to a flight recorder event (only called when a recording wants the event)
+    private void fillReturnedEvent(RentalReturnedEvent event, String rentalId) {
+
+        event.rentalId = rentalId;
+
+        Rental rental = getRental(rentalId);
+
+        if (rental != null) {
+            event.itemId = rental.getItemId();
+            event.itemType = getItemTypeName(rental.getItemId());
+            event.hoursLate = rental.getHoursLate();
+
+            if (rental.getEndDate() != null) {
+                event.rentedHours = Duration.between(rental.getStartDate(), rental.getEndDate()).toHours();
+            }
+        }
+    }
+
+    // The item type as text for the flight recorder, or null if the item is unknown
+    private String getItemTypeName(String itemId) {
+
+        Item item = inventory.getItem(itemId);
+        return item != null ? String.valueOf(item.getItemType()) : null;
+    }
+
+    // Does the actual work for returnItem
+    private void completeRental(String rentalId, long expectedVersion) {
 
         // Find the rental
         Rental rental = getRental(rentalId);
@@ -141,15 +315,98 @@ public class RentalService {
             throw new RentalNotFoundException("Kunde inte hitta uthyrning med ID: " + rentalId);
         }
 
-        // Mark the rental receipt as completed (sets the actual return date)
-        rental.complete();
+        // The check and the change belong together, so no other thread can return the rental in between
+        synchronized (rental) {
 
-        // Find the item and make it 'available' again so others can rent it
-        Item item = inventory.getItem(rental.getItemId());
+            if (expectedVersion >= 0 && rental.getVersion() != expectedVersion) {
+                throw new VersionConflictException("Uthyrningen " + rentalId + " har redan ändrats (status " + rental.getStatus() + ")",
+                        rentalId, expectedVersion, rental.getVersion());
+            }
+
+            // A rental is only returned once, with or without a version. A second return (a double click, a retry,
+            // another desk) would otherwise move the end date and free an item that may already be rented to someone else.
+            if (!rental.isActive()) {
+                throw new VersionConflictException("Uthyrningen " + rentalId + " är redan avslutad (status " + rental.getStatus() + ")",
+                        rentalId, expectedVersion, rental.getVersion());
+            }
+
+            // Mark the rental receipt as completed (sets the actual return date)
+            rental.complete();
+        }
+        columnStore.update(rental);
+        forecast.remove(rental);
+
+        // Only free the item if this rental was the one holding it. If the item is registered to another rental,
+        // making it 'available' would let a third member book an item that is out.
+        if (activeRentalByItem.remove(rental.getItemId(), rental)) {
+
+            // Find the item and make it 'available' again so others can rent it
+            Item item = inventory.getItem(rental.getItemId());
+
+            if (item != null) {
+
+                // Under the item's lock, so a rental that is checking the item at the same time sees the change
+                synchronized (item) {
+                    item.setStatus(ItemStatus.AVAILABLE);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns many rentals in one go, for example after a camp weekend.
+     * Every line is checked and handled on its own, so one bad id doesn't stop the rest. The late fee is worked out
+     * before each return, like in the return dialog. Nothing is saved here: the caller saves once when all lines are done.
+     * @param rentalIds the rental ids, in the order of the list or file
+     * @return one outcome per id, in the same order
+     */
+    public List<ReturnOutcome> returnItems(List<String> rentalIds) {
+
+        List<ReturnOutcome> outcomes = new ArrayList<>(rentalIds.size());
+        Set<String> seen = new HashSet<>();
+
+        for (int i = 0; i < rentalIds.size(); i++) {
+
+            String rentalId = rentalIds.get(i) != null ? rentalIds.get(i).trim() : "";
+            int line = i + 1;
+
+            // An empty line (or a missing id from a bad file) can't be a rental
+            if (rentalId.isEmpty()) {
+                outcomes.add(new ReturnOutcome(line, rentalId, ReturnOutcome.Result.NOT_FOUND, 0, 0));
+                continue;
+            }
+
+            if (!seen.add(rentalId)) {
+                outcomes.add(new ReturnOutcome(line, rentalId, ReturnOutcome.Result.DUPLICATE, 0, 0));
+                continue;
+            }
 
-        if (item != null) {
-            item.setStatus(ItemStatus.AVAILABLE);
+            Rental rental = getRental(rentalId);
+
+            if (rental == null) {
+                outcomes.add(new ReturnOutcome(line, rentalId, ReturnOutcome.Result.NOT_FOUND, 0, 0));
+                continue;
+            }
+
+            if (!rental.isActive()) {
+                outcomes.add(new ReturnOutcome(line, rentalId, ReturnOutcome.Result.NOT_ACTIVE, 0, 0));
+                continue;
+            }
+
+            // The fee has to be worked out before the return, afterwards the rental is no longer late
+            long hoursLate = rental.getHoursLate();
+            long penalty = hoursLate > 0 ? quoteService.quoteRental(rental, inventory.getItem(rental.getItemId())).getPenaltyOre() : 0;
+
+            try {
+                // With the version we just checked, so a return at another desk in between is noticed
+                returnItem(rentalId, rental.getVersion());
+                outcomes.add(new ReturnOutcome(line, rentalId, ReturnOutcome.Result.RETURNED, hoursLate, penalty));
+
+            } catch (VersionConflictException exception) {
+                outcomes.add(new ReturnOutcome(line, rentalId, ReturnOutcome.Result.NOT_ACTIVE, 0, 0));
+            }
         }
+        return outcomes;
     }
 
     /**
@@ -159,7 +416,7 @@ public class RentalService {
 
         List<Rental> activeRentals = new ArrayList<>();
 
-        for (Rental rental : rentals) {
+        for (Rental rental : rentals.snapshot()) {
 
             // We check the 'isActive()' method on the rental object
             if (rental.isActive()) {
@@ -171,37 +428,90 @@ public class RentalService {
 
     /**
      * Returns the full history of all rentals.
+     * The list is a snapshot: it can't be changed, and rentals made after the call are not in it.
+     * Taking it costs almost nothing, so it is fine to call often (and from any thread).
      */
     public List<Rental> getAllRentals() {
-        return rentals;
+        return rentals.snapshot();
+    }
+
+    /**
+     * Returns the pricing engine used for new rentals.
+     */
+    public PricingEngine getPricingEngine() {
+        return pricingEngine;
+    }
+
+    /**
+     * Returns the quote service that prices carts, bookings and receipts.
+     */
+    public QuoteService getQuoteService() {
+        return quoteService;
+    }
+
+    /**
+     * Returns the columnar copy of the rentals, used for fast statistics.
+     */
+    public RentalColumnStore getColumnStore() {
+        return columnStore;
+    }
+
+    /**
+     * Returns when the rented items are expected back, per item type.
+     */
+    public AvailabilityForecast getForecast() {
+        return forecast;
     }
 
     /**
      * Finds a specific rental by its ID string.
+     * One map lookup, no matter how long the history is.
      */
     public Rental getRental(String rentalId) {
+        return rentalId != null ? rentalsById.get(rentalId) : null;
+    }
 
-        for (Rental rental : rentals) {
+    /**
+     * Finds the active rental of an item, for example when the item's barcode is scanned at the return desk.
+     * One map lookup, no matter how long the history is.
+     * @param itemId the item
+     * @return the active rental, or null if the item is not rented out
+     */
+    public Rental getActiveRentalForItem(String itemId) {
+        return itemId != null ? activeRentalByItem.get(itemId) : null;
+    }
 
-            if (rental.getRentalId().equals(rentalId)) {
-                return rental;
-            }
-        }
-        return null;
+    /**
+     * Picks the rental that holds an item when the item has two active rentals (which only happens with a broken file).
+     * The one that started last wins, and for the same start the one with the higher number.
+     * IntegrityChecker, getActiveRentalForItem and returnItem all use this rule, so they agree on which rental frees the item.
+     * @param first one active rental of the item
+     * @param second another active rental of the same item
+     * @return the rental that holds the item
+     */
+    public static Rental newerActiveRental(Rental first, Rental second) {
+        return ACTIVE_RENTAL_ORDER.compare(first, second) >= 0 ? first : second;
     }
 
     /**
      * Loads a list of rentals into the system.
      * This method clears old data and prevents duplicates.
      * It also updates the counter to ensure new rentals get unique IDs.
+     * @return how many rentals were skipped because their ID was already loaded (0 in a healthy file)
      */
-    public void setRentals(List<Rental> loadedRentals) {
+    public int setRentals(List<Rental> loadedRentals) {
 
         // Wipe the current memory clean to prevent stacking old data and new data
         this.rentals.clear();
+        this.rentalsById.clear();
+        this.activeRentalByItem.clear();
+        this.forecast.clear();
+        this.columnStore.clear();
 
         // Reset counter (will be updated in the loop below)
-        this.rentalCounter = 1;
+        this.rentalCounter.set(1);
+
+        int duplicates = 0;
 
         if (loadedRentals != null) {
 
@@ -213,6 +523,8 @@ public class RentalService {
                 // Only add if we haven't seen this ID in this batch
                 if (!processedIds.contains(rental.getRentalId())) {
                     this.rentals.add(rental);
+                    index(rental);
+                    addToColumnStore(rental);
                     processedIds.add(rental.getRentalId());
 
                     // Check the ID of the loaded rental to update our counter
@@ -226,16 +538,41 @@ public class RentalService {
                             int idNum = Integer.parseInt(idStr.substring(5));
 
                             // If this ID is higher than or equal to our current counter, bump the counter up
-                            if (idNum >= this.rentalCounter) {
-                                this.rentalCounter = idNum + 1;
-                            }
+                            this.rentalCounter.accumulateAndGet(idNum + 1, Math::max);
                         }
                     } catch (NumberFormatException exception) {
                         // Ignore bad IDs
                     }
+                } else {
+                    duplicates++;
                 }
             }
         }
+        return duplicates;
+    }
+
+    /**
+     * Creates the rental id for a number, for example RENT-007.
+     * We add zeros to the front so the numbers align better in lists.
+     * Public and static so the test data generator creates exactly the same ids.
+     * @param number the rental number (starts at 1)
+     * @return the rental id
+     */
+    public static String createRentalId(long number) {
+
+        String idString;
+
+        if (number < 10) {
+            idString = "00" + number;
+
+        } else if (number < 100) {
+            idString = "0" + number;
+
+        } else {
+            idString = "" + number;
+        }
+
+        return "RENT-" + idString;
     }
 
     /**
@@ -244,6 +581,8 @@ public class RentalService {
     public void addRental(Rental rental) {
 
         this.rentals.add(rental);
+        index(rental);
+        addToColumnStore(rental);
 
         // If the rental we just loaded is still active, we must make sure the Item is marked as 'rented'
         if (rental.isActive()) {
@@ -266,13 +605,120 @@ public class RentalService {
                 int idNum = Integer.parseInt(idPart);
 
                 // If this ID is larger than our counter, update our counter
-                if (idNum >= this.rentalCounter) {
-                    this.rentalCounter = idNum + 1;
-                }
+                this.rentalCounter.accumulateAndGet(idNum + 1, Math::max);
             }
 
         } catch (NumberFormatException exception) {
             System.err.println("VARNING: Kunde inte läsa Uthyrnings-ID: " + currentId);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Applies the rentals that changed in the file since we last read or wrote it (see DataReloader).
+     * Only the rentals in the three lists are touched, so the work follows the size of the change and not the size of the history.
+     * @param added rentals that are new in the file
+     * @param updated new copies of rentals we already have (the old copy is replaced)
+     * @param removed rentals that are no longer in the file
+     */
+    public void applyChanges(List<Rental> added, List<Rental> updated, List<Rental> removed) {
+
+        boolean rebuildColumns = !removed.isEmpty();
+
+        if (!updated.isEmpty() || !removed.isEmpty()) {
+
+            // Find each rental's place in the list once, instead of searching the whole list for every change
+            Map<String, Integer> indexById = new HashMap<>();
+
+            for (int index = 0; index < rentals.size(); index++) {
+                indexById.put(rentals.get(index).getRentalId(), index);
+            }
+
+            for (Rental rental : updated) {
+
+                Integer index = indexById.get(rental.getRentalId());
+
+                if (index == null) {
+                    added = new ArrayList<>(added);
+                    added.add(rental);
+                    continue;
+                }
+
+                Rental old = rentals.set(index, rental);
+                unindex(old);
+                index(rental);
+
+                // The column store only copies end date and status on update, an edit of anything else needs new rows
+                if (!Objects.equals(old.getStartDate(), rental.getStartDate())
+                        || !Objects.equals(old.getExpectedReturnDate(), rental.getExpectedReturnDate())
+                        || old.getTotalCostOre() != rental.getTotalCostOre()) {
+                    rebuildColumns = true;
+
+                } else {
+                    columnStore.update(rental);
+                }
+            }
+
+            if (!removed.isEmpty()) {
+
+                Set<String> removedIds = new HashSet<>();
+
+                for (Rental rental : removed) {
+                    removedIds.add(rental.getRentalId());
+                    unindex(rental);
+                }
+                rentals.removeIf(rental -> removedIds.contains(rental.getRentalId()));
+            }
+        }
+
+        // A rebuild is rare (someone edited or deleted rentals in the file by hand), so we don't try to patch the arrays
+        if (rebuildColumns) {
+            columnStore.clear();
+
+            for (Rental rental : rentals.snapshot()) {
+                addToColumnStore(rental);
+            }
+        }
+
+        // New rentals go through addRental, which also marks the item as rented and moves the id counter
+        for (Rental rental : added) {
+            addRental(rental);
+        }
+    }
+
+    // Puts a rental into the lookup maps and the forecast. With two rentals with the same id, the first one is kept (like the old search did).
+    private void index(Rental rental) {
+
+        // A second rental with the same id is not indexed, IntegrityChecker reports it as a duplicate
+        if (rentalsById.putIfAbsent(rental.getRentalId(), rental) != null) {
+            return;
+        }
+
+        if (rental.isActive()) {
+
+            // If the item has two active rentals (a bad file), the same one wins as in IntegrityChecker
+            activeRentalByItem.merge(rental.getItemId(), rental, RentalService::newerActiveRental);
+
+            Item item = inventory.getItem(rental.getItemId());
+            forecast.add(rental, item != null ? item.getItemType() : null);
+        }
+    }
+
+    // Takes a rental out of the lookup maps and the forecast (only if it is the one there)
+    private void unindex(Rental rental) {
+        rentalsById.remove(rental.getRentalId(), rental);
+        activeRentalByItem.remove(rental.getItemId(), rental);
+        forecast.remove(rental);
+    }
+
+    /**
+     * Adds a loaded rental to the column store.
+     * We look up the item type and the member's level here, since the rental itself only has the IDs.
+     */
+    private void addToColumnStore(Rental rental) {
+
+        Item item = inventory.getItem(rental.getItemId());
+        Member member = memberRegistry.getMember(rental.getMemberId());
+
+        columnStore.add(rental, item != null ? item.getItemType() : null, member != null ? member.getMembershipLevel() : null);
+    }
+}
@@ -0,0 +1,133 @@
+package org.example.memberclubjavafx_assignment5.service;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import org.example.memberclubjavafx_assignment5.model.Money;
+import org.example.memberclubjavafx_assignment5.model.Rental;
+import org.example.memberclubjavafx_assignment5.model.enums.RentalPeriod;
+import org.example.memberclubjavafx_assignment5.model.enums.RentalStatus;
+import java.io.IOException;
+import java.time.LocalDateTime;
+
+/**
+ * Reads and writes rentals straight from and to the JSON text, without reflection (see ItemTypeAdapter).
+ * Rentals are by far the biggest file, so this is where the streaming helps the most.
+ * The files look exactly like before, and old files with the cost in kronor are still read.
+ */
+public class RentalTypeAdapter extends TypeAdapter<Rental> {
+
+    private static final EnumTable<RentalStatus> STATUSES = EnumTable.of(RentalStatus.class);
+    private static final EnumTable<RentalPeriod> PERIODS = EnumTable.of(RentalPeriod.class);
+
+    // Writes and reads the three dates of every rental
+    private final TimestampCodec timestamps;
+
+    /**
+     * Creates the adapter.
+     * @param timestamps the codec for the dates (the same one Gson uses for other dates)
+     */
+    public RentalTypeAdapter(TimestampCodec timestamps) {
+        this.timestamps = timestamps;
+    }
+
+    @Override
+    public void write(JsonWriter out, Rental rental) throws IOException {
+
+        if (rental == null) {
+            out.nullValue();
+            return;
+        }
+
+        out.beginObject();
+        out.name("rentalId").value(rental.getRentalId());
+        out.name("memberId").value(rental.getMemberId());
+        out.name("itemId").value(rental.getItemId());
+        out.name("startDate");
+        timestamps.write(out, rental.getStartDate());
+        out.name("expectedReturnDate");
+        timestamps.write(out, rental.getExpectedReturnDate());
+        out.name("endDate");
+        timestamps.write(out, rental.getEndDate());
+        out.name("totalCostOre").value(rental.getTotalCostOre());
+        out.name("status");
+        STATUSES.write(out, rental.getStatus());
+
+        // Old rentals have no saved period, then we save nothing instead of the guess getBookedPeriod() makes
+        out.name("period");
+        PERIODS.write(out, rental.hasSavedPeriod() ? rental.getBookedPeriod() : null);
+        out.name("duration").value(rental.hasSavedPeriod() ? rental.getBookedDuration() : 0);
+
+        out.name("listPriceOre").value(rental.getListPriceOre());
+        out.name("version").value(rental.getVersion());
+        out.endObject();
+    }
+
+    @Override
+    public Rental read(JsonReader in) throws IOException {
+
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+
+        String rentalId = null;
+        int memberId = 0;
+        String itemId = null;
+        LocalDateTime startDate = null;
+        LocalDateTime expectedReturnDate = null;
+        LocalDateTime endDate = null;
+        long totalCostOre = 0;
+        boolean hasCostInOre = false;
+        double totalCostKronor = 0;
+        RentalStatus status = null;
+        RentalPeriod period = null;
+        int duration = 0;
+        long listPriceOre = 0;
+        long version = 0;
+
+        in.beginObject();
+
+        while (in.hasNext()) {
+
+            switch (in.nextName()) {
+                case "rentalId" -> rentalId = StreamingJson.nextStringOrNull(in);
+                case "memberId" -> memberId = StreamingJson.nextInt(in);
+                case "itemId" -> itemId = StreamingJson.nextStringOrNull(in);
+                case "startDate" -> startDate = timestamps.read(in);
+                case "expectedReturnDate" -> expectedReturnDate = timestamps.read(in);
+                case "endDate" -> endDate = timestamps.read(in);
+                case "totalCostOre" -> {
+                    totalCostOre = StreamingJson.nextLong(in);
+                    hasCostInOre = true;
+                }
+                case "status" -> status = STATUSES.read(in);
+                case "period" -> period = PERIODS.read(in);
+                case "duration" -> duration = StreamingJson.nextInt(in);
+                case "listPriceOre" -> listPriceOre = StreamingJson.nextLong(in);
+                case "version" -> version = StreamingJson.nextLong(in);
+
+                // The cost in kronor, from files saved before money was in öre
+                case "totalCost" -> totalCostKronor = StreamingJson.nextDouble(in);
+
+                default -> in.skipValue();
+            }
+        }
+
+        in.endObject();
+
+        long cost = hasCostInOre ? totalCostOre : Money.ofKronor(totalCostKronor);
+
+        Rental rental = new Rental(rentalId, memberId, itemId, startDate, expectedReturnDate, endDate,
+                cost, period, duration, listPriceOre);
+
+        // The constructor makes every rental active, the file knows better
+        if (status != null) {
+            rental.setStatus(status);
+        }
+
+        rental.restoreVersion(version);
+        return rental;
+    }
+}
@@ -0,0 +1,60 @@
+package org.example.memberclubjavafx_assignment5.service;
+
+import org.example.memberclubjavafx_assignment5.model.Money;
+
+/**
+ * What happened to one line of a bulk return (see RentalService.returnItems).
+ * @param line the place in the list of ids, starting at 1
+ * @param rentalId the rental id on that line
+ * @param result what happened
+ * @param hoursLate how many hours late the item was (0 if on time or not returned)
+ * @param penaltyOre the late fee in öre (0 if on time or not returned)
+ */
+public record ReturnOutcome(int line, String rentalId, Result result, long hoursLate, long penaltyOre) {
+
+    /**
+     * The possible results of one line.
+     */
+    public enum Result {
+
+        // Returned, the item is available again
+        RETURNED("Återlämnad"),
+
+        // No rental with that id
+        NOT_FOUND("Finns inte"),
+
+        // The rental was already returned (or cancelled), nothing was changed
+        NOT_ACTIVE("Redan avslutad"),
+
+        // The same id earlier in the list, it is only returned once
+        DUPLICATE("Dubblett");
+
+        private final String label;
+
+        Result(String label) {
+            this.label = label;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+    }
+
+    public boolean isReturned() {
+        return result == Result.RETURNED;
+    }
+
+    /**
+     * One line of text for a report, for example "3: RENT-042 Återlämnad, sen 5 h, avgift 50,00 kr".
+     */
+    @Override
+    public String toString() {
+
+        String text = line + ": " + rentalId + " " + result.getLabel();
+
+        if (penaltyOre > 0) {
+            text += ", sen " + hoursLate + " h, avgift " + Money.format(penaltyOre) + " kr";
+        }
+        return text;
+    }
+}
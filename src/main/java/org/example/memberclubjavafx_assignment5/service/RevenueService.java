@@ -2,41 +2,44 @@ package org.example.memberclubjavafx_assignment5.service;
 
 /**
  * This class counts how much revenue the memberclub has generated.
+ * The total is kept in öre (see Money) so adding many amounts never gives rounding errors.
  */
 public class RevenueService {
 
     // Keeps track of the total revenue
-    private double totalRevenue;
+    private long totalRevenueOre;
 
     /**
      * Constructor. Starts at zero.
      */
     public RevenueService() {
-        this.totalRevenue = 0.0;
+        this.totalRevenueOre = 0;
     }
 
     /**
      * Adds money to the total.
+     * @param amountOre the amount in öre
      */
-    public void addRevenue(double amount) {
+    public void addRevenue(long amountOre) {
 
         // Only add if amount is positive
-        if (amount > 0) {
-            this.totalRevenue += amount;
+        if (amountOre > 0) {
+            this.totalRevenueOre += amountOre;
         }
     }
 
     /**
      * Returns the total amount.
+     * @return the total in öre
      */
-    public double getTotalRevenue() {
-        return totalRevenue;
+    public long getTotalRevenueOre() {
+        return totalRevenueOre;
     }
 
     /**
      * Resets the counter to zero.
      */
     public void resetRevenue() {
-        this.totalRevenue = 0.0;
+        this.totalRevenueOre = 0;
     }
 }
\ No newline at end of file
@@ -0,0 +1,261 @@
+package org.example.memberclubjavafx_assignment5.service;
+
+import org.example.memberclubjavafx_assignment5.diagnostics.MetricsRegistry;
+import org.example.memberclubjavafx_assignment5.diagnostics.SearchEvent;
+import org.example.memberclubjavafx_assignment5.diagnostics.Timer;
+import org.example.memberclubjavafx_assignment5.model.Item;
+import org.example.memberclubjavafx_assignment5.model.Member;
+import org.example.memberclubjavafx_assignment5.model.enums.ItemStatus;
+import org.example.memberclubjavafx_assignment5.model.enums.ItemType;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * Fast 'type a few letters' searches for the pickers in the booking dialog.
+ *
+ * For every member and item the text we search in (name, id and so on) is made lowercase once and kept,
+ * sorted by name, so a search is one pass over ready-made strings that stops as soon as it has enough hits.
+ * Items are also split up by ItemType, so a search for kayaks never looks at a tent.
+ *
+ * The index is built again when a member or item is added or removed. We notice that cheaply:
+ * Inventory.snapshot() and MemberRegistry.snapshot() give back the very same list until something changes.
+ * An edited name is noticed through the version number. The entry's text is then made again the next time it is searched
+ * and kept with the new version, so a rental (which changes the item's status and version) costs one new text, not one per search.
+ * It is safe to search from any thread (the booking dialog searches on the IO executor).
+ */
+public class SearchIndex {
+
+    private static final Timer MEMBER_TIMER = MetricsRegistry.timer("search.index.members");
+    private static final Timer ITEM_TIMER = MetricsRegistry.timer("search.index.items");
+
+    private final Inventory inventory;
+    private final MemberRegistry memberRegistry;
+
+    // The latest indexes and the snapshot they were built from. Two threads may build at the same time, that is fine.
+    private volatile Built<Member> members = new Built<>(null, List.of());
+    private volatile ItemsBuilt items = new ItemsBuilt(null, Map.of());
+
+    // One searchable value and its lowercase text. The text is swapped for a new one when the value has been edited.
+    private static final class Entry<T> {
+
+        private final T value;
+        private volatile Text text;
+
+        Entry(T value, Text text) {
+            this.value = value;
+            this.text = text;
+        }
+
+        T value() {
+            return value;
+        }
+
+        String text() {
+            return text.text();
+        }
+    }
+
+    // The text and the version of the value it was made from, kept together so a reader never mixes two versions
+    private record Text(long version, String text) {
+    }
+
+    private record Built<T>(List<T> source, List<Entry<T>> entries) {
+    }
+
+    private record ItemsBuilt(List<Item> source, Map<ItemType, List<Entry<Item>>> byType) {
+    }
+
+    /**
+     * Constructor.
+     * @param inventory the items to search
+     * @param memberRegistry the members to search
+     */
+    public SearchIndex(Inventory inventory, MemberRegistry memberRegistry) {
+        this.inventory = inventory;
+        this.memberRegistry = memberRegistry;
+    }
+
+    /**
+     * Finds members whose name, member number or email contains every word of the query.
+     * @param query what the user typed, an empty query matches everyone
+     * @param limit the most members to return
+     * @return at most limit members, sorted by name
+     */
+    public List<Member> searchMembers(String query, int limit) {
+
+        long start = System.nanoTime();
+
+        SearchEvent event = new SearchEvent();
+        event.begin();
+
+        List<Member> results = search(memberEntries(), words(query), limit, SearchIndex::memberText, Member::getVersion);
+
+        MEMBER_TIMER.record(start);
+        commit(event, "SearchIndex.members", query, results.size());
+
+        return results;
+    }
+
+    /**
+     * Finds available items of one type whose name or id contains every word of the query.
+     * Rented and broken items are never returned, since they can't be booked.
+     * @param type the kind of item, or null for all kinds
+     * @param query what the user typed, an empty query matches every available item
+     * @param limit the most items to return
+     * @return at most limit items, sorted by name
+     */
+    public List<Item> searchAvailableItems(ItemType type, String query, int limit) {
+
+        long start = System.nanoTime();
+
+        SearchEvent event = new SearchEvent();
+        event.begin();
+
+        Map<ItemType, List<Entry<Item>>> byType = itemEntries();
+        String[] words = words(query);
+        List<Item> results = new ArrayList<>();
+
+        // One type, or every type one after another
+        for (ItemType itemType : type != null ? new ItemType[]{type} : ItemType.values()) {
+
+            List<Entry<Item>> entries = byType.getOrDefault(itemType, List.of());
+
+            for (Entry<Item> entry : entries) {
+
+                if (results.size() >= limit) {
+                    break;
+                }
+
+                // The status is read live, it changes on every rental without the index being rebuilt
+                if (entry.value().getStatus() == ItemStatus.AVAILABLE && matches(entry, words, SearchIndex::itemText, Item::getVersion)) {
+                    results.add(entry.value());
+                }
+            }
+        }
+
+        ITEM_TIMER.record(start);
+        commit(event, "SearchIndex.items", query, results.size());
+
+        return results;
+    }
+
+    // The member index, built again only if a member was added or removed since last time
+    private List<Entry<Member>> memberEntries() {
+
+        List<Member> snapshot = memberRegistry.snapshot();
+        Built<Member> current = members;
+
+        if (current.source() != snapshot) {
+            current = new Built<>(snapshot, entries(snapshot, SearchIndex::memberText, Member::getVersion));
+            members = current;
+        }
+        return current.entries();
+    }
+
+    // The item index split by type, built again only if an item was added or removed
+    private Map<ItemType, List<Entry<Item>>> itemEntries() {
+
+        List<Item> snapshot = inventory.snapshot();
+        ItemsBuilt current = items;
+
+        if (current.source() != snapshot) {
+
+            Map<ItemType, List<Entry<Item>>> byType = new EnumMap<>(ItemType.class);
+
+            for (Entry<Item> entry : entries(snapshot, SearchIndex::itemText, Item::getVersion)) {
+                byType.computeIfAbsent(entry.value().getItemType(), key -> new ArrayList<>()).add(entry);
+            }
+
+            current = new ItemsBuilt(snapshot, byType);
+            items = current;
+        }
+        return current.byType();
+    }
+
+    // Makes the lowercase text for every value once, sorted so the hits come out in name order
+    private static <T> List<Entry<T>> entries(List<T> values, Function<T, String> text, ToLongFunction<T> version) {
+
+        List<Entry<T>> entries = new ArrayList<>(values.size());
+
+        for (T value : values) {
+            entries.add(new Entry<>(value, new Text(version.applyAsLong(value), text.apply(value))));
+        }
+
+        entries.sort(Comparator.comparing(Entry::text));
+        return entries;
+    }
+
+    private static <T> List<T> search(List<Entry<T>> entries, String[] words, int limit, Function<T, String> text, ToLongFunction<T> version) {
+
+        List<T> results = new ArrayList<>();
+
+        for (Entry<T> entry : entries) {
+
+            // Enough hits, the rest of the list is never looked at
+            if (results.size() >= limit) {
+                break;
+            }
+
+            if (matches(entry, words, text, version)) {
+                results.add(entry.value());
+            }
+        }
+        return results;
+    }
+
+    private static <T> boolean matches(Entry<T> entry, String[] words, Function<T, String> text, ToLongFunction<T> version) {
+
+        Text current = entry.text;
+        long valueVersion = version.applyAsLong(entry.value());
+
+        // Edited since the text was made, so make it again and keep it for the next search.
+        // Two threads may do this at the same time, they make the same text.
+        if (current.version() != valueVersion) {
+            current = new Text(valueVersion, text.apply(entry.value()));
+            entry.text = current;
+        }
+
+        String searchText = current.text();
+
+        for (String word : words) {
+            if (!searchText.contains(word)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // "anna 12" becomes ["anna", "12"], every word has to be found
+    private static String[] words(String query) {
+
+        if (query == null || query.isBlank()) {
+            return new String[0];
+        }
+        return query.trim().toLowerCase(Locale.ROOT).split("\\s+");
+    }
+
+    // The name comes first, so the index sorts by name
+    private static String memberText(Member member) {
+        return (member.getFirstName() + " " + member.getLastName() + " " + member.getId() + " " + member.getEmail()).toLowerCase(Locale.ROOT);
+    }
+
+    private static String itemText(Item item) {
+        return (item.getName() + " " + item.getId()).toLowerCase(Locale.ROOT);
+    }
+
+    private static void commit(SearchEvent event, String source, String query, int results) {
+
+        if (event.shouldCommit()) {
+            event.source = source;
+            event.query = query;
+            event.results = results;
+            event.commit();
+        }
+    }
+}
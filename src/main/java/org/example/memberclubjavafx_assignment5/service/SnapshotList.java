@@ -0,0 +1,179 @@
+package org.example.memberclubjavafx_assignment5.service;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+
+/**
+ * A list that is mostly added to (like the rental history), where a snapshot of the whole list costs almost nothing.
+ *
+ * The values live in an array. A snapshot is just the array and the number of values at that moment.
+ * The trick is that a place in the array that a snapshot can see is never written again:
+ * - adding writes to the first free place after the end, which no snapshot can see yet
+ * - replacing or removing values (rare) makes a new array, so old snapshots keep the old one
+ *
+ * Reading and taking snapshots never waits, and a snapshot never changes afterwards, even if the list does.
+ * @param <T> the values
+ */
+public final class SnapshotList<T> {
+
+    private static final int FIRST_CAPACITY = 16;
+
+    // The array and how many places are used, swapped as one piece so a reader always sees a matching pair
+    private record State(Object[] values, int size) {
+    }
+
+    private volatile State state = new State(new Object[FIRST_CAPACITY], 0);
+
+    // Writers take turns (a ReentrantLock and not 'synchronized', the server writes from virtual threads)
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    /**
+     * Adds a value at the end.
+     */
+    public void add(T value) {
+
+        writeLock.lock();
+
+        try {
+            State current = state;
+            Object[] values = current.values();
+
+            // Full, move to an array twice as big (the old one stays with the snapshots that use it)
+            if (current.size() == values.length) {
+                values = Arrays.copyOf(values, values.length * 2);
+            }
+
+            values[current.size()] = value;
+            state = new State(values, current.size() + 1);
+
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Replaces the value at a place in the list.
+     * Copies the whole array, so it is meant for rare changes (like an edit made by hand in the file).
+     * @return the value that was there before
+     */
+    public T set(int index, T value) {
+
+        writeLock.lock();
+
+        try {
+            State current = state;
+            T old = get(current, index);
+
+            Object[] values = current.values().clone();
+            values[index] = value;
+            state = new State(values, current.size());
+            return old;
+
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Removes the values that match, and keeps the order of the rest. Makes a new array, like set.
+     * @return true if something was removed
+     */
+    public boolean removeIf(Predicate<? super T> filter) {
+
+        writeLock.lock();
+
+        try {
+            State current = state;
+            Object[] values = new Object[Math.max(current.values().length, FIRST_CAPACITY)];
+            int size = 0;
+
+            for (int i = 0; i < current.size(); i++) {
+
+                T value = get(current, i);
+
+                if (!filter.test(value)) {
+                    values[size++] = value;
+                }
+            }
+
+            if (size == current.size()) {
+                return false;
+            }
+
+            state = new State(values, size);
+            return true;
+
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Removes everything. Snapshots taken before keep their values.
+     */
+    public void clear() {
+
+        writeLock.lock();
+
+        try {
+            state = new State(new Object[FIRST_CAPACITY], 0);
+
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Returns the value at a place in the list.
+     */
+    public T get(int index) {
+        return get(state, index);
+    }
+
+    /**
+     * Counts the values.
+     */
+    public int size() {
+        return state.size();
+    }
+
+    /**
+     * The list as it is right now. It can't be changed, and later changes to this list are not seen in it.
+     */
+    public List<T> snapshot() {
+        return new Snapshot<>(state);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T get(State state, int index) {
+
+        if (index < 0 || index >= state.size()) {
+            throw new IndexOutOfBoundsException("Index " + index + ", storlek " + state.size());
+        }
+        return (T) state.values()[index];
+    }
+
+    // A read-only view of one state. RandomAccess tells sort and binary search that get(i) is fast.
+    private static final class Snapshot<T> extends AbstractList<T> implements RandomAccess {
+
+        private final State state;
+
+        private Snapshot(State state) {
+            this.state = state;
+        }
+
+        @Override
+        public T get(int index) {
+            return SnapshotList.get(state, index);
+        }
+
+        @Override
+        public int size() {
+            return state.size();
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package org.example.memberclubjavafx_assignment5.service;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A map that many threads can use at the same time, and that can hand out a snapshot of all its values.
+ *
+ * Lookups go straight to a ConcurrentHashMap and never wait. A snapshot is an unmodifiable list of the values as they
+ * were at one moment, so a save on another thread never sees half of a change (and never gets a ConcurrentModificationException).
+ *
+ * How the snapshot stays consistent without stopping the writers: every change moves an epoch counter up twice,
+ * once before and once after. A reader notes the epoch, copies the values and checks the epoch again.
+ * If it is the same, and even, nothing changed during the copy. Otherwise it simply copies again.
+ * The snapshot is kept until the next change, so asking again while nothing has changed costs nothing.
+ *
+ * @param <K> the key (an id)
+ * @param <V> the value
+ */
+public final class SnapshotMap<K, V> {
+
+    // After this many copies that were disturbed by writers we wait for the writers instead (only happens under very heavy writing)
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final ConcurrentHashMap<K, V> map = new ConcurrentHashMap<>();
+
+    // Odd while a change is in progress, even when the map is calm
+    private final AtomicLong epoch = new AtomicLong();
+
+    // Writers take turns, so the epoch only goes up by two per change.
+    // A ReentrantLock and not 'synchronized', since the server changes the maps from virtual threads.
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    // The latest snapshot and the epoch it belongs to
+    private volatile Snapshot<V> latest = new Snapshot<>(0, List.of());
+
+    private record Snapshot<V>(long epoch, List<V> values) {
+    }
+
+    /**
+     * Returns the value for a key, or null.
+     */
+    public V get(K key) {
+        return map.get(key);
+    }
+
+    /**
+     * True if the key is in the map.
+     */
+    public boolean containsKey(K key) {
+        return map.containsKey(key);
+    }
+
+    /**
+     * Adds a value, or replaces the one with the same key.
+     * @return the value that was replaced, or null
+     */
+    public V put(K key, V value) {
+
+        writeLock.lock();
+
+        try {
+            epoch.incrementAndGet();
+            V old = map.put(key, value);
+            epoch.incrementAndGet();
+            return old;
+
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Removes a key.
+     * @return the value that was removed, or null if the key was not there
+     */
+    public V remove(K key) {
+
+        writeLock.lock();
+
+        try {
+            // Nothing to do, and no reason to throw away the snapshot
+            if (!map.containsKey(key)) {
+                return null;
+            }
+
+            epoch.incrementAndGet();
+            V old = map.remove(key);
+            epoch.incrementAndGet();
+            return old;
+
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Removes everything.
+     */
+    public void clear() {
+
+        writeLock.lock();
+
+        try {
+            epoch.incrementAndGet();
+            map.clear();
+            epoch.incrementAndGet();
+
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Counts the values.
+     */
+    public int size() {
+        return map.size();
+    }
+
+    /**
+     * The values as they are right now, in no special order.
+     * Changes made after this call are not in the list, and the list can't be changed.
+     */
+    public List<V> snapshot() {
+
+        Snapshot<V> current = latest;
+
+        // Nothing has changed since the last snapshot
+        if (current.epoch() == epoch.get()) {
+            return current.values();
+        }
+
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+
+            long before = epoch.get();
+
+            // A writer is in the middle of a change, try again (it is done in a moment)
+            if ((before & 1) != 0) {
+                Thread.yield();
+                continue;
+            }
+
+            List<V> values = copyValues();
+
+            if (epoch.get() == before) {
+                return remember(new Snapshot<>(before, values));
+            }
+        }
+
+        // The writers kept getting in the way, so hold them back while we copy
+        writeLock.lock();
+
+        try {
+            return remember(new Snapshot<>(epoch.get(), copyValues()));
+
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private List<V> copyValues() {
+        return List.copyOf(map.values());
+    }
+
+    // Keeps the newest snapshot, two readers may race here and that is fine (both lists are correct)
+    private List<V> remember(Snapshot<V> snapshot) {
+
+        if (snapshot.epoch() > latest.epoch()) {
+            latest = snapshot;
+        }
+        return snapshot.values();
+    }
+}
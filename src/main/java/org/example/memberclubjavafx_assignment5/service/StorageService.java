@@ -3,39 +3,129 @@ package org.example.memberclubjavafx_assignment5.service;
 import java.io.*;
 import com.google.gson.Gson;
 import com.google.gson.reflect.TypeToken;
+import org.example.memberclubjavafx_assignment5.diagnostics.Counter;
+import org.example.memberclubjavafx_assignment5.diagnostics.MetricsRegistry;
+import org.example.memberclubjavafx_assignment5.diagnostics.StorageEvent;
+import org.example.memberclubjavafx_assignment5.exceptions.DataDirectoryLockedException;
+import org.example.memberclubjavafx_assignment5.exceptions.DataFileException;
 import org.example.memberclubjavafx_assignment5.model.*;
 import java.lang.reflect.Type;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * This class handles all the saving and loading of files.
  * It saves our data (Members, Items, Rentals) into JSON text files in the 'data/' folder.
  * Without this class, all data would disappear every time we close the program.
  */
-public class StorageService {
+public class StorageService implements AutoCloseable {
+
+    /**
+     * How the program uses the data folder.
+     */
+    public enum AccessMode {
+
+        // Reads and writes, and holds the folder lock so no other program writes at the same time
+        PRIMARY,
+
+        // Only reads, never takes the lock and refuses to save. For a back-office PC that watches a running desk.
+        READ_ONLY
+    }
+
+    // Metrics for the diagnostics screen (each file also gets its own read and write timer)
+    private static final Counter ERRORS = MetricsRegistry.counter("storage.errors");
+    private static final Counter BYTES_WRITTEN = MetricsRegistry.counter("storage.bytesWritten");
 
     // The tool we use to convert Java objects to JSON and back
     private final Gson gson;
 
     // The folder where we keep our files
-    private final String folderPath = "data/";
+    private final String folderPath;
+
+    private final AccessMode accessMode;
+
+    // The lock on the folder (only in PRIMARY mode)
+    private final DataDirectoryLock lock;
+
+    // How each file looked (time and size) the last time we read or wrote it, so we can tell if someone else changed it
+    private final Map<String, FileStamp> knownStamps = new ConcurrentHashMap<>();
 
     /**
-     * Constructor. Checks if the data folder exists, and creates it if it's missing.
+     * Constructor that uses the normal 'data/' folder.
      */
     public StorageService() {
+        this("data/");
+    }
+
+    /**
+     * Constructor for tools and benchmarks that work in their own folder. It reads and writes but doesn't lock the folder.
+     * @param folderPath the folder to keep the files in, ending with '/'
+     */
+    public StorageService(String folderPath) {
+        this(folderPath, null);
+    }
+
+    /**
+     * Constructor. Checks if the data folder exists, and creates it if it's missing.
+     * @param folderPath the folder to keep the files in, ending with '/'
+     * @param accessMode PRIMARY to lock the folder, READ_ONLY to only read it (null for no lock, see above)
+     * @throws DataDirectoryLockedException in PRIMARY mode, if another program already writes to the folder
+     */
+    public StorageService(String folderPath, AccessMode accessMode) {
+
+        this.folderPath = folderPath;
+        this.accessMode = accessMode;
 
         // Create a File object representing the directory
         File directory = new File(folderPath);
 
         // If the folder doesn't exist yet, create it
         if (!directory.exists()) {
-            directory.mkdir();
+            directory.mkdirs();
         }
 
         // Get the configured Gson tool
         this.gson = GsonConfig.createGson();
+
+        // Take the lock last, when we know the folder exists
+        this.lock = accessMode == AccessMode.PRIMARY ? DataDirectoryLock.acquire(folderPath) : null;
+    }
+
+    /**
+     * Lets go of the folder lock, so another program can open the folder for writing.
+     */
+    @Override
+    public void close() {
+
+        if (lock != null) {
+            lock.close();
+        }
+    }
+
+    /**
+     * Returns true if this service refuses to save.
+     */
+    public boolean isReadOnly() {
+        return accessMode == AccessMode.READ_ONLY;
+    }
+
+    public String getFolderPath() {
+        return folderPath;
+    }
+
+    /**
+     * Checks if a file is different from when we last read or wrote it.
+     * Used by the reloader, so our own saves (and files nobody touched) are not read again.
+     * @param filename the name of the file, for example "rentals.json"
+     * @return true if someone else changed the file (or we have never read it)
+     */
+    public boolean hasChangedOnDisk(String filename) {
+        return !stampOf(filename).equals(knownStamps.get(filename));
     }
 
     // Specific methods for each data type
@@ -71,25 +161,96 @@ public class StorageService {
         return loadList("rentals.json", new TypeToken<ArrayList<Rental>>(){}.getType());
     }
 
+    // The same files read again for the reloader. A missing or broken file throws instead of giving an empty list,
+    // since an empty list would look like 'everything was deleted' (see DataReloader).
+    public List<User> reloadUsers() {
+        return loadList("users.json", new TypeToken<ArrayList<User>>(){}.getType(), true);
+    }
+
+    public List<Item> reloadItems() {
+        return loadList("items.json", new TypeToken<ArrayList<Item>>(){}.getType(), true);
+    }
+
+    public List<Member> reloadMembers() {
+        return loadList("members.json", new TypeToken<ArrayList<Member>>(){}.getType(), true);
+    }
+
+    public List<Rental> reloadRentals() {
+        return loadList("rentals.json", new TypeToken<ArrayList<Rental>>(){}.getType(), true);
+    }
+
     /**
      * Saves a list of any type of object to a file.
      * @param list The list to save (can be Users, Items, etc.)
      * @param filename The name of the file (e.g., "members.json")
      * @param type Information about what kind of list this is (needed by Gson)
      * @param <T> The type of objects in the list
+     * @throws DataFileException if the file couldn't be written, the old file is then left as it was
      */
     private <T> void saveList(List<T> list, String filename, Type type) {
 
-        // Automatically closes the file when we are done
-        try (Writer writer = new FileWriter(folderPath + filename)) {
+        if (isReadOnly()) {
+            throw new DataDirectoryLockedException("Datamappen är öppnad skrivskyddat, " + filename + " sparades inte");
+        }
+
+        long start = System.nanoTime();
+
+        // Flight recorder event for this file (costs almost nothing when no recording is running)
+        StorageEvent event = new StorageEvent();
+        event.begin();
 
-            // Convert the list to JSON text and write it to the file
-            gson.toJson(list, type, writer);
+        Path target = Path.of(folderPath + filename);
 
+        // A new temporary file with a unique name for every write, so two writers never share one
+        Path temporary = null;
+
+        // Kept until the flight recorder event is done, then thrown
+        IOException failure = null;
+
+        try {
+
+            temporary = Files.createTempFile(target.toAbsolutePath().getParent(), filename, ".tmp");
+
+            // Automatically closes the file when we are done
+            try (Writer writer = new FileWriter(temporary.toFile())) {
+
+                // Convert the list to JSON text and write it to the file
+                gson.toJson(list, type, writer);
+            }
+
+            // Replace the old file in one step, so a program that reads the folder never sees a half-written file
+            Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            knownStamps.put(filename, stampOf(filename));
+
+            event.succeeded = true;
             System.out.println("Sparade " + filename);
 
         } catch (IOException exception) {
-            exception.printStackTrace();
+            ERRORS.increment();
+            failure = exception;
+            deleteQuietly(temporary);
+
+        } finally {
+            MetricsRegistry.timer("storage.write." + filename).record(start);
+        }
+
+        long bytes = new File(folderPath + filename).length();
+        BYTES_WRITTEN.add(bytes);
+
+        // The event ends here, so its duration is the same as the write timer above
+        event.end();
+
+        if (event.shouldCommit()) {
+            event.operation = "WRITE";
+            event.file = filename;
+            event.bytes = bytes;
+            event.objects = list.size();
+            event.commit();
+        }
+
+        // The caller has to know, otherwise it would believe the file holds what it just tried to save
+        if (failure != null) {
+            throw new DataFileException("Kunde inte spara " + filename + ": " + failure.getMessage(), failure);
         }
     }
 
@@ -101,25 +262,109 @@ public class StorageService {
      * @param <T> The type of objects in the list
      */
     private <T> List<T> loadList(String filename, Type type) {
+        return loadList(filename, type, false);
+    }
+
+    /**
+     * Loads a list of any type of object from a file.
+     * @param filename The name of the file to read.
+     * @param type Information about what kind of list we expect back.
+     * @param strict If true, a missing, empty or broken file throws. If false, it gives an empty list (first start).
+     * @return A list of objects.
+     * @param <T> The type of objects in the list
+     * @throws DataFileException in strict mode, if the file couldn't be read. The file is then still seen as changed,
+     *                           so the next reload tries again.
+     */
+    private <T> List<T> loadList(String filename, Type type, boolean strict) {
 
         File file = new File(folderPath + filename);
 
-        // If the file doesn't exist, return an empty list.
+        // Taken before reading, so a change made while we read is still seen as a change next time
+        FileStamp stamp = stampOf(filename);
+
+        // If the file doesn't exist, return an empty list (or refuse, a file that disappears is usually being replaced)
         if (!file.exists()) {
+
+            if (strict) {
+                throw new DataFileException(filename + " saknas");
+            }
+            knownStamps.put(filename, stamp);
             return new ArrayList<>();
         }
 
+        long start = System.nanoTime();
+
+        StorageEvent event = new StorageEvent();
+        event.begin();
+
         try (Reader reader = new FileReader(file)) {
 
             // Convert the JSON text in the file back into Java objects
             List<T> list = gson.fromJson(reader, type);
 
-            // If the file was empty or something went wrong, return an empty list
-            return list != null ? list : new ArrayList<>();
+            // An empty file gives null. On the first start that is an empty list, on a reload it is a broken file.
+            if (list == null && strict) {
+                throw new DataFileException(filename + " är tom");
+            }
+
+            List<T> result = list != null ? list : new ArrayList<>();
+
+            knownStamps.put(filename, stamp);
+            event.succeeded = true;
+            event.objects = result.size();
+            return result;
+
+        } catch (DataFileException exception) {
+            ERRORS.increment();
+            throw exception;
 
         } catch (Exception exception) {
+            ERRORS.increment();
             System.out.println("Kunde inte ladda " + filename + ": " + exception.getMessage());
+
+            if (strict) {
+                throw new DataFileException("Kunde inte läsa " + filename + ": " + exception.getMessage(), exception);
+            }
             return new ArrayList<>();
+
+        } finally {
+            MetricsRegistry.timer("storage.read." + filename).record(start);
+
+            if (event.shouldCommit()) {
+                event.operation = "READ";
+                event.file = filename;
+                event.bytes = file.length();
+                event.commit();
+            }
+        }
+    }
+
+    // The time and size of a file, a missing file gets time 0 and size -1
+    private FileStamp stampOf(String filename) {
+
+        File file = new File(folderPath + filename);
+
+        if (!file.exists()) {
+            return new FileStamp(0, -1);
+        }
+        return new FileStamp(file.lastModified(), file.length());
+    }
+
+    // Removes the temporary file of a write that failed, a file that can't be removed is left for the user
+    private static void deleteQuietly(Path temporary) {
+
+        if (temporary == null) {
+            return;
+        }
+
+        try {
+            Files.deleteIfExists(temporary);
+        } catch (IOException exception) {
+            System.err.println("Kunde inte ta bort " + temporary + ": " + exception.getMessage());
         }
     }
-}
\ No newline at end of file
+
+    // How a file looked at one moment
+    private record FileStamp(long lastModified, long size) {
+    }
+}
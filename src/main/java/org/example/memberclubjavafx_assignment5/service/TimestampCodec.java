@@ -0,0 +1,322 @@
+package org.example.memberclubjavafx_assignment5.service;
+
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Writes and reads every LocalDateTime in the files (it replaced LocalDateTimeAdapter).
+ *
+ * The normal way is text like "2024-11-12T17:07:00", exactly what DateTimeFormatter.ISO_LOCAL_DATE_TIME gives.
+ * We put the digits together ourselves in a buffer that each thread reuses, and read them back without a formatter,
+ * which is much faster than going through DateTimeFormatter (and a JsonPrimitive) for every date.
+ *
+ * As an option the dates can be written as seconds since 1970-01-01T00:00 instead (1731431220), which is shorter and
+ * even faster. The dates have no time zone, so the number is counted in the same local time. Start the program with
+ * -Dmemberclub.timestamps=epoch to use it. Both ways are always read, so old files and files from the other mode just work.
+ */
+public final class TimestampCodec extends TypeAdapter<LocalDateTime> {
+
+    /**
+     * How dates are written.
+     */
+    public enum Encoding {
+
+        // "2024-11-12T17:07:00", easy for a human to read
+        ISO,
+
+        // 1731431220 (with a fraction, like 1731431220.5, if the time has fractions of a second)
+        EPOCH_SECONDS
+    }
+
+    // Used for unusual dates only (years before 0 or after 9999)
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
+
+    // "yyyy-MM-ddTHH:mm:ss" is 19 characters, plus at most 10 for ".nnnnnnnnn".
+    // Each thread gets its own buffer, since the four files are written by four threads with the same Gson.
+    private static final ThreadLocal<char[]> BUFFER = ThreadLocal.withInitial(() -> new char[29]);
+
+    private final Encoding encoding;
+
+    /**
+     * Creates a codec that writes dates in the given way.
+     */
+    public TimestampCodec(Encoding encoding) {
+        this.encoding = encoding;
+    }
+
+    /**
+     * Picks the encoding from the system property 'memberclub.timestamps' ("epoch" for seconds, anything else for ISO text).
+     */
+    public static Encoding configuredEncoding() {
+        return "epoch".equalsIgnoreCase(System.getProperty("memberclub.timestamps")) ? Encoding.EPOCH_SECONDS : Encoding.ISO;
+    }
+
+    /**
+     * Writes a date and time (null is left out of the file).
+     */
+    @Override
+    public void write(JsonWriter out, LocalDateTime value) throws IOException {
+
+        if (value == null) {
+            out.nullValue();
+            return;
+        }
+
+        if (encoding == Encoding.EPOCH_SECONDS) {
+            writeEpochSeconds(out, value);
+        } else {
+            out.value(format(value));
+        }
+    }
+
+    /**
+     * Reads a date and time, written either as ISO text or as seconds.
+     * @throws JsonSyntaxException if the value is not a date
+     */
+    @Override
+    public LocalDateTime read(JsonReader in) throws IOException {
+
+        JsonToken token = in.peek();
+
+        if (token == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+
+        if (token == JsonToken.NUMBER) {
+            return parseEpochSeconds(in.nextString());
+        }
+
+        return parse(in.nextString());
+    }
+
+    /**
+     * Turns a date into ISO text, for example "2024-11-12T17:07:00" or "2024-11-12T17:07:00.5".
+     */
+    public static String format(LocalDateTime value) {
+
+        int year = value.getYear();
+
+        if (year < 0 || year > 9999) {
+            return value.format(FORMATTER);
+        }
+
+        char[] text = BUFFER.get();
+
+        writeDigits(text, 0, year, 4);
+        text[4] = '-';
+        writeDigits(text, 5, value.getMonthValue(), 2);
+        text[7] = '-';
+        writeDigits(text, 8, value.getDayOfMonth(), 2);
+        text[10] = 'T';
+        writeDigits(text, 11, value.getHour(), 2);
+        text[13] = ':';
+        writeDigits(text, 14, value.getMinute(), 2);
+        text[16] = ':';
+        writeDigits(text, 17, value.getSecond(), 2);
+
+        int length = 19;
+        int nano = value.getNano();
+
+        // The formatter writes the fraction without zeros at the end (.5 and not .500000000)
+        if (nano != 0) {
+            text[19] = '.';
+            length = writeFraction(text, 20, nano);
+        }
+
+        // The only thing we allocate, JsonWriter needs a String
+        return new String(text, 0, length);
+    }
+
+    /**
+     * Reads ISO text like "2024-11-12T17:07", "2024-11-12T17:07:00" or "2024-11-12T17:07:00.123".
+     * @throws JsonSyntaxException if the text is not a date
+     */
+    public static LocalDateTime parse(String text) {
+
+        try {
+            if (!hasSimpleShape(text)) {
+                return LocalDateTime.parse(text, FORMATTER);
+            }
+
+            int year = readDigits(text, 0, 4);
+            int month = readDigits(text, 5, 2);
+            int day = readDigits(text, 8, 2);
+            int hour = readDigits(text, 11, 2);
+            int minute = readDigits(text, 14, 2);
+            int second = text.length() >= 19 ? readDigits(text, 17, 2) : 0;
+            int nano = text.length() > 20 ? readFraction(text, 20) : 0;
+
+            return LocalDateTime.of(year, month, day, hour, minute, second, nano);
+
+        } catch (DateTimeException exception) {
+            throw new JsonSyntaxException("Ogiltigt datum: " + text, exception);
+        }
+    }
+
+    // Writes the seconds as a JSON number, with the fraction written by hand so no precision is lost on the way through a double
+    private static void writeEpochSeconds(JsonWriter out, LocalDateTime value) throws IOException {
+
+        long seconds = value.toEpochSecond(ZoneOffset.UTC);
+        int nano = value.getNano();
+
+        if (nano == 0) {
+            out.value(seconds);
+            return;
+        }
+
+        // Before 1970 the seconds are negative but the fraction counts forward, so "-5.5" would be wrong. Rare enough for text.
+        if (seconds < 0) {
+            out.value(format(value));
+            return;
+        }
+
+        // The fraction goes after a dot at index 19, and the seconds are written backwards in front of the dot
+        char[] text = BUFFER.get();
+        int end = writeFraction(text, 20, nano);
+        text[19] = '.';
+
+        int start = 19;
+
+        do {
+            text[--start] = (char) ('0' + seconds % 10);
+            seconds /= 10;
+        } while (seconds > 0);
+
+        // jsonValue writes the number as it is
+        out.jsonValue(new String(text, start, end - start));
+    }
+
+    // Reads "1731431220" or "1731431220.5"
+    private static LocalDateTime parseEpochSeconds(String text) {
+
+        try {
+            int dot = text.indexOf('.');
+
+            if (dot < 0 && text.indexOf('e') < 0 && text.indexOf('E') < 0) {
+                return LocalDateTime.ofEpochSecond(Long.parseLong(text), 0, ZoneOffset.UTC);
+            }
+
+            if (dot > 0 && text.length() - dot - 1 <= 9 && isDigits(text, dot + 1) && text.charAt(0) != '-') {
+                long seconds = Long.parseLong(text, 0, dot, 10);
+                return LocalDateTime.ofEpochSecond(seconds, readFraction(text, dot + 1), ZoneOffset.UTC);
+            }
+
+            // Something unusual someone typed by hand, like 1.7314312E9
+            BigDecimal exact = new BigDecimal(text);
+            long seconds = exact.setScale(0, RoundingMode.FLOOR).longValueExact();
+            int nano = exact.subtract(BigDecimal.valueOf(seconds)).movePointRight(9).intValue();
+            return LocalDateTime.ofEpochSecond(seconds, nano, ZoneOffset.UTC);
+
+        } catch (NumberFormatException | ArithmeticException | DateTimeException exception) {
+            throw new JsonSyntaxException("Ogiltigt datum: " + text, exception);
+        }
+    }
+
+    // True if the text has the usual layout, with digits in all the right places
+    private static boolean hasSimpleShape(String text) {
+
+        int length = text.length();
+
+        if (length != 16 && length != 19 && (length < 21 || length > 29)) {
+            return false;
+        }
+
+        if (text.charAt(4) != '-' || text.charAt(7) != '-' || text.charAt(10) != 'T' || text.charAt(13) != ':') {
+            return false;
+        }
+        if (length >= 19 && text.charAt(16) != ':') {
+            return false;
+        }
+        if (length >= 21 && text.charAt(19) != '.') {
+            return false;
+        }
+
+        for (int i = 0; i < length; i++) {
+
+            // Skip the separators, everything else must be a digit
+            if (i == 4 || i == 7 || i == 10 || i == 13 || i == 16 || i == 19) {
+                continue;
+            }
+
+            char c = text.charAt(i);
+
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isDigits(String text, int from) {
+
+        if (from >= text.length()) {
+            return false;
+        }
+
+        for (int i = from; i < text.length(); i++) {
+
+            char c = text.charAt(i);
+
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Writes nanoseconds as a fraction without zeros at the end (500 000 000 is "5"), returns where the text ends
+    private static int writeFraction(char[] text, int position, int nano) {
+
+        writeDigits(text, position, nano, 9);
+
+        int end = position + 9;
+
+        while (text[end - 1] == '0') {
+            end--;
+        }
+        return end;
+    }
+
+    // Reads a fraction (the rest of the text) as nanoseconds, ".5" means 500 000 000
+    private static int readFraction(String text, int position) {
+
+        int digits = text.length() - position;
+        int nano = readDigits(text, position, digits);
+
+        for (int i = digits; i < 9; i++) {
+            nano *= 10;
+        }
+        return nano;
+    }
+
+    // Writes a number with a fixed number of digits, with zeros in front (7 with 2 digits is "07")
+    private static void writeDigits(char[] text, int position, int number, int digits) {
+
+        for (int i = position + digits - 1; i >= position; i--) {
+            text[i] = (char) ('0' + number % 10);
+            number /= 10;
+        }
+    }
+
+    // Reads a number from a fixed number of digits (the caller has checked that they are digits)
+    private static int readDigits(String text, int position, int digits) {
+
+        int number = 0;
+
+        for (int i = position; i < position + digits; i++) {
+            number = number * 10 + (text.charAt(i) - '0');
+        }
+        return number;
+    }
+}
@@ -1,21 +1,21 @@
 package org.example.memberclubjavafx_assignment5.service;
 
-import javafx.application.Platform;
-import javafx.beans.property.SimpleStringProperty;
-import javafx.beans.property.StringProperty;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
 
 /**
  * This class tracks how long the program has been running.
- * It runs in a separate background thread so it doesn't freeze the main window.
+ * It doesn't have its own thread anymore: the SystemScheduler calls {@link #update()} every second.
+ * It doesn't know anything about JavaFX, the window listens to it through FxUptimeAdapter.
  */
-public class UptimeService implements Runnable {
+public class UptimeService {
 
-    // Property that can be connected to the UI label
-    private final SimpleStringProperty uptimeProperty;
+    // The latest text, for example "Upptid: 00:01:23"
+    private volatile String uptimeText;
 
-    // Variables for the thread loop
-    private boolean running;
-    private Thread thread;
+    // Everyone who wants to know when the text changes (called from the scheduler's thread)
+    private final List<Consumer<String>> listeners;
 
     // Start time in milliseconds
     private final long startMillis;
@@ -25,94 +25,80 @@ public class UptimeService implements Runnable {
      */
     public UptimeService() {
 
-        uptimeProperty = new SimpleStringProperty("00:00:00");
-        running = false;
+        uptimeText = "Upptid: 00:00:00";
+        listeners = new CopyOnWriteArrayList<>();
 
         // Save the time when we created the service
         startMillis = System.currentTimeMillis();
     }
 
     /**
-     * Starts the thread.
+     * Calculates the new text and tells the listeners.
+     * Called by the SystemScheduler once a second.
      */
-    public void start() {
+    public void update() {
 
-        // If it is already running, don't do anything
-        if (running) {
-            return;
-        }
+        // Calculate elapsed time and convert to seconds
+        long totalSeconds = getUptimeMillis() / 1000;
+
+        // Calculate hours, minutes, seconds
+        long hours = totalSeconds / 3600;
+        long remainder = totalSeconds % 3600;
+        long minutes = remainder / 60;
+        long seconds = remainder % 60;
+
+        // Build the text by hand, it is called every second and this is a lot cheaper than String.format
+        StringBuilder text = new StringBuilder("Upptid: ");
+        appendTwoDigits(text, hours).append(':');
+        appendTwoDigits(text, minutes).append(':');
+        appendTwoDigits(text, seconds);
 
-        running = true;
+        String finalString = text.toString();
+
+        // Tell the listeners. They run on the scheduler's thread, so the UI must move the update to the JavaFX thread itself.
+        uptimeText = finalString;
+
+        for (Consumer<String> listener : listeners) {
+            listener.accept(finalString);
+        }
+    }
 
-        // Create the thread and pass 'this' class because we implement 'Runnable'
-        thread = new Thread(this);
-        thread.setName("Uptime-Thread");
+    // Adds a number with a leading zero if it is below 10 (hours can also be more than 99)
+    private static StringBuilder appendTwoDigits(StringBuilder text, long value) {
 
-        // Daemon means it will die when the main program closes
-        thread.setDaemon(true);
+        if (value < 10) {
+            text.append('0');
+        }
+        return text.append(value);
+    }
 
-        // Start the background work
-        thread.start();
+    /**
+     * Adds a listener that gets the new text every second.
+     * @param listener called from the scheduler's thread with the new text
+     */
+    public void addListener(Consumer<String> listener) {
+        listeners.add(listener);
     }
 
     /**
-     * Stops the thread loop.
+     * Removes a listener.
+     * @param listener the listener to remove
      */
-    public void stop() {
-        running = false;
+    public void removeListener(Consumer<String> listener) {
+        listeners.remove(listener);
     }
 
     /**
-     * This method runs inside the new thread.
+     * Returns the latest uptime text.
      */
-    @Override
-    public void run() {
-
-        // Loop as long as 'running' is true
-        while (running) {
-            try {
-
-                //Calculate elapsed time
-                long currentMillis = System.currentTimeMillis();
-                long difference = currentMillis - startMillis;
-
-                // Convert to seconds
-                long totalSeconds = difference / 1000;
-
-                // Calculate hours, minutes, seconds
-                long hours = totalSeconds / 3600;
-                long remainder = totalSeconds % 3600;
-                long minutes = remainder / 60;
-                long seconds = remainder % 60;
-
-                // Create the text string
-                String timeString = String.format("%02d:%02d:%02d", hours, minutes, seconds);
-                String finalString = "Upptid: " + timeString;
-
-                // Update the UI (we cannot update the UI directly from a background thread so we use 'Platform.runLater' to ask the JavaFX thread to do it
-                Platform.runLater(new Runnable() {
-                    @Override
-                    public void run() {
-                        uptimeProperty.set(finalString);
-                    }
-                });
-
-                // Sleep for 1 second
-                Thread.sleep(1000);
-
-            } catch (Exception exception) {
-
-                // If something crashes
-                exception.printStackTrace();
-                running = false;
-            }
-        }
+    public String getUptimeText() {
+        return uptimeText;
     }
 
     /**
-     * Returns the property so the UI can bind a Label to it.
+     * Returns how long the service has been running, in milliseconds.
      */
-    public StringProperty uptimeProperty() {
-        return uptimeProperty;
+    public long getUptimeMillis() {
+        return System.currentTimeMillis() - startMillis;
     }
 }
\ No newline at end of file
@@ -1,29 +1,52 @@
 package org.example.memberclubjavafx_assignment5.system;
 
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.ThreadFactory;
+import org.example.memberclubjavafx_assignment5.diagnostics.AutosaveEvent;
 import java.util.concurrent.TimeUnit;
 
 /**
  * This class handles the automatic saving.
- * It runs a timer in the background that saves the files every minute.
+ * It registers a job in the SystemScheduler that saves the files every minute.
  * I created this so we don't lose any data if the program crashes.
  */
 public class AutoSaveManager {
 
+    // The name of the job in the scheduler (and of its timer on the diagnostics screen)
+    public static final String JOB_NAME = "autosave";
+
+    // A little random extra time on every save, so the save doesn't always line up with other jobs
+    private static final long JITTER_MILLIS = 2000;
+
+    // The scheduler that runs the saving
+    private final SystemScheduler scheduler;
+
     // This is the code that will run when we want to save
     private final Runnable saveTask;
 
-    // This is the timer that schedules when the saving should happen
-    private ScheduledExecutorService scheduler;
+    // How often we save, in milliseconds
+    private final long intervalMillis;
+
+    // The job in the scheduler while autosave is on
+    private SystemScheduler.Job job;
+
+    /**
+     * Constructor that saves every minute.
+     * @param scheduler The scheduler that runs the saving.
+     * @param saveTask The method we want to run to save the data.
+     */
+    public AutoSaveManager(SystemScheduler scheduler, Runnable saveTask) {
+        this(scheduler, saveTask, TimeUnit.MINUTES.toMillis(1));
+    }
 
     /**
-     * Constructor.
+     * Constructor with a custom interval (the workload simulator saves more often than the app).
+     * @param scheduler The scheduler that runs the saving.
      * @param saveTask The method we want to run to save the data.
+     * @param intervalMillis How often to save, in milliseconds.
      */
-    public AutoSaveManager(Runnable saveTask) {
+    public AutoSaveManager(SystemScheduler scheduler, Runnable saveTask, long intervalMillis) {
+        this.scheduler = scheduler;
         this.saveTask = saveTask;
+        this.intervalMillis = intervalMillis;
     }
 
     /**
@@ -31,41 +54,13 @@ public class AutoSaveManager {
      */
     public void start() {
 
-        // If the timer is already running, we don't need to start it again
-        if (scheduler != null && !scheduler.isShutdown()) {
+        // If the job is already registered, we don't need to start it again
+        if (job != null && !job.isCancelled()) {
             return;
         }
 
-        // We need a special thread factory to make a 'daemon' thread.
-        ThreadFactory threadFactory = r -> {
-            Thread thread = new Thread(r, "Autosave-Thread");
-
-            // I set this to true so the program can close properly.
-            // If it is false, the program might keep running in the background even if I close the window.
-            thread.setDaemon(true);
-            return thread;
-        };
-
-        // Create the scheduler with 1 thread
-        this.scheduler = Executors.newSingleThreadScheduledExecutor(threadFactory);
-
-        // Run the save task every 1 minute
-        this.scheduler.scheduleAtFixedRate(() -> {
-
-            try {
-                // Run the save code
-                saveTask.run();
-
-                // Print a message to the console so we can see that it works
-                System.out.println("Autosparning: Data sparad till fil.");
-
-            } catch (Exception exception) {
-                // If something goes wrong, print the error but don't crash the program
-                System.err.println("Autosparning misslyckades: " + exception.getMessage());
-                exception.printStackTrace();
-            }
-
-        }, 1, 1, TimeUnit.MINUTES);
+        // Save every interval (every minute in the app)
+        job = scheduler.schedulePeriodic(JOB_NAME, intervalMillis, intervalMillis, Math.min(JITTER_MILLIS, intervalMillis / 10), this::save);
     }
 
     /**
@@ -74,10 +69,33 @@ public class AutoSaveManager {
      */
     public void stop() {
 
-        if (scheduler != null) {
+        if (job != null) {
+            job.cancel();
+        }
+    }
+
+    // One autosave, run by the scheduler
+    private void save() {
+
+        // A flight recorder event, so a slow autosave can be matched with GC pauses or a frozen window later
+        AutosaveEvent event = new AutosaveEvent();
+        event.begin();
+
+        try {
+            // Run the save code
+            saveTask.run();
+            event.succeeded = true;
+
+            // Print a message to the console so we can see that it works
+            System.out.println("Autosparning: Data sparad till fil.");
+
+        } catch (Exception exception) {
+            // If something goes wrong, print the error but don't crash the program
+            System.err.println("Autosparning misslyckades: " + exception.getMessage());
+            exception.printStackTrace();
 
-            // Stop the timer immediately
-            scheduler.shutdownNow();
+        } finally {
+            event.commit();
         }
     }
-}
\ No newline at end of file
+}
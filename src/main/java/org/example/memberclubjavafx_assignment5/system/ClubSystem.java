@@ -1,12 +1,26 @@
 package org.example.memberclubjavafx_assignment5.system;
 
+import org.example.memberclubjavafx_assignment5.diagnostics.MetricsRegistry;
+import org.example.memberclubjavafx_assignment5.diagnostics.Timer;
+import org.example.memberclubjavafx_assignment5.exceptions.BackgroundTaskException;
+import org.example.memberclubjavafx_assignment5.exceptions.DataDirectoryLockedException;
+import org.example.memberclubjavafx_assignment5.exceptions.DataFileException;
 import org.example.memberclubjavafx_assignment5.model.*;
+import org.example.memberclubjavafx_assignment5.model.enums.RentalStatus;
+import org.example.memberclubjavafx_assignment5.pricing.PricingEngine;
 import org.example.memberclubjavafx_assignment5.service.*;
 
+import java.io.IOException;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
 
 /**
  * This is the 'brain' of the application.
@@ -15,6 +29,15 @@ import java.util.Map;
  */
 public class ClubSystem {
 
+    // Measures how long a full save takes (autosave and shutdown)
+    private static final Timer SAVE_TIMER = MetricsRegistry.timer("storage.saveAll");
+
+    // How many problems from the check after a load are printed to the console
+    private static final int MAX_PRINTED_PROBLEMS = 20;
+
+    // How often we look for rentals that should have been returned
+    private static final long OVERDUE_SCAN_MILLIS = TimeUnit.MINUTES.toMillis(5);
+
     // These represent the different 'departments' of our system
     private final Inventory inventory;
     private final MemberRegistry memberRegistry;
@@ -22,6 +45,12 @@ public class ClubSystem {
     private final MembershipService membershipService;
     private final RevenueService revenueService;
 
+    // Makes the item statuses agree with the rentals after a load, and checks everything on demand
+    private final IntegrityChecker integrityChecker;
+
+    // Quick name searches for the pickers in the booking dialog
+    private final SearchIndex searchIndex;
+
     // Helpers to create unique IDs for new items and members
     private final ItemIdGenerator itemIdGenerator;
     private final MemberIdGenerator memberIdGenerator;
@@ -29,8 +58,27 @@ public class ClubSystem {
     // Handles saving and loading to files
     private final StorageService storageService;
 
-    // We store the admin users here (username -> User object)
-    private final Map<String, User> users;
+    // We store the admin users here (username -> User object), in a SnapshotMap like the items and members
+    private final SnapshotMap<String, User> users;
+
+    // Runs all background jobs (uptime, autosave, overdue scan) from one thread
+    private final SystemScheduler scheduler;
+
+    // Runs all file reads and writes on virtual threads
+    private final IoExecutor ioExecutor;
+
+    // Only one save at a time
+    private final ReentrantLock saveLock = new ReentrantLock();
+
+    // Every snapshot gets the next number, taken under this lock so a higher number always means newer data.
+    // The lock is only held while the lists are copied (usually nothing is copied, see takeSnapshot), never while writing.
+    private final ReentrantLock snapshotLock = new ReentrantLock();
+    private long lastSnapshotNumber;
+
+    // The number of the newest snapshot that is in the files, only read and written while holding saveLock.
+    // users.json has its own number, since createUser and removeUser write it on its own.
+    private long lastWrittenNumber;
+    private long lastUsersWrittenNumber;
 
     // A service that tracks how long the app has been running
     private final UptimeService uptimeService;
@@ -38,19 +86,54 @@ public class ClubSystem {
     // A helper that automatically saves data every minute
     private final AutoSaveManager autoSaveManager;
 
+    // The result of the latest overdue scan
+    private volatile long overdueCount;
+
+    // Reads the data files again when someone else changed them, and applies only the differences
+    private final DataReloader dataReloader;
+
+    // Everyone who wants to know when the reloader changed something (the windows)
+    private final List<Consumer<DataChange<?>>> dataChangeListeners = new CopyOnWriteArrayList<>();
+
+    // Watches the data folder (null until startWatching is called)
+    private DataFolderWatcher folderWatcher;
+
     /**
      * Constructor.
-     * This sets up all the services and loads data from the hard drive.
+     * This sets up all the services and loads data from the 'data/' folder.
      */
     public ClubSystem() {
+        this("data/");
+    }
+
+    /**
+     * Constructor that reads and writes its files in another folder.
+     * Nothing in ClubSystem needs JavaFX, so the headless launcher and tools can use it without a window.
+     * @param dataFolder the folder with the JSON files, for example "data/"
+     * @throws DataDirectoryLockedException if another program already writes to the folder
+     */
+    public ClubSystem(String dataFolder) {
+        this(dataFolder, StorageService.AccessMode.PRIMARY);
+    }
+
+    /**
+     * Constructor that can open the folder read-only.
+     * A read-only system never saves and doesn't need the folder lock, so it can run next to the program that writes.
+     * Call startWatching() to keep it up to date with what that program saves.
+     * @param dataFolder the folder with the JSON files, for example "data/"
+     * @param accessMode PRIMARY to read and write, READ_ONLY to only read
+     * @throws DataDirectoryLockedException in PRIMARY mode, if another program already writes to the folder
+     */
+    public ClubSystem(String dataFolder, StorageService.AccessMode accessMode) {
+
+        // Create the storage service first, so we stop before anything else starts if the folder is taken
+        this.storageService = new StorageService(dataFolder, accessMode);
+        this.dataReloader = new DataReloader(this, storageService);
 
-        // Create the ID generators first
+        // Create the ID generators
         this.itemIdGenerator = new ItemIdGenerator();
         this.memberIdGenerator = new MemberIdGenerator();
 
-        // Create the storage service so we can load files
-        this.storageService = new StorageService();
-
         // Create the registries (lists) for items and members
         this.inventory = new Inventory();
         this.memberRegistry = new MemberRegistry();
@@ -59,31 +142,90 @@ public class ClubSystem {
         this.rentalService = new RentalService(inventory, memberRegistry);
         this.membershipService = new MembershipService(memberRegistry, memberIdGenerator);
         this.revenueService = new RevenueService();
+        this.integrityChecker = new IntegrityChecker(inventory, memberRegistry, rentalService);
+        this.searchIndex = new SearchIndex(inventory, memberRegistry);
 
         // Initialize the user list
-        this.users = new HashMap<>();
+        this.users = new SnapshotMap<>();
 
+        this.scheduler = new SystemScheduler();
+        this.ioExecutor = new IoExecutor();
         this.uptimeService = new UptimeService();
 
         // Setup the auto-saver. We tell it to run the 'saveAll' method periodically
-        this.autoSaveManager = new AutoSaveManager(this::saveAll);
+        this.autoSaveManager = new AutoSaveManager(scheduler, this::saveAll);
 
         // Load all saved data from files
         loadData();
 
-        // Start the background threads (uptime counter and auto save)
-        this.autoSaveManager.start();
-        this.uptimeService.start();
+        // Numbers the diagnostics screen and JMX can read at any time
+        registerGauges();
+
+        // Start the background jobs (uptime counter, auto save and overdue scan)
+        this.scheduler.schedulePeriodic("uptime", 0, 1000, 0, uptimeService::update);
+
+        // A read-only system has nothing to save
+        if (!isReadOnly()) {
+            this.autoSaveManager.start();
+        }
+        this.scheduler.schedulePeriodic("overdueScan", 0, OVERDUE_SCAN_MILLIS, 10_000, this::scanOverdue);
     }
 
     /**
      * Tries to load data from JSON files.
      * If no data exists (first time running), it creates sample data.
+     * The four files are read at the same time on the I/O executor, this thread waits for them.
+     * @throws CancellationException if this thread is interrupted while the files are read (nothing is changed then)
      */
     public void loadData() {
 
+        try {
+            applyLoadedData(readFiles());
+
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Inläsningen avbröts");
+        }
+    }
+
+    /**
+     * Reads the four JSON files at the same time, each on its own virtual thread.
+     * It doesn't change anything in the system, so the window can call it from a background task
+     * and then give the result to {@link #applyLoadedData(LoadedData)} on the JavaFX thread.
+     * @return everything that was in the files
+     * @throws InterruptedException if the thread is interrupted (for example the user cancelled), the reads are interrupted too
+     */
+    public LoadedData readFiles() throws InterruptedException {
+
+        try (IoExecutor.Scope scope = ioExecutor.openScope("readFiles")) {
+
+            IoExecutor.Subtask<List<User>> users = scope.fork(storageService::loadUsers);
+            IoExecutor.Subtask<List<Item>> items = scope.fork(storageService::loadItems);
+            IoExecutor.Subtask<List<Member>> members = scope.fork(storageService::loadMembers);
+            IoExecutor.Subtask<List<Rental>> rentals = scope.fork(storageService::loadRentals);
+
+            scope.join();
+
+            return new LoadedData(users.get(), items.get(), members.get(), rentals.get());
+        }
+    }
+
+    /**
+     * Puts data that was read by {@link #readFiles()} into the registries.
+     * In the app this must run on the JavaFX thread, since the tables show the same lists.
+     * Objects we already have are kept, so after start-up use {@link #readChangedFiles()} to pick up changes.
+     * @param data the data from the files
+     */
+    public void applyLoadedData(LoadedData data) {
+
+        // First, so a save of sample data below can overwrite it with what is really in the files
+        dataReloader.markSynced(data);
+
+        // Each phase is timed separately, so the diagnostics screen shows which part is slow to load
+        long phaseStart = System.nanoTime();
+
         // Users
-        List<User> loadedUsers = storageService.loadUsers();
+        List<User> loadedUsers = data.users();
 
         if (loadedUsers.isEmpty()) {
 
@@ -101,8 +243,11 @@ public class ClubSystem {
             }
         }
 
+        MetricsRegistry.timer("load.users").record(phaseStart);
+        phaseStart = System.nanoTime();
+
         // Items
-        List<Item> loadedItems = storageService.loadItems();
+        List<Item> loadedItems = data.items();
 
         if (loadedItems.isEmpty()) {
 
@@ -112,7 +257,9 @@ public class ClubSystem {
             SampleDataLoader.loadSampleItems(inventory, itemIdGenerator);
 
             // Save immediately so they exist next time
-            saveAll();
+            if (!isReadOnly()) {
+                saveAll();
+            }
 
         } else {
 
@@ -122,15 +269,24 @@ public class ClubSystem {
                 if (inventory.getItem(item.getId()) == null) {
                     inventory.addItem(item);
                 }
+
+                // Move the id counter past loaded ids, so a new item never gets the id of an old one
+                itemIdGenerator.registerExistingId(item.getId());
             }
         }
 
+        MetricsRegistry.timer("load.items").record(phaseStart);
+        phaseStart = System.nanoTime();
+
         // Members
-        List<Member> loadedMembers = storageService.loadMembers();
+        List<Member> loadedMembers = data.members();
 
         if (loadedMembers.isEmpty()) {
             SampleDataLoader.loadSampleMembers(memberRegistry, memberIdGenerator);
-            saveAll();
+
+            if (!isReadOnly()) {
+                saveAll();
+            }
 
         } else {
 
@@ -152,28 +308,232 @@ public class ClubSystem {
             memberIdGenerator.setNextId(maxId + 1);
         }
 
+        MetricsRegistry.timer("load.members").record(phaseStart);
+        phaseStart = System.nanoTime();
+
         // Load the rental history
-        List<Rental> loadedRentals = storageService.loadRentals();
-        rentalService.setRentals(loadedRentals);
+        List<Rental> loadedRentals = data.rentals();
+        int duplicateRentals = rentalService.setRentals(loadedRentals);
+
+        if (duplicateRentals > 0) {
+            System.out.println("Hoppade över " + duplicateRentals + " uthyrningar med ett ID som redan fanns i rentals.json");
+        }
+
+        MetricsRegistry.timer("load.rentals").record(phaseStart);
+        phaseStart = System.nanoTime();
+
+        // setRentals doesn't touch the items, so after a crash or an edit by hand the item statuses can be wrong.
+        // The fixes are saved with the next save, like any other change.
+        IntegrityChecker.Report report = integrityChecker.reconcile();
+
+        if (!report.isClean()) {
+            System.out.println("Datakontroll vid start: " + report.summary());
+
+            // A badly broken file could give thousands of lines, the first ones are enough to see what happened
+            List<IntegrityChecker.Problem> problems = report.problems();
+
+            for (int i = 0; i < Math.min(problems.size(), MAX_PRINTED_PROBLEMS); i++) {
+                System.out.println("  " + problems.get(i));
+            }
+            if (problems.size() > MAX_PRINTED_PROBLEMS) {
+                System.out.println("  ... och " + (problems.size() - MAX_PRINTED_PROBLEMS) + " till");
+            }
+        }
+
+        MetricsRegistry.timer("load.reconcile").record(phaseStart);
+    }
+
+    /**
+     * Keeps the system up to date with changes other programs (or a person with a text editor) make in the data folder.
+     * Only the files that changed are read (on a background thread), and only the objects that differ are applied,
+     * with the given executor. Our own saves are recognised and skipped.
+     * Listeners added with {@link #addDataChangeListener(Consumer)} hear about each change.
+     * @param applyExecutor where the changes are put into the registries, Platform::runLater in the window
+     */
+    public void startWatching(Executor applyExecutor) {
+
+        if (folderWatcher != null) {
+            return;
+        }
+
+        try {
+            folderWatcher = new DataFolderWatcher(storageService.getFolderPath(), files -> {
+
+                DataReloader.ChangedFiles changed = dataReloader.readChangedFiles(files);
+
+                if (!changed.isEmpty()) {
+                    applyExecutor.execute(() -> applyChangedFiles(changed));
+                }
+            });
+            folderWatcher.start();
+
+        } catch (IOException exception) {
+            throw new BackgroundTaskException("Kunde inte bevaka datamappen: " + exception.getMessage(), exception);
+        }
+    }
+
+    /**
+     * Reads the data files that someone else has changed since we last read or wrote them.
+     * It doesn't change anything in the system, so the window calls it from a background task
+     * and then gives the result to {@link #applyChangedFiles(DataReloader.ChangedFiles)} on the JavaFX thread.
+     * @return what was read (nothing if no file had changed)
+     */
+    public DataReloader.ChangedFiles readChangedFiles() {
+        return dataReloader.readChangedFiles(DataFolderWatcher.DATA_FILES);
+    }
+
+    /**
+     * Applies only the objects that differ from what we have, and tells the listeners.
+     * In the app this must run on the JavaFX thread, like {@link #applyLoadedData(LoadedData)}.
+     * @param changed what readChangedFiles() returned
+     * @return what was added, updated and removed
+     */
+    public List<DataChange<?>> applyChangedFiles(DataReloader.ChangedFiles changed) {
+
+        List<DataChange<?>> changes = dataReloader.apply(changed);
+
+        for (DataChange<?> change : changes) {
+
+            for (Consumer<DataChange<?>> listener : dataChangeListeners) {
+                listener.accept(change);
+            }
+        }
+        return changes;
+    }
+
+    /**
+     * Adds a listener that hears about every change the reloader applies.
+     * It is called on the thread that applies the change (the JavaFX thread in the app).
+     */
+    public void addDataChangeListener(Consumer<DataChange<?>> listener) {
+        dataChangeListeners.add(listener);
+    }
+
+    /**
+     * Removes a listener added with addDataChangeListener.
+     */
+    public void removeDataChangeListener(Consumer<DataChange<?>> listener) {
+        dataChangeListeners.remove(listener);
+    }
+
+    // Gauges are read when someone looks at them, so they cost nothing the rest of the time
+    private void registerGauges() {
+        MetricsRegistry.gauge("inventory.items", inventory::getItemCount);
+        MetricsRegistry.gauge("members.count", memberRegistry::getMemberCount);
+        MetricsRegistry.gauge("rentals.total", () -> rentalService.getColumnStore().size());
+        MetricsRegistry.gauge("rentals.active", () -> rentalService.getColumnStore().countByStatus(RentalStatus.ACTIVE));
+        MetricsRegistry.gauge("rentals.overdue", () -> overdueCount);
+        MetricsRegistry.gauge("jvm.heapUsedMB", () -> (Runtime.getRuntime().totalMemory() - Runtime.getRuntime().freeMemory()) / (1024 * 1024));
+    }
+
+    // Counts the rentals that are late, run by the scheduler every five minutes
+    private void scanOverdue() {
+
+        long count = rentalService.getColumnStore().countOverdue(LocalDateTime.now());
+
+        // Only tell the console when more rentals have become late
+        if (count > overdueCount) {
+            System.out.println("Försenade uthyrningar: " + count);
+        }
+        overdueCount = count;
     }
 
     /**
      * Saves all data (Users, Items, Members, Rentals) to files.
-     * I use 'synchronized' so that two parts of the program don't try to save at the exact same time.
+     * The four files are written at the same time on the I/O executor, this thread waits until all are done.
+     * @throws DataFileException if a file couldn't be written
+     */
+    public void saveAll() {
+        writeFiles(takeSnapshot());
+    }
+
+    /**
+     * Saves all data without waiting, so the window doesn't freeze while the files are written.
+     * The lists are copied right away on the calling thread, so changes made after this call are not in this save.
+     * If a newer save has already been written when this one gets its turn, this one is skipped (its data is older).
+     * @return a Future that is done when all four files are written, or that fails with a DataFileException
      */
-    public synchronized void saveAll() {
+    public Future<?> saveAllAsync() {
+
+        Snapshot snapshot = takeSnapshot();
+
+        return ioExecutor.submit("saveAllAsync", () -> {
+            writeFiles(snapshot);
+            return null;
+        });
+    }
+
+    // Takes a snapshot of our maps and the rental history, so saving can go on while the other threads keep working.
+    // Nothing is copied when nothing was added or removed since the last save, and the rental history is never copied (see SnapshotList).
+    // The objects themselves are shared, so a rental returned during the save may already be written as returned.
+    private Snapshot takeSnapshot() {
+
+        snapshotLock.lock();
+
+        try {
+            LoadedData data = new LoadedData(
+                    users.snapshot(),
+                    inventory.snapshot(),
+                    memberRegistry.snapshot(),
+                    rentalService.getAllRentals());
+
+            return new Snapshot(++lastSnapshotNumber, data);
+
+        } finally {
+            snapshotLock.unlock();
+        }
+    }
+
+    // Writes the four files at the same time.
+    // The lock makes sure two saves (for example autosave and a button) don't write the same files at the same time.
+    // It is a ReentrantLock and not 'synchronized', because a virtual thread that waits inside 'synchronized'
+    // blocks its carrier thread, and on a computer with one core the four writers would then never get to run.
+    // The lock isn't fair, so saves may get their turn in any order. The snapshot number stops an old save from
+    // overwriting a newer one, for example a button save that only gets the lock after the final save in shutdown().
+    private void writeFiles(Snapshot snapshot) {
+
+        saveLock.lock();
 
-        // Convert our maps and internal lists to simple Lists that allow easy saving
-        List<User> usersToSave = new ArrayList<>(getAllUsers());
-        List<Item> itemsToSave = new ArrayList<>(inventory.getAllItems());
-        List<Member> membersToSave = new ArrayList<>(memberRegistry.getAllMembers());
-        List<Rental> rentalsToSave = new ArrayList<>(rentalService.getAllRentals());
+        try {
+            if (snapshot.number() <= lastWrittenNumber) {
+                return;
+            }
+
+            LoadedData data = snapshot.data();
+
+            // A newer users list may already be in the file (written by saveUsers), then it is left alone
+            boolean writeUsers = snapshot.number() > lastUsersWrittenNumber;
+
+            try (IoExecutor.Scope scope = ioExecutor.openScope("writeFiles")) {
+
+                long start = System.nanoTime();
+
+                // The thread waiting here ignores interrupts, so a save isn't given up halfway because the caller was cancelled.
+                // If one file fails, the scope cancels the writes that haven't finished and join throws the failure.
+                // Every file is replaced in one step, so a cancelled write leaves the old file, never half a file.
+                if (writeUsers) {
+                    scope.fork(() -> { storageService.saveUsers(data.users()); return null; });
+                }
+                scope.fork(() -> { storageService.saveItems(data.items()); return null; });
+                scope.fork(() -> { storageService.saveMembers(data.members()); return null; });
+                scope.fork(() -> { storageService.saveRentals(data.rentals()); return null; });
+
+                scope.joinUninterruptibly();
+
+                // Only reached when all four writes succeeded, the files now hold exactly the snapshot
+                lastWrittenNumber = snapshot.number();
+
+                if (writeUsers) {
+                    lastUsersWrittenNumber = snapshot.number();
+                }
+                dataReloader.markSynced(data, writeUsers);
+
+                SAVE_TIMER.record(start);
+            }
 
-        // Ask our storage service to write to disk
-        storageService.saveUsers(usersToSave);
-        storageService.saveItems(itemsToSave);
-        storageService.saveMembers(membersToSave);
-        storageService.saveRentals(rentalsToSave);
+        } finally {
+            saveLock.unlock();
+        }
     }
 
     // Getters
@@ -189,10 +549,23 @@ public class ClubSystem {
         return rentalService;
     }
 
+    /**
+     * Checks that items, members and rentals agree, without changing anything (see IntegrityChecker).
+     * Works on snapshots, so it may run on a background thread.
+     * @return what was found
+     */
+    public IntegrityChecker.Report checkIntegrity() {
+        return integrityChecker.check();
+    }
+
     public MembershipService getMembershipService() {
         return membershipService;
     }
 
+    public SearchIndex getSearchIndex() {
+        return searchIndex;
+    }
+
     public RevenueService getRevenueService() {
         return revenueService;
     }
@@ -209,6 +582,40 @@ public class ClubSystem {
         return uptimeService;
     }
 
+    public SystemScheduler getScheduler() {
+        return scheduler;
+    }
+
+    public IoExecutor getIoExecutor() {
+        return ioExecutor;
+    }
+
+    /**
+     * Returns true if the data folder was opened read-only (another program writes to it), so nothing is saved.
+     */
+    public boolean isReadOnly() {
+        return storageService.isReadOnly();
+    }
+
+    /**
+     * Returns how many rentals were late at the latest overdue scan.
+     */
+    public long getOverdueCount() {
+        return overdueCount;
+    }
+
+    public PricingEngine getPricingEngine() {
+        return rentalService.getPricingEngine();
+    }
+
+    public QuoteService getQuoteService() {
+        return rentalService.getQuoteService();
+    }
+
+    public AvailabilityForecast getAvailabilityForecast() {
+        return rentalService.getForecast();
+    }
+
 
     /**
      * Adds a user manually to the map.
@@ -217,6 +624,11 @@ public class ClubSystem {
         users.put(user.getUsername(), user);
     }
 
+    // Removes a user from memory only, used by the reloader when the user was removed from the file
+    void forgetUser(String username) {
+        users.remove(username);
+    }
+
     /**
      * Finds a user by their username.
      */
@@ -237,8 +649,10 @@ public class ClubSystem {
         User newUser = new User(username, password, firstName, lastName);
         users.put(username, newUser);
 
-        // Save immediately to update the file
-        storageService.saveUsers(new ArrayList<>(users.values()));
+        // Save immediately to update the file (a read-only system keeps the account in memory only, like the default accounts)
+        if (!isReadOnly()) {
+            saveUsers();
+        }
 
         return true;
     }
@@ -249,19 +663,50 @@ public class ClubSystem {
      */
     public boolean removeUser(String username) {
 
-        if (users.containsKey(username)) {
-            users.remove(username);
-            storageService.saveUsers(new ArrayList<>(users.values()));
+        if (users.remove(username) != null) {
+
+            if (!isReadOnly()) {
+                saveUsers();
+            }
             return true;
         }
         return false;
     }
 
+    // Writes only the users file. If that fails the account is still kept in memory, and the next save writes it.
+    // It takes a numbered snapshot and saveLock like writeFiles, so it never runs at the same time as a full save
+    // and an older users list never overwrites a newer one. Only users.json is written, since at start-up
+    // the default accounts are created before the other files are loaded.
+    private void saveUsers() {
+
+        Snapshot snapshot = takeSnapshot();
+
+        saveLock.lock();
+
+        try {
+            if (snapshot.number() <= lastUsersWrittenNumber) {
+                return;
+            }
+
+            List<User> userList = snapshot.data().users();
+
+            storageService.saveUsers(userList);
+            lastUsersWrittenNumber = snapshot.number();
+            dataReloader.markUsersSynced(userList);
+
+        } catch (DataFileException exception) {
+            System.err.println(exception.getMessage());
+
+        } finally {
+            saveLock.unlock();
+        }
+    }
+
     /**
      * Returns a list of all admin users.
      */
     public List<User> getAllUsers() {
-        return new ArrayList<>(users.values());
+        return new ArrayList<>(users.snapshot());
     }
 
     /**
@@ -289,11 +734,45 @@ public class ClubSystem {
 
     /**
      * Shuts down the system safely.
-     * Stops background threads and does a final save.
+     * Stops the background jobs, does a final save and lets go of the data folder.
      */
     public void shutdown() {
-        uptimeService.stop();
-        saveAll();
         autoSaveManager.stop();
+
+        try {
+            if (!isReadOnly()) {
+                saveAll();
+            }
+
+        } finally {
+            // Let go of the folder even if the last save failed
+            stopBackgroundTasks();
+        }
+    }
+
+    /**
+     * Stops the background jobs without saving and lets go of the data folder.
+     * Used by tools that only read the data, so the files are left exactly as they were.
+     */
+    public void stopBackgroundTasks() {
+
+        if (folderWatcher != null) {
+            folderWatcher.close();
+        }
+        scheduler.shutdown();
+        ioExecutor.shutdown();
+
+        // Last, when no save can be running any more
+        storageService.close();
+    }
+
+    /**
+     * The contents of the four JSON files, used both for loading and as a snapshot for saving.
+     */
+    public record LoadedData(List<User> users, List<Item> items, List<Member> members, List<Rental> rentals) {
+    }
+
+    // A snapshot for saving and its number, a higher number is newer data
+    private record Snapshot(long number, LoadedData data) {
     }
-}
\ No newline at end of file
+}
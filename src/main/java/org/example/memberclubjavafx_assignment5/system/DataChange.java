@@ -0,0 +1,36 @@
+package org.example.memberclubjavafx_assignment5.system;
+
+import java.util.List;
+
+/**
+ * What changed for one kind of object (items, members, rentals or users) when a file was read again.
+ * The windows listen for these, so they only have to refresh when something they show has changed.
+ * @param type the kind of object, for example Item.class
+ * @param added objects that are new
+ * @param updated objects that have new values (these are the new copies)
+ * @param removed objects that are gone
+ * @param <T> the kind of object
+ */
+public record DataChange<T>(Class<T> type, List<T> added, List<T> updated, List<T> removed) {
+
+    /**
+     * Returns true if nothing changed.
+     */
+    public boolean isEmpty() {
+        return added.isEmpty() && updated.isEmpty() && removed.isEmpty();
+    }
+
+    /**
+     * Returns how many objects changed in total.
+     */
+    public int size() {
+        return added.size() + updated.size() + removed.size();
+    }
+
+    /**
+     * Returns true if this change is about the given kind of object (for example Item.class).
+     */
+    public boolean isAbout(Class<?> otherType) {
+        return otherType.isAssignableFrom(type);
+    }
+}
@@ -0,0 +1,138 @@
+package org.example.memberclubjavafx_assignment5.system;
+
+import org.example.memberclubjavafx_assignment5.diagnostics.Counter;
+import org.example.memberclubjavafx_assignment5.diagnostics.MetricsRegistry;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Tells us which of the JSON files in a data folder another program has just written.
+ * The operating system sends an event when a file changes (a WatchService), so nothing is read until something happened,
+ * and then only the files that changed.
+ *
+ * The program that writes replaces each file in one step (see StorageService), and a save writes all four files
+ * at about the same time. So we wait until the folder has been quiet for a moment and report all files of one save together.
+ */
+public class DataFolderWatcher implements AutoCloseable {
+
+    // The files we care about, other files in the folder (the lock file, temporary files) are ignored
+    public static final Set<String> DATA_FILES = Set.of("users.json", "items.json", "members.json", "rentals.json");
+
+    // How long the folder must be quiet before we report the changes
+    private static final long SETTLE_MILLIS = 200;
+
+    private static final Counter CHANGES = MetricsRegistry.counter("watch.changes");
+
+    private final Path folder;
+    private final WatchService watchService;
+    private final Consumer<Set<String>> onChange;
+
+    private volatile boolean running;
+    private Thread thread;
+
+    /**
+     * Creates a watcher. Call start() to begin.
+     * @param folderPath the data folder
+     * @param onChange gets the names of the files that changed (for example "rentals.json"), called on the watcher's own thread
+     * @throws IOException if the folder can't be watched
+     */
+    public DataFolderWatcher(String folderPath, Consumer<Set<String>> onChange) throws IOException {
+
+        this.folder = Path.of(folderPath);
+        this.onChange = onChange;
+        this.watchService = FileSystems.getDefault().newWatchService();
+
+        // A file that is replaced by a rename shows up as 'created', a file that is written over as 'modified'
+        folder.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+    }
+
+    /**
+     * Starts watching on a virtual thread.
+     */
+    public void start() {
+
+        if (running) {
+            return;
+        }
+
+        running = true;
+        thread = Thread.ofVirtual().name("Data-Watcher").start(this::watch);
+    }
+
+    /**
+     * Stops watching.
+     */
+    @Override
+    public void close() {
+
+        running = false;
+
+        try {
+            watchService.close();
+        } catch (IOException exception) {
+            System.err.println("Kunde inte stänga bevakningen av " + folder + ": " + exception.getMessage());
+        }
+
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    // The loop of the watcher thread
+    private void watch() {
+
+        while (running) {
+
+            try {
+                // Sleep until something happens in the folder
+                Set<String> changed = new TreeSet<>();
+                collect(watchService.take(), changed);
+
+                // Then keep collecting until the writer has been quiet for a moment
+                WatchKey more;
+
+                while ((more = watchService.poll(SETTLE_MILLIS, TimeUnit.MILLISECONDS)) != null) {
+                    collect(more, changed);
+                }
+
+                if (!changed.isEmpty()) {
+                    CHANGES.increment();
+                    onChange.accept(changed);
+                }
+
+            } catch (InterruptedException | ClosedWatchServiceException exception) {
+                return;
+
+            } catch (RuntimeException exception) {
+                // One failed reload must not stop the watching
+                System.err.println("Kunde inte läsa ändringarna i " + folder + ": " + exception.getMessage());
+            }
+        }
+    }
+
+    // Adds the names of the data files in the key's events, and makes the key ready for new events
+    private static void collect(WatchKey key, Set<String> changed) {
+
+        for (WatchEvent<?> event : key.pollEvents()) {
+
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                // Too many events at once and some were lost, so we don't know which files changed
+                changed.addAll(DATA_FILES);
+
+            } else if (event.context() instanceof Path path && DATA_FILES.contains(path.toString())) {
+                changed.add(path.toString());
+            }
+        }
+        key.reset();
+    }
+}
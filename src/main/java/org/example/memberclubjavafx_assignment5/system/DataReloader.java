@@ -0,0 +1,380 @@
+package org.example.memberclubjavafx_assignment5.system;
+
+import com.google.gson.Gson;
+import org.example.memberclubjavafx_assignment5.diagnostics.Counter;
+import org.example.memberclubjavafx_assignment5.diagnostics.MetricsRegistry;
+import org.example.memberclubjavafx_assignment5.diagnostics.Timer;
+import org.example.memberclubjavafx_assignment5.exceptions.DataFileException;
+import org.example.memberclubjavafx_assignment5.model.Item;
+import org.example.memberclubjavafx_assignment5.model.Member;
+import org.example.memberclubjavafx_assignment5.model.Rental;
+import org.example.memberclubjavafx_assignment5.model.User;
+import org.example.memberclubjavafx_assignment5.service.GsonConfig;
+import org.example.memberclubjavafx_assignment5.service.StorageService;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * Reads the data files again after someone else changed them, and applies only what is different.
+ *
+ * It works in two steps:
+ * 1. readChangedFiles() reads the files that are different on disk from when we last read or wrote them.
+ *    Our own saves and untouched files are skipped. This step only reads, so it runs on a background thread.
+ * 2. apply() compares what was read with what we have, object by object (by id and version), and adds, updates
+ *    and removes only the objects that differ. This step changes the registries, so in the app it runs on the JavaFX thread.
+ *
+ * The comparison rules:
+ * - An object with a higher version in the file is newer there, so we take the file's copy.
+ * - The same version but other values means someone edited the file by hand, so we take the file's copy too.
+ * - A lower version in the file means we changed the object after the last save. We keep ours, the next save writes it.
+ * - An object is only removed if it was in the file last time. A new object we haven't saved yet is not in the file either,
+ *   and must not disappear.
+ */
+public class DataReloader {
+
+    private static final Timer READ_TIMER = MetricsRegistry.timer("reload.read");
+    private static final Timer APPLY_TIMER = MetricsRegistry.timer("reload.apply");
+    private static final Counter CHANGED_OBJECTS = MetricsRegistry.counter("reload.changedObjects");
+
+    private static final String USERS = "users.json";
+    private static final String ITEMS = "items.json";
+    private static final String MEMBERS = "members.json";
+    private static final String RENTALS = "rentals.json";
+
+    private final ClubSystem system;
+    private final StorageService storageService;
+
+    // Used to compare two copies of an item, member or user field by field
+    private final Gson gson = GsonConfig.createCompactGson();
+
+    // The ids that were in each file the last time we read or wrote it (file name -> ids)
+    private final Map<String, Set<Object>> idsInFile = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor, the ClubSystem creates one for itself.
+     */
+    DataReloader(ClubSystem system, StorageService storageService) {
+        this.system = system;
+        this.storageService = storageService;
+    }
+
+    /**
+     * The files that were read again. A list is null if that file had not changed, or couldn't be read.
+     * @param failedFiles why each file that couldn't be read was skipped (empty if all went well)
+     */
+    public record ChangedFiles(List<User> users, List<Item> items, List<Member> members, List<Rental> rentals, List<String> failedFiles) {
+
+        /**
+         * Returns true if no file had changed.
+         */
+        public boolean isEmpty() {
+            return users == null && items == null && members == null && rentals == null;
+        }
+    }
+
+    /**
+     * Reads the files that someone else has changed. Doesn't change anything in the system.
+     * @param candidates the files to check, for example the ones the folder watcher saw
+     * @return what was read
+     */
+    public ChangedFiles readChangedFiles(Set<String> candidates) {
+
+        long start = System.nanoTime();
+        List<String> failed = new ArrayList<>();
+
+        ChangedFiles files = new ChangedFiles(
+                read(candidates, USERS, storageService::reloadUsers, failed),
+                read(candidates, ITEMS, storageService::reloadItems, failed),
+                read(candidates, MEMBERS, storageService::reloadMembers, failed),
+                read(candidates, RENTALS, storageService::reloadRentals, failed),
+                failed);
+
+        READ_TIMER.record(start);
+        return files;
+    }
+
+    // Reads one file if it changed. A file that can't be read gives null, like an unchanged file, so apply() leaves
+    // those objects and the ids we remember for the file alone. Treating it as empty would remove everything in it.
+    private <T> List<T> read(Set<String> candidates, String filename, Supplier<List<T>> reader, List<String> failed) {
+
+        if (!needsReading(candidates, filename)) {
+            return null;
+        }
+
+        try {
+            return reader.get();
+
+        } catch (DataFileException exception) {
+            System.err.println("Läste inte om " + filename + ", behåller det vi har: " + exception.getMessage());
+            failed.add(exception.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Compares what was read with the registries and applies the differences.
+     * Items are applied before rentals, so a new rental finds its item.
+     * @param files what readChangedFiles() returned
+     * @return one DataChange per kind of object that changed (empty if nothing did)
+     */
+    public List<DataChange<?>> apply(ChangedFiles files) {
+
+        long start = System.nanoTime();
+        List<DataChange<?>> changes = new ArrayList<>();
+
+        if (files.items() != null) {
+            addIfNotEmpty(changes, applyItems(files.items()));
+        }
+        if (files.members() != null) {
+            addIfNotEmpty(changes, applyMembers(files.members()));
+        }
+        if (files.rentals() != null) {
+            addIfNotEmpty(changes, applyRentals(files.rentals()));
+        }
+        if (files.users() != null) {
+            addIfNotEmpty(changes, applyUsers(files.users()));
+        }
+
+        APPLY_TIMER.record(start);
+        return changes;
+    }
+
+    /**
+     * Remembers which ids are in the files now. Called after a full load and after every save.
+     * @param data what was read or written
+     */
+    void markSynced(ClubSystem.LoadedData data) {
+        markSynced(data, true);
+    }
+
+    /**
+     * Remembers which ids are in the files now, with or without users.json.
+     * @param data what was read or written
+     * @param includingUsers false if users.json wasn't written (a newer users list was already in it)
+     */
+    void markSynced(ClubSystem.LoadedData data, boolean includingUsers) {
+
+        if (includingUsers) {
+            idsInFile.put(USERS, idsOf(data.users(), User::getUsername));
+        }
+        idsInFile.put(ITEMS, idsOf(data.items(), Item::getId));
+        idsInFile.put(MEMBERS, idsOf(data.members(), Member::getId));
+        idsInFile.put(RENTALS, idsOf(data.rentals(), Rental::getRentalId));
+    }
+
+    /**
+     * Remembers which users are in users.json now. Called when only the users were saved.
+     * @param users the users that were written
+     */
+    void markUsersSynced(List<User> users) {
+        idsInFile.put(USERS, idsOf(users, User::getUsername));
+    }
+
+    private DataChange<Item> applyItems(List<Item> fromFile) {
+
+        DataChange<Item> change = diff(Item.class, ITEMS, fromFile, Item::getId,
+                id -> system.getInventory().getItem((String) id), Item::getVersion, this::sameJson);
+
+        for (Item item : change.added()) {
+            system.getInventory().addItem(item);
+            system.getItemIdGenerator().registerExistingId(item.getId());
+        }
+
+        for (Item item : change.updated()) {
+            system.getInventory().addItem(item);
+
+            // A price edited by hand keeps the version, so old quotes for the item must go
+            system.getQuoteService().invalidate(item.getId());
+        }
+
+        for (Item item : change.removed()) {
+            system.getInventory().removeItem(item.getId());
+        }
+        return change;
+    }
+
+    private DataChange<Member> applyMembers(List<Member> fromFile) {
+
+        DataChange<Member> change = diff(Member.class, MEMBERS, fromFile, Member::getId,
+                id -> system.getMemberRegistry().getMember((Integer) id), Member::getVersion, this::sameJson);
+
+        for (Member member : change.added()) {
+            system.getMemberRegistry().addMember(member);
+        }
+
+        for (Member member : change.updated()) {
+            system.getMemberRegistry().addMember(member);
+        }
+
+        for (Member member : change.removed()) {
+            system.getMemberRegistry().removeMember(member.getId());
+        }
+
+        // A new member from the file may have a higher id than our generator knows about
+        if (!change.added().isEmpty()) {
+
+            int maxId = 0;
+
+            for (Member member : system.getMemberRegistry().getAllMembers()) {
+                maxId = Math.max(maxId, member.getId());
+            }
+            system.getMemberIdGenerator().setNextId(maxId + 1);
+        }
+        return change;
+    }
+
+    private DataChange<Rental> applyRentals(List<Rental> fromFile) {
+
+        // Rentals are kept in a list, so we look them all up in one map instead of searching the list for each one
+        Map<Object, Rental> current = new HashMap<>();
+
+        for (Rental rental : system.getRentalService().getAllRentals()) {
+            current.put(rental.getRentalId(), rental);
+        }
+
+        DataChange<Rental> change = diff(Rental.class, RENTALS, fromFile, Rental::getRentalId,
+                current::get, Rental::getVersion, DataReloader::sameRental);
+
+        system.getRentalService().applyChanges(change.added(), change.updated(), change.removed());
+        return change;
+    }
+
+    private DataChange<User> applyUsers(List<User> fromFile) {
+
+        // Users have no version, so they are only compared by their values
+        DataChange<User> change = diff(User.class, USERS, fromFile, User::getUsername,
+                id -> system.getUser((String) id), user -> 0, this::sameJson);
+
+        for (User user : change.added()) {
+            system.addUser(user);
+        }
+
+        for (User user : change.updated()) {
+            system.addUser(user);
+        }
+
+        for (User user : change.removed()) {
+            system.forgetUser(user.getUsername());
+        }
+        return change;
+    }
+
+    /**
+     * Compares the objects from a file with ours and sorts them into added, updated and removed (see the rules above).
+     * @param type the kind of object
+     * @param filename the file they came from
+     * @param fromFile the objects in the file
+     * @param idOf gets the id of an object
+     * @param ours finds our copy of an object by its id (null if we don't have it)
+     * @param versionOf gets the version of an object
+     * @param sameValues true if two copies with the same version have the same values
+     */
+    private <T> DataChange<T> diff(Class<T> type, String filename, List<T> fromFile, Function<T, Object> idOf,
+                                   Function<Object, T> ours, ToLongFunction<T> versionOf, BiPredicate<T, T> sameValues) {
+
+        Set<Object> syncedIds = idsInFile.getOrDefault(filename, Set.of());
+        Set<Object> fileIds = new HashSet<>();
+
+        List<T> added = new ArrayList<>();
+        List<T> updated = new ArrayList<>();
+        List<T> removed = new ArrayList<>();
+
+        for (T loaded : fromFile) {
+
+            Object id = idOf.apply(loaded);
+
+            // If an id is in the file twice, the first one wins (the same rule as a full load)
+            if (!fileIds.add(id)) {
+                continue;
+            }
+
+            T current = ours.apply(id);
+
+            if (current == null) {
+
+                // Not in the file last time means new. Otherwise we removed it and the next save removes it from the file too.
+                if (!syncedIds.contains(id)) {
+                    added.add(loaded);
+                }
+                continue;
+            }
+
+            long loadedVersion = versionOf.applyAsLong(loaded);
+            long currentVersion = versionOf.applyAsLong(current);
+
+            if (loadedVersion > currentVersion || (loadedVersion == currentVersion && !sameValues.test(current, loaded))) {
+                updated.add(loaded);
+            }
+        }
+
+        // Only ids that were in the file last time can have been removed from it
+        for (Object id : syncedIds) {
+
+            if (!fileIds.contains(id)) {
+
+                T current = ours.apply(id);
+
+                if (current != null) {
+                    removed.add(current);
+                }
+            }
+        }
+
+        idsInFile.put(filename, fileIds);
+
+        DataChange<T> change = new DataChange<>(type, added, updated, removed);
+        CHANGED_OBJECTS.add(change.size());
+        return change;
+    }
+
+    // Checks if the file should be read: the watcher (or the button) asked for it and someone else changed it
+    private boolean needsReading(Set<String> candidates, String filename) {
+        return candidates.contains(filename) && storageService.hasChangedOnDisk(filename);
+    }
+
+    // Compares two copies by their JSON, which covers every saved field of every item type
+    private boolean sameJson(Object first, Object second) {
+        return gson.toJsonTree(first).equals(gson.toJsonTree(second));
+    }
+
+    // Rentals are many, so they are compared field by field instead of through JSON
+    private static boolean sameRental(Rental first, Rental second) {
+        return first.getMemberId() == second.getMemberId()
+                && Objects.equals(first.getItemId(), second.getItemId())
+                && Objects.equals(first.getStartDate(), second.getStartDate())
+                && Objects.equals(first.getEndDate(), second.getEndDate())
+                && Objects.equals(first.getExpectedReturnDate(), second.getExpectedReturnDate())
+                && first.getTotalCostOre() == second.getTotalCostOre()
+                && first.getListPriceOre() == second.getListPriceOre()
+                && first.getBookedPeriod() == second.getBookedPeriod()
+                && first.getBookedDuration() == second.getBookedDuration()
+                && first.getStatus() == second.getStatus();
+    }
+
+    private static <T> Set<Object> idsOf(List<T> list, Function<T, Object> idOf) {
+
+        Set<Object> ids = new HashSet<>();
+
+        for (T object : list) {
+            ids.add(idOf.apply(object));
+        }
+        return ids;
+    }
+
+    private static void addIfNotEmpty(List<DataChange<?>> changes, DataChange<?> change) {
+
+        if (!change.isEmpty()) {
+            changes.add(change);
+        }
+    }
+}
@@ -0,0 +1,292 @@
+package org.example.memberclubjavafx_assignment5.system;
+
+import org.example.memberclubjavafx_assignment5.diagnostics.MetricsRegistry;
+import org.example.memberclubjavafx_assignment5.diagnostics.Timer;
+import org.example.memberclubjavafx_assignment5.exceptions.BackgroundTaskException;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Phaser;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * The place where all blocking work (reading and writing files, and later the network) runs, so it never blocks the window.
+ * Every task gets its own virtual thread. Virtual threads are so cheap that we don't need a pool,
+ * and a thread that waits for the disk doesn't hold on to a real operating system thread.
+ *
+ * For work made of several parts, like "load all four files", open a {@link Scope}:
+ *
+ *     try (IoExecutor.Scope scope = io.openScope("loadAll")) {
+ *         IoExecutor.Subtask<List<Item>> items = scope.fork(storage::loadItems);
+ *         IoExecutor.Subtask<List<Member>> members = scope.fork(storage::loadMembers);
+ *         scope.join();
+ *         use(items.get(), members.get());
+ *     }
+ *
+ * The scope works like StructuredTaskScope.ShutdownOnFailure (which is still a preview in Java 21):
+ * if one part fails the others are cancelled, if the thread waiting in join() is interrupted (for example
+ * because the user cancelled in the window) all parts are interrupted, and no part is still running when the scope closes.
+ */
+public class IoExecutor implements Executor {
+
+    private final ExecutorService threads;
+
+    /**
+     * Creates the executor. Every task runs on a new virtual thread named "IO-N".
+     */
+    public IoExecutor() {
+        this.threads = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("IO-", 0).factory());
+    }
+
+    /**
+     * Runs a task on a virtual thread. Used by JavaFX Tasks in the views.
+     * @param task the work
+     */
+    @Override
+    public void execute(Runnable task) {
+        threads.execute(task);
+    }
+
+    /**
+     * Runs a task on a virtual thread and measures it in the "io.NAME" timer.
+     * @param name the name of the timer, for example "saveAll"
+     * @param task the work
+     * @return a Future for the result. Cancelling it with {@code cancel(true)} interrupts the task.
+     */
+    public <T> Future<T> submit(String name, Callable<T> task) {
+
+        Timer timer = MetricsRegistry.timer("io." + name);
+
+        return threads.submit(() -> {
+
+            long start = System.nanoTime();
+
+            try {
+                return task.call();
+            } finally {
+                timer.record(start);
+            }
+        });
+    }
+
+    /**
+     * Opens a scope for work made of several parts that run at the same time.
+     * @param name the name of the timer ("io.NAME") that measures the whole scope
+     * @return the scope, use it in a try-with-resources
+     */
+    public Scope openScope(String name) {
+        return new Scope(name);
+    }
+
+    /**
+     * Stops taking new tasks and waits up to ten seconds for the running ones (for example a last save).
+     */
+    public void shutdown() {
+
+        threads.shutdown();
+
+        try {
+            threads.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * A group of tasks that belong together. Only the thread that opened the scope should use it.
+     */
+    public class Scope implements AutoCloseable {
+
+        private final Timer timer;
+        private final long start;
+
+        // Counts the parts that are still running. The owner (the thread that opened the scope) is party number one.
+        private final Phaser phaser;
+
+        private final List<Subtask<?>> subtasks;
+
+        // The first failure, which is what join() throws
+        private final AtomicReference<Throwable> failure;
+
+        private volatile boolean cancelled;
+        private boolean joined;
+
+        private Scope(String name) {
+            this.timer = MetricsRegistry.timer("io." + name);
+            this.start = System.nanoTime();
+            this.phaser = new Phaser(1);
+            this.subtasks = new CopyOnWriteArrayList<>();
+            this.failure = new AtomicReference<>();
+        }
+
+        /**
+         * Starts one part on its own virtual thread.
+         * @param task the work
+         * @return a handle to get the result from after join()
+         */
+        public <T> Subtask<T> fork(Callable<T> task) {
+
+            Subtask<T> subtask = new Subtask<>();
+            subtasks.add(subtask);
+            phaser.register();
+
+            try {
+                threads.execute(() -> runSubtask(subtask, task));
+
+            } catch (RuntimeException exception) {
+                // The executor is shut down, so the part never starts
+                phaser.arriveAndDeregister();
+                throw exception;
+            }
+            return subtask;
+        }
+
+        /**
+         * Waits for all parts. If one failed, its exception is thrown (the others were cancelled).
+         * @throws InterruptedException if this thread was interrupted. All parts are then interrupted and waited for.
+         */
+        public void join() throws InterruptedException {
+
+            int phase = phaser.arrive();
+
+            try {
+                phaser.awaitAdvanceInterruptibly(phase);
+
+            } catch (InterruptedException exception) {
+
+                // Pass the cancel on to all parts, and wait until they have stopped
+                cancel();
+                phaser.awaitAdvance(phase);
+                finish();
+                throw exception;
+            }
+
+            finish();
+            throwIfFailed();
+        }
+
+        /**
+         * Waits for all parts and ignores interrupts.
+         * Used for saving, where stopping halfway would leave some files old and some new.
+         */
+        public void joinUninterruptibly() {
+
+            phaser.awaitAdvance(phaser.arrive());
+
+            finish();
+            throwIfFailed();
+        }
+
+        /**
+         * Cancels all parts. Parts that haven't started are skipped and running parts are interrupted.
+         */
+        public void cancel() {
+
+            cancelled = true;
+
+            for (Subtask<?> subtask : subtasks) {
+
+                Thread thread = subtask.thread;
+
+                if (thread != null) {
+                    thread.interrupt();
+                }
+            }
+        }
+
+        /**
+         * Closes the scope. If join() was never called (for example because of an exception), the parts are cancelled and waited for,
+         * so no part keeps running after the scope.
+         */
+        @Override
+        public void close() {
+
+            if (!joined) {
+                cancel();
+                phaser.awaitAdvance(phaser.arrive());
+                finish();
+            }
+        }
+
+        // Runs on the part's own virtual thread
+        private <T> void runSubtask(Subtask<T> subtask, Callable<T> task) {
+
+            try {
+                // Set the thread before we check the flag, so a cancel in between can't be missed
+                subtask.thread = Thread.currentThread();
+
+                if (cancelled) {
+                    return;
+                }
+
+                subtask.result = task.call();
+                subtask.done = true;
+
+            } catch (Throwable throwable) {
+
+                // The first failure cancels the other parts
+                if (failure.compareAndSet(null, throwable)) {
+                    cancel();
+                }
+
+            } finally {
+                subtask.thread = null;
+                phaser.arriveAndDeregister();
+            }
+        }
+
+        // Called once all parts have stopped
+        private void finish() {
+            joined = true;
+            timer.record(start);
+        }
+
+        // Throws the first failure, as it is if it is a runtime exception or an error
+        private void throwIfFailed() {
+
+            Throwable throwable = failure.get();
+
+            if (throwable == null) {
+                return;
+            }
+            if (throwable instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (throwable instanceof Error error) {
+                throw error;
+            }
+            throw new BackgroundTaskException("En del av arbetet misslyckades: " + throwable.getMessage(), throwable);
+        }
+    }
+
+    /**
+     * The result of one part of a scope.
+     * @param <T> the type of the result
+     */
+    public static class Subtask<T> implements Supplier<T> {
+
+        private volatile T result;
+        private volatile boolean done;
+
+        // The thread running the part, so it can be interrupted
+        private volatile Thread thread;
+
+        /**
+         * Returns the result. Only call this after join() has returned without an exception.
+         */
+        @Override
+        public T get() {
+
+            if (!done) {
+                throw new IllegalStateException("Delen är inte klar, anropa join() först");
+            }
+            return result;
+        }
+    }
+}
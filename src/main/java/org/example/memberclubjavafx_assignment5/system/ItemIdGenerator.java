@@ -85,4 +85,45 @@ public class ItemIdGenerator {
     public String generateRowBoatId() {
         return "RBOAT-" + String.format("%03d", rowBoatCounter++);
     }
-}
\ No newline at end of file
+
+    /**
+     * Tells the generator that an id is already used (for example by a loaded or generated item).
+     * The counter for that type is moved past the number, so the next new item gets a free id.
+     * Ids we don't recognise are ignored.
+     * @param id an existing item id, for example TENT-012
+     */
+    public void registerExistingId(String id) {
+
+        int dash = id.indexOf('-');
+
+        if (dash < 0) {
+            return;
+        }
+
+        int next;
+
+        try {
+            next = Integer.parseInt(id.substring(dash + 1)) + 1;
+        } catch (NumberFormatException exception) {
+            return;
+        }
+
+        switch (id.substring(0, dash)) {
+            case "BACK" -> backpackCounter = Math.max(backpackCounter, next);
+            case "LANT" -> lanternCounter = Math.max(lanternCounter, next);
+            case "SLEEP" -> sleepingBagCounter = Math.max(sleepingBagCounter, next);
+            case "TENT" -> tentCounter = Math.max(tentCounter, next);
+            case "TRANG" -> trangiaCounter = Math.max(trangiaCounter, next);
+            case "BAIT" -> baitCounter = Math.max(baitCounter, next);
+            case "NET" -> netCounter = Math.max(netCounter, next);
+            case "ROD" -> rodCounter = Math.max(rodCounter, next);
+            case "KAY" -> kayakCounter = Math.max(kayakCounter, next);
+            case "EBOAT" -> electricBoatCounter = Math.max(electricBoatCounter, next);
+            case "MBOAT" -> motorBoatCounter = Math.max(motorBoatCounter, next);
+            case "RBOAT" -> rowBoatCounter = Math.max(rowBoatCounter, next);
+            default -> {
+                // Unknown prefix, nothing to update
+            }
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package org.example.memberclubjavafx_assignment5.system;
+
+/**
+ * Counts how long operations take, in nanoseconds, without saving every single value.
+ * It works like an HDR histogram: every power of two is split into 64 equally wide buckets,
+ * so every value is stored with an error below about 1.6%, from 1 ns up to many hours, in a fixed 30 KB array.
+ *
+ * This class is not thread safe. Give every thread its own histogram and add them together at the end.
+ */
+public class LatencyHistogram {
+
+    // 64 buckets per power of two (the 7 highest bits of a value decide its bucket)
+    private static final int SUB_BUCKET_BITS = 6;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    // Enough buckets for every positive long value
+    public static final int BUCKET_COUNT = (63 - SUB_BUCKET_BITS) * SUB_BUCKETS + 2 * SUB_BUCKETS;
+
+    private final long[] counts;
+    private long totalCount;
+    private long sum;
+    private long min;
+    private long max;
+
+    /**
+     * Creates an empty histogram.
+     */
+    public LatencyHistogram() {
+        this.counts = new long[BUCKET_COUNT];
+        this.min = Long.MAX_VALUE;
+    }
+
+    /**
+     * Records one value.
+     * @param nanos how long the operation took, negative values count as 0
+     */
+    public void record(long nanos) {
+        record(nanos, 1);
+    }
+
+    /**
+     * Records the same value several times (used when copying counts from another bucket array).
+     * @param nanos the value, negative values count as 0
+     * @param count how many times to record it
+     */
+    public void record(long nanos, long count) {
+
+        if (count <= 0) {
+            return;
+        }
+
+        long value = Math.max(0, nanos);
+
+        counts[indexOf(value)] += count;
+        totalCount += count;
+        sum += value * count;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+
+    /**
+     * Adds all values from another histogram to this one.
+     * @param other the histogram to add
+     */
+    public void add(LatencyHistogram other) {
+
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+
+        totalCount += other.totalCount;
+        sum += other.sum;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    /**
+     * Returns the value that the given share of all values are at or below.
+     * For example 99.0 gives the p99 latency.
+     * @param percentile between 0 and 100
+     * @return the value in nanoseconds (the top of its bucket), or 0 if nothing was recorded
+     */
+    public long getValueAtPercentile(double percentile) {
+
+        if (totalCount == 0) {
+            return 0;
+        }
+
+        // How many values must be at or below the answer (at least one)
+        long wanted = Math.max(1, (long) Math.ceil(percentile / 100.0 * totalCount));
+        long seen = 0;
+
+        for (int i = 0; i < counts.length; i++) {
+
+            seen += counts[i];
+
+            if (seen >= wanted) {
+
+                // The top of the bucket, but never more than the largest value we actually saw
+                return Math.min(highestValueIn(i), max);
+            }
+        }
+        return max;
+    }
+
+    // Getters
+    public long getCount() {
+        return totalCount;
+    }
+
+    public long getMin() {
+        return totalCount == 0 ? 0 : min;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    public double getMean() {
+        return totalCount == 0 ? 0 : (double) sum / totalCount;
+    }
+
+    /**
+     * Finds the bucket for a value.
+     * Small values (below 128) get their own bucket. Bigger values are shifted right
+     * until only the 7 highest bits are left, and the number of shifts picks the group of buckets.
+     * Public so other counters (like the metrics timers) can use the same buckets.
+     */
+    public static int indexOf(long value) {
+
+        if (value < 2 * SUB_BUCKETS) {
+            return (int) value;
+        }
+
+        int shift = (63 - Long.numberOfLeadingZeros(value)) - SUB_BUCKET_BITS;
+        return shift * SUB_BUCKETS + (int) (value >>> shift);
+    }
+
+    /**
+     * Returns the largest value that ends up in a bucket.
+     */
+    public static long highestValueIn(int index) {
+
+        if (index < 2 * SUB_BUCKETS) {
+            return index;
+        }
+
+        int shift = index / SUB_BUCKETS - 1;
+        long subBucket = index - (long) shift * SUB_BUCKETS;
+
+        return ((subBucket + 1) << shift) - 1;
+    }
+}
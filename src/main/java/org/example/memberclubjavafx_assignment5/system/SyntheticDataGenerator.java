@@ -0,0 +1,494 @@
+package org.example.memberclubjavafx_assignment5.system;
+
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonWriter;
+import org.example.memberclubjavafx_assignment5.model.Item;
+import org.example.memberclubjavafx_assignment5.model.Member;
+import org.example.memberclubjavafx_assignment5.model.Rental;
+import org.example.memberclubjavafx_assignment5.model.camping.*;
+import org.example.memberclubjavafx_assignment5.model.enums.*;
+import org.example.memberclubjavafx_assignment5.model.fishing.FishingBait;
+import org.example.memberclubjavafx_assignment5.model.fishing.FishingNet;
+import org.example.memberclubjavafx_assignment5.model.fishing.FishingRod;
+import org.example.memberclubjavafx_assignment5.model.vehicles.ElectricBoat;
+import org.example.memberclubjavafx_assignment5.model.vehicles.Kayak;
+import org.example.memberclubjavafx_assignment5.model.vehicles.MotorBoat;
+import org.example.memberclubjavafx_assignment5.model.vehicles.RowBoat;
+import org.example.memberclubjavafx_assignment5.pricing.PricingEngine;
+import org.example.memberclubjavafx_assignment5.pricing.PricingFactory;
+import org.example.memberclubjavafx_assignment5.service.GsonConfig;
+import org.example.memberclubjavafx_assignment5.service.RentalService;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.SplittableRandom;
+import java.util.function.Consumer;
+
+/**
+ * Creates large, realistic test data for a whole club (members, items of all twelve types and years of rentals).
+ * The same settings and seed always give exactly the same data, so results can be compared between runs.
+ *
+ * Everything is created one object at a time and handed to a consumer (or written straight to the JSON files),
+ * so even a multi-GB data set never has to fit in memory. The only thing we keep is one number per item.
+ *
+ * To make that possible, member number m only rents the items m, m + members, m + 2 * members and so on.
+ * That way we can list a member's rentals without remembering all rentals.
+ */
+public class SyntheticDataGenerator {
+
+    // Parts of the random seed, so items, members and rentals get their own independent random numbers
+    private static final long ITEM_SALT = 0x1D5A3F29L;
+    private static final long MEMBER_SALT = 0x5B7E11C3L;
+    private static final long TIMELINE_SALT = 0x2C9F8E47L;
+
+    private static final double HOURS_PER_YEAR = 24 * 365.0;
+
+    // How often different things happen
+    private static final double HOURLY_SHARE = 0.2;
+    private static final double CANCEL_SHARE = 0.03;
+    private static final double LATE_SHARE = 0.08;
+    private static final double BROKEN_SHARE = 0.01;
+
+    // How busy each month is (January first). The average of each row is 1.0.
+    private static final double[] CAMPING_SEASON = {0.3, 0.3, 0.5, 0.8, 1.3, 1.9, 2.2, 1.9, 1.2, 0.7, 0.4, 0.5};
+    private static final double[] FISHING_SEASON = {1.0, 1.1, 0.9, 1.0, 1.2, 1.1, 1.0, 1.1, 1.2, 1.1, 0.6, 0.7};
+    private static final double[] WATER_SEASON = {0.1, 0.1, 0.3, 0.7, 1.4, 2.2, 2.6, 2.3, 1.3, 0.6, 0.2, 0.2};
+
+    private static final String[] FIRST_NAMES = {"Anna", "Erik", "Maria", "Lars", "Karin", "Johan", "Sara", "Anders", "Emma", "Nils",
+            "Elin", "Oskar", "Linnea", "Per", "Ida", "Magnus", "Frida", "Gustav", "Maja", "Henrik"};
+    private static final String[] LAST_NAMES = {"Andersson", "Johansson", "Karlsson", "Nilsson", "Eriksson", "Larsson", "Olsson",
+            "Persson", "Svensson", "Gustafsson", "Pettersson", "Jonsson", "Lindberg", "Lindqvist", "Berg"};
+
+    // Settings
+    private final long seed;
+    private final int memberCount;
+    private final int itemCount;
+    private final int years;
+    private final int rentalsPerItemPerYear;
+    private final LocalDateTime now;
+
+    // Used to give the rentals realistic prices (same rules as the real program)
+    private final PricingEngine pricingEngine;
+
+    /**
+     * Creates a generator.
+     * @param seed the seed, the same seed always gives the same data
+     * @param memberCount number of members
+     * @param itemCount number of items (spread over all twelve item types)
+     * @param years how many years of rental history to create
+     * @param rentalsPerItemPerYear how many times an average item is rented per year
+     * @param now the point in time the history ends at (rentals after this are still active)
+     */
+    public SyntheticDataGenerator(long seed, int memberCount, int itemCount, int years, int rentalsPerItemPerYear, LocalDateTime now) {
+
+        if (memberCount < 1 || itemCount < 1 || years < 1 || rentalsPerItemPerYear < 1) {
+            throw new IllegalArgumentException("Antal medlemmar, artiklar, år och uthyrningar måste vara minst 1");
+        }
+
+        this.seed = seed;
+        this.memberCount = memberCount;
+        this.itemCount = itemCount;
+        this.years = years;
+        this.rentalsPerItemPerYear = rentalsPerItemPerYear;
+        this.now = now;
+        this.pricingEngine = PricingFactory.getEngine();
+    }
+
+    /**
+     * Creates all data and hands it over one object at a time: first all items, then all members, then all rentals.
+     * @param itemConsumer receives every item
+     * @param memberConsumer receives every member (with their rental history)
+     * @param rentalConsumer receives every rental
+     * @return how much was created
+     */
+    public Summary generate(Consumer<Item> itemConsumer, Consumer<Member> memberConsumer, Consumer<Rental> rentalConsumer) {
+
+        /*
+        First pass: run every item's rental history once without creating any rentals.
+        We only remember the number of the item's first rental (so rental ids can be calculated later)
+        and the count of active rentals (so we know which items are rented out right now).
+         */
+        long[] firstRentalNumber = new long[itemCount + 1];
+        boolean[] rentedNow = new boolean[itemCount];
+        long nextNumber = 1;
+        long activeRentals = 0;
+
+        for (int i = 0; i < itemCount; i++) {
+
+            firstRentalNumber[i] = nextNumber;
+            Timeline timeline = runTimeline(i, null, 0, null);
+
+            nextNumber += timeline.count();
+            rentedNow[i] = timeline.endsActive();
+
+            if (timeline.endsActive()) {
+                activeRentals++;
+            }
+        }
+        firstRentalNumber[itemCount] = nextNumber;
+
+        // Items
+        for (int i = 0; i < itemCount; i++) {
+
+            Item item = createItem(i);
+
+            if (rentedNow[i]) {
+                item.setStatus(ItemStatus.RENTED);
+            } else if (new SplittableRandom(mix(i, ITEM_SALT + 1)).nextDouble() < BROKEN_SHARE) {
+                item.setStatus(ItemStatus.BROKEN);
+            }
+            itemConsumer.accept(item);
+        }
+
+        // Members, each with the ids of all rentals of the items they rent
+        for (int m = 0; m < memberCount; m++) {
+
+            Member member = createMember(m);
+
+            for (int i = m; i < itemCount; i += memberCount) {
+                for (long number = firstRentalNumber[i]; number < firstRentalNumber[i + 1]; number++) {
+                    member.addRental(RentalService.createRentalId(number));
+                }
+            }
+            memberConsumer.accept(member);
+        }
+
+        // Second pass: the same histories again, but this time the rentals are created and handed over
+        for (int i = 0; i < itemCount; i++) {
+            runTimeline(i, createItem(i), firstRentalNumber[i], rentalConsumer);
+        }
+
+        return new Summary(memberCount, itemCount, nextNumber - 1, activeRentals);
+    }
+
+    /**
+     * Creates all data and writes it straight to items.json, members.json and rentals.json in the given folder,
+     * in the same format as {@code StorageService}. Existing files are replaced, users.json is left alone.
+     * @param folderPath the folder to write to
+     * @return how much was created
+     * @throws IOException if a file can't be written
+     */
+    public Summary writeTo(String folderPath) throws IOException {
+
+        File folder = new File(folderPath);
+
+        if (!folder.exists() && !folder.mkdirs()) {
+            throw new IOException("Kunde inte skapa mappen " + folderPath);
+        }
+
+        Gson gson = GsonConfig.createGson();
+
+        try (JsonWriter itemWriter = openArray(gson, new File(folder, "items.json"));
+             JsonWriter memberWriter = openArray(gson, new File(folder, "members.json"));
+             JsonWriter rentalWriter = openArray(gson, new File(folder, "rentals.json"))) {
+
+            // Declared type Item.class so the 'type' label is written, just like when the program saves
+            Summary summary = generate(
+                    item -> gson.toJson(item, Item.class, itemWriter),
+                    member -> gson.toJson(member, Member.class, memberWriter),
+                    rental -> gson.toJson(rental, Rental.class, rentalWriter));
+
+            itemWriter.endArray();
+            memberWriter.endArray();
+            rentalWriter.endArray();
+
+            return summary;
+        }
+    }
+
+    // Opens a file for writing and starts the JSON list
+    private static JsonWriter openArray(Gson gson, File file) throws IOException {
+
+        Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8), 1 << 16);
+        JsonWriter jsonWriter = gson.newJsonWriter(writer);
+        jsonWriter.beginArray();
+
+        return jsonWriter;
+    }
+
+    /**
+     * Goes through the rental history of one item.
+     * Both passes call this with the same item number, so the random numbers (and the rentals) are exactly the same.
+     * @param index the item number
+     * @param item the item (only needed when rentals are created)
+     * @param firstNumber the number of the item's first rental
+     * @param rentalConsumer receives the rentals, or null to only count them
+     */
+    private Timeline runTimeline(int index, Item item, long firstNumber, Consumer<Rental> rentalConsumer) {
+
+        SplittableRandom random = new SplittableRandom(mix(index, TIMELINE_SALT));
+        double[] season = seasonFor(itemTypeFor(index));
+        double meanGapHours = HOURS_PER_YEAR / rentalsPerItemPerYear;
+
+        int memberIndex = index % memberCount;
+        MembershipLevel level = membershipLevelFor(memberIndex);
+
+        LocalDateTime time = now.minusYears(years).plusMinutes(random.nextInt(60 * 24 * 30));
+        int count = 0;
+
+        while (true) {
+
+            // Time until the next rental. In a busy month the gaps are shorter.
+            double weight = season[time.getMonthValue() - 1];
+            double gapHours = -Math.log(1.0 - random.nextDouble()) * meanGapHours / weight;
+            time = time.plusMinutes((long) (gapHours * 60)).truncatedTo(ChronoUnit.MINUTES);
+
+            if (!time.isBefore(now)) {
+                return new Timeline(count, false);
+            }
+
+            // We always draw the same random numbers in the same order, so both passes stay identical
+            boolean hourly = random.nextDouble() < HOURLY_SHARE;
+            int duration = hourly ? 1 + random.nextInt(8) : 1 + random.nextInt(7);
+            double outcome = random.nextDouble();
+            int hoursLate = 1 + random.nextInt(72);
+
+            RentalPeriod period = hourly ? RentalPeriod.HOURLY : RentalPeriod.DAILY;
+            LocalDateTime expectedReturn = hourly ? time.plusHours(duration) : time.plusDays(duration);
+
+            RentalStatus status;
+            LocalDateTime endDate;
+
+            if (outcome < CANCEL_SHARE) {
+                status = RentalStatus.CANCELLED;
+                endDate = null;
+
+            } else {
+
+                // Some rentals come back late
+                endDate = (outcome < CANCEL_SHARE + LATE_SHARE) ? expectedReturn.plusHours(hoursLate) : expectedReturn;
+
+                // Not back yet means it is still active (and overdue if the expected return has passed)
+                if (endDate.isAfter(now)) {
+                    status = RentalStatus.ACTIVE;
+                    endDate = null;
+                } else {
+                    status = RentalStatus.COMPLETED;
+                }
+            }
+
+            if (rentalConsumer != null) {
+
+                long listPrice = pricingEngine.calculateListPrice(item, duration, period);
+                long price = pricingEngine.calculatePrice(item, level, duration, period, time, 1);
+
+                Rental rental = new Rental(RentalService.createRentalId(firstNumber + count), memberIndex + 1, item.getId(),
+                        time, expectedReturn, endDate, price, period, duration, listPrice);
+                rental.setStatus(status);
+
+                rentalConsumer.accept(rental);
+            }
+
+            count++;
+
+            // An item that is out right now can't be rented again
+            if (status == RentalStatus.ACTIVE) {
+                return new Timeline(count, true);
+            }
+
+            // The next rental can start when this one is over
+            if (endDate != null) {
+                time = endDate;
+            }
+        }
+    }
+
+    /**
+     * Creates item number {@code index}. The item type follows the number, so all twelve types are equally common.
+     */
+    private Item createItem(int index) {
+
+        SplittableRandom random = new SplittableRandom(mix(index, ITEM_SALT));
+        ItemType type = itemTypeFor(index);
+
+        // Number within its own type, used in the id (TENT-001, TENT-002 ...)
+        String number = String.format("%03d", index / ItemType.values().length + 1);
+
+        int year = LocalDate.from(now).getYear() - random.nextInt(8);
+        Color color = pick(random, Color.values());
+
+        return switch (type) {
+            case TENT -> new Tent("TENT-" + number, pick(random, "Hilleberg Nallo", "MSR Hubba", "Nordisk Telemark", "Fjällräven Abisko"),
+                    price(random, 150, 600), hourly(random, 150, 600), year, color, pick(random, Material.NYLON, Material.RIPSTOP_NYLON, Material.CANVAS),
+                    round1(1.2 + random.nextDouble() * 6), pick(random, "Hilleberg", "MSR", "Nordisk", "Fjällräven"),
+                    1 + random.nextInt(6), pick(random, SeasonRating.values()), pick(random, TentType.values()));
+
+            case SLEEPING_BAG -> new SleepingBag("SLEEP-" + number, pick(random, "Polar Down", "Trek Comfort", "Summer Lite"),
+                    price(random, 80, 250), hourly(random, 80, 250), year, color, pick(random, Material.DOWN, Material.SYNTHETIC),
+                    round1(0.7 + random.nextDouble() * 1.8), pick(random, "Marmot", "Mammut", "Haglöfs"),
+                    -20 + random.nextInt(30), pick(random, SeasonRating.values()));
+
+            case BACKPACK -> new Backpack("BACK-" + number, pick(random, "Daypack", "Trail", "Expedition"),
+                    price(random, 60, 300), hourly(random, 60, 300), year, color, pick(random, Material.NYLON, Material.POLYESTER),
+                    round1(0.8 + random.nextDouble() * 2.5), pick(random, "Fjällräven", "Osprey", "Deuter", "Patagonia"),
+                    20 + random.nextInt(60), pick(random, BackpackType.values()));
+
+            case TRANGIA_KITCHEN -> new TrangiaKitchen("TRANG-" + number, pick(random, "Trangia 25", "Trangia 27", "Trangia Mini"),
+                    price(random, 60, 200), hourly(random, 60, 200), year, color, Material.ALUMINUM,
+                    round1(0.4 + random.nextDouble() * 1.2), "Trangia", 1 + random.nextInt(2), pick(random, FuelType.ALCOHOL, FuelType.GAS, FuelType.MULTIFUEL));
+
+            case LANTERN -> new Lantern("LANT-" + number, pick(random, "Camp Light", "Headlamp Pro", "Tent Lantern"),
+                    price(random, 40, 150), hourly(random, 40, 150), year, color, pick(random, Material.PLASTIC, Material.ALUMINUM),
+                    round1(0.2 + random.nextDouble()), pick(random, "Coleman", "Petzl", "Black Diamond"),
+                    100 + random.nextInt(900), pick(random, PowerSource.values()));
+
+            case FISHING_ROD -> new FishingRod("ROD-" + number, pick(random, "Spinning Pro", "Fly Master", "Ice Special", "Jig Stick"),
+                    price(random, 80, 350), hourly(random, 80, 350), year, color, pick(random, Material.CARBON_FIBER, Material.FIBERGLASS),
+                    round1(0.2 + random.nextDouble() * 0.4), pick(random, "Shimano", "Abu Garcia", "Orvis", "Daiwa"),
+                    round1(0.6 + random.nextDouble() * 2.5), pick(random, RodType.values()));
+
+            case FISHING_NET -> new FishingNet("NET-" + number, pick(random, "Landing Net", "Gill Net", "Cast Net"),
+                    price(random, 50, 200), hourly(random, 50, 200), year, color, Material.NYLON,
+                    round1(0.3 + random.nextDouble() * 2), pick(random, "Abu Garcia", "Rapala"),
+                    pick(random, NetSize.values()), round1(5 + random.nextDouble() * 45));
+
+            case FISHING_BAIT -> new FishingBait("BAIT-" + number, pick(random, "Wobbler Kit", "Spoon Set", "Jig Mix"),
+                    price(random, 20, 80), hourly(random, 20, 80), year, color, Material.PLASTIC,
+                    round1(0.05 + random.nextDouble() * 0.3), pick(random, "Rapala", "Abu Garcia", "Savage Gear"),
+                    pick(random, BaitType.values()), 1 + random.nextInt(20));
+
+            case KAYAK -> new Kayak("KAY-" + number, pick(random, "Ocean Explorer", "River Runner", "Angler"),
+                    price(random, 400, 1000), hourly(random, 400, 1000), year, color, pick(random, Material.PLASTIC, Material.FIBERGLASS),
+                    round1(15 + random.nextDouble() * 20), pick(random, "Hobie", "Old Town", "Prijon"),
+                    1 + random.nextInt(2), round1(3 + random.nextDouble() * 2.5), 1 + random.nextInt(2), pick(random, KayakType.values()));
+
+            case ROW_BOAT -> new RowBoat("RBOAT-" + number, pick(random, "Classic Row", "Fisher Row", "Lake Row"),
+                    price(random, 300, 700), hourly(random, 300, 700), year, color, pick(random, Material.WOOD, Material.ALUMINUM, Material.FIBERGLASS),
+                    round1(60 + random.nextDouble() * 120), pick(random, "Linder", "Ryds", "Crescent"),
+                    2 + random.nextInt(4), round1(3.5 + random.nextDouble() * 2), random.nextInt(2) == 0, round1(4 + random.nextDouble() * 4), 2);
+
+            case MOTOR_BOAT -> new MotorBoat("MBOAT-" + number, pick(random, "Speedster", "Cruiser", "Fisher Pro"),
+                    price(random, 1200, 3500), hourly(random, 1200, 3500), year, color, pick(random, Material.FIBERGLASS, Material.ALUMINUM),
+                    round1(400 + random.nextDouble() * 1200), pick(random, "Yamaha", "Buster", "Yamarin"),
+                    4 + random.nextInt(5), round1(4.5 + random.nextDouble() * 3), random.nextInt(2) == 0,
+                    round1(20 + random.nextDouble() * 30), 40 + random.nextInt(200), pick(random, FuelType.GASOLINE, FuelType.DIESEL));
+
+            case ELECTRIC_BOAT -> new ElectricBoat("EBOAT-" + number, pick(random, "Silent Glide", "Eco Cruiser", "E-Fisher"),
+                    price(random, 900, 2500), hourly(random, 900, 2500), year, color, pick(random, Material.FIBERGLASS, Material.ALUMINUM),
+                    round1(300 + random.nextDouble() * 800), pick(random, "Candela", "X Shore", "Torqeedo"),
+                    2 + random.nextInt(6), round1(4 + random.nextDouble() * 3), random.nextInt(2) == 0,
+                    round1(10 + random.nextDouble() * 25), round1(5 + random.nextDouble() * 40), 2 + random.nextInt(10));
+        };
+    }
+
+    /**
+     * Creates member number {@code index} (the member id is index + 1).
+     */
+    private Member createMember(int index) {
+
+        SplittableRandom random = new SplittableRandom(mix(index, MEMBER_SALT));
+
+        String firstName = pick(random, FIRST_NAMES);
+        String lastName = pick(random, LAST_NAMES);
+        String phone = "07" + random.nextInt(10) + "-" + (1000000 + random.nextInt(9000000));
+        String email = firstName.toLowerCase() + "." + lastName.toLowerCase() + (index + 1) + "@example.com";
+
+        return new Member(index + 1, firstName, lastName, phone, email, membershipLevelFor(index));
+    }
+
+    /**
+     * Returns the membership level of member number {@code index}.
+     * It is calculated from the number only, so items and rentals can find it without the member object.
+     * About 60% standard, 25% student and 15% premium.
+     */
+    private MembershipLevel membershipLevelFor(int index) {
+
+        double roll = new SplittableRandom(mix(index, MEMBER_SALT + 1)).nextDouble();
+
+        if (roll < 0.60) return MembershipLevel.STANDARD;
+        if (roll < 0.85) return MembershipLevel.STUDENT;
+        return MembershipLevel.PREMIUM;
+    }
+
+    // The item type follows the item number, so every type gets the same share
+    private static ItemType itemTypeFor(int index) {
+        return ItemType.values()[index % ItemType.values().length];
+    }
+
+    // Picks the season curve for the item's category
+    private static double[] seasonFor(ItemType type) {
+
+        return switch (type) {
+            case FISHING_ROD, FISHING_NET, FISHING_BAIT -> FISHING_SEASON;
+            case MOTOR_BOAT, ELECTRIC_BOAT, ROW_BOAT, KAYAK -> WATER_SEASON;
+            default -> CAMPING_SEASON;
+        };
+    }
+
+    // Combines the seed, a number and a salt into the seed for one object
+    private long mix(long index, long salt) {
+        return seed * 0x9E3779B97F4A7C15L + index * 0xBF58476D1CE4E5B9L + salt;
+    }
+
+    // Price per day in whole kronor between min and max, returned in öre
+    private static long price(SplittableRandom random, int minKronor, int maxKronor) {
+        return (minKronor + random.nextInt(maxKronor - minKronor + 1)) * 100L;
+    }
+
+    // Price per hour, about a fifth of a day (draws its own random number)
+    private static long hourly(SplittableRandom random, int minKronor, int maxKronor) {
+        return price(random, minKronor, maxKronor) / 5;
+    }
+
+    private static double round1(double value) {
+        return Math.round(value * 10) / 10.0;
+    }
+
+    @SafeVarargs
+    private static <T> T pick(SplittableRandom random, T... values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    /**
+     * How much a run created.
+     */
+    public record Summary(int members, int items, long rentals, long activeRentals) {
+    }
+
+    // The result of going through one item's history
+    private record Timeline(int count, boolean endsActive) {
+    }
+
+    /**
+     * Command line tool that writes a data set to a folder.
+     * Example: --members 10000 --items 50000 --years 3 --rentals-per-year 12 --seed 42 --out data/
+     * @param args the settings, all are optional
+     */
+    public static void main(String[] args) throws IOException {
+
+        long seed = 42;
+        int members = 1000;
+        int items = 5000;
+        int years = 3;
+        int rentalsPerYear = 12;
+        LocalDateTime now = LocalDate.now().atStartOfDay();
+        String out = "data/";
+
+        for (int i = 0; i + 1 < args.length; i += 2) {
+
+            String value = args[i + 1];
+
+            switch (args[i]) {
+                case "--seed" -> seed = Long.parseLong(value);
+                case "--members" -> members = Integer.parseInt(value);
+                case "--items" -> items = Integer.parseInt(value);
+                case "--years" -> years = Integer.parseInt(value);
+                case "--rentals-per-year" -> rentalsPerYear = Integer.parseInt(value);
+                case "--now" -> now = LocalDateTime.parse(value);
+                case "--out" -> out = value;
+                default -> throw new IllegalArgumentException("Okänd inställning: " + args[i]);
+            }
+        }
+
+        System.out.println("Skapar testdata i " + out + " ...");
+        long start = System.nanoTime();
+
+        Summary summary = new SyntheticDataGenerator(seed, members, items, years, rentalsPerYear, now).writeTo(out);
+
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        System.out.println("Klart på " + millis + " ms: " + summary.members() + " medlemmar, " + summary.items() + " artiklar, "
+                + summary.rentals() + " uthyrningar (" + summary.activeRentals() + " aktiva).");
+    }
+}
@@ -0,0 +1,369 @@
+package org.example.memberclubjavafx_assignment5.system;
+
+import org.example.memberclubjavafx_assignment5.diagnostics.Counter;
+import org.example.memberclubjavafx_assignment5.diagnostics.MetricsRegistry;
+import org.example.memberclubjavafx_assignment5.diagnostics.Timer;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * One scheduler for all background jobs (uptime, autosave, the overdue scan and anything added later),
+ * instead of every job starting its own thread.
+ *
+ * It is a hashed timing wheel: one thread wakes up every tick (50 ms) and looks at one slot in a ring of 512 slots.
+ * A job is put in the slot of the tick it should run on, with a count of how many extra laps the wheel must turn first.
+ * The thread never runs the jobs itself, it hands them to virtual threads, so a slow save can't delay the other jobs.
+ *
+ * Every job gets its own timer ("scheduler.NAME") on the diagnostics screen.
+ */
+public class SystemScheduler {
+
+    // How often the wheel thread wakes up, which is also the precision of the jobs
+    private static final long TICK_MILLIS = 50;
+
+    // The number of slots in the ring (a power of two, so we can use & instead of %)
+    private static final int WHEEL_SIZE = 512;
+    private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+
+    // The ring of slots. Only the wheel thread touches it.
+    private final List<List<Job>> wheel;
+
+    // Jobs that were added or rescheduled from other threads, moved into the wheel on the next tick
+    private final Queue<Job> pending;
+
+    // All jobs that are not cancelled, by name
+    private final Map<String, Job> jobs;
+
+    // Where the jobs actually run
+    private final ExecutorService workers;
+
+    private final Thread wheelThread;
+    private volatile boolean running;
+
+    // The number of ticks since start (only written by the wheel thread)
+    private volatile long currentTick;
+
+    /**
+     * Creates the scheduler and starts its thread. Jobs run on virtual threads.
+     */
+    public SystemScheduler() {
+        this(Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("Job-", 0).factory()));
+    }
+
+    /**
+     * Creates the scheduler with another place to run the jobs, for example a small fixed thread pool.
+     * @param workers the executor the jobs are handed to
+     */
+    public SystemScheduler(ExecutorService workers) {
+
+        this.workers = workers;
+        this.pending = new ConcurrentLinkedQueue<>();
+        this.jobs = new ConcurrentHashMap<>();
+        this.wheel = new ArrayList<>(WHEEL_SIZE);
+
+        for (int i = 0; i < WHEEL_SIZE; i++) {
+            wheel.add(new ArrayList<>());
+        }
+
+        this.running = true;
+
+        // Daemon, so the scheduler never keeps the program alive
+        this.wheelThread = new Thread(this::turnWheel, "System-Scheduler");
+        this.wheelThread.setDaemon(true);
+        this.wheelThread.start();
+    }
+
+    /**
+     * Runs a job again and again.
+     * @param name a unique name, used for the metrics and to find the job again
+     * @param initialDelayMillis how long to wait before the first run
+     * @param periodMillis the time between the runs
+     * @param jitterMillis up to this much random extra time is added to every wait, so jobs don't line up (0 for none)
+     * @param task the work
+     * @return the job, which can be paused, resumed or cancelled
+     */
+    public Job schedulePeriodic(String name, long initialDelayMillis, long periodMillis, long jitterMillis, Runnable task) {
+
+        if (periodMillis <= 0) {
+            throw new IllegalArgumentException("Perioden måste vara större än 0 för jobbet " + name);
+        }
+        return add(new Job(name, task, periodMillis, jitterMillis), initialDelayMillis);
+    }
+
+    /**
+     * Runs a job once.
+     * @param name a unique name, used for the metrics and to find the job again
+     * @param delayMillis how long to wait
+     * @param task the work
+     * @return the job, which can be cancelled before it has run
+     */
+    public Job scheduleOnce(String name, long delayMillis, Runnable task) {
+        return add(new Job(name, task, 0, 0), delayMillis);
+    }
+
+    /**
+     * Finds a job by name.
+     * @return the job, or null if there is none (or it was cancelled)
+     */
+    public Job getJob(String name) {
+        return jobs.get(name);
+    }
+
+    /**
+     * Returns all jobs that are not cancelled.
+     */
+    public List<Job> getJobs() {
+        return new ArrayList<>(jobs.values());
+    }
+
+    /**
+     * Stops the wheel and waits a moment for jobs that are running right now.
+     * Jobs that haven't started yet are dropped.
+     */
+    public void shutdown() {
+
+        running = false;
+        wheelThread.interrupt();
+        workers.shutdown();
+
+        try {
+            workers.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+        jobs.clear();
+    }
+
+    // Registers a job and queues it for the wheel
+    private Job add(Job job, long delayMillis) {
+
+        if (!running) {
+            throw new IllegalStateException("Schemaläggaren är avstängd");
+        }
+        if (jobs.putIfAbsent(job.name, job) != null) {
+            throw new IllegalArgumentException("Det finns redan ett jobb som heter " + job.name);
+        }
+
+        job.plannedTick = currentTick + toTicks(delayMillis);
+        job.targetTick = job.plannedTick;
+        pending.add(job);
+
+        return job;
+    }
+
+    // The loop of the wheel thread
+    private void turnWheel() {
+
+        long startNanos = System.nanoTime();
+        long tickNanos = TimeUnit.MILLISECONDS.toNanos(TICK_MILLIS);
+
+        while (running) {
+
+            // Sleep until the next tick. We count from the start time, so small delays don't add up over the hours.
+            long sleepNanos = startNanos + (currentTick + 1) * tickNanos - System.nanoTime();
+
+            if (sleepNanos > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(sleepNanos);
+                } catch (InterruptedException exception) {
+                    return;
+                }
+            }
+
+            long tick = currentTick + 1;
+            currentTick = tick;
+
+            // Move new and rescheduled jobs into their slots
+            Job job;
+            while ((job = pending.poll()) != null) {
+                place(job, tick);
+            }
+
+            // Look at the slot for this tick
+            Iterator<Job> iterator = wheel.get((int) (tick & WHEEL_MASK)).iterator();
+
+            while (iterator.hasNext()) {
+
+                job = iterator.next();
+
+                if (job.cancelled) {
+                    iterator.remove();
+
+                } else if (job.remainingLaps > 0) {
+                    job.remainingLaps--;
+
+                } else {
+                    iterator.remove();
+                    fire(job);
+                }
+            }
+        }
+    }
+
+    // Puts a job in the slot of its target tick, and counts how many full laps that is away.
+    // Called before the slot for this tick is looked at, so a job 512 ticks away needs one extra lap.
+    private void place(Job job, long tick) {
+
+        // A job whose time has already passed runs on this tick. The planned time moves along with it,
+        // so a periodic job that was held up doesn't run several times in a row to catch up.
+        if (job.targetTick < tick) {
+            job.plannedTick += tick - job.targetTick;
+        }
+
+        long ticksAway = Math.max(0, job.targetTick - tick);
+
+        job.targetTick = tick + ticksAway;
+        job.remainingLaps = ticksAway / WHEEL_SIZE;
+
+        wheel.get((int) (job.targetTick & WHEEL_MASK)).add(job);
+    }
+
+    // Hands the job to a worker and puts a periodic job back in the wheel
+    private void fire(Job job) {
+
+        if (!job.paused) {
+
+            // If the last run is still going (for example a very slow save), we skip this one instead of running two at once
+            if (job.running.compareAndSet(false, true)) {
+                workers.execute(job::run);
+            } else {
+                job.skipped.increment();
+            }
+        }
+
+        if (job.periodMillis > 0) {
+
+            long jitter = job.jitterMillis > 0 ? ThreadLocalRandom.current().nextLong(job.jitterMillis + 1) : 0;
+
+            // Count from the planned tick (not from now or from the last jittered tick), so the job doesn't drift.
+            // The jitter is only added to this run, otherwise it would add up and the job would run less and less often.
+            // It goes through the queue, since we are in the middle of looking at a slot and can't add to it.
+            job.plannedTick = job.plannedTick + toTicks(job.periodMillis);
+            job.targetTick = job.plannedTick + (jitter + TICK_MILLIS - 1) / TICK_MILLIS;
+            pending.add(job);
+
+        } else {
+            jobs.remove(job.name, job);
+        }
+    }
+
+    // Milliseconds to whole ticks, rounded up, and at least one tick
+    private static long toTicks(long millis) {
+        return Math.max(1, (millis + TICK_MILLIS - 1) / TICK_MILLIS);
+    }
+
+    /**
+     * A job in the scheduler.
+     */
+    public class Job {
+
+        private final String name;
+        private final Runnable task;
+        private final long periodMillis;
+        private final long jitterMillis;
+
+        // Metrics for this job
+        private final Timer timer;
+        private final Counter errors;
+        private final Counter skipped;
+
+        // True while the task runs on a worker
+        private final AtomicBoolean running;
+
+        private volatile boolean paused;
+        private volatile boolean cancelled;
+
+        // How many times the task has run (only one run at a time, so a volatile is enough)
+        private volatile long runCount;
+
+        // Only used by the wheel thread. The planned tick is without jitter, the target tick is when it really runs.
+        private long plannedTick;
+        private long targetTick;
+        private long remainingLaps;
+
+        private Job(String name, Runnable task, long periodMillis, long jitterMillis) {
+            this.name = name;
+            this.task = task;
+            this.periodMillis = periodMillis;
+            this.jitterMillis = Math.max(0, jitterMillis);
+            this.timer = MetricsRegistry.timer("scheduler." + name);
+            this.errors = MetricsRegistry.counter("scheduler." + name + ".errors");
+            this.skipped = MetricsRegistry.counter("scheduler." + name + ".skipped");
+            this.running = new AtomicBoolean();
+        }
+
+        // Runs on a worker thread
+        private void run() {
+
+            long start = System.nanoTime();
+
+            try {
+                task.run();
+
+            } catch (Exception exception) {
+                // One failing run must not stop the job or the scheduler
+                errors.increment();
+                System.err.println("Jobbet '" + name + "' misslyckades: " + exception.getMessage());
+                exception.printStackTrace();
+
+            } finally {
+                timer.record(start);
+                runCount++;
+                running.set(false);
+            }
+        }
+
+        /**
+         * Stops the job from running until resume() is called. It keeps its place in the wheel.
+         */
+        public void pause() {
+            paused = true;
+        }
+
+        /**
+         * Lets a paused job run again from its next planned time.
+         */
+        public void resume() {
+            paused = false;
+        }
+
+        /**
+         * Removes the job for good. A run that has already started finishes first.
+         */
+        public void cancel() {
+            cancelled = true;
+            jobs.remove(name, this);
+        }
+
+        // Getters
+        public String getName() {
+            return name;
+        }
+
+        public long getPeriodMillis() {
+            return periodMillis;
+        }
+
+        public boolean isPaused() {
+            return paused;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        public long getRunCount() {
+            return runCount;
+        }
+    }
+}
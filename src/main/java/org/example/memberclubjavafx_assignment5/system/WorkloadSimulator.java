@@ -0,0 +1,596 @@
+package org.example.memberclubjavafx_assignment5.system;
+
+import org.example.memberclubjavafx_assignment5.model.Item;
+import org.example.memberclubjavafx_assignment5.model.Member;
+import org.example.memberclubjavafx_assignment5.model.Rental;
+import org.example.memberclubjavafx_assignment5.model.enums.ItemStatus;
+import org.example.memberclubjavafx_assignment5.model.enums.RentalPeriod;
+import org.example.memberclubjavafx_assignment5.model.enums.RentalStatus;
+import org.example.memberclubjavafx_assignment5.service.*;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * A headless load test for the rental services.
+ * Many threads rent, return, search and read the dashboard numbers at the same time while autosave runs,
+ * and we measure how many operations per second we manage and how long the slowest ones take.
+ * Use it to plan capacity and to compare versions: same settings and seed give the same starting data.
+ *
+ * The workers are 'closed loop': each thread starts its next operation as soon as the last one is done,
+ * so the throughput we report is the most the system managed with that many threads.
+ */
+public class WorkloadSimulator {
+
+    /**
+     * The kinds of work the simulator does.
+     */
+    public enum Operation {
+        RENT, RETURN, SEARCH, DASHBOARD, AUTOSAVE
+    }
+
+    // Short name fragments that the search operation looks for (like a user typing in the search bar)
+    private static final String[] SEARCH_TERMS = {"an", "er", "ma", "li", "jo", "sa", "ik", "el", "ou", "ar"};
+
+    private final Settings settings;
+
+    // The services we drive, wired the same way as in ClubSystem
+    private Inventory inventory;
+    private MemberRegistry memberRegistry;
+    private RentalService rentalService;
+    private MembershipService membershipService;
+    private StorageService storageService;
+    private Path saveFolder;
+
+    // Items that can be rented and rentals that can be returned. Rent takes from the first and adds to the second.
+    private final Queue<String> freeItems = new ConcurrentLinkedQueue<>();
+    private final Queue<String> activeRentals = new ConcurrentLinkedQueue<>();
+
+    // In 'serialized' mode every operation holds this lock, like when everything runs on the JavaFX thread
+    private final ReentrantLock lock = new ReentrantLock();
+
+    // Set when the warmup is over, before that nothing is recorded
+    private volatile boolean recording;
+
+    // Autosave results (only the autosave thread writes to these while the test runs)
+    private final LatencyHistogram autosaveHistogram = new LatencyHistogram();
+    private final Map<String, Long> autosaveErrors = new TreeMap<>();
+
+    /**
+     * Creates a simulator.
+     * @param settings how to run the test
+     */
+    public WorkloadSimulator(Settings settings) {
+
+        if (settings.threads() < 1 || settings.seconds() < 1) {
+            throw new IllegalArgumentException("Antal trådar och sekunder måste vara minst 1");
+        }
+
+        if (settings.rentWeight() + settings.returnWeight() + settings.searchWeight() + settings.dashboardWeight() <= 0) {
+            throw new IllegalArgumentException("Minst en operation måste ha en vikt över 0");
+        }
+
+        this.settings = settings;
+    }
+
+    /**
+     * Creates the test data, runs the workload and returns the results.
+     * @return the measured throughput and latencies
+     * @throws InterruptedException if we are interrupted while waiting for the workers
+     */
+    public Report run() throws InterruptedException {
+
+        setUp();
+
+        // Start autosave in the middle of the work, just like in the app
+        SystemScheduler scheduler = new SystemScheduler();
+
+        if (settings.autosaveMillis() > 0) {
+            new AutoSaveManager(scheduler, this::timedSave, settings.autosaveMillis()).start();
+        }
+
+        ThreadFactory threadFactory = settings.virtualThreads()
+                ? Thread.ofVirtual().name("Workload-", 0).factory()
+                : Thread.ofPlatform().name("Workload-", 0).daemon(true).factory();
+
+        long warmupEnd = System.nanoTime() + settings.warmupSeconds() * 1_000_000_000L;
+        long end = warmupEnd + settings.seconds() * 1_000_000_000L;
+
+        List<Worker> workers = new ArrayList<>();
+        List<Thread> threads = new ArrayList<>();
+
+        for (int i = 0; i < settings.threads(); i++) {
+
+            Worker worker = new Worker(settings.seed() + i, end);
+            Thread thread = threadFactory.newThread(worker);
+
+            workers.add(worker);
+            threads.add(thread);
+            thread.start();
+        }
+
+        // Wait for the warmup, then start recording
+        long sleepMillis = (warmupEnd - System.nanoTime()) / 1_000_000;
+
+        if (sleepMillis > 0) {
+            Thread.sleep(sleepMillis);
+        }
+
+        recording = true;
+        long recordStart = System.nanoTime();
+
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        double seconds = (System.nanoTime() - recordStart) / 1e9;
+
+        // Also waits for a save that is running, so we don't delete the folder under it
+        scheduler.shutdown();
+
+        deleteSaveFolder();
+
+        // Parallel work must leave the data as consistent as serial work: every rental id once,
+        // at most one active rental per item, and item statuses that match the rentals
+        List<IntegrityChecker.Problem> problems = new IntegrityChecker(inventory, memberRegistry, rentalService).check().problems();
+
+        // Add every worker's numbers together
+        Map<Operation, Result> results = new EnumMap<>(Operation.class);
+
+        for (Operation operation : Operation.values()) {
+            results.put(operation, new Result(operation));
+        }
+
+        for (Worker worker : workers) {
+            for (Operation operation : Operation.values()) {
+                results.get(operation).add(worker.results.get(operation));
+            }
+        }
+
+        // Autosave is timed on its own thread. We take a copy under a lock because that thread may still be finishing.
+        synchronized (autosaveHistogram) {
+            Result autosave = results.get(Operation.AUTOSAVE);
+            autosave.histogram.add(autosaveHistogram);
+            autosaveErrors.forEach((type, count) -> autosave.errorTypes.merge(type, count, Long::sum));
+            autosave.errors = autosaveErrors.values().stream().mapToLong(Long::longValue).sum();
+        }
+
+        return new Report(settings, seconds, new ArrayList<>(results.values()), problems);
+    }
+
+    // Creates the services and fills them with generated data
+    private void setUp() {
+
+        this.inventory = new Inventory();
+        this.memberRegistry = new MemberRegistry();
+        this.rentalService = new RentalService(inventory, memberRegistry);
+        this.membershipService = new MembershipService(memberRegistry, new MemberIdGenerator());
+
+        try {
+            this.saveFolder = Files.createTempDirectory("workload-");
+            this.storageService = new StorageService(saveFolder + "/");
+        } catch (IOException exception) {
+            throw new UncheckedIOException("Kunde inte skapa en tillfällig mapp för autosparning", exception);
+        }
+
+        SyntheticDataGenerator generator = new SyntheticDataGenerator(settings.seed(), settings.members(), settings.items(),
+                1, 10, LocalDate.now().atStartOfDay());
+        generator.generate(inventory::addItem, memberRegistry::addMember, rentalService::addRental);
+
+        for (Item item : inventory.getAllItems()) {
+            if (item.getStatus() == ItemStatus.AVAILABLE) {
+                freeItems.add(item.getId());
+            }
+        }
+
+        for (Rental rental : rentalService.getActiveRentals()) {
+            activeRentals.add(rental.getRentalId());
+        }
+    }
+
+    // Saves everything the same way as ClubSystem.saveAll, and measures how long it takes
+    private void timedSave() {
+
+        long start = System.nanoTime();
+
+        try {
+            storageService.saveItems(inventory.snapshot());
+            storageService.saveMembers(memberRegistry.snapshot());
+            storageService.saveRentals(rentalService.getAllRentals());
+
+            if (recording) {
+                synchronized (autosaveHistogram) {
+                    autosaveHistogram.record(System.nanoTime() - start);
+                }
+            }
+
+        } catch (RuntimeException exception) {
+
+            if (recording) {
+                synchronized (autosaveHistogram) {
+                    autosaveErrors.merge(exception.getClass().getSimpleName(), 1L, Long::sum);
+                }
+            }
+        }
+    }
+
+    // Removes the temporary autosave files, a failed delete is not worth stopping the report for
+    private void deleteSaveFolder() {
+
+        try (Stream<Path> files = Files.walk(saveFolder)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        } catch (IOException exception) {
+            System.err.println("Kunde inte ta bort " + saveFolder + ": " + exception.getMessage());
+        }
+    }
+
+    /**
+     * One thread of work. It keeps its own results, so the threads never wait for each other just to count.
+     */
+    private class Worker implements Runnable {
+
+        private final SplittableRandom random;
+        private final long end;
+        private final Map<Operation, Result> results = new EnumMap<>(Operation.class);
+
+        Worker(long seed, long end) {
+
+            this.random = new SplittableRandom(seed);
+            this.end = end;
+
+            for (Operation operation : Operation.values()) {
+                results.put(operation, new Result(operation));
+            }
+        }
+
+        @Override
+        public void run() {
+
+            while (System.nanoTime() < end) {
+
+                Operation operation = pickOperation();
+                Result result = results.get(operation);
+                long start = System.nanoTime();
+
+                try {
+
+                    boolean done;
+
+                    if (settings.serialized()) {
+                        lock.lock();
+                        try {
+                            done = perform(operation);
+                        } finally {
+                            lock.unlock();
+                        }
+                    } else {
+                        done = perform(operation);
+                    }
+
+                    if (recording) {
+                        if (done) {
+                            result.histogram.record(System.nanoTime() - start);
+                        } else {
+                            result.skipped++;
+                        }
+                    }
+
+                } catch (RuntimeException exception) {
+
+                    // Unexpected errors (for example a ConcurrentModificationException) are counted by type
+                    if (recording) {
+                        result.errors++;
+                        result.errorTypes.merge(exception.getClass().getSimpleName(), 1L, Long::sum);
+                    }
+                }
+            }
+        }
+
+        // Picks an operation at random, using the weights from the settings
+        private Operation pickOperation() {
+
+            int total = settings.rentWeight() + settings.returnWeight() + settings.searchWeight() + settings.dashboardWeight();
+            int roll = random.nextInt(total);
+
+            if ((roll -= settings.rentWeight()) < 0) return Operation.RENT;
+            if ((roll -= settings.returnWeight()) < 0) return Operation.RETURN;
+            if ((roll -= settings.searchWeight()) < 0) return Operation.SEARCH;
+            return Operation.DASHBOARD;
+        }
+
+        /**
+         * Does one operation.
+         * @return false if there was nothing to do (no free item to rent or no rental to return)
+         */
+        private boolean perform(Operation operation) {
+
+            switch (operation) {
+
+                case RENT -> {
+                    String itemId = freeItems.poll();
+
+                    if (itemId == null) {
+                        return false;
+                    }
+
+                    int memberId = 1 + random.nextInt(settings.members());
+                    Rental rental = rentalService.rentItem(memberId, itemId, 1 + random.nextInt(3), RentalPeriod.DAILY);
+                    activeRentals.add(rental.getRentalId());
+                }
+
+                case RETURN -> {
+                    String rentalId = activeRentals.poll();
+
+                    if (rentalId == null) {
+                        return false;
+                    }
+
+                    Rental rental = rentalService.getRental(rentalId);
+                    rentalService.returnItem(rentalId);
+                    freeItems.add(rental.getItemId());
+                }
+
+                case SEARCH -> {
+                    List<Member> found = membershipService.searchMemberByName(SEARCH_TERMS[random.nextInt(SEARCH_TERMS.length)]);
+                    blackhole(found.size());
+                }
+
+                case DASHBOARD -> {
+                    // The same numbers the dashboard shows
+                    RentalColumnStore columnStore = rentalService.getColumnStore();
+                    long firstDay = LocalDate.now().minusDays(29).toEpochDay();
+
+                    blackhole(columnStore.sumCost());
+                    blackhole(columnStore.countByStatus(RentalStatus.ACTIVE));
+                    blackhole(memberRegistry.getMemberCount() + inventory.getItemCount());
+                    blackhole(columnStore.sumCostByDay(firstDay, 30).length);
+                }
+
+                default -> throw new IllegalStateException("Autosparning körs inte av arbetstrådarna");
+            }
+            return true;
+        }
+    }
+
+    // Keeps the JIT from removing work whose result we don't use
+    private static volatile long sink;
+
+    private static void blackhole(long value) {
+        sink += value;
+    }
+
+    /**
+     * The numbers for one kind of operation.
+     */
+    public static class Result {
+
+        private final Operation operation;
+        private final LatencyHistogram histogram = new LatencyHistogram();
+        private final Map<String, Long> errorTypes = new TreeMap<>();
+        private long errors;
+        private long skipped;
+
+        Result(Operation operation) {
+            this.operation = operation;
+        }
+
+        // Adds another thread's numbers to this one
+        void add(Result other) {
+            histogram.add(other.histogram);
+            other.errorTypes.forEach((type, count) -> errorTypes.merge(type, count, Long::sum));
+            errors += other.errors;
+            skipped += other.skipped;
+        }
+
+        // Getters
+        public Operation getOperation() {
+            return operation;
+        }
+
+        public LatencyHistogram getHistogram() {
+            return histogram;
+        }
+
+        public Map<String, Long> getErrorTypes() {
+            return errorTypes;
+        }
+
+        public long getErrors() {
+            return errors;
+        }
+
+        public long getSkipped() {
+            return skipped;
+        }
+
+        /**
+         * Returns the share of attempts that failed, between 0 and 1.
+         */
+        public double getErrorRate() {
+            long attempts = histogram.getCount() + errors;
+            return attempts == 0 ? 0 : (double) errors / attempts;
+        }
+    }
+
+    /**
+     * Everything a run measured.
+     * @param settings the settings that were used
+     * @param seconds how long we recorded
+     * @param results one result per operation
+     * @param problems what the integrity check found in the data after the run (for example an item rented twice), empty if nothing
+     */
+    public record Report(Settings settings, double seconds, List<Result> results, List<IntegrityChecker.Problem> problems) {
+
+        // We only print the first problems, a broken run can have thousands
+        private static final int MAX_PRINTED_PROBLEMS = 20;
+
+        /**
+         * Returns true if the data still agreed with itself after the run.
+         */
+        public boolean isConsistent() {
+            return problems.isEmpty();
+        }
+
+        /**
+         * Returns the number of finished operations per second (autosave not included).
+         */
+        public double getThroughput() {
+
+            long done = 0;
+
+            for (Result result : results) {
+                if (result.getOperation() != Operation.AUTOSAVE) {
+                    done += result.getHistogram().getCount();
+                }
+            }
+            return done / seconds;
+        }
+
+        /**
+         * Returns the report as a table for the console.
+         */
+        public String toText() {
+
+            StringBuilder text = new StringBuilder();
+
+            text.append(String.format(Locale.ROOT, "Trådar: %d (%s), läge: %s, tid: %.1f s%n", settings.threads(),
+                    settings.virtualThreads() ? "virtuella" : "vanliga", settings.serialized() ? "en i taget" : "parallellt", seconds));
+            text.append(String.format(Locale.ROOT, "Genomströmning: %.0f operationer/s%n%n", getThroughput()));
+            text.append(String.format(Locale.ROOT, "%-10s %10s %10s %10s %10s %10s %10s %10s %8s %8s%n",
+                    "Operation", "Antal", "Per s", "Medel µs", "p50 µs", "p99 µs", "p99.9 µs", "Max µs", "Fel %", "Hoppade"));
+
+            for (Result result : results) {
+
+                LatencyHistogram histogram = result.getHistogram();
+
+                text.append(String.format(Locale.ROOT, "%-10s %10d %10.0f %10.1f %10.1f %10.1f %10.1f %10.1f %8.3f %8d%n",
+                        result.getOperation(), histogram.getCount(), histogram.getCount() / seconds, histogram.getMean() / 1000,
+                        histogram.getValueAtPercentile(50) / 1000.0, histogram.getValueAtPercentile(99) / 1000.0,
+                        histogram.getValueAtPercentile(99.9) / 1000.0, histogram.getMax() / 1000.0,
+                        result.getErrorRate() * 100, result.getSkipped()));
+            }
+
+            for (Result result : results) {
+                result.getErrorTypes().forEach((type, count) ->
+                        text.append(String.format("Fel i %s: %s x %d%n", result.getOperation(), type, count)));
+            }
+
+            if (isConsistent()) {
+                text.append(String.format("%nDatan stämmer efter körningen%n"));
+
+            } else {
+                text.append(String.format("%nDatan stämmer INTE efter körningen: %d problem%n", problems.size()));
+
+                for (IntegrityChecker.Problem problem : problems.subList(0, Math.min(problems.size(), MAX_PRINTED_PROBLEMS))) {
+                    text.append(problem).append(System.lineSeparator());
+                }
+            }
+            return text.toString();
+        }
+    }
+
+    /**
+     * How to run the test.
+     * @param threads number of worker threads
+     * @param virtualThreads true for virtual threads, false for ordinary (platform) threads
+     * @param serialized true to run one operation at a time (like the JavaFX thread), false to let all threads in at once
+     * @param warmupSeconds seconds to run before we start recording
+     * @param seconds seconds to record
+     * @param autosaveMillis how often autosave runs, 0 turns it off
+     * @param rentWeight how often to rent, compared to the other weights
+     * @param returnWeight how often to return
+     * @param searchWeight how often to search for members
+     * @param dashboardWeight how often to read the dashboard numbers
+     * @param members number of members in the test data
+     * @param items number of items in the test data
+     * @param seed seed for the test data and the random choices
+     */
+    public record Settings(int threads, boolean virtualThreads, boolean serialized, int warmupSeconds, int seconds, long autosaveMillis,
+                           int rentWeight, int returnWeight, int searchWeight, int dashboardWeight, int members, int items, long seed) {
+
+        /**
+         * Returns the default settings: 8 threads for 30 seconds, autosave every 5 seconds,
+         * and mostly rentals and returns with some searches and dashboard reads.
+         */
+        public static Settings defaults() {
+            return new Settings(8, false, true, 5, 30, 5000, 40, 40, 15, 5, 1000, 5000, 42);
+        }
+
+        /**
+         * Reads settings from the command line, starting from the defaults.
+         * Example: --threads 64 --virtual true --mix 40,40,15,5 --seconds 60 --autosave-ms 2000
+         * @param args the command line arguments
+         * @return the settings
+         */
+        public static Settings parse(String[] args) {
+
+            Settings defaults = defaults();
+
+            int threads = defaults.threads();
+            boolean virtualThreads = defaults.virtualThreads();
+            boolean serialized = defaults.serialized();
+            int warmupSeconds = defaults.warmupSeconds();
+            int seconds = defaults.seconds();
+            long autosaveMillis = defaults.autosaveMillis();
+            int[] mix = {defaults.rentWeight(), defaults.returnWeight(), defaults.searchWeight(), defaults.dashboardWeight()};
+            int members = defaults.members();
+            int items = defaults.items();
+            long seed = defaults.seed();
+
+            for (int i = 0; i + 1 < args.length; i += 2) {
+
+                String value = args[i + 1];
+
+                switch (args[i]) {
+                    case "--threads" -> threads = Integer.parseInt(value);
+                    case "--virtual" -> virtualThreads = Boolean.parseBoolean(value);
+                    case "--serialized" -> serialized = Boolean.parseBoolean(value);
+                    case "--warmup" -> warmupSeconds = Integer.parseInt(value);
+                    case "--seconds" -> seconds = Integer.parseInt(value);
+                    case "--autosave-ms" -> autosaveMillis = Long.parseLong(value);
+                    case "--mix" -> mix = Arrays.stream(value.split(",")).mapToInt(Integer::parseInt).toArray();
+                    case "--members" -> members = Integer.parseInt(value);
+                    case "--items" -> items = Integer.parseInt(value);
+                    case "--seed" -> seed = Long.parseLong(value);
+                    default -> throw new IllegalArgumentException("Okänd inställning: " + args[i]);
+                }
+            }
+
+            if (mix.length != 4) {
+                throw new IllegalArgumentException("--mix behöver fyra vikter: hyra,återlämna,sök,dashboard");
+            }
+
+            return new Settings(threads, virtualThreads, serialized, warmupSeconds, seconds, autosaveMillis,
+                    mix[0], mix[1], mix[2], mix[3], members, items, seed);
+        }
+    }
+
+    /**
+     * Runs the simulator from the command line and prints the report.
+     * @param args the settings, see Settings.parse
+     */
+    public static void main(String[] args) throws InterruptedException {
+
+        Settings settings = Settings.parse(args);
+
+        System.out.println("Startar belastningstest " + LocalDateTime.now().withNano(0) + " ...");
+
+        Report report = new WorkloadSimulator(settings).run();
+
+        System.out.println();
+        System.out.print(report.toText());
+
+        // A run that broke the data fails, so a build server notices
+        if (!report.isConsistent()) {
+            System.exit(1);
+        }
+    }
+}
@@ -4,6 +4,7 @@ import atlantafx.base.controls.CustomTextField;
 import atlantafx.base.theme.Styles;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
+import javafx.geometry.VPos;
 import javafx.scene.Node;
 import javafx.scene.Scene;
 import javafx.scene.control.*;
@@ -18,13 +19,14 @@ import javafx.util.Callback;
 import javafx.util.StringConverter;
 import org.example.memberclubjavafx_assignment5.model.Item;
 import org.example.memberclubjavafx_assignment5.model.Member;
+import org.example.memberclubjavafx_assignment5.model.Money;
+import org.example.memberclubjavafx_assignment5.model.enums.ItemType;
 import org.example.memberclubjavafx_assignment5.model.enums.RentalPeriod;
 import org.example.memberclubjavafx_assignment5.system.ClubSystem;
 import org.example.memberclubjavafx_assignment5.view.components.RentalBookingComponent.CartItem;
+import org.example.memberclubjavafx_assignment5.view.components.SearchPicker;
 import org.kordamp.ikonli.feather.Feather;
 import org.kordamp.ikonli.javafx.FontIcon;
-import java.util.ArrayList;
-import java.util.List;
 import java.util.Objects;
 
 /**
@@ -36,9 +38,13 @@ public class BookingFormDialog extends Dialog<CartItem> {
 
     private final ClubSystem system;
 
-    // UI Controls for input
-    private ComboBox<Member> memberComboBox;
-    private ComboBox<Item> itemComboBox;
+    // UI Controls for input. Members and items are picked by searching, only the hits are loaded into the lists.
+    private SearchPicker<Member> memberPicker;
+    private ComboBox<ItemType> itemTypeComboBox;
+    private SearchPicker<Item> itemPicker;
+
+    // The chosen item type, copied here since the item search runs on a background thread (null means all types)
+    private volatile ItemType chosenType;
     private ComboBox<RentalPeriod> rentalPeriodComboBox;
     private TextField durationField;
 
@@ -171,9 +177,11 @@ public class BookingFormDialog extends Dialog<CartItem> {
         // Initialize all the input fields and attach listeners
         setupFields();
 
-        // Member selection
-        grid.add(new Label("Medlem:"), 0, 1);
-        grid.add(memberComboBox, 1, 1);
+        // Member selection (the label sits at the top, next to the search field)
+        Label memberLabel = new Label("Medlem:");
+        GridPane.setValignment(memberLabel, VPos.TOP);
+        grid.add(memberLabel, 0, 1);
+        grid.add(memberPicker, 1, 1);
 
         // Rental Period (Hourly/Daily)
         grid.add(new Label("Period:"), 0, 2);
@@ -183,13 +191,22 @@ public class BookingFormDialog extends Dialog<CartItem> {
         grid.add(new Label("Längd:"), 0, 3);
         grid.add(durationField, 1, 3);
 
-        // Item selection
-        grid.add(new Label("Artikel:"), 0, 4);
-        grid.add(itemComboBox, 1, 4);
+        // Item type, then the item itself
+        grid.add(new Label("Typ:"), 0, 4);
+        grid.add(itemTypeComboBox, 1, 4);
+
+        Label itemLabel = new Label("Artikel:");
+        GridPane.setValignment(itemLabel, VPos.TOP);
+        grid.add(itemLabel, 0, 5);
+        grid.add(itemPicker, 1, 5);
 
         // Set the grid as the main content
         dialogPane.setContent(grid);
 
+        // Fill both lists with the first hits for an empty search
+        memberPicker.refresh();
+        itemPicker.refresh();
+
         // Define a custom button type for 'Add'
         ButtonType addButtonType = new ButtonType("Lägg till", ButtonBar.ButtonData.OK_DONE);
         dialogPane.getButtonTypes().addAll(addButtonType, ButtonType.CANCEL);
@@ -222,16 +239,14 @@ public class BookingFormDialog extends Dialog<CartItem> {
     }
 
     /**
-     * Initializes all the ComboBoxes and the duration field with data and converters.
+     * Initializes the search pickers, the ComboBoxes and the duration field.
      * Also attaches listeners for form validation and field logic.
      */
     private void setupFields() {
 
-        // Member ComboBox setup
-        memberComboBox = new ComboBox<>();
-        memberComboBox.setPromptText("Välj medlem...");
-        memberComboBox.setMaxWidth(Double.MAX_VALUE);
-        memberComboBox.getItems().setAll(system.getMemberRegistry().getAllMembers());
+        // Member picker setup, searches name, member number and email in the search index
+        memberPicker = new SearchPicker<>(system, "Sök medlem...",
+                (query, limit) -> system.getSearchIndex().searchMembers(query, limit));
 
         // Create a custom cell factory to display Name on the left and Badge on the right
         Callback<ListView<Member>, ListCell<Member>> memberCellFactory = lv -> new ListCell<>() {
@@ -284,19 +299,22 @@ public class BookingFormDialog extends Dialog<CartItem> {
             }
         };
 
-        // Apply the custom style to the dropdown list
-        memberComboBox.setCellFactory(memberCellFactory);
-
-        // Apply the same style to the selected button (when the menu is closed)
-        memberComboBox.setButtonCell(memberCellFactory.call(null));
+        // Apply the custom style to the list of hits
+        memberPicker.setCellFactory(memberCellFactory);
 
-        // Item ComboBox setup
-        itemComboBox = new ComboBox<>();
-        itemComboBox.setPromptText("Välj Artikel...");
-        itemComboBox.setMaxWidth(Double.MAX_VALUE);
+        // Item type setup, the item list only shows this type (all types until one is chosen)
+        itemTypeComboBox = new ComboBox<>();
+        itemTypeComboBox.setPromptText("Alla typer");
+        itemTypeComboBox.setMaxWidth(Double.MAX_VALUE);
+        itemTypeComboBox.getItems().setAll(ItemType.values());
+        itemTypeComboBox.setConverter(ViewUtils.createTranslator());
 
-        // Load all items (availability is checked in 'RentalBookingComponent')
-        itemComboBox.getItems().setAll(system.getInventory().getAllItems());
+        // Item picker setup. Only available items are found, so rented and broken ones never show up.
+        // (Availability is checked again in 'RentalBookingComponent', in case the item is rented before the dialog closes.)
+        itemPicker = new SearchPicker<>(system, "Sök artikel...",
+                (query, limit) -> system.getSearchIndex().searchAvailableItems(chosenType, query, limit));
+        itemPicker.setCellFactory(lv -> new ItemCell());
+        itemPicker.setNoResultsText("Inga lediga artiklar hittades");
 
         // Rental period ComboBox setup
         rentalPeriodComboBox = new ComboBox<>();
@@ -326,8 +344,8 @@ public class BookingFormDialog extends Dialog<CartItem> {
         durationField.setPromptText("Antal dygn");
 
         // Listeners for validation (Check form whenever a value changes)
-        memberComboBox.valueProperty().addListener((obs, old, val) -> validateForm());
-        itemComboBox.valueProperty().addListener((obs, old, val) -> validateForm());
+        memberPicker.valueProperty().addListener((obs, old, val) -> validateForm());
+        itemPicker.valueProperty().addListener((obs, old, val) -> validateForm());
         rentalPeriodComboBox.valueProperty().addListener((obs, old, val) -> validateForm());
         durationField.textProperty().addListener((obs, old, val) -> validateForm());
 
@@ -339,12 +357,19 @@ public class BookingFormDialog extends Dialog<CartItem> {
             // Change prompt text to hours or days
             durationField.setPromptText(isHourly ? "Antal timmar" : "Antal dygn");
 
-            // Update the item list converter to show the correct price (per hour or per day)
-            updateItemComboDisplay(isHourly);
+            // Draw the visible item rows again with the price per hour or per day (the prices come from the quote cache)
+            itemPicker.redraw();
         });
 
-        // Initial setup for item combo display (start with daily price)
-        updateItemComboDisplay(false);
+        // A new type means other items, so search again.
+        // If none of the type is free, the empty list tells when the next one is expected back.
+        itemTypeComboBox.valueProperty().addListener((obs, old, val) -> {
+            chosenType = val;
+            itemPicker.setNoResultsText(val == null
+                    ? "Inga lediga artiklar hittades"
+                    : "Ingen ledig " + ViewUtils.translate(val).toLowerCase() + " hittades. " + ViewUtils.describeAvailability(system, val));
+            itemPicker.refresh();
+        });
     }
 
     /**
@@ -352,8 +377,8 @@ public class BookingFormDialog extends Dialog<CartItem> {
      * The form is valid if all fields are selected or filled and the duration is a positive integer.
      */
     private void validateForm() {
-        boolean isMemberSelected = memberComboBox.getValue() != null;
-        boolean isItemSelected = itemComboBox.getValue() != null;
+        boolean isMemberSelected = memberPicker.getValue() != null;
+        boolean isItemSelected = itemPicker.getValue() != null;
         boolean isPeriodSelected = rentalPeriodComboBox.getValue() != null;
 
         boolean isDurationValid = false;
@@ -381,7 +406,7 @@ public class BookingFormDialog extends Dialog<CartItem> {
      * @return A new {@code CartItem} with selected item, duration, and period, or {@code null} if validation failed.
      */
     private CartItem createCartItem() {
-        Item item = itemComboBox.getValue();
+        Item item = itemPicker.getValue();
         RentalPeriod period = rentalPeriodComboBox.getValue();
         String durStr = durationField.getText();
 
@@ -401,50 +426,52 @@ public class BookingFormDialog extends Dialog<CartItem> {
     }
 
     /**
-     * Gets the currently selected member from the member ComboBox.
+     * Gets the currently selected member from the member picker.
      * @return The selected {@code Member} object.
      */
     public Member getSelectedMember() {
-        return memberComboBox.getValue();
+        return memberPicker.getValue();
     }
 
     /**
-     * Updates the custom text shown in the item selection ComboBox.
-     * The text includes the item's name, price per hour/day (based on selection), and status.
-     * @param showHourlyPrice If {@code true}, displays price per hour, otherwise, displays price per day.
+     * A row in the item list: the name on the left and the price per hour or per day on the right.
+     * Only the visible rows exist, and the price is read from the quote service's cache, so changing the period is cheap.
      */
-    private void updateItemComboDisplay(boolean showHourlyPrice) {
+    private class ItemCell extends ListCell<Item> {
 
-        // Custom converter that formats the Item object into a string
-        StringConverter<Item> converter = new StringConverter<>() {
+        private final Label nameLabel = new Label();
+        private final Label priceLabel = new Label();
+        private final HBox root;
 
-            @Override
-            public String toString(Item item) {
+        ItemCell() {
+            Region spacer = new Region();
+            HBox.setHgrow(spacer, Priority.ALWAYS);
 
-                if (item == null) {
-                    return null;
-                }
+            nameLabel.setStyle("-fx-text-fill: -color-fg-default;");
+            priceLabel.getStyleClass().add(Styles.TEXT_MUTED);
 
-                // Select the correct price and unit based on the flag
-                double price = showHourlyPrice ? item.getPricePerHour() : item.getPricePerDay();
-                String unit = showHourlyPrice ? "kr/tim" : "kr/dygn";
+            root = new HBox(10, nameLabel, spacer, priceLabel);
+            root.setAlignment(Pos.CENTER_LEFT);
+        }
 
-                // Format: Name (price unit), Status (in swedish)
-                return String.format("%s (%.2f %s) - %s", item.getName(), price, unit, ViewUtils.translate(item.getStatus()));
-            }
+        @Override
+        protected void updateItem(Item item, boolean empty) {
+            super.updateItem(item, empty);
 
-            @Override
-            public Item fromString(String string) {
-                return null;
+            if (empty || item == null) {
+                setText(null);
+                setGraphic(null);
+                return;
             }
-        };
 
-        // Apply the new converter
-        itemComboBox.setConverter(converter);
+            boolean isHourly = rentalPeriodComboBox.getValue() == RentalPeriod.HOURLY;
+            long price = system.getQuoteService().unitPrice(item, isHourly ? RentalPeriod.HOURLY : RentalPeriod.DAILY);
+
+            nameLabel.setText(item.getName());
+            priceLabel.setText(Money.format(price) + (isHourly ? " kr/tim" : " kr/dygn"));
 
-        // This forces the ComboBox to redraw its current selection and list with the new price and unit format
-        List<Item> items = new ArrayList<>(itemComboBox.getItems());
-        itemComboBox.getItems().clear();
-        itemComboBox.getItems().addAll(items);
+            setText(null);
+            setGraphic(root);
+        }
     }
-}
\ No newline at end of file
+}
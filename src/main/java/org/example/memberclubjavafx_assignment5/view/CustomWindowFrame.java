@@ -103,8 +103,8 @@ public class CustomWindowFrame {
         titleBar.setPrefHeight(40);
         titleBar.setMinHeight(40);
 
-        // Title
-        Label titleLabel = new Label("Wigells Friluftsuthyrning");
+        // Title (a read-only window says so, since nothing the user changes there is saved)
+        Label titleLabel = new Label(system.isReadOnly() ? "Wigells Friluftsuthyrning (skrivskyddad)" : "Wigells Friluftsuthyrning");
         titleLabel.getStyleClass().add("window-title-label");
 
         // Add the image icon instead of font icon
@@ -118,9 +118,9 @@ public class CustomWindowFrame {
         Label uptimeLabel = new Label();
         uptimeLabel.getStyleClass().add("window-uptime-label");
 
-        // Bind the label text to the UptimeService's property for automatic updates
+        // Bind the label text to the UptimeService (through the JavaFX adapter) for automatic updates
         if (system != null && system.getUptimeService() != null) {
-            uptimeLabel.textProperty().bind(system.getUptimeService().uptimeProperty());
+            uptimeLabel.textProperty().bind(new FxUptimeAdapter(system.getUptimeService()).uptimeProperty());
         }
 
         // Window controls (Minimize, Maximize, Close)
@@ -10,9 +10,12 @@ import javafx.scene.control.ComboBox;
 import javafx.scene.control.Label;
 import javafx.scene.layout.*;
 import javafx.util.StringConverter;
+import org.example.memberclubjavafx_assignment5.diagnostics.MetricsRegistry;
 import org.example.memberclubjavafx_assignment5.model.Item;
-import org.example.memberclubjavafx_assignment5.model.Rental;
+import org.example.memberclubjavafx_assignment5.model.Money;
 import org.example.memberclubjavafx_assignment5.model.enums.ItemType;
+import org.example.memberclubjavafx_assignment5.model.enums.RentalStatus;
+import org.example.memberclubjavafx_assignment5.service.RentalColumnStore;
 import org.example.memberclubjavafx_assignment5.system.ClubSystem;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
@@ -46,6 +49,8 @@ public class DashboardView {
      */
     public Parent getView() {
 
+        long start = System.nanoTime();
+
         // Create the main vertical box for the content
         VBox content = new VBox(20);
 
@@ -56,19 +61,19 @@ public class DashboardView {
         // Create a horizontal row for the small info KPI cards
         HBox kpiRow = new HBox(20);
 
-        // Calculate total revenue from all rentals
-        double revenue = 0;
-        for (Rental rental : system.getRentalService().getAllRentals()) {
-            revenue += rental.getTotalCost();
-        }
+        // The column store keeps all rental numbers in flat arrays, so these sums don't need to visit every Rental object
+        RentalColumnStore columnStore = system.getRentalService().getColumnStore();
+
+        // Calculate total revenue from all rentals (exact sum in öre)
+        long revenue = columnStore.sumCost();
 
         // Get counts from the system
-        int activeRentals = system.getRentalService().getActiveRentals().size();
+        int activeRentals = columnStore.countByStatus(RentalStatus.ACTIVE);
         int totalMembers = system.getMemberRegistry().getMemberCount();
         int totalItems = system.getInventory().getItemCount();
 
         // Create the four cards and add them to the row
-        kpiRow.getChildren().add(createKpiCard("Intäkter", String.format("%.0f SEK", revenue)));
+        kpiRow.getChildren().add(createKpiCard("Intäkter", Money.format(revenue) + " SEK"));
         kpiRow.getChildren().add(createKpiCard("Utlånat", String.valueOf(activeRentals)));
         kpiRow.getChildren().add(createKpiCard("Medlemmar", String.valueOf(totalMembers)));
         kpiRow.getChildren().add(createKpiCard("Artiklar", String.valueOf(totalItems)));
@@ -214,7 +219,10 @@ public class DashboardView {
         updateRevenueChart("Senaste 7 dagarna");
 
         // Wrap it in the main panel style and return
-        return ViewUtils.wrapInMainPanel(content);
+        Parent view = ViewUtils.wrapInMainPanel(content);
+        MetricsRegistry.timer("view.refresh.dashboard").record(start);
+
+        return view;
     }
 
     /**
@@ -254,102 +262,82 @@ public class DashboardView {
         // Clear old data before adding new points
         revenueSeries.getData().clear();
 
-        List<Rental> rentals = system.getRentalService().getAllRentals();
+        RentalColumnStore columnStore = system.getRentalService().getColumnStore();
         LocalDate now = LocalDate.now();
         Locale swedishLocale = new Locale("sv", "SE");
 
         // Logic for last 7 days (including today)
         if ("Senaste 7 dagarna".equals(period)) {
 
-            Map<LocalDate, Double> dailyRevenue = new TreeMap<>();
-
             // 6 days ago + today = 7 days
-            int days = 6;
-
-            // Fill all days in the 7-day period with 0.0 revenue initially
-            for (int i = days; i >= 0; i--) {
-                dailyRevenue.put(now.minusDays(i), 0.0);
-            }
-
-            // Add revenue for rentals that match the days in this period
-            for (Rental rental : rentals) {
+            LocalDate firstDay = now.minusDays(6);
 
-                LocalDate date = rental.getStartDate().toLocalDate();
-
-                // Check if the rental date is within the 7 day window
-                if (!date.isBefore(now.minusDays(days)) && !date.isAfter(now)) {
-                    dailyRevenue.put(date, dailyRevenue.getOrDefault(date, 0.0) + rental.getTotalCost());
-                }
-            }
+            // One sum per day, index 0 is the first day
+            long[] dailyRevenue = columnStore.sumCostByDay(firstDay.toEpochDay(), 7);
 
             // Add points to the chart, formatting the date to show the day of the week
             DateTimeFormatter dtf = DateTimeFormatter.ofPattern("E d MMM", swedishLocale);
-            dailyRevenue.forEach((date, amount) -> revenueSeries.getData().add(new XYChart.Data<>(date.format(dtf), amount)));
-
-        } else if ("Senaste 30 dagarna".equals(period)) {
-
-            // Logic for last 30 days
-            Map<LocalDate, Double> dailyRevenue = new TreeMap<>();
 
-            // Initialize all 30 days with 0.0 revenue to ensure the chart shows gaps if needed
-            for (int i = 29; i >= 0; i--) dailyRevenue.put(now.minusDays(i), 0.0);
-
-            // Sum up revenue for matching days
-            for (Rental rental : rentals) {
+            for (int i = 0; i < dailyRevenue.length; i++) {
+                revenueSeries.getData().add(new XYChart.Data<>(firstDay.plusDays(i).format(dtf), Money.toKronor(dailyRevenue[i])));
+            }
 
-                LocalDate date = rental.getStartDate().toLocalDate();
+        } else if ("Senaste 30 dagarna".equals(period)) {
 
-                // Check if the rental date is within the 30 day window
-                if (!date.isBefore(now.minusDays(29)) && !date.isAfter(now)) {
-                    dailyRevenue.put(date, dailyRevenue.getOrDefault(date, 0.0) + rental.getTotalCost());
-                }
-            }
+            // Logic for last 30 days (every day gets a point, so the chart shows gaps if needed)
+            LocalDate firstDay = now.minusDays(29);
+            long[] dailyRevenue = columnStore.sumCostByDay(firstDay.toEpochDay(), 30);
 
             // Format the date and add the points to the chart
             DateTimeFormatter dtf = DateTimeFormatter.ofPattern("d MMM", swedishLocale);
-            dailyRevenue.forEach((date, amount) -> revenueSeries.getData().add(new XYChart.Data<>(date.format(dtf), amount)));
+
+            for (int i = 0; i < dailyRevenue.length; i++) {
+                revenueSeries.getData().add(new XYChart.Data<>(firstDay.plusDays(i).format(dtf), Money.toKronor(dailyRevenue[i])));
+            }
 
         } else {
 
             // Logic for last year ('LinkedHashMap' is used here to keep the months in the correct order)
-            Map<String, Double> monthlyRevenue = new LinkedHashMap<>();
+            Map<String, Long> monthlyRevenue = new LinkedHashMap<>();
 
-            // Initialize all 12 months with 0.0 revenue
+            // Initialize all 12 months with 0 revenue (in öre)
             for (int i = 11; i >= 0; i--) {
-
-                LocalDate d = now.minusMonths(i);
-
-                // Get month name and capitalize the first letter
-                String mName = d.getMonth().getDisplayName(TextStyle.SHORT, swedishLocale);
-                mName = mName.substring(0, 1).toUpperCase() + mName.substring(1);
-
-                // Create the key for the map
-                monthlyRevenue.put(mName + " " + (d.getYear() % 100), 0.0);
+                monthlyRevenue.put(createMonthKey(now.minusMonths(i), swedishLocale), 0L);
             }
 
-            // Sum up revenue per month
-            for (Rental rental : rentals) {
+            // Get one sum per day from the first day of the oldest month up to today
+            LocalDate firstDay = now.minusMonths(11).withDayOfMonth(1);
+            int days = (int) (now.toEpochDay() - firstDay.toEpochDay()) + 1;
+            long[] dailyRevenue = columnStore.sumCostByDay(firstDay.toEpochDay(), days);
 
-                LocalDate date = rental.getStartDate().toLocalDate();
+            // Add up the days into their month
+            for (int i = 0; i < dailyRevenue.length; i++) {
 
-                // Check if the rental is within the last 12 months
-                if (date.isAfter(now.minusMonths(12))) {
-
-                    // Get month name and capitalize the first letter
-                    String mName = date.getMonth().getDisplayName(TextStyle.SHORT, swedishLocale);
-                    mName = mName.substring(0, 1).toUpperCase() + mName.substring(1);
-                    String key = mName + " " + (date.getYear() % 100);
-
-                    if (monthlyRevenue.containsKey(key)) {
-                        monthlyRevenue.put(key, monthlyRevenue.get(key) + rental.getTotalCost());
-                    }
+                if (dailyRevenue[i] != 0) {
+                    String key = createMonthKey(firstDay.plusDays(i), swedishLocale);
+                    monthlyRevenue.put(key, monthlyRevenue.get(key) + dailyRevenue[i]);
                 }
             }
 
-            // Add the data points (month and total revenue) to the chart
+            // Add the data points (month and total revenue) to the chart, the chart shows kronor
             monthlyRevenue.forEach((month, amount) ->
-                    revenueSeries.getData().add(new XYChart.Data<>(month, amount))
+                    revenueSeries.getData().add(new XYChart.Data<>(month, Money.toKronor(amount)))
             );
         }
     }
+
+    /**
+     * Creates the chart label for a month, like "Jan 25".
+     * @param date Any date in the month.
+     * @param locale The locale used for the month name.
+     * @return The month name with a capital first letter and a two digit year.
+     */
+    private String createMonthKey(LocalDate date, Locale locale) {
+
+        // Get month name and capitalize the first letter
+        String mName = date.getMonth().getDisplayName(TextStyle.SHORT, locale);
+        mName = mName.substring(0, 1).toUpperCase() + mName.substring(1);
+
+        return mName + " " + (date.getYear() % 100);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,221 @@
+package org.example.memberclubjavafx_assignment5.view;
+
+import atlantafx.base.theme.Styles;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.beans.property.SimpleStringProperty;
+import javafx.collections.FXCollections;
+import javafx.concurrent.Task;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.Parent;
+import javafx.scene.control.*;
+import javafx.scene.layout.*;
+import javafx.util.Duration;
+import org.example.memberclubjavafx_assignment5.diagnostics.Counter;
+import org.example.memberclubjavafx_assignment5.diagnostics.Gauge;
+import org.example.memberclubjavafx_assignment5.diagnostics.Metric;
+import org.example.memberclubjavafx_assignment5.diagnostics.MetricsRegistry;
+import org.example.memberclubjavafx_assignment5.diagnostics.Timer;
+import org.example.memberclubjavafx_assignment5.service.IntegrityChecker;
+import org.example.memberclubjavafx_assignment5.system.ClubSystem;
+import org.kordamp.ikonli.feather.Feather;
+import org.kordamp.ikonli.javafx.FontIcon;
+import java.util.Locale;
+import java.util.function.Function;
+
+/**
+ * This class builds the diagnostics screen.
+ * It lists every counter, gauge and timer from the MetricsRegistry and updates the numbers every other second,
+ * so we can see how long rentals, saves, loads, searches and screen refreshes take while the program runs.
+ * Below the table a button checks that items, members and rentals agree with each other (IntegrityChecker).
+ */
+public class DiagnosticsView {
+
+    // How often the table is updated while the screen is shown
+    private static final Duration REFRESH_INTERVAL = Duration.seconds(2);
+
+    private final ClubSystem system;
+
+    private TableView<Metric> metricsTable;
+
+    /**
+     * Constructor.
+     * @param system The system whose data the integrity check looks at.
+     */
+    public DiagnosticsView(ClubSystem system) {
+        this.system = system;
+    }
+
+    /**
+     * Builds and returns the diagnostics view.
+     * @return The main {@code Parent} node of the view, wrapped in a main panel.
+     */
+    public Parent getView() {
+
+        VBox layout = new VBox(20);
+
+        // Header
+        Label titleLabel = new Label("Diagnostik");
+        titleLabel.getStyleClass().add("page-title");
+
+        // Table panel
+        VBox tablePanel = new VBox(10);
+        tablePanel.getStyleClass().add("card-glass");
+        tablePanel.setPadding(new Insets(20));
+        VBox.setVgrow(tablePanel, Priority.ALWAYS);
+
+        HBox cardHeader = new HBox(15);
+        cardHeader.setAlignment(Pos.CENTER_LEFT);
+
+        Label listTitle = new Label(MetricsRegistry.isEnabled() ? "Mätvärden (tider i µs)" : "Mätvärden (tidtagning avstängd)");
+        listTitle.getStyleClass().add(Styles.TITLE_4);
+
+        Region spacer = new Region();
+        HBox.setHgrow(spacer, Priority.ALWAYS);
+
+        Button reloadBtn = new Button("", new FontIcon(Feather.REFRESH_CW));
+        reloadBtn.getStyleClass().addAll("action-btn", Styles.BUTTON_OUTLINED);
+        reloadBtn.setTooltip(new Tooltip("Uppdatera nu"));
+        reloadBtn.setOnAction(e -> refreshTable());
+
+        cardHeader.getChildren().addAll(listTitle, spacer, reloadBtn);
+
+        metricsTable = new TableView<>();
+        metricsTable.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY_ALL_COLUMNS);
+        VBox.setVgrow(metricsTable, Priority.ALWAYS);
+
+        metricsTable.getColumns().add(createColumn("Namn", Metric::getName));
+        metricsTable.getColumns().add(createColumn("Typ", Metric::getKind));
+        metricsTable.getColumns().add(createColumn("Antal / värde", DiagnosticsView::formatValue));
+        metricsTable.getColumns().add(createColumn("Medel", metric -> formatTimer(metric, Timer::getMeanMicros)));
+        metricsTable.getColumns().add(createColumn("p50", metric -> formatTimer(metric, Timer::getP50Micros)));
+        metricsTable.getColumns().add(createColumn("p99", metric -> formatTimer(metric, Timer::getP99Micros)));
+        metricsTable.getColumns().add(createColumn("p99.9", metric -> formatTimer(metric, Timer::getP999Micros)));
+        metricsTable.getColumns().add(createColumn("Max", metric -> formatTimer(metric, Timer::getMaxMicros)));
+
+        metricsTable.setPlaceholder(new Label("Inga mätvärden ännu"));
+
+        refreshTable();
+
+        tablePanel.getChildren().addAll(cardHeader, metricsTable);
+        layout.getChildren().addAll(titleLabel, tablePanel, createIntegrityPanel());
+
+        // Update the numbers regularly, but only while the screen is shown (the scene is null after we navigate away)
+        Timeline refresher = new Timeline(new KeyFrame(REFRESH_INTERVAL, e -> refreshTable()));
+        refresher.setCycleCount(Timeline.INDEFINITE);
+
+        layout.sceneProperty().addListener((obs, oldScene, newScene) -> {
+            if (newScene != null) {
+                refresher.play();
+            } else {
+                refresher.stop();
+            }
+        });
+
+        return ViewUtils.wrapInMainPanel(layout);
+    }
+
+    /**
+     * Builds the card with the integrity check.
+     * The check runs on a background thread (it works on snapshots), and the problems are listed when it is done.
+     */
+    private VBox createIntegrityPanel() {
+
+        VBox panel = new VBox(10);
+        panel.getStyleClass().add("card-glass");
+        panel.setPadding(new Insets(20));
+
+        HBox header = new HBox(15);
+        header.setAlignment(Pos.CENTER_LEFT);
+
+        Label title = new Label("Datakontroll");
+        title.getStyleClass().add(Styles.TITLE_4);
+
+        Region spacer = new Region();
+        HBox.setHgrow(spacer, Priority.ALWAYS);
+
+        Button checkBtn = new Button("Kontrollera data", new FontIcon(Feather.CHECK_CIRCLE));
+        checkBtn.getStyleClass().addAll("action-btn", Styles.BUTTON_OUTLINED);
+        checkBtn.setTooltip(new Tooltip("Letar efter artiklar med fel status, uthyrningar utan artikel eller medlem, och dubbletter"));
+
+        header.getChildren().addAll(title, spacer, checkBtn);
+
+        Label summaryLabel = new Label("Inte kontrollerat ännu");
+
+        ListView<String> problemList = new ListView<>();
+        problemList.setPrefHeight(150);
+        problemList.setPlaceholder(new Label("Inga problem"));
+
+        checkBtn.setOnAction(e -> {
+
+            Task<IntegrityChecker.Report> task = new Task<>() {
+                @Override
+                protected IntegrityChecker.Report call() {
+                    return system.checkIntegrity();
+                }
+            };
+
+            checkBtn.setDisable(true);
+            summaryLabel.setText("Kontrollerar...");
+
+            task.setOnSucceeded(done -> {
+                IntegrityChecker.Report report = task.getValue();
+                summaryLabel.setText(report.summary());
+                problemList.getItems().setAll(report.problems().stream().map(IntegrityChecker.Problem::toString).toList());
+                checkBtn.setDisable(false);
+            });
+            task.setOnFailed(failed -> {
+                summaryLabel.setText("Kontrollen misslyckades: " + task.getException().getMessage());
+                checkBtn.setDisable(false);
+            });
+
+            system.getIoExecutor().execute(task);
+        });
+
+        panel.getChildren().addAll(header, summaryLabel, problemList);
+        return panel;
+    }
+
+    /**
+     * Reads all metrics again and shows them in the table.
+     * The cells are calculated when the table asks for them, so every refresh shows fresh numbers.
+     */
+    private void refreshTable() {
+        metricsTable.setItems(FXCollections.observableArrayList(MetricsRegistry.getMetrics()));
+        metricsTable.refresh();
+    }
+
+    // Creates a text column from a function
+    private static TableColumn<Metric, String> createColumn(String title, Function<Metric, String> text) {
+
+        TableColumn<Metric, String> column = new TableColumn<>(title);
+        column.setCellValueFactory(cellData -> new SimpleStringProperty(text.apply(cellData.getValue())));
+
+        return column;
+    }
+
+    // The count of a counter or timer, or the value of a gauge
+    private static String formatValue(Metric metric) {
+
+        if (metric instanceof Counter counter) {
+            return String.valueOf(counter.getCount());
+        }
+        if (metric instanceof Gauge gauge) {
+            return String.valueOf(gauge.getValue());
+        }
+        if (metric instanceof Timer timer) {
+            return String.valueOf(timer.getCount());
+        }
+        return "";
+    }
+
+    // A time from a timer in microseconds with one decimal, empty for other metrics
+    private static String formatTimer(Metric metric, Function<Timer, Double> value) {
+
+        if (metric instanceof Timer timer && timer.getCount() > 0) {
+            return String.format(Locale.ROOT, "%.1f", value.apply(timer));
+        }
+        return "";
+    }
+}
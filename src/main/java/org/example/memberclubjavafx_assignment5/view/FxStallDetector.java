@@ -0,0 +1,209 @@
+package org.example.memberclubjavafx_assignment5.view;
+
+import javafx.animation.AnimationTimer;
+import org.example.memberclubjavafx_assignment5.diagnostics.Counter;
+import org.example.memberclubjavafx_assignment5.diagnostics.MetricsRegistry;
+import org.example.memberclubjavafx_assignment5.diagnostics.Timer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A watchdog that finds out when the JavaFX thread hangs (for example when saving or reloading files from a button).
+ *
+ * An AnimationTimer writes down the time of every JavaFX pulse (about 60 per second).
+ * A separate monitor thread checks that time often. If no pulse has come for longer than the threshold,
+ * the JavaFX thread is busy with something, so the monitor takes a copy of its stack to see what.
+ * When the pulses come back, the whole stall is recorded in the "fx.stall" timer (shown on the diagnostics screen)
+ * and written to the console together with the places in our code that were on the stack most often.
+ *
+ * The threshold can be changed with -Dmemberclub.fxStallMillis=500.
+ */
+public class FxStallDetector {
+
+    // How long the JavaFX thread may be silent before we call it a stall
+    private static final long THRESHOLD_MILLIS = Long.getLong("memberclub.fxStallMillis", 250);
+
+    // How often the monitor thread looks, which is also how often it takes a stack sample during a stall
+    private static final long CHECK_INTERVAL_MILLIS = 25;
+
+    // How many places we print for each stall
+    private static final int TOP_FRAMES = 3;
+
+    // Frames from our own code are more useful than JavaFX internals, so we look for these first
+    private static final String OWN_PACKAGE = "org.example.memberclubjavafx_assignment5";
+
+    private static final Timer STALL_TIMER = MetricsRegistry.timer("fx.stall");
+    private static final Counter STALL_COUNTER = MetricsRegistry.counter("fx.stalls");
+
+    // The time of the latest pulse, written by the JavaFX thread and read by the monitor thread
+    private volatile long lastPulseNanos;
+
+    private volatile boolean running;
+
+    private AnimationTimer heartbeat;
+    private Thread fxThread;
+    private Thread monitorThread;
+
+    // How often each frame was seen, over all stalls since the start
+    private final Map<String, LongAdder> offendingFrames = new ConcurrentHashMap<>();
+
+    /**
+     * Starts the heartbeat and the monitor thread.
+     * Must be called on the JavaFX thread (for example from Application.start), since that is the thread we watch.
+     */
+    public void start() {
+
+        if (running) {
+            return;
+        }
+
+        fxThread = Thread.currentThread();
+        lastPulseNanos = System.nanoTime();
+        running = true;
+
+        // Runs on every pulse. It only stores a number, so it costs nothing noticeable.
+        heartbeat = new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                lastPulseNanos = System.nanoTime();
+            }
+        };
+        heartbeat.start();
+
+        // A daemon thread, so it never keeps the program alive
+        monitorThread = new Thread(this::monitor, "FX-Stall-Monitor");
+        monitorThread.setDaemon(true);
+        monitorThread.start();
+    }
+
+    /**
+     * Stops the watchdog and prints the places that caused the most stalls.
+     */
+    public void stop() {
+
+        running = false;
+
+        if (heartbeat != null) {
+            heartbeat.stop();
+        }
+        if (monitorThread != null) {
+            monitorThread.interrupt();
+        }
+
+        if (STALL_COUNTER.getCount() > 0) {
+            System.out.println("FX-tråden hängde " + STALL_COUNTER.getCount() + " gånger. Vanligaste ställen: " + String.join(", ", getTopFrames(5)));
+        }
+    }
+
+    /**
+     * Returns the places in the code that were seen most often during stalls, with the number of samples.
+     * @param limit how many places to return
+     * @return for example "StorageService.saveList(StorageService.java:108) x14"
+     */
+    public List<String> getTopFrames(int limit) {
+
+        Map<String, Long> counts = new HashMap<>();
+
+        for (Map.Entry<String, LongAdder> entry : offendingFrames.entrySet()) {
+            counts.put(entry.getKey(), entry.getValue().sum());
+        }
+        return topEntries(counts, limit);
+    }
+
+    // The loop of the monitor thread
+    private void monitor() {
+
+        // The pulse time when the current stall started, or 0 when there is no stall
+        long stalledSincePulse = 0;
+
+        // The frames of the current stall
+        Map<String, Long> stallFrames = new HashMap<>();
+        int samples = 0;
+
+        while (running) {
+
+            try {
+                Thread.sleep(CHECK_INTERVAL_MILLIS);
+            } catch (InterruptedException exception) {
+                return;
+            }
+
+            long pulse = lastPulseNanos;
+            long silentMillis = (System.nanoTime() - pulse) / 1_000_000;
+
+            if (stalledSincePulse != 0 && pulse != stalledSincePulse) {
+
+                // A new pulse came, so the stall is over. It lasted from the pulse before it to the pulse after it.
+                finishStall(pulse - stalledSincePulse, stallFrames, samples);
+
+                stalledSincePulse = 0;
+                stallFrames.clear();
+                samples = 0;
+
+            } else if (silentMillis > THRESHOLD_MILLIS) {
+
+                // Still stuck: take another sample of what the JavaFX thread is doing
+                stalledSincePulse = pulse;
+                stallFrames.merge(findOffendingFrame(fxThread.getStackTrace()), 1L, Long::sum);
+                samples++;
+            }
+        }
+    }
+
+    // Records a finished stall in the metrics and writes it to the console
+    private void finishStall(long durationNanos, Map<String, Long> stallFrames, int samples) {
+
+        STALL_TIMER.recordNanos(durationNanos);
+        STALL_COUNTER.increment();
+
+        for (Map.Entry<String, Long> entry : stallFrames.entrySet()) {
+            offendingFrames.computeIfAbsent(entry.getKey(), key -> new LongAdder()).add(entry.getValue());
+        }
+
+        System.err.println("FX-tråden hängde " + durationNanos / 1_000_000 + " ms (" + samples + " stickprov): "
+                + String.join(", ", topEntries(stallFrames, TOP_FRAMES)));
+    }
+
+    // Picks the most interesting frame: the first one from our own code, otherwise the top of the stack
+    private static String findOffendingFrame(StackTraceElement[] stack) {
+
+        if (stack.length == 0) {
+            return "okänt";
+        }
+
+        for (StackTraceElement frame : stack) {
+
+            if (frame.getClassName().startsWith(OWN_PACKAGE)) {
+                return shortName(frame);
+            }
+        }
+        return shortName(stack[0]);
+    }
+
+    // "StorageService.saveList(StorageService.java:108)" instead of the full package name
+    private static String shortName(StackTraceElement frame) {
+
+        String className = frame.getClassName();
+        String simpleName = className.substring(className.lastIndexOf('.') + 1);
+
+        return simpleName + "." + frame.getMethodName() + "(" + frame.getFileName() + ":" + frame.getLineNumber() + ")";
+    }
+
+    // The entries with the highest counts, formatted as "frame xN"
+    private static List<String> topEntries(Map<String, Long> counts, int limit) {
+
+        List<Map.Entry<String, Long>> entries = new ArrayList<>(counts.entrySet());
+        entries.sort(Map.Entry.<String, Long>comparingByValue().reversed());
+
+        List<String> result = new ArrayList<>();
+
+        for (int i = 0; i < Math.min(limit, entries.size()); i++) {
+            result.add(entries.get(i).getKey() + " x" + entries.get(i).getValue());
+        }
+        return result;
+    }
+}
@@ -0,0 +1,36 @@
+package org.example.memberclubjavafx_assignment5.view;
+
+import javafx.application.Platform;
+import javafx.beans.property.ReadOnlyStringProperty;
+import javafx.beans.property.ReadOnlyStringWrapper;
+import org.example.memberclubjavafx_assignment5.service.UptimeService;
+
+/**
+ * Connects the JavaFX-free UptimeService to the window.
+ * The service tells us the new text from its own thread, and we copy it into a property on the JavaFX thread,
+ * so a Label can simply bind to it.
+ */
+public class FxUptimeAdapter {
+
+    // The property the title bar label binds to
+    private final ReadOnlyStringWrapper uptime;
+
+    /**
+     * Creates the adapter and starts listening to the service.
+     * @param uptimeService the service that counts the uptime
+     */
+    public FxUptimeAdapter(UptimeService uptimeService) {
+
+        this.uptime = new ReadOnlyStringWrapper(uptimeService.getUptimeText());
+
+        // We cannot update the UI directly from a background thread, so we use 'Platform.runLater' to ask the JavaFX thread to do it
+        uptimeService.addListener(text -> Platform.runLater(() -> uptime.set(text)));
+    }
+
+    /**
+     * Returns the property so the UI can bind a Label to it.
+     */
+    public ReadOnlyStringProperty uptimeProperty() {
+        return uptime.getReadOnlyProperty();
+    }
+}
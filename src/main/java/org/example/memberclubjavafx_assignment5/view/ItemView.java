@@ -16,6 +16,8 @@ import javafx.scene.layout.*;
 import javafx.stage.Modality;
 import javafx.stage.StageStyle;
 import javafx.stage.Window;
+import org.example.memberclubjavafx_assignment5.diagnostics.MetricsRegistry;
+import org.example.memberclubjavafx_assignment5.diagnostics.SearchEvent;
 import org.example.memberclubjavafx_assignment5.model.Item;
 import org.example.memberclubjavafx_assignment5.model.enums.ItemType;
 import org.example.memberclubjavafx_assignment5.system.ClubSystem;
@@ -133,11 +135,15 @@ public class ItemView {
         reloadBtn.setGraphic(new FontIcon(Feather.REFRESH_CW));
         reloadBtn.getStyleClass().addAll("action-btn", Styles.BUTTON_OUTLINED);
         reloadBtn.setTooltip(new Tooltip("Ladda om data"));
-        reloadBtn.setOnAction(e -> {
-            system.loadData();
-            refreshTable();
-            NotificationFactory.show("Data inläst", "Lagret uppdaterat", NotificationFactory.Type.INFO, rootStack);
-        });
+        reloadBtn.setOnAction(e -> ViewUtils.reloadInBackground(system, reloadBtn,
+                () -> {
+                    refreshTable();
+                    NotificationFactory.show("Data inläst", "Lagret uppdaterat", NotificationFactory.Type.INFO, rootStack);
+                },
+                error -> NotificationFactory.show("Fel", "Kunde inte läsa in data: " + error.getMessage(), NotificationFactory.Type.ERROR, rootStack)));
+
+        // Refresh by itself when another desk (or a hand-edited file) changes what we show
+        ViewUtils.refreshOnDataChange(system, reloadBtn, this::refreshTable, Item.class);
 
         // Item Count Label
         itemCountLabel = new Label("Antal: 0");
@@ -263,7 +269,7 @@ public class ItemView {
      */
     private void handleDeleteItem(Item item) {
 
-        if (item == null) {
+        if (item == null || ViewUtils.refuseIfReadOnly(system, rootStack)) {
             return;
         }
 
@@ -390,7 +396,7 @@ public class ItemView {
         if (res.isPresent() && res.get() == ButtonType.OK) {
 
             system.getInventory().removeItem(item.getId());
-            system.saveAll();
+            ViewUtils.saveInBackground(system, rootStack);
 
             NotificationFactory.show("Borttagen", "Artikeln raderades", NotificationFactory.Type.SUCCESS, rootStack);
 
@@ -404,6 +410,8 @@ public class ItemView {
      */
     private void refreshTable() {
 
+        long start = System.nanoTime();
+
         // Get all items and create a list
         ObservableList<Item> masterList = FXCollections.observableArrayList(system.getInventory().getAllItems());
 
@@ -414,6 +422,8 @@ public class ItemView {
 
         // Apply current filter settings
         filterTable();
+
+        MetricsRegistry.timer("view.refresh.items").record(start);
     }
 
     /**
@@ -426,6 +436,11 @@ public class ItemView {
             return;
         }
 
+        long start = System.nanoTime();
+
+        SearchEvent event = new SearchEvent();
+        event.begin();
+
         String search = (searchField.getText() == null) ? "" : searchField.getText().toLowerCase();
 
         ItemType type = filterTypeBox.getValue();
@@ -444,5 +459,14 @@ public class ItemView {
 
         // Update the label showing the number of displayed items
         itemCountLabel.setText("Antal: " + filteredItems.size());
+
+        MetricsRegistry.timer("search.items").record(start);
+
+        if (event.shouldCommit()) {
+            event.source = "ItemView";
+            event.query = search;
+            event.results = filteredItems.size();
+            event.commit();
+        }
     }
 }
\ No newline at end of file
@@ -9,6 +9,7 @@ import javafx.scene.Parent;
 import javafx.scene.layout.BorderPane;
 import javafx.scene.layout.StackPane;
 import javafx.util.Duration;
+import org.example.memberclubjavafx_assignment5.diagnostics.NavigationEvent;
 import org.example.memberclubjavafx_assignment5.model.User;
 import org.example.memberclubjavafx_assignment5.system.ClubSystem;
 
@@ -100,6 +101,10 @@ public class MainLayout extends BorderPane {
      */
     private void handleNavigation(String viewName) {
 
+        // Flight recorder event that measures how long it takes to build the new screen
+        NavigationEvent event = new NavigationEvent();
+        event.begin();
+
         Parent nextView;
 
         // Check which view name was passed from the sidebar button
@@ -119,6 +124,9 @@ public class MainLayout extends BorderPane {
             case "Personal":
                 nextView = new UserView(system, rootStack).getView();
                 break;
+            case "Diagnostik":
+                nextView = new DiagnosticsView(system).getView();
+                break;
             default:
                 // Default fallback to DashboardView
                 nextView = new DashboardView(system).getView();
@@ -127,6 +135,9 @@ public class MainLayout extends BorderPane {
 
         // Call the method that swaps the content with animation
         switchContent(nextView);
+
+        event.view = viewName;
+        event.commit();
     }
 
     /**
@@ -13,6 +13,9 @@ import javafx.scene.control.*;
 import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.scene.layout.*;
 import javafx.util.StringConverter;
+import org.example.memberclubjavafx_assignment5.diagnostics.MetricsRegistry;
+import org.example.memberclubjavafx_assignment5.diagnostics.SearchEvent;
+import org.example.memberclubjavafx_assignment5.exceptions.VersionConflictException;
 import org.example.memberclubjavafx_assignment5.model.Member;
 import org.example.memberclubjavafx_assignment5.model.enums.MembershipLevel;
 import org.example.memberclubjavafx_assignment5.system.ClubSystem;
@@ -51,6 +54,9 @@ public class MemberView {
 
     // Buttons and logic variables
     private Member currentEditingMember = null;
+
+    // The member's version when the form was filled in, so we notice if someone else saved in the meantime
+    private long currentEditingVersion;
     private Button saveBtn;
     private Button deleteBtn;
     private Button clearBtn;
@@ -129,11 +135,15 @@ public class MemberView {
         reloadBtn.setGraphic(new FontIcon(Feather.REFRESH_CW));
         reloadBtn.getStyleClass().addAll("action-btn", Styles.BUTTON_OUTLINED);
         reloadBtn.setTooltip(new Tooltip("Ladda om data"));
-        reloadBtn.setOnAction(e -> {
-            system.loadData();
-            refreshTable();
-            NotificationFactory.show("Data inläst", "Medlemmar har laddats från fil", NotificationFactory.Type.INFO, rootStack);
-        });
+        reloadBtn.setOnAction(e -> ViewUtils.reloadInBackground(system, reloadBtn,
+                () -> {
+                    refreshTable();
+                    NotificationFactory.show("Data inläst", "Medlemmar har laddats från fil", NotificationFactory.Type.INFO, rootStack);
+                },
+                error -> NotificationFactory.show("Fel", "Kunde inte läsa in data: " + error.getMessage(), NotificationFactory.Type.ERROR, rootStack)));
+
+        // Refresh by itself when another desk (or a hand-edited file) changes what we show
+        ViewUtils.refreshOnDataChange(system, reloadBtn, this::refreshTable, Member.class);
 
         // Add everything to the header: Title -> Spacer -> Count -> Reload
         cardHeader.getChildren().addAll(listTitle, listSpacer, memberCountLabel, reloadBtn);
@@ -376,6 +386,10 @@ public class MemberView {
      * Uses the system's service layer for validation and persistence.
      */
     private void handleSave() {
+        if (ViewUtils.refuseIfReadOnly(system, rootStack)) {
+            return;
+        }
+
         try {
             String fName = firstNameField.getText().trim();
             String lName = lastNameField.getText().trim();
@@ -387,14 +401,22 @@ public class MemberView {
                 system.getMembershipService().addMember(fName, lName, phone, email, level);
                 NotificationFactory.show("Sparat", fName + " har lagts till", NotificationFactory.Type.SUCCESS, rootStack);
             } else {
-                system.getMembershipService().updateMemberDetails(currentEditingMember, fName, lName, phone, email, level);
-                system.saveAll();
+                system.getMembershipService().updateMemberDetails(currentEditingMember, currentEditingVersion, fName, lName, phone, email, level);
+                ViewUtils.saveInBackground(system, rootStack);
                 NotificationFactory.show("Uppdaterad", "Ändringar sparades", NotificationFactory.Type.SUCCESS, rootStack);
             }
 
             refreshTable();
             clearForm();
 
+        } catch (VersionConflictException exception) {
+
+            // Someone else saved first: show their version in the form, so the user can make the change again on top of it
+            refreshTable();
+            populateForm(currentEditingMember);
+            NotificationFactory.show("Ändrad av någon annan", exception.getMessage() + ". Formuläret visar nu de senaste uppgifterna.",
+                    NotificationFactory.Type.INFO, rootStack);
+
         } catch (IllegalArgumentException exception) {
             NotificationFactory.show("Fel i formuläret", exception.getMessage(), NotificationFactory.Type.ERROR, rootStack);
         }
@@ -407,7 +429,7 @@ public class MemberView {
 
         Member selected = memberTable.getSelectionModel().getSelectedItem();
 
-        if (selected == null) {
+        if (selected == null || ViewUtils.refuseIfReadOnly(system, rootStack)) {
             return;
         }
 
@@ -535,6 +557,7 @@ public class MemberView {
      */
     private void populateForm(Member member) {
         currentEditingMember = member;
+        currentEditingVersion = member.getVersion();
         firstNameField.setText(member.getFirstName());
         lastNameField.setText(member.getLastName());
         emailField.setText(member.getEmail());
@@ -573,12 +596,14 @@ public class MemberView {
      * Loads the latest list of members from the system and updates the table.
      */
     private void refreshTable() {
+        long start = System.nanoTime();
         ObservableList<Member> masterList = FXCollections.observableArrayList(system.getMemberRegistry().getAllMembers());
         filteredMembers = new FilteredList<>(masterList, p -> true);
         memberTable.setItems(filteredMembers);
         memberTable.refresh();
         memberTable.getSelectionModel().clearSelection();
         filterTable();
+        MetricsRegistry.timer("view.refresh.members").record(start);
     }
 
     /**
@@ -590,6 +615,11 @@ public class MemberView {
             return;
         }
 
+        long start = System.nanoTime();
+
+        SearchEvent event = new SearchEvent();
+        event.begin();
+
         String filter = (searchField.getText() == null) ? "" : searchField.getText().toLowerCase();
 
         filteredMembers.setPredicate(member -> {
@@ -605,5 +635,14 @@ public class MemberView {
         if (memberCountLabel != null) {
             memberCountLabel.setText("Antal: " + filteredMembers.size());
         }
+
+        MetricsRegistry.timer("search.memberTable").record(start);
+
+        if (event.shouldCommit()) {
+            event.source = "MemberView";
+            event.query = filter;
+            event.results = filteredMembers.size();
+            event.commit();
+        }
     }
 }
\ No newline at end of file
@@ -11,13 +11,16 @@ import javafx.stage.StageStyle;
 import javafx.stage.Window;
 import org.example.memberclubjavafx_assignment5.model.Item;
 import org.example.memberclubjavafx_assignment5.model.Member;
+import org.example.memberclubjavafx_assignment5.model.Money;
 import org.example.memberclubjavafx_assignment5.model.Rental;
 import org.example.memberclubjavafx_assignment5.model.User;
 import org.example.memberclubjavafx_assignment5.model.enums.MembershipLevel;
+import org.example.memberclubjavafx_assignment5.model.enums.RentalPeriod;
+import org.example.memberclubjavafx_assignment5.pricing.Quote;
+import org.example.memberclubjavafx_assignment5.service.QuoteService;
 import org.example.memberclubjavafx_assignment5.system.ClubSystem;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.time.temporal.ChronoUnit;
 import java.util.List;
 
 /**
@@ -32,11 +35,11 @@ public class ReceiptDialog extends Dialog<ButtonType> {
      * a list of rented items, the total cost, and employee information.
      * @param member The Member who made the booking.
      * @param rentals A list of Rental objects created in the transaction.
-     * @param totalCost The calculated cost after any discounts.
+     * @param totalCost The calculated cost in öre after any discounts.
      * @param system The ClubSystem instance to retrieve item details.
      * @param helper The User (employee) who processed the booking.
      */
-    public ReceiptDialog(Member member, List<Rental> rentals, double totalCost, ClubSystem system, User helper) {
+    public ReceiptDialog(Member member, List<Rental> rentals, long totalCost, ClubSystem system, User helper) {
 
         // Make the window transparent to allow for custom styling and rounded corners
         initStyle(StageStyle.TRANSPARENT);
@@ -145,8 +148,11 @@ public class ReceiptDialog extends Dialog<ButtonType> {
         labelTime.setPrefWidth(80);
         labelPrice.setPrefWidth(90);
 
-        // Variable to sum up the original price of all items
-        double calculatedOriginalTotal = 0.0;
+        // Sum of the quotes for all rentals (ordinary price and discount)
+        Quote receiptQuote = Quote.EMPTY;
+
+        // The same quote service that priced the rentals gives us the ordinary prices
+        QuoteService quoteService = system.getQuoteService();
 
         // Loop through all rented items and add them to the grid
         int row = 1;
@@ -161,47 +167,22 @@ public class ReceiptDialog extends Dialog<ButtonType> {
             // If name is too long, cut it off to fit the receipt
             if (name.length() > 25) name = name.substring(0, 24) + "...";
 
-            // Variables to calculate rental duration
-            long duration;
+            // The rental knows what was booked, so we don't have to guess from the dates
+            int duration = rental.getBookedDuration();
             String unit;
 
-            // Calculate difference in whole days
-            long days = ChronoUnit.DAYS.between(rental.getStartDate().toLocalDate(), rental.getExpectedReturnDate().toLocalDate());
-
-            // Calculate difference in whole hours
-            long hours = ChronoUnit.HOURS.between(rental.getStartDate(), rental.getExpectedReturnDate());
-
-            // Ensure minimum 1 hour is displayed if dates are the same
-            if (hours == 0) {
-                hours = 1;
-            }
-
-            // Logic to calculate original price based on item settings
-            double originalItemPrice = 0.0;
-
-            if (item != null) {
-                if (days > 0) {
-                    duration = days;
-                    unit = (days == 1) ? "dag" : "dagar";
-
-                    // Calculate price using the item's daily rate
-                    originalItemPrice = item.getPricePerDay() * days;
-
-                } else {
-
-                    duration = hours;
-                    unit = (hours == 1) ? "tim" : "timmar";
-
-                    // Calculate price using the item's hourly rate
-                    originalItemPrice = item.getPricePerHour() * hours;
-                }
+            if (rental.getBookedPeriod() == RentalPeriod.DAILY) {
+                unit = (duration == 1) ? "dag" : "dagar";
             } else {
-                duration = 0;
-                unit = "";
+                unit = (duration == 1) ? "tim" : "timmar";
             }
 
-            // Add this item's original price to the running total
-            calculatedOriginalTotal += originalItemPrice;
+            // The quote uses the list price saved on the rental, so it always matches the stored total
+            Quote quote = quoteService.quoteRental(rental, item);
+            long originalItemPrice = quote.getListPriceOre();
+
+            // Add this item's quote to the running total
+            receiptQuote = receiptQuote.plus(quote);
 
             // Create the string for time
             String timeString = duration + " " + unit;
@@ -210,8 +191,8 @@ public class ReceiptDialog extends Dialog<ButtonType> {
             itemList.add(new Label(name), 0, row);
             itemList.add(new Label(timeString), 1, row);
 
-            // Format price to show two decimals (Original Price)
-            Label priceLabel = new Label(String.format("%.2f", originalItemPrice));
+            // Format price to show two decimals (Original Price, stored in öre)
+            Label priceLabel = new Label(Money.format(originalItemPrice));
             priceLabel.getStyleClass().add("align-right");
             itemList.add(priceLabel, 2, row);
 
@@ -230,19 +211,25 @@ public class ReceiptDialog extends Dialog<ButtonType> {
         totalsBox.setAlignment(Pos.CENTER_RIGHT);
 
         // Show the total original price
-        totalsBox.getChildren().add(createSummaryRow("Pris (Ordinarie):", String.format("%.2f", calculatedOriginalTotal), Styles.TEXT_MUTED));
+        totalsBox.getChildren().add(createSummaryRow("Pris (Ordinarie):", Money.format(receiptQuote.getListPriceOre()), Styles.TEXT_MUTED));
 
-        // Calculate the actual discount amount
-        double discountAmount = calculatedOriginalTotal - totalCost;
+        // The discount comes from the same quotes (whole öre, so it is exact)
+        long discountAmount = receiptQuote.getDiscountOre();
 
         // If there is a discount, show it on the receipt
-        if (discountAmount > 0.01) {
-            String discountText = "-" + String.format("%.2f", discountAmount);
+        if (discountAmount > 0) {
+            String discountText = "-" + Money.format(discountAmount);
             totalsBox.getChildren().add(createSummaryRow("Rabatt:", discountText, "text-success"));
         }
 
+        // A weekend or summer surcharge on boats is a negative discount, so the rows still add up to the total
+        if (discountAmount < 0) {
+            String surchargeText = "+" + Money.format(-discountAmount);
+            totalsBox.getChildren().add(createSummaryRow("Tillägg:", surchargeText, Styles.TEXT_MUTED));
+        }
+
         // Show the final total price
-        totalsBox.getChildren().add(createSummaryRow("TOTALT (SEK):", String.format("%.2f", totalCost), Styles.TITLE_3));
+        totalsBox.getChildren().add(createSummaryRow("TOTALT (SEK):", Money.format(totalCost), Styles.TITLE_3));
 
         // Create the footer text section
         VBox footer = new VBox(5);
@@ -314,19 +301,6 @@ public class ReceiptDialog extends Dialog<ButtonType> {
         return row;
     }
 
-    /**
-     * Helper method to get the discount rate based on the member's membership level.
-     * @param level The MembershipLevel of the member.
-     * @return The discount rate as a decimal (like 0.20 for 20% etc.)
-     */
-    private double getDiscount(MembershipLevel level) {
-        return switch (level) {
-            case STUDENT -> 0.20;
-            case PREMIUM -> 0.30;
-            default -> 0.0;
-        };
-    }
-
     /**
      * Helper method to translate the membership level Enum to a Swedish string.
      * @param level The MembershipLevel Enum.
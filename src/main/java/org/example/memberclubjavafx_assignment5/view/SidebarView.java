@@ -174,6 +174,7 @@ public class SidebarView extends VBox {
         createNavButton("Artiklar", Feather.BOX);
         createNavButton("Uthyrning", Feather.SHOPPING_CART);
         createNavButton("Personal", Feather.USER_CHECK);
+        createNavButton("Diagnostik", Feather.CPU);
 
         // Add a spacer to push the user profile to the bottom
         Region spacer = new Region();
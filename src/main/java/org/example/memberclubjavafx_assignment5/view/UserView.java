@@ -93,16 +93,20 @@ public class UserView {
         Button reloadBtn = new Button("", new FontIcon(Feather.REFRESH_CW));
         reloadBtn.getStyleClass().addAll("action-btn", Styles.BUTTON_OUTLINED);
         reloadBtn.setTooltip(new Tooltip("Ladda om data"));
-        reloadBtn.setOnAction(e -> {
-            system.loadData();
-            refreshTable();
-            NotificationFactory.show(
-                    "Uppdaterad",
-                    "Användare har laddats från fil",
-                    NotificationFactory.Type.INFO,
-                    rootStack
-            );
-        });
+        reloadBtn.setOnAction(e -> ViewUtils.reloadInBackground(system, reloadBtn,
+                () -> {
+                    refreshTable();
+                    NotificationFactory.show(
+                            "Uppdaterad",
+                            "Användare har laddats från fil",
+                            NotificationFactory.Type.INFO,
+                            rootStack
+                    );
+                },
+                error -> NotificationFactory.show("Fel", "Kunde inte läsa in data: " + error.getMessage(), NotificationFactory.Type.ERROR, rootStack)));
+
+        // Refresh by itself when another desk (or a hand-edited file) changes what we show
+        ViewUtils.refreshOnDataChange(system, reloadBtn, this::refreshTable, User.class);
 
         cardHeader.getChildren().addAll(listTitle, spacer, reloadBtn);
 
@@ -1,6 +1,10 @@
 package org.example.memberclubjavafx_assignment5.view;
 
+import javafx.application.Platform;
+import javafx.beans.value.ChangeListener;
+import javafx.concurrent.Task;
 import javafx.scene.Node;
+import javafx.scene.control.Button;
 import javafx.scene.layout.Priority;
 import javafx.scene.layout.StackPane;
 import javafx.scene.layout.VBox;
@@ -9,7 +13,15 @@ import javafx.scene.Scene;
 import javafx.scene.control.Control;
 import javafx.scene.control.TableView;
 import javafx.scene.input.MouseEvent;
+import org.example.memberclubjavafx_assignment5.exceptions.DataFileException;
 import org.example.memberclubjavafx_assignment5.model.enums.*;
+import org.example.memberclubjavafx_assignment5.system.ClubSystem;
+import org.example.memberclubjavafx_assignment5.system.DataChange;
+import org.example.memberclubjavafx_assignment5.system.DataReloader;
+import java.time.LocalDateTime;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
 
 /**
  * This class provides helpful utility methods for the user interface (View).
@@ -29,6 +41,146 @@ public class ViewUtils {
         return wrapper;
     }
 
+    /**
+     * Reads the JSON files that someone else has changed, without freezing the window (used by the reload buttons).
+     * Only changed files are read (on the I/O executor), and only the objects that differ are put into the system
+     * on the JavaFX thread. The listeners from {@link #refreshOnDataChange} hear about the changes as well.
+     * The button is disabled while it works, and if the user leaves the screen before it is done, the task is cancelled.
+     * @param system The system to reload.
+     * @param button The reload button.
+     * @param onLoaded Runs on the JavaFX thread when the data is in place (for example to refresh the table).
+     * @param onFailure Runs on the JavaFX thread if the reading failed, or if a file was skipped because it was broken or missing.
+     * @return The running task, which can also be cancelled by the caller.
+     */
+    public static Task<DataReloader.ChangedFiles> reloadInBackground(ClubSystem system, Button button, Runnable onLoaded, Consumer<Throwable> onFailure) {
+
+        Task<DataReloader.ChangedFiles> task = new Task<>() {
+            @Override
+            protected DataReloader.ChangedFiles call() {
+                return system.readChangedFiles();
+            }
+        };
+
+        // A cancelled task never applies what it read
+        ChangeListener<Scene> cancelOnLeave = (obs, oldScene, newScene) -> {
+            if (newScene == null) {
+                task.cancel();
+            }
+        };
+
+        button.sceneProperty().addListener(cancelOnLeave);
+        button.setDisable(true);
+
+        task.setOnSucceeded(e -> {
+            DataReloader.ChangedFiles changed = task.getValue();
+            system.applyChangedFiles(changed);
+            onLoaded.run();
+
+            // The files that could be read are applied, the broken ones are reported and left as they were
+            if (!changed.failedFiles().isEmpty()) {
+                onFailure.accept(new DataFileException(String.join(", ", changed.failedFiles())));
+            }
+        });
+        task.setOnFailed(e -> onFailure.accept(task.getException()));
+
+        // Clean up when the task is done, however it ended
+        task.stateProperty().addListener((obs, oldState, newState) -> {
+            if (task.isDone()) {
+                button.sceneProperty().removeListener(cancelOnLeave);
+                button.setDisable(false);
+            }
+        });
+
+        system.getIoExecutor().execute(task);
+
+        return task;
+    }
+
+    /**
+     * Stops a change in a window that opened the data folder read-only (another desk has it open for writing).
+     * Call it first in every action that changes data, since nothing changed here could be saved.
+     * @param system The system, which knows if it is read-only.
+     * @param rootStack Where the warning is shown.
+     * @return true if the window is read-only and the action should stop.
+     */
+    public static boolean refuseIfReadOnly(ClubSystem system, StackPane rootStack) {
+
+        if (!system.isReadOnly()) {
+            return false;
+        }
+
+        NotificationFactory.show("Skrivskyddad", "Datamappen är öppen i ett annat fönster, här kan du bara titta. Ändra i det fönstret i stället.",
+                NotificationFactory.Type.WARNING, rootStack);
+        return true;
+    }
+
+    /**
+     * Saves all data without freezing the window, and tells the user if a file couldn't be written.
+     * Used after every change made in the views, so a failed save is never silently lost.
+     * @param system The system to save.
+     * @param rootStack Where the error is shown.
+     */
+    public static void saveInBackground(ClubSystem system, StackPane rootStack) {
+
+        Future<?> save = system.saveAllAsync();
+
+        // Waiting for the result blocks, so it is done on the I/O executor (a virtual thread) and not on the JavaFX thread
+        system.getIoExecutor().execute(() -> {
+
+            try {
+                save.get();
+
+            } catch (ExecutionException exception) {
+                String reason = exception.getCause().getMessage();
+                Platform.runLater(() -> NotificationFactory.show("Fel", "Kunde inte spara: " + reason, NotificationFactory.Type.ERROR, rootStack));
+
+            } catch (InterruptedException exception) {
+                // The program is shutting down, shutdown() does the last save
+                Thread.currentThread().interrupt();
+            }
+        });
+    }
+
+    /**
+     * Refreshes a view when the reloader changes something it shows (for example when another desk saved new rentals).
+     * The listener is removed when the owner leaves the screen, so a view that is closed is not kept alive by the system.
+     * @param system The system to listen to.
+     * @param owner A node in the view, usually the reload button.
+     * @param refresh Runs on the JavaFX thread after a change.
+     * @param types The kinds of objects the view shows, for example Item.class.
+     */
+    public static void refreshOnDataChange(ClubSystem system, Node owner, Runnable refresh, Class<?>... types) {
+
+        Consumer<DataChange<?>> listener = change -> {
+            for (Class<?> type : types) {
+                if (change.isAbout(type)) {
+                    refresh.run();
+                    return;
+                }
+            }
+        };
+
+        system.addDataChangeListener(listener);
+
+        owner.sceneProperty().addListener((obs, oldScene, newScene) -> {
+            if (oldScene != null && newScene == null) {
+                system.removeDataChangeListener(listener);
+            }
+        });
+    }
+
+    /**
+     * Describes when the rented items of a type are expected back, for example
+     * "Nästa kajak väntas tillbaka kl 14:30. 2 st väntas tillbaka i dag, 3 st senast fredag 23/10."
+     * Used when no item of the type is available. Only a few lookups in the forecast, so it is fine on the JavaFX thread.
+     * @param system The system with the forecast.
+     * @param type The item type.
+     * @return The forecast as Swedish text.
+     */
+    public static String describeAvailability(ClubSystem system, ItemType type) {
+        return system.getAvailabilityForecast().outlook(type, LocalDateTime.now()).describe(translate(type).toLowerCase());
+    }
+
     /**
      * Translates an object, usually an Enum, into its Swedish string representation.
      * This is used to display user-friendly text instead of raw Enum names in the UI.
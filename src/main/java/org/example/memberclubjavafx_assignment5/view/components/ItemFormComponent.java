@@ -8,7 +8,9 @@ import javafx.scene.Node;
 import javafx.scene.Parent;
 import javafx.scene.control.*;
 import javafx.scene.layout.*;
+import org.example.memberclubjavafx_assignment5.exceptions.VersionConflictException;
 import org.example.memberclubjavafx_assignment5.model.Item;
+import org.example.memberclubjavafx_assignment5.model.Money;
 import org.example.memberclubjavafx_assignment5.model.camping.*;
 import org.example.memberclubjavafx_assignment5.model.fishing.*;
 import org.example.memberclubjavafx_assignment5.model.vehicles.*;
@@ -53,6 +55,9 @@ public class ItemFormComponent extends VBox {
     // The item we are currently editing (null if we are creating a new one)
     private Item currentEditingItem = null;
 
+    // The item's version when the form was filled in, so we notice if someone else saved in the meantime
+    private long currentEditingVersion;
+
     // Flags to check if we are editing and if data has changed
     private boolean isEditMode = false;
     private boolean dynamicFieldsDirty = false;
@@ -338,12 +343,12 @@ public class ItemFormComponent extends VBox {
                 isDirty = true;
             }
 
-            // Use Math.abs for double comparison to avoid precision errors
-            if (Math.abs(Double.parseDouble(priceField.getText()) - currentEditingItem.getPricePerDay()) > 0.001) {
+            // Prices are whole öre, so we can compare them exactly
+            if (Money.parse(priceField.getText()) != currentEditingItem.getPricePerDayOre()) {
                 isDirty = true;
             }
 
-            if (Math.abs(Double.parseDouble(hourlyPriceField.getText()) - currentEditingItem.getPricePerHour()) > 0.001) {
+            if (Money.parse(hourlyPriceField.getText()) != currentEditingItem.getPricePerHourOre()) {
                 isDirty = true;
             }
 
@@ -437,6 +442,10 @@ public class ItemFormComponent extends VBox {
      */
     private void handleSaveItem() {
 
+        if (ViewUtils.refuseIfReadOnly(system, rootStack)) {
+            return;
+        }
+
         try {
 
             // Get values from basic fields
@@ -452,20 +461,21 @@ public class ItemFormComponent extends VBox {
                 throw new IllegalArgumentException("Märke kan inte vara tomt");
             }
 
-            double price;
+            // Prices are read into öre (accepts both "149,50" and "149.50")
+            long price;
             try {
 
-                price = Double.parseDouble(priceField.getText());
+                price = Money.parse(priceField.getText());
 
             } catch (Exception exception) {
                 throw new IllegalArgumentException("Priset måste vara ett nummer");
             }
 
-            double hourlyPrice;
+            long hourlyPrice;
 
             try {
 
-                hourlyPrice = Double.parseDouble(hourlyPriceField.getText());
+                hourlyPrice = Money.parse(hourlyPriceField.getText());
 
             } catch (Exception exception) {
                 throw new IllegalArgumentException("Timpriset måste vara ett nummer");
@@ -505,21 +515,28 @@ public class ItemFormComponent extends VBox {
             // Check if we are editing an existing item
             if (currentEditingItem != null) {
 
-                // Update basic fields
-                currentEditingItem.setName(name);
-                currentEditingItem.setPricePerDay(price);
-                currentEditingItem.setPricePerHour(hourlyPrice);
-                currentEditingItem.setYear(year);
-                currentEditingItem.setColor(color);
+                // The inventory only applies the changes if nobody else saved the item after we opened it
+                system.getInventory().updateItem(currentEditingItem.getId(), currentEditingVersion, item -> {
+
+                    // Update basic fields
+                    item.setName(name);
+                    item.setPricePerDayOre(price);
+                    item.setPricePerHourOre(hourlyPrice);
+                    item.setYear(year);
+                    item.setColor(color);
+
+                    // Update subclass specific fields
+                    updateBaseSubClassFields(item, brand, weight, material);
 
-                // Update subclass specific fields
-                updateBaseSubClassFields(currentEditingItem, brand, weight, material);
+                    // Let the strategy update the dynamic fields
+                    currentStrategy.updateItem(item);
+                });
 
-                // Let the strategy update the dynamic fields
-                currentStrategy.updateItem(currentEditingItem);
+                // The price may have changed, so old price quotes for this item are thrown away
+                system.getQuoteService().invalidate(currentEditingItem.getId());
 
                 // Save to file
-                system.saveAll();
+                ViewUtils.saveInBackground(system, rootStack);
                 NotificationFactory.show("Uppdaterad", "Ändringar sparade", NotificationFactory.Type.SUCCESS, rootStack);
 
             } else {
@@ -531,7 +548,7 @@ public class ItemFormComponent extends VBox {
 
                 // Add to inventory and save
                 system.getInventory().addItem(newItem);
-                system.saveAll();
+                ViewUtils.saveInBackground(system, rootStack);
                 NotificationFactory.show("Sparad", name + " lades till", NotificationFactory.Type.SUCCESS, rootStack);
             }
 
@@ -542,6 +559,16 @@ public class ItemFormComponent extends VBox {
 
             clearForm();
 
+        } catch (VersionConflictException exception) {
+
+            // Someone else saved first: show their version in the form, so the user can make the change again on top of it
+            if (onSaveAction != null) {
+                onSaveAction.run();
+            }
+            populateForm(currentEditingItem);
+            NotificationFactory.show("Ändrad av någon annan", exception.getMessage() + ". Formuläret visar nu de senaste uppgifterna.",
+                    NotificationFactory.Type.INFO, rootStack);
+
         } catch (Exception exception) {
             NotificationFactory.show("Fel", exception.getMessage(), NotificationFactory.Type.ERROR, rootStack);
         }
@@ -581,11 +608,12 @@ public class ItemFormComponent extends VBox {
         clearForm();
 
         currentEditingItem = item;
+        currentEditingVersion = item.getVersion();
         isEditMode = true;
 
         nameField.setText(item.getName());
-        priceField.setText(String.valueOf(item.getPricePerDay()));
-        hourlyPriceField.setText(String.valueOf(item.getPricePerHour()));
+        priceField.setText(Money.format(item.getPricePerDayOre()));
+        hourlyPriceField.setText(Money.format(item.getPricePerHourOre()));
         yearField.setText(String.valueOf(item.getYear()));
         colorBox.setValue(item.getColor());
         typeSelector.setValue(item.getItemType());
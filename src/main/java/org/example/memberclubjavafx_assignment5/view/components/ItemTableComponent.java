@@ -9,6 +9,7 @@ import javafx.scene.layout.Priority;
 import javafx.scene.layout.VBox;
 import javafx.util.Callback;
 import org.example.memberclubjavafx_assignment5.model.Item;
+import org.example.memberclubjavafx_assignment5.model.Money;
 import org.example.memberclubjavafx_assignment5.model.camping.CampingEquipment;
 import org.example.memberclubjavafx_assignment5.model.enums.ItemStatus;
 import org.example.memberclubjavafx_assignment5.model.fishing.FishingEquipment;
@@ -87,21 +88,21 @@ public class ItemTableComponent extends VBox {
         });
 
         // Daily Price Column
-        TableColumn<Item, Double> priceCol = new TableColumn<>("Pris/Dygn");
+        TableColumn<Item, Long> priceCol = new TableColumn<>("Pris/Dygn");
         priceCol.setMinWidth(100);
         priceCol.setMaxWidth(140);
-        priceCol.setCellValueFactory(new PropertyValueFactory<>("pricePerDay"));
+        priceCol.setCellValueFactory(new PropertyValueFactory<>("pricePerDayOre"));
 
         // Custom formatting to add 'kr' (Swedish currency) after the price
-        priceCol.setCellFactory(new Callback<TableColumn<Item, Double>, TableCell<Item, Double>>() {
+        priceCol.setCellFactory(new Callback<TableColumn<Item, Long>, TableCell<Item, Long>>() {
 
             @Override
-            public TableCell<Item, Double> call(TableColumn<Item, Double> param) {
+            public TableCell<Item, Long> call(TableColumn<Item, Long> param) {
 
-                return new TableCell<Item, Double>() {
+                return new TableCell<Item, Long>() {
 
                     @Override
-                    protected void updateItem(Double price, boolean empty) {
+                    protected void updateItem(Long price, boolean empty) {
 
                         super.updateItem(price, empty);
 
@@ -109,8 +110,8 @@ public class ItemTableComponent extends VBox {
                             setText(null);
 
                         } else {
-                            // Format with two decimals
-                            String text = String.format("%.2f kr", price);
+                            // The price is stored in öre, format it as kronor with two decimals
+                            String text = Money.format(price) + " kr";
                             setText(text);
                         }
                     }
@@ -119,21 +120,21 @@ public class ItemTableComponent extends VBox {
         });
 
         // Hourly Price Column
-        TableColumn<Item, Double> hourlyPriceCol = new TableColumn<>("Pris/Tim");
+        TableColumn<Item, Long> hourlyPriceCol = new TableColumn<>("Pris/Tim");
         hourlyPriceCol.setMinWidth(100);
         hourlyPriceCol.setMaxWidth(140);
-        hourlyPriceCol.setCellValueFactory(new PropertyValueFactory<>("pricePerHour"));
+        hourlyPriceCol.setCellValueFactory(new PropertyValueFactory<>("pricePerHourOre"));
 
         // Same custom formatting for hourly price
-        hourlyPriceCol.setCellFactory(new Callback<TableColumn<Item, Double>, TableCell<Item, Double>>() {
+        hourlyPriceCol.setCellFactory(new Callback<TableColumn<Item, Long>, TableCell<Item, Long>>() {
 
             @Override
-            public TableCell<Item, Double> call(TableColumn<Item, Double> param) {
+            public TableCell<Item, Long> call(TableColumn<Item, Long> param) {
 
-                return new TableCell<Item, Double>() {
+                return new TableCell<Item, Long>() {
 
                     @Override
-                    protected void updateItem(Double price, boolean empty) {
+                    protected void updateItem(Long price, boolean empty) {
 
                         super.updateItem(price, empty);
 
@@ -141,7 +142,7 @@ public class ItemTableComponent extends VBox {
                             setText(null);
 
                         } else {
-                            String text = String.format("%.2f kr", price);
+                            String text = Money.format(price) + " kr";
                             setText(text);
                         }
                     }
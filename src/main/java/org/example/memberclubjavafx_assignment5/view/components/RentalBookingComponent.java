@@ -18,10 +18,14 @@ import org.example.memberclubjavafx_assignment5.exceptions.ItemNotFoundException
 import org.example.memberclubjavafx_assignment5.exceptions.MemberNotFoundException;
 import org.example.memberclubjavafx_assignment5.model.Item;
 import org.example.memberclubjavafx_assignment5.model.Member;
+import org.example.memberclubjavafx_assignment5.model.Money;
 import org.example.memberclubjavafx_assignment5.model.Rental;
 import org.example.memberclubjavafx_assignment5.model.User;
+import org.example.memberclubjavafx_assignment5.model.enums.ItemStatus;
 import org.example.memberclubjavafx_assignment5.model.enums.MembershipLevel;
 import org.example.memberclubjavafx_assignment5.model.enums.RentalPeriod;
+import org.example.memberclubjavafx_assignment5.pricing.Quote;
+import org.example.memberclubjavafx_assignment5.service.AvailabilityForecast;
 import org.example.memberclubjavafx_assignment5.system.ClubSystem;
 import org.example.memberclubjavafx_assignment5.view.BookingFormDialog;
 import org.example.memberclubjavafx_assignment5.view.NotificationFactory;
@@ -30,6 +34,8 @@ import org.example.memberclubjavafx_assignment5.view.ViewUtils;
 import org.kordamp.ikonli.feather.Feather;
 import org.kordamp.ikonli.javafx.FontIcon;
 
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
@@ -40,6 +46,9 @@ import java.util.Optional;
  */
 public class RentalBookingComponent extends HBox {
 
+    // How the expected return of a single item is written
+    private static final DateTimeFormatter TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+
     private final ClubSystem system;
     private final StackPane rootStack;
     private final User currentUser;
@@ -54,9 +63,15 @@ public class RentalBookingComponent extends HBox {
     private Member activeMember = null;
     private final Label activeMemberLabel;
 
+    // Shown when an item turned out to be rented out: when it and the rest of its type are expected back
+    private final Label availabilityLabel;
+
     // The 'shopping cart' list
     private final ObservableList<CartItem> cartList = FXCollections.observableArrayList();
 
+    // The sum of all cart lines, kept up to date when lines are added or removed
+    private Quote cartQuote = Quote.EMPTY;
+
     public RentalBookingComponent(ClubSystem system, StackPane rootStack, User currentUser, Runnable onBookingSuccess) {
 
         this.system = system;
@@ -91,7 +106,13 @@ public class RentalBookingComponent extends HBox {
         activeMemberLabel.getStyleClass().add(Styles.TEXT_MUTED);
         activeMemberLabel.setWrapText(true);
 
-        actionBox.getChildren().addAll(actionHeader, newBookingBtn, new Separator(), memberTitle, activeMemberLabel);
+        availabilityLabel = new Label();
+        availabilityLabel.getStyleClass().add(Styles.WARNING);
+        availabilityLabel.setWrapText(true);
+        availabilityLabel.setGraphic(new FontIcon(Feather.CLOCK));
+        hideAvailability();
+
+        actionBox.getChildren().addAll(actionHeader, newBookingBtn, new Separator(), memberTitle, activeMemberLabel, availabilityLabel);
 
         // Cart box on the right side
         VBox cartBox = new VBox(10);
@@ -110,7 +131,7 @@ public class RentalBookingComponent extends HBox {
         HBox.setHgrow(headerSpacer, Priority.ALWAYS);
 
         // Initiate totalLabel
-        totalLabel = new Label("Totalt: 0.00 kr");
+        totalLabel = new Label("Totalt: " + Money.format(0) + " kr");
         totalLabel.getStyleClass().addAll(Styles.TEXT_BOLD, Styles.ACCENT);
 
         cartHeaderBox.getChildren().addAll(cartHeader, headerSpacer, totalLabel);
@@ -127,7 +148,7 @@ public class RentalBookingComponent extends HBox {
 
         // Update total and buttons when list changes
         cartList.addListener((ListChangeListener<CartItem>) c -> {
-            updateTotal();
+            onCartChanged(c);
             updateButtonStates();
         });
 
@@ -139,9 +160,10 @@ public class RentalBookingComponent extends HBox {
         clearCartBtn.getStyleClass().addAll("action-btn", Styles.BUTTON_OUTLINED);
         clearCartBtn.setOnAction(e -> {
             cartList.clear();
+            hideAvailability();
             activeMember = null;
             activeMemberLabel.setText("Ingen vald");
-            updateTotal();
+            recalculateTotal();
         });
 
         checkoutBtn = new Button("Slutför", new FontIcon(Feather.CHECK));
@@ -174,6 +196,9 @@ public class RentalBookingComponent extends HBox {
             return;
         }
 
+        // The forecast belonged to the last attempt
+        hideAvailability();
+
         javafx.scene.Scene scene = this.getScene();
         Node appContent = scene.lookup("#app-content");
 
@@ -220,6 +245,7 @@ public class RentalBookingComponent extends HBox {
 
             if (!cartItem.item.isAvailable()) {
                 NotificationFactory.show("Tyvärr", "Artikeln är redan uthyrd.", NotificationFactory.Type.WARNING, rootStack);
+                showAvailability(cartItem.item);
                 return;
             }
 
@@ -349,6 +375,37 @@ public class RentalBookingComponent extends HBox {
         });
     }
 
+    /**
+     * Shows under the member when an unavailable item and the other items of its type are expected back.
+     * The forecast is kept up to date by the rental service, so this is only a few lookups.
+     * @param item The item that couldn't be booked.
+     */
+    private void showAvailability(Item item) {
+
+        AvailabilityForecast.ExpectedReturn ownReturn = system.getAvailabilityForecast().expectedReturnOf(item.getId());
+        String text;
+
+        if (ownReturn != null) {
+            text = item.getName() + " väntas tillbaka " + ownReturn.expectedReturnDate().format(TIME_FORMATTER) + ". ";
+
+        } else if (item.getStatus() == ItemStatus.BROKEN) {
+            text = item.getName() + " är trasig. ";
+
+        } else {
+            text = "";
+        }
+
+        availabilityLabel.setText(text + ViewUtils.describeAvailability(system, item.getItemType()));
+        availabilityLabel.setManaged(true);
+        availabilityLabel.setVisible(true);
+    }
+
+    private void hideAvailability() {
+        availabilityLabel.setText("");
+        availabilityLabel.setManaged(false);
+        availabilityLabel.setVisible(false);
+    }
+
     /**
      * Sets the active member for the current booking session.
      * Updates the UI label with the member's details and recalculates the total price.
@@ -366,7 +423,9 @@ public class RentalBookingComponent extends HBox {
         } else {
             activeMemberLabel.setText("Ingen vald");
         }
-        updateTotal();
+
+        // A new member can have another discount, so every line is priced again
+        recalculateTotal();
     }
 
     /**
@@ -389,9 +448,9 @@ public class RentalBookingComponent extends HBox {
 
         cartPriceCol.setCellValueFactory(cell -> {
             CartItem cartItem = cell.getValue();
-            double price = (cartItem.period == RentalPeriod.HOURLY) ? cartItem.item.getPricePerHour() : cartItem.item.getPricePerDay();
+            long price = system.getQuoteService().unitPrice(cartItem.item, cartItem.period);
             String unit = (cartItem.period == RentalPeriod.HOURLY) ? "kr/tim" : "kr/dygn";
-            return new SimpleStringProperty(String.format("%.2f %s", price, unit));
+            return new SimpleStringProperty(Money.format(price) + " " + unit);
         });
 
         cartTable.getColumns().add(cartTypeCol);
@@ -401,36 +460,80 @@ public class RentalBookingComponent extends HBox {
     }
 
     /**
-     * Calculates the total price of the cart, applying discounts based on membership level.
+     * Updates the cart total when lines are added or removed.
+     * Normally we only add or subtract the changed lines. If the number of items moves the booking
+     * to another bundle discount, every line gets a new price, so then we calculate everything again.
+     * @param change what happened to the list
      */
-    private void updateTotal() {
+    private void onCartChanged(ListChangeListener.Change<? extends CartItem> change) {
+
+        // Count the lines first, so we know how big the cart was before the change
+        int added = 0;
+        int removed = 0;
+
+        while (change.next()) {
+            added += change.getAddedSize();
+            removed += change.getRemovedSize();
+        }
+
+        int newSize = cartList.size();
+        int oldSize = newSize - added + removed;
 
-        if (cartList.isEmpty()) {
-            totalLabel.setText("Totalt: 0.00 kr");
+        if (!system.getPricingEngine().isSameBundleTier(oldSize, newSize)) {
+            recalculateTotal();
             return;
         }
 
-        double discountFactor = 1.0;
+        // Same bundle discount as before, so only the changed lines matter
+        change.reset();
 
-        if (activeMember != null) {
+        while (change.next()) {
 
-            if (activeMember.getMembershipLevel() == MembershipLevel.STUDENT) {
-                discountFactor = 0.8;
+            // Subtract the exact quote the line had when it was added
+            for (CartItem cartItem : change.getRemoved()) {
+                if (cartItem.quote != null) {
+                    cartQuote = cartQuote.minus(cartItem.quote);
+                }
             }
 
-            else if (activeMember.getMembershipLevel() == MembershipLevel.PREMIUM) {
-                discountFactor = 0.7;
+            for (CartItem cartItem : change.getAddedSubList()) {
+                cartItem.quote = quoteLine(cartItem, newSize);
+                cartQuote = cartQuote.plus(cartItem.quote);
             }
         }
 
-        double total = 0;
+        showTotal();
+    }
+
+    /**
+     * Prices every line in the cart again (used when the member or the bundle discount changes).
+     */
+    private void recalculateTotal() {
+
+        cartQuote = Quote.EMPTY;
 
         for (CartItem cartItem : cartList) {
-            total += (cartItem.getCalculatedPrice() * discountFactor);
+            cartItem.quote = quoteLine(cartItem, cartList.size());
+            cartQuote = cartQuote.plus(cartItem.quote);
         }
 
-        String discountText = (discountFactor < 1.0) ? " (Rabatt)" : "";
-        totalLabel.setText("Totalt: " + String.format("%.2f kr", total) + discountText);
+        showTotal();
+    }
+
+    // Gets the quote for one line, using the same quote service as the checkout
+    private Quote quoteLine(CartItem cartItem, int bundleSize) {
+
+        MembershipLevel level = (activeMember != null) ? activeMember.getMembershipLevel() : null;
+        return system.getQuoteService().quote(cartItem.item, level, cartItem.duration, cartItem.period, LocalDateTime.now(), bundleSize);
+    }
+
+    /**
+     * Shows the cart total in the header.
+     */
+    private void showTotal() {
+
+        String discountText = cartQuote.hasDiscount() ? " (Rabatt)" : "";
+        totalLabel.setText("Totalt: " + Money.format(cartQuote.getTotalOre()) + " kr" + discountText);
     }
 
     /**
@@ -438,26 +541,46 @@ public class RentalBookingComponent extends HBox {
      * Creates rentals for all items in the cart and shows a receipt.
      */
     private void handleCheckout() {
+        if (ViewUtils.refuseIfReadOnly(system, rootStack)) {
+            return;
+        }
+
         if (activeMember == null || cartList.isEmpty()) {
             NotificationFactory.show("Tom", "Varukorgen är tom", NotificationFactory.Type.WARNING, rootStack);
             return;
         }
 
         int successCount = 0;
-        double totalCost = 0;
+        long totalCost = 0;
 
         List<Rental> newRentals = new ArrayList<>();
 
+        // Only the lines that can still be booked count towards a bundle discount,
+        // so an item somebody else just rented doesn't give the rest of the cart a lower price
+        int bookableCount = 0;
+
+        for (CartItem cartItem : cartList) {
+            if (cartItem.item.isAvailable()) {
+                bookableCount++;
+            }
+        }
+
         // Loop through the cart and try to rent each item
         for (CartItem cartItem : cartList) {
 
+            if (!cartItem.item.isAvailable()) {
+                NotificationFactory.show("Ej tillgänglig", cartItem.item.getName() + " är inte tillgänglig.", NotificationFactory.Type.ERROR, rootStack);
+                showAvailability(cartItem.item);
+                continue;
+            }
+
             try {
                 // Try to perform the rental. This might throw exceptions if something is wrong.
-                Rental rental = system.getRentalService().rentItem(activeMember.getId(), cartItem.item.getId(), cartItem.duration, cartItem.period);
+                Rental rental = system.getRentalService().rentItem(activeMember.getId(), cartItem.item.getId(), cartItem.duration, cartItem.period, bookableCount);
 
                 if (rental != null) {
                     successCount++;
-                    totalCost += rental.getTotalCost();
+                    totalCost += rental.getTotalCostOre();
                     newRentals.add(rental);
                 }
 
@@ -466,8 +589,9 @@ public class RentalBookingComponent extends HBox {
                 NotificationFactory.show("Hittades inte", exception.getMessage(), NotificationFactory.Type.WARNING, rootStack);
 
             } catch (ItemNotAvailableException e) {
-                // If the item is already rented or broken
+                // If the item is already rented or broken, show when it (or another of the same type) is expected back
                 NotificationFactory.show("Ej tillgänglig", e.getMessage(), NotificationFactory.Type.ERROR, rootStack);
+                showAvailability(cartItem.item);
 
             } catch (Exception exception) {
                 // Catch any other unexpected errors
@@ -519,7 +643,7 @@ public class RentalBookingComponent extends HBox {
             cartList.clear();
             activeMember = null;
             activeMemberLabel.setText("Ingen vald");
-            system.saveAll();
+            ViewUtils.saveInBackground(system, rootStack);
 
             NotificationFactory.show("Klart", successCount + " artiklar uthyrda", NotificationFactory.Type.SUCCESS, rootStack);
 
@@ -537,23 +661,15 @@ public class RentalBookingComponent extends HBox {
         public int duration;
         public RentalPeriod period;
 
+        // The quote this line was given when it was added to the cart
+        public Quote quote;
+
         public CartItem(Item item, int duration, RentalPeriod period) {
             this.item = item;
             this.duration = duration;
             this.period = period;
         }
 
-        public double getCalculatedPrice() {
-
-            if (period == RentalPeriod.HOURLY) {
-                return item.getPricePerHour() * duration;
-            }
-
-            else {
-                return item.getPricePerDay() * duration;
-            }
-        }
-
         public String getTimeString() {
             return duration + (period == RentalPeriod.HOURLY ? " timmar" : " dygn");
         }
@@ -3,7 +3,9 @@ package org.example.memberclubjavafx_assignment5.view.components;
 import atlantafx.base.theme.Styles;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.collections.FXCollections;
+import javafx.collections.ListChangeListener;
 import javafx.collections.ObservableList;
+import javafx.concurrent.Task;
 import javafx.collections.transformation.FilteredList;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
@@ -14,15 +16,23 @@ import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.scene.effect.BoxBlur;
 import javafx.scene.layout.*;
 import javafx.scene.paint.Color;
+import javafx.stage.FileChooser;
+import org.example.memberclubjavafx_assignment5.diagnostics.MetricsRegistry;
 import org.example.memberclubjavafx_assignment5.exceptions.RentalNotFoundException;
+import org.example.memberclubjavafx_assignment5.exceptions.VersionConflictException;
 import org.example.memberclubjavafx_assignment5.model.Item;
 import org.example.memberclubjavafx_assignment5.model.Member;
+import org.example.memberclubjavafx_assignment5.model.Money;
 import org.example.memberclubjavafx_assignment5.model.Rental;
 import org.example.memberclubjavafx_assignment5.model.enums.RentalStatus;
+import org.example.memberclubjavafx_assignment5.service.RentalIdCsv;
+import org.example.memberclubjavafx_assignment5.service.ReturnOutcome;
 import org.example.memberclubjavafx_assignment5.system.ClubSystem;
 import org.example.memberclubjavafx_assignment5.view.NotificationFactory;
+import org.example.memberclubjavafx_assignment5.view.ViewUtils;
 import org.kordamp.ikonli.feather.Feather;
 import org.kordamp.ikonli.javafx.FontIcon;
+import java.io.File;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
@@ -30,7 +40,7 @@ import java.util.function.Consumer;
 
 /**
  * Displays rental history and active rentals in a table.
- * Also handles the return of items and calculation of late fees.
+ * Also handles the return of items and calculation of late fees, one at a time from the table or by scanning (ScanReturnComponent).
  */
 public class RentalHistoryComponent extends VBox {
 
@@ -52,8 +62,12 @@ public class RentalHistoryComponent extends VBox {
     // UI Controls that we need to access in multiple methods
     private TextField searchField;
     private ToggleButton showAllToggle;
+    private ToggleButton scanToggle;
     private Button returnBtn;
 
+    // The scan field for fast returns, shown when scan mode is on
+    private final ScanReturnComponent scanBar;
+
     // Callback to update the 'Active Rentals' count in the main view
     private Consumer<Integer> onActiveCountChange;
 
@@ -80,24 +94,28 @@ public class RentalHistoryComponent extends VBox {
         // Create toolbar
         HBox toolbar = createToolbar();
 
+        // Create the scan bar, hidden until scan mode is turned on. A batch of scanned returns refreshes the table once.
+        scanBar = new ScanReturnComponent(system, rootStack, this::refreshTable);
+        scanBar.setVisible(false);
+        scanBar.setManaged(false);
+
         // Create table
         table = createTable();
         VBox.setVgrow(table, Priority.ALWAYS);
 
-        // Add selection listener
-        table.getSelectionModel().selectedItemProperty().addListener((obs, oldVal, newVal) -> {
+        // Add selection listener (several rows can be selected with Ctrl or Shift)
+        table.getSelectionModel().getSelectedItems().addListener((ListChangeListener<Rental>) change -> {
 
-            boolean hasSelection = (newVal != null);
-
-            // Only active rentals can be returned
-            boolean isActive = hasSelection && (newVal.getStatus() == RentalStatus.ACTIVE);
+            // Only active rentals can be returned, so at least one of the selected must be active
+            boolean anyActive = table.getSelectionModel().getSelectedItems().stream()
+                    .anyMatch(rental -> rental != null && rental.getStatus() == RentalStatus.ACTIVE);
 
             if (returnBtn != null) {
-                returnBtn.setDisable(!isActive);
+                returnBtn.setDisable(!anyActive);
             }
         });
 
-        getChildren().addAll(toolbar, table);
+        getChildren().addAll(toolbar, scanBar, table);
 
         // Load data immediately
         refreshTable();
@@ -155,6 +173,26 @@ public class RentalHistoryComponent extends VBox {
             }
         });
 
+        // Scan mode, for returning a pile of items with a barcode scanner
+        scanToggle = new ToggleButton("Skanna retur");
+        scanToggle.setGraphic(new FontIcon(Feather.MAXIMIZE));
+        scanToggle.getStyleClass().addAll("action-btn", Styles.BUTTON_OUTLINED);
+        scanToggle.setTooltip(new Tooltip("Lämna tillbaka artiklar genom att skanna deras streckkod"));
+
+        scanToggle.selectedProperty().addListener((obs, old, val) -> {
+
+            scanBar.setVisible(val);
+            scanBar.setManaged(val);
+
+            if (val) {
+                scanBar.focusScanField();
+
+            } else {
+                // Save what was scanned before the scan bar goes away
+                scanBar.commitBatch();
+            }
+        });
+
         // Spacer to push the next buttons to the right side
         Region spacer = new Region();
         HBox.setHgrow(spacer, Priority.ALWAYS);
@@ -165,11 +203,15 @@ public class RentalHistoryComponent extends VBox {
         reloadBtn.getStyleClass().addAll("action-btn", Styles.BUTTON_OUTLINED);
 
         // When clicked, tell the system to read JSON files (again) and refresh the UI
-        reloadBtn.setOnAction(e -> {
-            system.loadData();
-            refreshTable();
-            NotificationFactory.show("Uppdaterad", "Data laddades från fil", NotificationFactory.Type.INFO, rootStack);
-        });
+        reloadBtn.setOnAction(e -> ViewUtils.reloadInBackground(system, reloadBtn,
+                () -> {
+                    refreshTable();
+                    NotificationFactory.show("Uppdaterad", "Data laddades från fil", NotificationFactory.Type.INFO, rootStack);
+                },
+                error -> NotificationFactory.show("Fel", "Kunde inte läsa in data: " + error.getMessage(), NotificationFactory.Type.ERROR, rootStack)));
+
+        // Refresh by itself when another desk (or a hand-edited file) changes what we show
+        ViewUtils.refreshOnDataChange(system, reloadBtn, this::refreshTable, Rental.class, Item.class, Member.class);
 
         // Return Button
         returnBtn = new Button("Återlämna", new FontIcon(Feather.CORNER_DOWN_LEFT));
@@ -179,7 +221,13 @@ public class RentalHistoryComponent extends VBox {
         returnBtn.setDisable(true);
         returnBtn.setOnAction(e -> handleReturn());
 
-        toolbar.getChildren().addAll(searchField, showAllToggle, spacer, reloadBtn, returnBtn);
+        // Returns from a CSV file, for example after a camp weekend
+        Button csvBtn = new Button("", new FontIcon(Feather.FILE_TEXT));
+        csvBtn.setTooltip(new Tooltip("Återlämna uthyrningarna i en CSV-fil (uthyrnings-ID i första kolumnen)"));
+        csvBtn.getStyleClass().addAll("action-btn", Styles.BUTTON_OUTLINED);
+        csvBtn.setOnAction(e -> handleCsvReturn(csvBtn));
+
+        toolbar.getChildren().addAll(searchField, showAllToggle, scanToggle, spacer, reloadBtn, csvBtn, returnBtn);
         return toolbar;
     }
 
@@ -199,6 +247,9 @@ public class RentalHistoryComponent extends VBox {
 
         // Bind the table to our filtered list
         tableView.setItems(filteredData);
+
+        // Several rentals can be selected and returned together
+        tableView.getSelectionModel().setSelectionMode(SelectionMode.MULTIPLE);
         tableView.setPlaceholder(new Label("Inga bokningar hittades"));
 
         // ID
@@ -241,13 +292,13 @@ public class RentalHistoryComponent extends VBox {
         });
 
         // Cost
-        TableColumn<Rental, Double> costCol = new TableColumn<>("Kostnad");
-        costCol.setCellValueFactory(new PropertyValueFactory<>("totalCost"));
+        TableColumn<Rental, Long> costCol = new TableColumn<>("Kostnad");
+        costCol.setCellValueFactory(new PropertyValueFactory<>("totalCostOre"));
 
         // Custom cell factory to format the number as currency
         costCol.setCellFactory(col -> new TableCell<>() {
             @Override
-            protected void updateItem(Double price, boolean empty) {
+            protected void updateItem(Long price, boolean empty) {
 
                 super.updateItem(price, empty);
 
@@ -255,7 +306,8 @@ public class RentalHistoryComponent extends VBox {
                     setText(null);
 
                 } else {
-                    setText(String.format("%.2f kr", price));
+                    // The cost is stored in öre
+                    setText(Money.format(price) + " kr");
                 }
             }
         });
@@ -342,8 +394,11 @@ public class RentalHistoryComponent extends VBox {
 
             returnItem.setOnAction(e -> {
 
-                // Select the row and trigger the return action
-                tableView.getSelectionModel().select(row.getItem());
+                // Select the row (unless it is part of a bigger selection) and trigger the return action
+                if (!tableView.getSelectionModel().getSelectedItems().contains(row.getItem())) {
+                    tableView.getSelectionModel().clearSelection();
+                    tableView.getSelectionModel().select(row.getItem());
+                }
                 handleReturn();
             });
 
@@ -409,10 +464,22 @@ public class RentalHistoryComponent extends VBox {
 
     /**
      * Handles the return process.
-     * Checks if the return is late and asks for confirmation if a fee applies.
+     * With one selected rental it checks if the return is late and asks for confirmation if a fee applies.
+     * With several selected rentals they are returned together (see handleBulkReturn).
      */
     private void handleReturn() {
 
+        if (ViewUtils.refuseIfReadOnly(system, rootStack)) {
+            return;
+        }
+
+        List<Rental> selected = new ArrayList<>(table.getSelectionModel().getSelectedItems());
+
+        if (selected.size() > 1) {
+            handleBulkReturn(selected);
+            return;
+        }
+
         Rental rental = table.getSelectionModel().getSelectedItem();
 
         if (rental == null) {
@@ -424,145 +491,291 @@ public class RentalHistoryComponent extends VBox {
             return;
         }
 
+        // The version we checked, so a return made elsewhere while the late-fee dialog is open is noticed
+        long version = rental.getVersion();
+
         // Check if late
         if (rental.isLate()) {
 
             Item item = system.getInventory().getItem(rental.getItemId());
 
-            // Use the rental object to calculate fees
-            double penalty = rental.calculatePenaltyFee(item);
+            // The quote service gives us the late fee
+            long penalty = system.getQuoteService().quoteRental(rental, item).getPenaltyOre();
             long hoursLate = rental.getHoursLate();
 
-            // Start the custom dialog here
-            Scene scene = rootStack.getScene();
-            if (scene == null) return;
-
-            // Blur the background to focus on the modal
-            Node appContent = scene.lookup("#app-content");
-            BoxBlur blur = new BoxBlur(10, 10, 3);
-            if (appContent != null) appContent.setEffect(blur);
-
-            Dialog<ButtonType> dialog = new Dialog<>();
-            dialog.initOwner(scene.getWindow());
-            dialog.initModality(javafx.stage.Modality.NONE);
-            dialog.initStyle(javafx.stage.StageStyle.TRANSPARENT);
-
-            // Clean up the standard dialog container
-            DialogPane pane = dialog.getDialogPane();
-            pane.getButtonTypes().clear();
-            pane.setHeader(null);
-            pane.setGraphic(null);
-            pane.setPadding(Insets.EMPTY);
-            pane.setBackground(Background.EMPTY);
-            pane.setBorder(Border.EMPTY);
-            pane.getStyleClass().clear();
-
-            // Create the content layout
-            VBox content = new VBox(20);
-            content.getStyleClass().addAll("card-panel", "modal-box");
-            content.setPadding(new Insets(30));
-            content.setMaxWidth(550);
-
-            Label header = new Label("Försenad retur");
-            header.getStyleClass().add(Styles.TITLE_3);
-
             // Use the calculated values here and show the late fee for the user
-            Label message = new Label("Sen " + hoursLate + " timmar. Avgift: " + String.format("%.2f", penalty) + " kr.\nReturnera ändå?");
+            Label message = new Label("Sen " + hoursLate + " timmar. Avgift: " + Money.format(penalty) + " kr.\nReturnera ändå?");
             message.setWrapText(true);
             message.setStyle("-fx-font-size: 16px;");
 
-            Button cancel = new Button("Avbryt");
-            cancel.getStyleClass().addAll("action-btn", Styles.BUTTON_OUTLINED);
-            cancel.setOnAction(e -> {
-                dialog.setResult(ButtonType.CANCEL);
-                dialog.close();
-            });
+            // Process return if confirmed
+            if (showDialog("Försenad retur", message, "Returnera", true)) {
+                performReturn(rental, version);
+            }
+            return;
+        }
 
-            Button confirm = new Button("Returnera", new FontIcon(Feather.CHECK));
-            confirm.getStyleClass().addAll("action-btn", Styles.SUCCESS);
-            confirm.setOnAction(e -> {
-                dialog.setResult(ButtonType.OK);
-                dialog.close();
-            });
+        // If not late, return directly
+        performReturn(rental, version);
+    }
+
+    /**
+     * Returns several selected rentals at once.
+     * Asks once, with the number of late rentals and the sum of their fees, instead of once per rental.
+     */
+    private void handleBulkReturn(List<Rental> selected) {
+
+        List<String> rentalIds = new ArrayList<>();
+        int lateCount = 0;
+        long penaltySum = 0;
+
+        for (Rental rental : selected) {
+
+            if (rental.getStatus() != RentalStatus.ACTIVE) {
+                continue;
+            }
+
+            rentalIds.add(rental.getRentalId());
+
+            if (rental.isLate()) {
+                lateCount++;
+                penaltySum += system.getQuoteService().quoteRental(rental, system.getInventory().getItem(rental.getItemId())).getPenaltyOre();
+            }
+        }
+
+        if (rentalIds.isEmpty()) {
+            NotificationFactory.show("Info", "Inga av de markerade uthyrningarna är aktiva", NotificationFactory.Type.INFO, rootStack);
+            return;
+        }
+
+        String text = "Återlämna " + rentalIds.size() + " uthyrningar?";
+
+        if (lateCount > 0) {
+            text += "\n" + lateCount + " är försenade, avgifter totalt " + Money.format(penaltySum) + " kr.";
+        }
+
+        Label message = new Label(text);
+        message.setWrapText(true);
+        message.setStyle("-fx-font-size: 16px;");
+
+        if (showDialog("Återlämna flera", message, "Returnera", true)) {
+            performBulkReturn(rentalIds);
+        }
+    }
 
-            HBox buttons = new HBox(15, cancel, confirm);
-            buttons.setAlignment(Pos.CENTER);
+    /**
+     * Lets the user pick a CSV file with rental ids (one per line, the id in the first column) and returns them all.
+     * The file is read on the I/O executor, the returns are done on the JavaFX thread.
+     */
+    private void handleCsvReturn(Button csvBtn) {
+
+        if (ViewUtils.refuseIfReadOnly(system, rootStack)) {
+            return;
+        }
+
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("Välj CSV-fil med uthyrnings-ID");
+        chooser.getExtensionFilters().addAll(
+                new FileChooser.ExtensionFilter("CSV-filer", "*.csv", "*.txt"),
+                new FileChooser.ExtensionFilter("Alla filer", "*.*"));
+
+        File file = chooser.showOpenDialog(getScene() != null ? getScene().getWindow() : null);
+
+        if (file == null) {
+            return;
+        }
+
+        Task<List<String>> task = new Task<>() {
+            @Override
+            protected List<String> call() throws Exception {
+                return RentalIdCsv.read(file.toPath());
+            }
+        };
+
+        csvBtn.setDisable(true);
+
+        task.setOnSucceeded(e -> {
+            csvBtn.setDisable(false);
+            List<String> rentalIds = task.getValue();
+
+            if (rentalIds.isEmpty()) {
+                NotificationFactory.show("Info", "Filen innehöll inga uthyrnings-ID", NotificationFactory.Type.INFO, rootStack);
+                return;
+            }
+
+            Label message = new Label("Återlämna de " + rentalIds.size() + " uthyrningarna i " + file.getName() + "?");
+            message.setWrapText(true);
+            message.setStyle("-fx-font-size: 16px;");
+
+            if (showDialog("Returer från fil", message, "Returnera", true)) {
+                performBulkReturn(rentalIds);
+            }
+        });
+        task.setOnFailed(e -> {
+            csvBtn.setDisable(false);
+            NotificationFactory.show("Fel", "Kunde inte läsa filen: " + task.getException().getMessage(), NotificationFactory.Type.ERROR, rootStack);
+        });
+
+        system.getIoExecutor().execute(task);
+    }
+
+    /**
+     * Returns many rentals in one pass, then refreshes the table once, saves once and shows what happened to each line.
+     */
+    private void performBulkReturn(List<String> rentalIds) {
+
+        List<ReturnOutcome> outcomes = system.getRentalService().returnItems(rentalIds);
+
+        long returned = outcomes.stream().filter(ReturnOutcome::isReturned).count();
+        long penaltySum = outcomes.stream().mapToLong(ReturnOutcome::penaltyOre).sum();
 
-            content.getChildren().addAll(header, message, buttons);
+        refreshTable();
+
+        if (returned > 0) {
+            ViewUtils.saveInBackground(system, rootStack);
+        }
+
+        // The summary on top, and one line per id below it
+        Label summary = new Label("Återlämnade " + returned + " av " + outcomes.size() + ". Förseningsavgifter: " + Money.format(penaltySum) + " kr.");
+        summary.setWrapText(true);
+        summary.setStyle("-fx-font-size: 16px;");
+
+        ListView<String> lines = new ListView<>(FXCollections.observableArrayList(outcomes.stream().map(ReturnOutcome::toString).toList()));
+        lines.setPrefHeight(250);
+
+        showDialog("Resultat", new VBox(10, summary, lines), "Stäng", false);
+    }
+
+    /**
+     * Shows one of our own modal dialogs over a blurred background, like the other dialogs in the program.
+     * @param title The header of the dialog.
+     * @param body What is shown under the header.
+     * @param confirmText The text on the confirm button.
+     * @param canCancel True to show a cancel button as well.
+     * @return True if the confirm button was clicked.
+     */
+    private boolean showDialog(String title, Node body, String confirmText, boolean canCancel) {
+
+        Scene scene = rootStack.getScene();
+        if (scene == null) return false;
+
+        // Blur the background to focus on the modal
+        Node appContent = scene.lookup("#app-content");
+        BoxBlur blur = new BoxBlur(10, 10, 3);
+        if (appContent != null) appContent.setEffect(blur);
+
+        Dialog<ButtonType> dialog = new Dialog<>();
+        dialog.initOwner(scene.getWindow());
+        dialog.initModality(javafx.stage.Modality.NONE);
+        dialog.initStyle(javafx.stage.StageStyle.TRANSPARENT);
+
+        // Clean up the standard dialog container
+        DialogPane pane = dialog.getDialogPane();
+        pane.getButtonTypes().clear();
+        pane.setHeader(null);
+        pane.setGraphic(null);
+        pane.setPadding(Insets.EMPTY);
+        pane.setBackground(Background.EMPTY);
+        pane.setBorder(Border.EMPTY);
+        pane.getStyleClass().clear();
+
+        // Create the content layout
+        VBox content = new VBox(20);
+        content.getStyleClass().addAll("card-panel", "modal-box");
+        content.setPadding(new Insets(30));
+        content.setMaxWidth(550);
+
+        Label header = new Label(title);
+        header.getStyleClass().add(Styles.TITLE_3);
+
+        Button confirm = new Button(confirmText, new FontIcon(Feather.CHECK));
+        confirm.getStyleClass().addAll("action-btn", Styles.SUCCESS);
+        confirm.setOnAction(e -> {
+            dialog.setResult(ButtonType.OK);
+            dialog.close();
+        });
 
-            // Wrap content in a StackPane
-            StackPane wrapper = new StackPane(content);
-            wrapper.setBackground(Background.EMPTY);
-            pane.setContent(wrapper);
+        HBox buttons = new HBox(15);
+        buttons.setAlignment(Pos.CENTER);
 
-            // Create a glass pane (with a clickable background) to close dialog when clicking outside
-            Pane glassPane = new Pane();
-            glassPane.setBackground(new Background(new BackgroundFill(Color.TRANSPARENT, null, null)));
-            glassPane.setOnMouseClicked(e -> {
+        if (canCancel) {
+            Button cancel = new Button("Avbryt");
+            cancel.getStyleClass().addAll("action-btn", Styles.BUTTON_OUTLINED);
+            cancel.setOnAction(e -> {
                 dialog.setResult(ButtonType.CANCEL);
                 dialog.close();
             });
+            buttons.getChildren().add(cancel);
+        }
+        buttons.getChildren().add(confirm);
 
-            rootStack.getChildren().add(glassPane);
+        content.getChildren().addAll(header, body, buttons);
 
-            // When the dialog is shown, ensure it gets the correct CSS and positioning
-            dialog.setOnShown(e -> {
+        // Wrap content in a StackPane
+        StackPane wrapper = new StackPane(content);
+        wrapper.setBackground(Background.EMPTY);
+        pane.setContent(wrapper);
 
-                Scene dialogScene = pane.getScene();
+        // Create a glass pane (with a clickable background) to close dialog when clicking outside
+        Pane glassPane = new Pane();
+        glassPane.setBackground(new Background(new BackgroundFill(Color.TRANSPARENT, null, null)));
+        glassPane.setOnMouseClicked(e -> {
+            dialog.setResult(ButtonType.CANCEL);
+            dialog.close();
+        });
 
-                if (dialogScene != null) {
+        rootStack.getChildren().add(glassPane);
 
-                    dialogScene.setFill(Color.TRANSPARENT);
+        // When the dialog is shown, ensure it gets the correct CSS and positioning
+        dialog.setOnShown(e -> {
 
-                    try {
-                        String cssPath = getClass().getResource("/org/example/memberclubjavafx_assignment5/styles.css").toExternalForm();
-                        dialogScene.getStylesheets().add(cssPath);
+            Scene dialogScene = pane.getScene();
 
-                    } catch (Exception exception) {}
+            if (dialogScene != null) {
 
-                    // Center the dialog over the parent window
-                    javafx.stage.Window window = dialogScene.getWindow();
-                    javafx.stage.Window owner = dialog.getOwner();
+                dialogScene.setFill(Color.TRANSPARENT);
 
-                    if (owner != null) {
-                        window.setX(owner.getX() + (owner.getWidth() - window.getWidth()) / 2);
-                        window.setY(owner.getY() + (owner.getHeight() - window.getHeight()) / 2);
-                    }
-                    pane.requestFocus();
-                }
-            });
+                try {
+                    String cssPath = getClass().getResource("/org/example/memberclubjavafx_assignment5/styles.css").toExternalForm();
+                    dialogScene.getStylesheets().add(cssPath);
 
-            Optional<ButtonType> type = dialog.showAndWait();
+                } catch (Exception exception) {}
 
-            // Remove blur and the glass pane
-            if (appContent != null) appContent.setEffect(null);
-            rootStack.getChildren().remove(glassPane);
+                // Center the dialog over the parent window
+                javafx.stage.Window window = dialogScene.getWindow();
+                javafx.stage.Window owner = dialog.getOwner();
 
-            // Process return if confirmed
-            if (type.isPresent() && type.get() == ButtonType.OK) {
-                performReturn(rental);
+                if (owner != null) {
+                    window.setX(owner.getX() + (owner.getWidth() - window.getWidth()) / 2);
+                    window.setY(owner.getY() + (owner.getHeight() - window.getHeight()) / 2);
+                }
+                pane.requestFocus();
             }
-            return;
-        }
+        });
 
-        // If not late, return directly
-        performReturn(rental);
+        Optional<ButtonType> type = dialog.showAndWait();
+
+        // Remove blur and the glass pane
+        if (appContent != null) appContent.setEffect(null);
+        rootStack.getChildren().remove(glassPane);
+
+        return type.isPresent() && type.get() == ButtonType.OK;
     }
 
     /**
      * Executes the actual return in the system.
      */
-    private void performReturn(Rental r) {
+    private void performReturn(Rental r, long expectedVersion) {
 
         try {
             // Call the service to update the status and inventory. Now returns void and throws exceptions if failed.
-            system.getRentalService().returnItem(r.getRentalId());
+            system.getRentalService().returnItem(r.getRentalId(), expectedVersion);
 
             // If successful (no exception thrown):
             refreshTable();
 
             // Save changes to file
-            system.saveAll();
+            ViewUtils.saveInBackground(system, rootStack);
 
             NotificationFactory.show("Returnerad", "Artikeln är nu tillgänglig igen.", NotificationFactory.Type.SUCCESS, rootStack);
 
@@ -570,6 +783,11 @@ public class RentalHistoryComponent extends VBox {
             // If the rental ID wasn't found in the system
             NotificationFactory.show("Fel", exception.getMessage(), NotificationFactory.Type.ERROR, rootStack);
 
+        } catch (VersionConflictException exception) {
+            // Someone else returned it first, show the table as it is now
+            refreshTable();
+            NotificationFactory.show("Redan ändrad", exception.getMessage(), NotificationFactory.Type.INFO, rootStack);
+
         } catch (Exception exception) {
             // Catch any unexpected system errors
             exception.printStackTrace();
@@ -583,6 +801,8 @@ public class RentalHistoryComponent extends VBox {
      */
     public void refreshTable() {
 
+        long start = System.nanoTime();
+
         masterData.clear();
 
         List<Rental> allRentals = system.getRentalService().getAllRentals();
@@ -621,5 +841,7 @@ public class RentalHistoryComponent extends VBox {
         // Re apply filters and refresh the table view
         updateFilter();
         table.refresh();
+
+        MetricsRegistry.timer("view.refresh.rentals").record(start);
     }
 }
\ No newline at end of file
@@ -0,0 +1,198 @@
+package org.example.memberclubjavafx_assignment5.view.components;
+
+import atlantafx.base.theme.Styles;
+import javafx.animation.PauseTransition;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.control.Label;
+import javafx.scene.control.TextField;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.StackPane;
+import javafx.util.Duration;
+import org.example.memberclubjavafx_assignment5.diagnostics.MetricsRegistry;
+import org.example.memberclubjavafx_assignment5.diagnostics.Timer;
+import org.example.memberclubjavafx_assignment5.exceptions.RentalNotFoundException;
+import org.example.memberclubjavafx_assignment5.exceptions.VersionConflictException;
+import org.example.memberclubjavafx_assignment5.model.Item;
+import org.example.memberclubjavafx_assignment5.model.Money;
+import org.example.memberclubjavafx_assignment5.model.Rental;
+import org.example.memberclubjavafx_assignment5.system.ClubSystem;
+import org.example.memberclubjavafx_assignment5.view.NotificationFactory;
+import org.example.memberclubjavafx_assignment5.view.ViewUtils;
+import org.kordamp.ikonli.feather.Feather;
+import org.kordamp.ikonli.javafx.FontIcon;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A field for returning items with a barcode or QR scanner at the dock.
+ *
+ * A scanner that works as a keyboard types the item id and presses Enter. The active rental of the item is found with one
+ * lookup (RentalService.getActiveRentalForItem) and returned right away, without the table or a dialog.
+ * Saving and refreshing the table are slower, so they wait until nothing has been scanned for a moment:
+ * a whole pile of returns is then saved once and the table is refreshed once.
+ */
+public class ScanReturnComponent extends HBox {
+
+    // How long after the last scan the batch is saved
+    private static final Duration BATCH_DELAY = Duration.seconds(2);
+
+    // How long one scan takes, from Enter to returned (the goal is well under 50 ms)
+    private static final Timer SCAN_TIMER = MetricsRegistry.timer("rental.scanReturn");
+
+    private final ClubSystem system;
+    private final StackPane rootStack;
+
+    // Runs after a batch is saved, usually to refresh the table
+    private final Runnable onBatchCommitted;
+
+    private final TextField scanField;
+    private final Label statusLabel;
+
+    // Waits for the scanning to pause, then commits the batch
+    private final PauseTransition batchTimer = new PauseTransition(BATCH_DELAY);
+
+    // The items returned since the last save
+    private final List<String> batch = new ArrayList<>();
+
+    // Late fees in the batch, shown when the batch is committed
+    private long batchPenaltyOre;
+
+    /**
+     * Constructor.
+     * @param system The main system object.
+     * @param rootStack The root view for notifications.
+     * @param onBatchCommitted Runs on the JavaFX thread after a batch of returns is saved.
+     */
+    public ScanReturnComponent(ClubSystem system, StackPane rootStack, Runnable onBatchCommitted) {
+
+        this.system = system;
+        this.rootStack = rootStack;
+        this.onBatchCommitted = onBatchCommitted;
+
+        setSpacing(10);
+        setAlignment(Pos.CENTER_LEFT);
+        setPadding(new Insets(0, 0, 10, 0));
+
+        scanField = new TextField();
+        scanField.setPromptText("Skanna artikel-ID");
+        scanField.setPrefWidth(250);
+
+        // A keyboard-wedge scanner ends every code with Enter, which is the field's action
+        scanField.setOnAction(e -> {
+            String code = scanField.getText();
+            scanField.clear();
+            handleScan(code);
+        });
+
+        statusLabel = new Label("Skanna en artikel för att lämna tillbaka den");
+        statusLabel.setMaxWidth(Double.MAX_VALUE);
+        HBox.setHgrow(statusLabel, Priority.ALWAYS);
+
+        getChildren().addAll(new FontIcon(Feather.MAXIMIZE), scanField, statusLabel);
+
+        batchTimer.setOnFinished(e -> commitBatch());
+
+        // Leaving the screen saves what was scanned so far
+        sceneProperty().addListener((obs, oldScene, newScene) -> {
+            if (oldScene != null && newScene == null) {
+                commitBatch();
+            }
+        });
+    }
+
+    /**
+     * Puts the cursor in the scan field, so the next scan goes there.
+     */
+    public void focusScanField() {
+        scanField.requestFocus();
+    }
+
+    /**
+     * Saves the returns scanned so far right away, instead of waiting for the pause (used when scan mode is turned off).
+     */
+    public void commitBatch() {
+
+        batchTimer.stop();
+
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        int count = batch.size();
+        long penalty = batchPenaltyOre;
+
+        batch.clear();
+        batchPenaltyOre = 0;
+
+        // One save and one refresh for the whole batch
+        ViewUtils.saveInBackground(system, rootStack);
+        onBatchCommitted.run();
+
+        String message = count + (count == 1 ? " artikel" : " artiklar") + " återlämnade";
+
+        if (penalty > 0) {
+            message += ", förseningsavgifter " + Money.format(penalty) + " kr";
+        }
+        NotificationFactory.show("Returnerade", message, NotificationFactory.Type.SUCCESS, rootStack);
+    }
+
+    // Returns the item with the scanned id at once, and starts (or restarts) the wait before the batch is saved
+    private void handleScan(String code) {
+
+        String itemId = code == null ? "" : code.trim();
+
+        if (itemId.isEmpty() || ViewUtils.refuseIfReadOnly(system, rootStack)) {
+            return;
+        }
+
+        long start = System.nanoTime();
+
+        try {
+            Rental rental = system.getRentalService().getActiveRentalForItem(itemId);
+            Item item = system.getInventory().getItem(itemId);
+            String name = item != null ? item.getName() : itemId;
+
+            if (rental == null) {
+                showStatus(name + " är inte uthyrd", false);
+                return;
+            }
+
+            // The fee is worked out before the return, while the rental still knows how late it is
+            long hoursLate = rental.getHoursLate();
+            long penalty = hoursLate > 0 ? system.getQuoteService().quoteRental(rental, item).getPenaltyOre() : 0;
+
+            system.getRentalService().returnItem(rental.getRentalId(), rental.getVersion());
+
+            batch.add(rental.getRentalId());
+            batchPenaltyOre += penalty;
+
+            String text = name + " återlämnad (" + rental.getRentalId() + ")";
+
+            if (penalty > 0) {
+                text += ", sen " + hoursLate + " h, avgift " + Money.format(penalty) + " kr";
+            }
+            showStatus(text + " - " + batch.size() + " i omgången", true);
+
+        } catch (RentalNotFoundException | VersionConflictException exception) {
+            // Returned (or removed) at another desk a moment ago
+            showStatus(exception.getMessage(), false);
+
+        } finally {
+            SCAN_TIMER.record(start);
+
+            // A scan that failed also counts as activity, so the batch doesn't get saved in the middle of a pile
+            if (!batch.isEmpty()) {
+                batchTimer.playFromStart();
+            }
+        }
+    }
+
+    private void showStatus(String text, boolean success) {
+
+        statusLabel.setText(text);
+        statusLabel.getStyleClass().removeAll(Styles.SUCCESS, Styles.DANGER);
+        statusLabel.getStyleClass().add(success ? Styles.SUCCESS : Styles.DANGER);
+    }
+}
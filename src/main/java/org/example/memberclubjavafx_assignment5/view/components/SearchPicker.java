@@ -0,0 +1,187 @@
+package org.example.memberclubjavafx_assignment5.view.components;
+
+import atlantafx.base.controls.CustomTextField;
+import atlantafx.base.theme.Styles;
+import javafx.animation.PauseTransition;
+import javafx.beans.property.ReadOnlyObjectProperty;
+import javafx.concurrent.Task;
+import javafx.geometry.Insets;
+import javafx.scene.control.Label;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
+import javafx.scene.control.TextField;
+import javafx.scene.layout.VBox;
+import javafx.util.Callback;
+import javafx.util.Duration;
+import org.example.memberclubjavafx_assignment5.system.ClubSystem;
+import org.kordamp.ikonli.feather.Feather;
+import org.kordamp.ikonli.javafx.FontIcon;
+import java.util.List;
+import java.util.function.BiFunction;
+
+/**
+ * A search field with a short list of hits under it, used instead of a ComboBox that holds every member or item.
+ *
+ * The search runs on the IO executor a moment after the user stops typing, so the window never freezes.
+ * Only the first few hits are shown (the list says so when there are more), and the ListView only makes cells
+ * for the rows that are visible, so the picker is just as quick with ten thousand members as with ten.
+ * @param <T> what is picked, for example a Member
+ */
+public class SearchPicker<T> extends VBox {
+
+    // How many hits we show, type more letters to find the rest
+    private static final int MAX_RESULTS = 50;
+
+    // Wait this long after the last key press before searching
+    private static final Duration TYPING_DELAY = Duration.millis(150);
+
+    // Every row has the same height, which lets the ListView skip measuring them
+    private static final double ROW_HEIGHT = 36;
+    private static final int VISIBLE_ROWS = 5;
+
+    private final ClubSystem system;
+
+    // Gets the text and the max number of hits, runs on a background thread
+    private final BiFunction<String, Integer, List<T>> search;
+
+    private final TextField searchField;
+    private final ListView<T> resultList;
+    private final Label hintLabel;
+
+    // Shown in the list when nothing matches
+    private final Label noResultsLabel;
+
+    private final PauseTransition typingTimer = new PauseTransition(TYPING_DELAY);
+
+    // Counts the searches, so the answer to an old search (the user kept typing) is thrown away
+    private long searchNumber;
+
+    /**
+     * Constructor.
+     * @param system The main system object (for the IO executor).
+     * @param promptText The grey text in the empty search field.
+     * @param search Finds the hits for a text, at most the given number. Called on a background thread.
+     */
+    public SearchPicker(ClubSystem system, String promptText, BiFunction<String, Integer, List<T>> search) {
+
+        this.system = system;
+        this.search = search;
+
+        setSpacing(6);
+
+        CustomTextField field = new CustomTextField();
+        field.setLeft(new FontIcon(Feather.SEARCH));
+        field.setPromptText(promptText);
+        searchField = field;
+
+        resultList = new ListView<>();
+        resultList.setFixedCellSize(ROW_HEIGHT);
+        resultList.setPrefHeight(ROW_HEIGHT * VISIBLE_ROWS + 2);
+        resultList.setMaxWidth(Double.MAX_VALUE);
+
+        noResultsLabel = new Label("Inga träffar");
+        noResultsLabel.setWrapText(true);
+        noResultsLabel.setPadding(new Insets(10));
+        resultList.setPlaceholder(noResultsLabel);
+
+        hintLabel = new Label();
+        hintLabel.getStyleClass().addAll(Styles.TEXT_MUTED, Styles.TEXT_SMALL);
+        hintLabel.setManaged(false);
+        hintLabel.setVisible(false);
+
+        // Start the wait again on every key press, the search runs when the typing pauses
+        searchField.textProperty().addListener((obs, old, text) -> typingTimer.playFromStart());
+        typingTimer.setOnFinished(e -> refresh());
+
+        // Enter searches at once, without waiting for the pause
+        searchField.setOnAction(e -> {
+            typingTimer.stop();
+            refresh();
+        });
+
+        getChildren().addAll(searchField, resultList, hintLabel);
+    }
+
+    /**
+     * Searches again with the current text, for example when a filter outside the picker has changed.
+     * The picked value is kept if it is still among the hits.
+     */
+    public void refresh() {
+
+        long number = ++searchNumber;
+        String query = searchField.getText();
+
+        Task<List<T>> task = new Task<>() {
+            @Override
+            protected List<T> call() {
+                return search.apply(query, MAX_RESULTS);
+            }
+        };
+
+        task.setOnSucceeded(e -> {
+
+            // A newer search has started, this answer is already old
+            if (number != searchNumber) {
+                return;
+            }
+            showResults(task.getValue());
+        });
+        task.setOnFailed(e -> System.err.println("Sökningen misslyckades: " + task.getException().getMessage()));
+
+        system.getIoExecutor().execute(task);
+    }
+
+    /**
+     * Draws the visible rows again without searching, for example when the price unit has changed.
+     */
+    public void redraw() {
+        resultList.refresh();
+    }
+
+    /**
+     * Sets the text shown in the list when nothing matches.
+     */
+    public void setNoResultsText(String text) {
+        noResultsLabel.setText(text);
+    }
+
+    /**
+     * Sets how a hit is drawn in the list.
+     */
+    public void setCellFactory(Callback<ListView<T>, ListCell<T>> cellFactory) {
+        resultList.setCellFactory(cellFactory);
+    }
+
+    /**
+     * The picked value, or null. Listen to it to know when the user picks something.
+     */
+    public ReadOnlyObjectProperty<T> valueProperty() {
+        return resultList.getSelectionModel().selectedItemProperty();
+    }
+
+    public T getValue() {
+        return resultList.getSelectionModel().getSelectedItem();
+    }
+
+    private void showResults(List<T> results) {
+
+        T picked = getValue();
+
+        resultList.getItems().setAll(results);
+
+        // Keep the choice if it is still a hit, otherwise nothing is picked
+        if (picked != null && results.contains(picked)) {
+            resultList.getSelectionModel().select(picked);
+        }
+
+        // A single hit is picked right away, that is what the user was looking for
+        if (getValue() == null && results.size() == 1) {
+            resultList.getSelectionModel().select(0);
+        }
+
+        boolean capped = results.size() >= MAX_RESULTS;
+        hintLabel.setText("Visar de " + MAX_RESULTS + " första träffarna, skriv mer för att hitta fler");
+        hintLabel.setManaged(capped);
+        hintLabel.setVisible(capped);
+    }
+}
@@ -62,7 +62,7 @@ public class BackpackStrategy extends BaseStrategy {
      * @return A new Backpack instance.
      */
     @Override
-    public Item createItem(ItemIdGenerator gen, String name, double pDay, double pHour, int yr, Color col, Material mat, double w, String brand) {
+    public Item createItem(ItemIdGenerator gen, String name, long pDay, long pHour, int yr, Color col, Material mat, double w, String brand) {
         return new Backpack(gen.generateBackpackId(), name, pDay, pHour, yr, col, mat, w, brand, getInt(volumeField), typeBox.getValue());
     }
 
@@ -77,7 +77,7 @@ public class ElectricBoatStrategy extends BaseStrategy {
      * @return A new ElectricBoat instance.
      */
     @Override
-    public Item createItem(ItemIdGenerator gen, String name, double pDay, double pHour, int yr, Color col, Material mat, double w, String brand) {
+    public Item createItem(ItemIdGenerator gen, String name, long pDay, long pHour, int yr, Color col, Material mat, double w, String brand) {
         return new ElectricBoat(gen.generateElectricBoatId(), name, pDay, pHour, yr, col, mat, w, brand,
                 getInt(capacityField), getDouble(lengthField), fishFinderCheck.isSelected(),
                 getDouble(speedField), getDouble(batteryField), getInt(chargeField));
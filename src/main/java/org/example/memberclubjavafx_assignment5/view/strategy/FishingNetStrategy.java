@@ -61,7 +61,7 @@ public class FishingNetStrategy extends BaseStrategy {
      * @return A new FishingNet instance.
      */
     @Override
-    public Item createItem(ItemIdGenerator gen, String name, double pDay, double pHour, int yr, Color col, Material mat, double w, String brand) {
+    public Item createItem(ItemIdGenerator gen, String name, long pDay, long pHour, int yr, Color col, Material mat, double w, String brand) {
 
         return new FishingNet(gen.generateNetId(), name, pDay, pHour, yr, col, mat, w, brand, sizeBox.getValue(), getDouble(meshField));
     }
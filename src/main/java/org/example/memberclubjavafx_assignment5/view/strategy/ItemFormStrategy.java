@@ -38,8 +38,8 @@ public interface ItemFormStrategy {
      * It combines the common information with the specific information.
      * @param generator The helper that creates a unique ID for the new item.
      * @param name      The name of the item.
-     * @param priceDay  The cost to rent this item for a day.
-     * @param priceHour The cost to rent this item for an hour.
+     * @param priceDay  The cost in öre to rent this item for a day.
+     * @param priceHour The cost in öre to rent this item for an hour.
      * @param year      The year the item was made.
      * @param color     The color of the item.
      * @param material  The material the item is made of.
@@ -47,7 +47,7 @@ public interface ItemFormStrategy {
      * @param brand     The brand or manufacturer.
      * @return A new {@code Item} object ready to be used in the system.
      */
-    Item createItem(ItemIdGenerator generator, String name, double priceDay, double priceHour, int year, Color color, Material material, double weight, String brand);
+    Item createItem(ItemIdGenerator generator, String name, long priceDay, long priceHour, int year, Color color, Material material, double weight, String brand);
 
     /**
      * This method updates an existing item with new values from input fields.
@@ -70,7 +70,7 @@ public class KayakStrategy extends BaseStrategy {
      * @return A new Kayak instance.
      */
     @Override
-    public Item createItem(ItemIdGenerator gen, String name, double pDay, double pHour, int yr, Color col, Material mat, double w, String brand) {
+    public Item createItem(ItemIdGenerator gen, String name, long pDay, long pHour, int yr, Color col, Material mat, double w, String brand) {
 
         return new Kayak(gen.generateKayakId(), name, pDay, pHour, yr, col, mat, w, brand, getInt(capacityField), getDouble(lengthField), getInt(seatsField), typeBox.getValue());
     }
@@ -63,7 +63,7 @@ public class LanternStrategy extends BaseStrategy {
      * @return A new Lantern instance.
      */
     @Override
-    public Item createItem(ItemIdGenerator gen, String name, double pDay, double pHour, int yr, Color col, Material mat, double w, String brand) {
+    public Item createItem(ItemIdGenerator gen, String name, long pDay, long pHour, int yr, Color col, Material mat, double w, String brand) {
 
         return new Lantern(gen.generateLanternId(), name, pDay, pHour, yr, col, mat, w, brand, getInt(lumensField), powerBox.getValue());
     }
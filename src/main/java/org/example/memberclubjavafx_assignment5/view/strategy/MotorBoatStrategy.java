@@ -79,7 +79,7 @@ public class MotorBoatStrategy extends BaseStrategy {
      * @return A new MotorBoat instance.
      */
     @Override
-    public Item createItem(ItemIdGenerator gen, String name, double pDay, double pHour, int yr, Color col, Material mat, double w, String brand) {
+    public Item createItem(ItemIdGenerator gen, String name, long pDay, long pHour, int yr, Color col, Material mat, double w, String brand) {
 
         return new MotorBoat(gen.generateMotorBoatId(), name, pDay, pHour, yr, col, mat, w, brand, getInt(capacityField), getDouble(lengthField),
                 fishFinderCheck.isSelected(), getDouble(speedField), getInt(engineField), fuelBox.getValue());
@@ -70,7 +70,7 @@ public class RowBoatStrategy extends BaseStrategy {
      * @return A new RowBoat instance.
      */
     @Override
-    public Item createItem(ItemIdGenerator gen, String name, double pDay, double pHour, int yr, Color col, Material mat, double w, String brand) {
+    public Item createItem(ItemIdGenerator gen, String name, long pDay, long pHour, int yr, Color col, Material mat, double w, String brand) {
 
         // We set a default speed for row boats
         double speed = 3.0;
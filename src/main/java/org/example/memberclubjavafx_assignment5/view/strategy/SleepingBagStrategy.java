@@ -62,7 +62,7 @@ public class SleepingBagStrategy extends BaseStrategy {
      * @return A new SleepingBag instance.
      */
     @Override
-    public Item createItem(ItemIdGenerator gen, String name, double pDay, double pHour, int yr, Color col, Material mat, double w, String brand) {
+    public Item createItem(ItemIdGenerator gen, String name, long pDay, long pHour, int yr, Color col, Material mat, double w, String brand) {
 
         return new SleepingBag(gen.generateSleepingBagId(), name, pDay, pHour, yr, col, mat, w, brand, getDouble(tempField), seasonBox.getValue());
     }
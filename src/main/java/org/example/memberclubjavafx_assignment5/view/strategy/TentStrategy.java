@@ -66,7 +66,7 @@ public class TentStrategy extends BaseStrategy {
      * @return A new Tent instance.
      */
     @Override
-    public Item createItem(ItemIdGenerator gen, String name, double pDay, double pHour, int yr, Color col, Material mat, double w, String brand) {
+    public Item createItem(ItemIdGenerator gen, String name, long pDay, long pHour, int yr, Color col, Material mat, double w, String brand) {
 
         return new Tent(gen.generateTentId(), name, pDay, pHour, yr, col, mat, w, brand, getInt(capacityField), seasonBox.getValue(), typeBox.getValue());
     }
@@ -0,0 +1,94 @@
+package org.example.memberclubjavafx_assignment5.model;
+
+import org.junit.jupiter.api.Test;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Pins how Money rounds, since every price and fee in the club goes through it.
+ */
+class MoneyTest {
+
+    @Test
+    void multiplyRoundsHalfUp() {
+
+        // 31.5 öre, as a double 45 * 0.7 is 31.499999999999996
+        assertEquals(32, Money.multiply(45, 0.7));
+
+        // 12.5 and 7.5 öre
+        assertEquals(13, Money.multiply(25, 0.5));
+        assertEquals(8, Money.multiply(15, 0.5));
+
+        // Just below and just above a half
+        assertEquals(12, Money.multiply(249, 0.05));
+        assertEquals(13, Money.multiply(251, 0.05));
+    }
+
+    @Test
+    void multiplyRoundsNegativeHalvesAwayFromZero() {
+        assertEquals(-13, Money.multiply(-25, 0.5));
+        assertEquals(-32, Money.multiply(-45, 0.7));
+    }
+
+    @Test
+    void multiplyWithOneKeepsTheAmount() {
+        assertEquals(14950, Money.multiply(14950, 1.0));
+        assertEquals(Long.MAX_VALUE, Money.multiply(Long.MAX_VALUE, 1.0));
+    }
+
+    @Test
+    void multiplyWithCombinedFactorsIsExact() {
+
+        // 0.8 * 1.1 is 0.8800000000000001 as a double, the price should still be exactly 88 %
+        assertEquals(1100, Money.multiply(1250, 0.8 * 1.1));
+
+        // 0.7 * 0.9 = 0.63, and 50 * 0.63 = 31.5 öre
+        assertEquals(32, Money.multiply(50, 0.7 * 0.9));
+    }
+
+    @Test
+    void multiplyMatchesDecimalHalfUpForEveryAmount() {
+
+        double[] factors = {0.5, 0.7, 0.75, 0.8, 0.85, 0.9, 0.95, 1.1, 1.25, 1.5};
+
+        for (double factor : factors) {
+
+            BigDecimal decimalFactor = new BigDecimal(Double.toString(factor));
+
+            for (long ore = 0; ore <= 100_000; ore++) {
+                long expected = BigDecimal.valueOf(ore).multiply(decimalFactor).setScale(0, RoundingMode.HALF_UP).longValueExact();
+                assertEquals(expected, Money.multiply(ore, factor), ore + " öre * " + factor);
+            }
+        }
+    }
+
+    @Test
+    void ofKronorRoundsHalfUp() {
+        assertEquals(14950, Money.ofKronor(149.5));
+        assertEquals(1, Money.ofKronor(0.005));
+        assertEquals(0, Money.ofKronor(0.004));
+    }
+
+    @Test
+    void parseAcceptsCommaAndPoint() {
+        assertEquals(15000, Money.parse("150"));
+        assertEquals(14950, Money.parse("149,50"));
+        assertEquals(14950, Money.parse(" 149.5 "));
+    }
+
+    @Test
+    void parseRejectsPartsOfAnOre() {
+        assertThrows(NumberFormatException.class, () -> Money.parse("1,005"));
+        assertThrows(NumberFormatException.class, () -> Money.parse("abc"));
+        assertThrows(NumberFormatException.class, () -> Money.parse(null));
+    }
+
+    @Test
+    void formatUsesDecimalCommaAndTwoDecimals() {
+        assertEquals("149,50", Money.format(14950));
+        assertEquals("0,05", Money.format(5));
+        assertEquals("-1,05", Money.format(-105));
+    }
+}
@@ -0,0 +1,70 @@
+package org.example.memberclubjavafx_assignment5.pricing;
+
+import org.example.memberclubjavafx_assignment5.model.Item;
+import org.example.memberclubjavafx_assignment5.model.enums.Color;
+import org.example.memberclubjavafx_assignment5.model.enums.KayakType;
+import org.example.memberclubjavafx_assignment5.model.enums.Material;
+import org.example.memberclubjavafx_assignment5.model.enums.MembershipLevel;
+import org.example.memberclubjavafx_assignment5.model.enums.RentalPeriod;
+import org.example.memberclubjavafx_assignment5.model.vehicles.Kayak;
+import org.junit.jupiter.api.Test;
+import java.time.LocalDateTime;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks how the extra pricing rules are read from 'memberclub.pricingRules'.
+ */
+class PricingConfigTest {
+
+    // A Saturday in July
+    private static final LocalDateTime SUMMER_SATURDAY = LocalDateTime.of(2025, 7, 19, 10, 0);
+
+    private final Item kayak = new Kayak("K1", "Kajak", 50_000, 10_000, 2022, Color.RED, Material.PLASTIC,
+            25.0, "Prijon", 1, 3.5, 1, KayakType.SIT_ON_TOP);
+
+    @Test
+    void noPropertyMeansNoExtraRules() {
+        assertTrue(PricingConfig.parse(null).isEmpty());
+        assertTrue(PricingConfig.parse("  ").isEmpty());
+    }
+
+    @Test
+    void readsEveryKindOfRule() {
+
+        List<PricingRule> rules = PricingConfig.parse(
+                "weekend=1.1:KAYAK ; season=june,July,AUGUST:1.2:kayak,ROW_BOAT ; multiday=DAILY:7:0.9 ; bundle=3:0.95");
+
+        assertEquals(4, rules.size());
+        assertTrue(rules.get(0) instanceof WeekendSurchargeRule);
+        assertTrue(rules.get(1) instanceof SeasonSurchargeRule);
+        assertTrue(rules.get(2) instanceof MultiDayTierRule);
+        assertTrue(rules.get(3) instanceof BundleDiscountRule);
+
+        // 3500 kr * 1.1 * 1.2 * 0.9 * 0.95 = 3950,10 kr
+        PricingEngine engine = PricingEngine.createDefault(rules);
+        assertEquals(395_010, engine.calculatePrice(kayak, MembershipLevel.STANDARD, 7, RentalPeriod.DAILY, SUMMER_SATURDAY, 3));
+    }
+
+    @Test
+    void leavingOutTheTypesMeansAllTypes() {
+
+        PricingEngine engine = PricingEngine.createDefault(PricingConfig.parse("weekend=1.5"));
+
+        assertEquals(75_000, engine.calculatePrice(kayak, MembershipLevel.STANDARD, 1, RentalPeriod.DAILY, SUMMER_SATURDAY, 1));
+    }
+
+    @Test
+    void rejectsRulesThatCantBeRead() {
+        assertThrows(IllegalArgumentException.class, () -> PricingConfig.parse("holiday=1.1"));
+        assertThrows(IllegalArgumentException.class, () -> PricingConfig.parse("weekend"));
+        assertThrows(IllegalArgumentException.class, () -> PricingConfig.parse("weekend=abc"));
+        assertThrows(IllegalArgumentException.class, () -> PricingConfig.parse("weekend=0"));
+        assertThrows(IllegalArgumentException.class, () -> PricingConfig.parse("weekend=1.1:CANOE"));
+        assertThrows(IllegalArgumentException.class, () -> PricingConfig.parse("season=SUMMER:1.2"));
+        assertThrows(IllegalArgumentException.class, () -> PricingConfig.parse("multiday=DAILY:0:0.9"));
+        assertThrows(IllegalArgumentException.class, () -> PricingConfig.parse("bundle=3"));
+    }
+}
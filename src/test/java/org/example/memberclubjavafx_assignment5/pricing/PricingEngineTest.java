@@ -0,0 +1,141 @@
+package org.example.memberclubjavafx_assignment5.pricing;
+
+import org.example.memberclubjavafx_assignment5.model.Item;
+import org.example.memberclubjavafx_assignment5.model.camping.Tent;
+import org.example.memberclubjavafx_assignment5.model.enums.Color;
+import org.example.memberclubjavafx_assignment5.model.enums.ItemType;
+import org.example.memberclubjavafx_assignment5.model.enums.KayakType;
+import org.example.memberclubjavafx_assignment5.model.enums.Material;
+import org.example.memberclubjavafx_assignment5.model.enums.MembershipLevel;
+import org.example.memberclubjavafx_assignment5.model.enums.RentalPeriod;
+import org.example.memberclubjavafx_assignment5.model.enums.SeasonRating;
+import org.example.memberclubjavafx_assignment5.model.enums.TentType;
+import org.example.memberclubjavafx_assignment5.model.vehicles.Kayak;
+import org.junit.jupiter.api.Test;
+import java.time.LocalDateTime;
+import java.time.Month;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that the default engine only gives membership discounts, and that every extra rule works
+ * on its own and together with the others when it is turned on.
+ */
+class PricingEngineTest {
+
+    // A Wednesday and a Saturday outside the summer, and a Wednesday in July
+    private static final LocalDateTime WEDNESDAY = LocalDateTime.of(2025, 10, 15, 10, 0);
+    private static final LocalDateTime SATURDAY = LocalDateTime.of(2025, 10, 18, 10, 0);
+    private static final LocalDateTime SUMMER_WEDNESDAY = LocalDateTime.of(2025, 7, 16, 10, 0);
+    private static final LocalDateTime SUMMER_SATURDAY = LocalDateTime.of(2025, 7, 19, 10, 0);
+
+    private static final Set<ItemType> WATER_TYPES = EnumSet.of(ItemType.MOTOR_BOAT, ItemType.ELECTRIC_BOAT, ItemType.ROW_BOAT, ItemType.KAYAK);
+
+    // The default engine, only membership discounts
+    private final PricingEngine engine = PricingEngine.createDefault();
+
+    // Every extra rule turned on, as if 'memberclub.pricingRules' had been set
+    private final PricingEngine weekendEngine = PricingEngine.createDefault(List.of(new WeekendSurchargeRule(1.1, WATER_TYPES)));
+    private final PricingEngine seasonEngine = PricingEngine.createDefault(
+            List.of(new SeasonSurchargeRule(EnumSet.of(Month.JUNE, Month.JULY, Month.AUGUST), 1.2, WATER_TYPES)));
+    private final PricingEngine multiDayEngine = PricingEngine.createDefault(List.of(new MultiDayTierRule(RentalPeriod.DAILY, 7, 0.9)));
+    private final PricingEngine bundleEngine = PricingEngine.createDefault(List.of(new BundleDiscountRule(3, 0.95)));
+    private final PricingEngine allRulesEngine = PricingEngine.createDefault(List.of(
+            new WeekendSurchargeRule(1.1, WATER_TYPES),
+            new SeasonSurchargeRule(EnumSet.of(Month.JUNE, Month.JULY, Month.AUGUST), 1.2, WATER_TYPES),
+            new MultiDayTierRule(RentalPeriod.DAILY, 7, 0.9),
+            new BundleDiscountRule(3, 0.95)));
+
+    // 500 kr a day, 100 kr an hour
+    private final Item kayak = new Kayak("K1", "Kajak", 50_000, 10_000, 2022, Color.RED, Material.PLASTIC,
+            25.0, "Prijon", 1, 3.5, 1, KayakType.SIT_ON_TOP);
+
+    // 200 kr a day, 50 kr an hour
+    private final Item tent = new Tent("T1", "Tält", 20_000, 5_000, 2021, Color.GREEN, Material.NYLON,
+            3.0, "Hilleberg", 2, SeasonRating.THREE_SEASON, TentType.DOME);
+
+    @Test
+    void noRuleAppliesOnAnOrdinaryWeekday() {
+        assertEquals(50_000, price(allRulesEngine, kayak, MembershipLevel.STANDARD, 1, RentalPeriod.DAILY, WEDNESDAY, 1));
+        assertEquals(20_000, price(allRulesEngine, tent, MembershipLevel.STANDARD, 1, RentalPeriod.DAILY, WEDNESDAY, 1));
+    }
+
+    @Test
+    void defaultEngineOnlyGivesMembershipDiscounts() {
+        assertEquals(50_000, price(engine, kayak, MembershipLevel.STANDARD, 1, RentalPeriod.DAILY, SUMMER_SATURDAY, 1));
+        assertEquals(140_000, price(engine, tent, MembershipLevel.STANDARD, 7, RentalPeriod.DAILY, WEDNESDAY, 5));
+        assertEquals(112_000, price(engine, tent, MembershipLevel.STUDENT, 7, RentalPeriod.DAILY, WEDNESDAY, 5));
+        assertTrue(engine.isSameBundleTier(1, 10));
+    }
+
+    @Test
+    void membershipDiscountFollowsThePricingStrategies() {
+        assertEquals(16_000, price(engine, tent, MembershipLevel.STUDENT, 1, RentalPeriod.DAILY, WEDNESDAY, 1));
+        assertEquals(14_000, price(engine, tent, MembershipLevel.PREMIUM, 1, RentalPeriod.DAILY, WEDNESDAY, 1));
+        assertEquals(20_000, price(engine, tent, null, 1, RentalPeriod.DAILY, WEDNESDAY, 1));
+    }
+
+    @Test
+    void weekendSurchargeOnlyAppliesToWaterVehicles() {
+
+        // 10% more for the kayak, for both days and hours
+        assertEquals(55_000, price(weekendEngine, kayak, MembershipLevel.STANDARD, 1, RentalPeriod.DAILY, SATURDAY, 1));
+        assertEquals(22_000, price(weekendEngine, kayak, MembershipLevel.STANDARD, 2, RentalPeriod.HOURLY, SATURDAY, 1));
+        assertEquals(55_000, price(weekendEngine, kayak, MembershipLevel.STANDARD, 1, RentalPeriod.DAILY, SATURDAY.plusDays(1), 1));
+
+        // The tent costs the same every day
+        assertEquals(20_000, price(weekendEngine, tent, MembershipLevel.STANDARD, 1, RentalPeriod.DAILY, SATURDAY, 1));
+    }
+
+    @Test
+    void seasonSurchargeOnlyAppliesToWaterVehiclesInTheSummer() {
+        assertEquals(60_000, price(seasonEngine, kayak, MembershipLevel.STANDARD, 1, RentalPeriod.DAILY, SUMMER_WEDNESDAY, 1));
+        assertEquals(20_000, price(seasonEngine, tent, MembershipLevel.STANDARD, 1, RentalPeriod.DAILY, SUMMER_WEDNESDAY, 1));
+        assertEquals(50_000, price(seasonEngine, kayak, MembershipLevel.STANDARD, 1, RentalPeriod.DAILY, WEDNESDAY, 1));
+    }
+
+    @Test
+    void multiDayTierStartsAtSevenDays() {
+        assertEquals(120_000, price(multiDayEngine, tent, MembershipLevel.STANDARD, 6, RentalPeriod.DAILY, WEDNESDAY, 1));
+        assertEquals(126_000, price(multiDayEngine, tent, MembershipLevel.STANDARD, 7, RentalPeriod.DAILY, WEDNESDAY, 1));
+        assertEquals(252_000, price(multiDayEngine, tent, MembershipLevel.STANDARD, 14, RentalPeriod.DAILY, WEDNESDAY, 1));
+
+        // The tier is for days, seven hours is just seven hours
+        assertEquals(35_000, price(multiDayEngine, tent, MembershipLevel.STANDARD, 7, RentalPeriod.HOURLY, WEDNESDAY, 1));
+    }
+
+    @Test
+    void bundleDiscountStartsAtThreeItems() {
+        assertEquals(20_000, price(bundleEngine, tent, MembershipLevel.STANDARD, 1, RentalPeriod.DAILY, WEDNESDAY, 2));
+        assertEquals(19_000, price(bundleEngine, tent, MembershipLevel.STANDARD, 1, RentalPeriod.DAILY, WEDNESDAY, 3));
+        assertEquals(19_000, price(bundleEngine, tent, MembershipLevel.STANDARD, 1, RentalPeriod.DAILY, WEDNESDAY, 10));
+    }
+
+    @Test
+    void cartKnowsWhenTheBundleTierChanges() {
+        assertTrue(bundleEngine.isSameBundleTier(1, 2));
+        assertFalse(bundleEngine.isSameBundleTier(2, 3));
+        assertTrue(bundleEngine.isSameBundleTier(3, 8));
+    }
+
+    @Test
+    void allRulesAreMultipliedAndRoundedOnce() {
+
+        // A summer weekend gets both surcharges: 500 kr * 1.1 * 1.2 = 660 kr
+        assertEquals(66_000, price(allRulesEngine, kayak, MembershipLevel.STANDARD, 1, RentalPeriod.DAILY, SUMMER_SATURDAY, 1));
+
+        // Student, 7 days, 3 items: 1400 kr * 0.8 * 0.9 * 0.95 = 957,60 kr
+        assertEquals(95_760, price(allRulesEngine, tent, MembershipLevel.STUDENT, 7, RentalPeriod.DAILY, WEDNESDAY, 3));
+
+        // Premium kayak on a summer Saturday, 7 days, 3 items: 3500 kr * 0.7 * 1.1 * 1.2 * 0.9 * 0.95 = 2765,07 kr
+        assertEquals(276_507, price(allRulesEngine, kayak, MembershipLevel.PREMIUM, 7, RentalPeriod.DAILY, SUMMER_SATURDAY, 3));
+    }
+
+    private static long price(PricingEngine engine, Item item, MembershipLevel level, int duration, RentalPeriod period, LocalDateTime start, int bundleSize) {
+        return engine.calculatePrice(item, level, duration, period, start, bundleSize);
+    }
+}
@@ -0,0 +1,146 @@
+package org.example.memberclubjavafx_assignment5.service;
+
+import com.google.gson.JsonSyntaxException;
+import org.junit.jupiter.api.Test;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Checks that TimestampCodec writes the same text as DateTimeFormatter and reads back every date it writes,
+ * since a date that comes back wrong changes a rental in the files for good.
+ */
+class TimestampCodecTest {
+
+    private static final DateTimeFormatter ISO = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
+
+    // Ordinary dates, fractions of every length, and dates far from today
+    private static final List<LocalDateTime> DATES = List.of(
+            LocalDateTime.of(2024, 11, 12, 17, 7),
+            LocalDateTime.of(2024, 11, 12, 17, 7, 59),
+            LocalDateTime.of(2024, 11, 12, 17, 7, 0, 500_000_000),
+            LocalDateTime.of(2024, 11, 12, 17, 7, 0, 120_000_000),
+            LocalDateTime.of(2024, 11, 12, 17, 7, 0, 123_456_789),
+            LocalDateTime.of(2024, 11, 12, 17, 7, 0, 1),
+            LocalDateTime.of(1970, 1, 1, 0, 0),
+            LocalDateTime.of(1969, 12, 31, 23, 59, 59, 500_000_000),
+            LocalDateTime.of(1900, 2, 28, 6, 30, 15, 250_000_000),
+            LocalDateTime.of(0, 1, 1, 0, 0),
+            LocalDateTime.of(9999, 12, 31, 23, 59, 59, 999_999_999),
+            LocalDateTime.of(-5, 6, 15, 12, 0, 0, 750_000_000),
+            LocalDateTime.of(12345, 3, 1, 8, 15));
+
+    @Test
+    void formatWritesTheSameTextAsTheFormatter() {
+
+        for (LocalDateTime date : DATES) {
+            assertEquals(date.format(ISO), TimestampCodec.format(date), "for " + date);
+        }
+    }
+
+    @Test
+    void formatLeavesOutZerosAtTheEndOfTheFraction() {
+
+        LocalDateTime minute = LocalDateTime.of(2024, 11, 12, 17, 7);
+
+        assertEquals("2024-11-12T17:07:00", TimestampCodec.format(minute));
+        assertEquals("2024-11-12T17:07:00.5", TimestampCodec.format(minute.withNano(500_000_000)));
+        assertEquals("2024-11-12T17:07:00.12", TimestampCodec.format(minute.withNano(120_000_000)));
+        assertEquals("2024-11-12T17:07:00.00005", TimestampCodec.format(minute.withNano(50_000)));
+        assertEquals("2024-11-12T17:07:00.000000001", TimestampCodec.format(minute.withNano(1)));
+    }
+
+    @Test
+    void parseReadsEveryLengthOfTheUsualShape() {
+
+        // Length 16, without seconds
+        assertEquals(LocalDateTime.of(2024, 11, 12, 17, 7), TimestampCodec.parse("2024-11-12T17:07"));
+
+        // Length 19, and 21 to 29 with one to nine digits of fraction
+        String seconds = "2024-11-12T17:07:59";
+        assertEquals(LocalDateTime.parse(seconds, ISO), TimestampCodec.parse(seconds));
+
+        for (int digits = 1; digits <= 9; digits++) {
+
+            String text = seconds + "." + "123456789".substring(0, digits);
+
+            assertEquals(20 + digits, text.length());
+            assertEquals(LocalDateTime.parse(text, ISO), TimestampCodec.parse(text), "for " + text);
+        }
+    }
+
+    @Test
+    void parseReadsZerosAtTheEndOfTheFraction() {
+        assertEquals(LocalDateTime.of(2024, 11, 12, 17, 7, 0, 500_000_000), TimestampCodec.parse("2024-11-12T17:07:00.500"));
+        assertEquals(LocalDateTime.of(2024, 11, 12, 17, 7, 0, 100), TimestampCodec.parse("2024-11-12T17:07:00.000000100"));
+    }
+
+    @Test
+    void parseReadsDatesOutsideTheUsualYears() {
+
+        for (LocalDateTime date : DATES) {
+            assertEquals(date, TimestampCodec.parse(date.format(ISO)), "for " + date);
+        }
+    }
+
+    @Test
+    void parseRejectsTextThatIsNotADate() {
+        assertThrows(JsonSyntaxException.class, () -> TimestampCodec.parse("2024-11-12 17:07:00"));
+        assertThrows(JsonSyntaxException.class, () -> TimestampCodec.parse("2024-13-12T17:07:00"));
+        assertThrows(JsonSyntaxException.class, () -> TimestampCodec.parse("igår"));
+    }
+
+    @Test
+    void isoTextRoundTrips() throws IOException {
+
+        TimestampCodec codec = new TimestampCodec(TimestampCodec.Encoding.ISO);
+
+        for (LocalDateTime date : DATES) {
+            assertEquals(date, codec.fromJson(codec.toJson(date)), "for " + date);
+        }
+    }
+
+    @Test
+    void epochSecondsRoundTrip() throws IOException {
+
+        TimestampCodec codec = new TimestampCodec(TimestampCodec.Encoding.EPOCH_SECONDS);
+
+        for (LocalDateTime date : DATES) {
+            assertEquals(date, codec.fromJson(codec.toJson(date)), "for " + date);
+        }
+    }
+
+    @Test
+    void epochSecondsAreWrittenAsNumbers() throws IOException {
+
+        TimestampCodec codec = new TimestampCodec(TimestampCodec.Encoding.EPOCH_SECONDS);
+
+        assertEquals("1731431220", codec.toJson(LocalDateTime.of(2024, 11, 12, 17, 7)));
+        assertEquals("1731431220.5", codec.toJson(LocalDateTime.of(2024, 11, 12, 17, 7, 0, 500_000_000)));
+        assertEquals("-86400", codec.toJson(LocalDateTime.of(1969, 12, 31, 0, 0)));
+    }
+
+    @Test
+    void readsNegativeAndExponentEpochSeconds() throws IOException {
+
+        TimestampCodec codec = new TimestampCodec(TimestampCodec.Encoding.ISO);
+
+        assertEquals(LocalDateTime.of(1969, 12, 31, 0, 0), codec.fromJson("-86400"));
+        assertEquals(LocalDateTime.of(1969, 12, 31, 23, 59, 59, 500_000_000), codec.fromJson("-0.5"));
+        assertEquals(LocalDateTime.of(2024, 11, 12, 17, 6, 40), codec.fromJson("1.7314312E9"));
+        assertEquals(LocalDateTime.of(1970, 1, 1, 0, 0, 1, 500_000_000), codec.fromJson("15e-1"));
+    }
+
+    @Test
+    void nullRoundTrips() throws IOException {
+
+        TimestampCodec codec = new TimestampCodec(TimestampCodec.Encoding.ISO);
+
+        assertEquals("null", codec.toJson(null));
+        assertNull(codec.fromJson("null"));
+    }
+}
@@ -0,0 +1,184 @@
+package org.example.memberclubjavafx_assignment5.system;
+
+import com.google.gson.Gson;
+import org.example.memberclubjavafx_assignment5.model.Item;
+import org.example.memberclubjavafx_assignment5.model.Member;
+import org.example.memberclubjavafx_assignment5.model.enums.MembershipLevel;
+import org.example.memberclubjavafx_assignment5.service.GsonConfig;
+import org.example.memberclubjavafx_assignment5.service.StorageService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks how DataReloader sorts what it reads into added, updated and removed,
+ * since a wrong guess either loses a change from the file or throws away one of ours.
+ * The system starts in an empty folder (so it has the sample data) and the 'file' is a list we build in the test.
+ */
+class DataReloaderTest {
+
+    private final Gson gson = GsonConfig.createCompactGson();
+
+    private Path folder;
+    private ClubSystem system;
+    private DataReloader reloader;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        folder = Files.createTempDirectory("reloader-test");
+        system = new ClubSystem(folder + "/", StorageService.AccessMode.READ_ONLY);
+        reloader = new DataReloader(system, null);
+
+        // What we have now is what was in the files last time
+        reloader.markSynced(new ClubSystem.LoadedData(system.getAllUsers(), system.getInventory().getAllItems(),
+                system.getMemberRegistry().getAllMembers(), system.getRentalService().getAllRentals()));
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        system.stopBackgroundTasks();
+
+        try (Stream<Path> files = Files.walk(folder)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Test
+    void identicalFileChangesNothing() {
+        assertTrue(applyMembers(membersAsInFile()).isEmpty());
+    }
+
+    @Test
+    void removesOnlyIdsThatWereInTheFileLastTime() {
+
+        List<Member> file = membersAsInFile();
+        Member gone = file.remove(0);
+
+        // Added here after the last save, so it isn't in the file either
+        Member unsaved = new Member(9001, "Ny", "Medlem", "070-0000000", "ny@example.com", MembershipLevel.STANDARD);
+        system.getMemberRegistry().addMember(unsaved);
+
+        List<DataChange<?>> changes = applyMembers(file);
+        DataChange<?> change = changes.get(0);
+
+        assertEquals(1, changes.size());
+        assertEquals(List.of(gone.getId()), change.removed().stream().map(member -> ((Member) member).getId()).toList());
+        assertNull(system.getMemberRegistry().getMember(gone.getId()));
+        assertEquals(0, change.added().size());
+        assertEquals(0, change.updated().size());
+        assertEquals(unsaved, system.getMemberRegistry().getMember(9001));
+    }
+
+    @Test
+    void newObjectsInTheFileAreAdded() {
+
+        List<Member> file = membersAsInFile();
+        Member fromOtherDesk = new Member(9002, "Från", "Kassan", "070-1111111", "kassan@example.com", MembershipLevel.PREMIUM);
+        file.add(fromOtherDesk);
+
+        DataChange<?> change = applyMembers(file).get(0);
+
+        assertEquals(List.of(fromOtherDesk), change.added());
+        assertEquals("Kassan", system.getMemberRegistry().getMember(9002).getLastName());
+    }
+
+    @Test
+    void objectWeRemovedIsNotAddedBackFromTheFile() {
+
+        // Still in the file, since we haven't saved since we removed it
+        List<Member> file = membersAsInFile();
+        int removedId = file.get(0).getId();
+        system.getMemberRegistry().removeMember(removedId);
+
+        assertTrue(applyMembers(file).isEmpty());
+        assertNull(system.getMemberRegistry().getMember(removedId));
+    }
+
+    @Test
+    void sameVersionWithOtherValuesIsAnUpdate() {
+
+        List<Member> file = membersAsInFile();
+        Member edited = file.get(0);
+        long version = edited.getVersion();
+
+        // Edited by hand in the file, the version stays the same
+        edited.setLastName("Handredigerad");
+        edited.restoreVersion(version);
+
+        DataChange<?> change = applyMembers(file).get(0);
+
+        assertEquals(List.of(edited), change.updated());
+        assertEquals("Handredigerad", system.getMemberRegistry().getMember(edited.getId()).getLastName());
+    }
+
+    @Test
+    void sameVersionWithOtherItemPriceIsAnUpdate() {
+
+        List<Item> file = new ArrayList<>();
+
+        for (Item item : system.getInventory().getAllItems()) {
+            file.add(gson.fromJson(gson.toJson(item, Item.class), Item.class));
+        }
+
+        Item edited = file.get(0);
+        long version = edited.getVersion();
+        edited.setPricePerDayOre(edited.getPricePerDayOre() + 100);
+        edited.restoreVersion(version);
+
+        List<DataChange<?>> changes = reloader.apply(new DataReloader.ChangedFiles(null, file, null, null, List.of()));
+
+        assertEquals(1, changes.size());
+        assertEquals(List.of(edited), changes.get(0).updated());
+    }
+
+    @Test
+    void higherVersionInTheFileIsAnUpdate() {
+
+        List<Member> file = membersAsInFile();
+        Member newer = file.get(0);
+        newer.setPhone("070-2222222");
+
+        assertEquals(List.of(newer), applyMembers(file).get(0).updated());
+    }
+
+    @Test
+    void lowerVersionInTheFileKeepsOurs() {
+
+        List<Member> file = membersAsInFile();
+        Member older = file.get(0);
+
+        // We changed it after the last save, the next save writes our copy
+        Member ours = system.getMemberRegistry().getMember(older.getId());
+        ours.setPhone("070-3333333");
+        older.setEmail("gammal@example.com");
+        older.restoreVersion(ours.getVersion() - 1);
+
+        assertTrue(applyMembers(file).isEmpty());
+        assertEquals("070-3333333", system.getMemberRegistry().getMember(older.getId()).getPhone());
+    }
+
+    // Copies of our members, as they come back when members.json is read
+    private List<Member> membersAsInFile() {
+
+        List<Member> file = new ArrayList<>();
+
+        for (Member member : system.getMemberRegistry().getAllMembers()) {
+            file.add(gson.fromJson(gson.toJson(member), Member.class));
+        }
+        return file;
+    }
+
+    private List<DataChange<?>> applyMembers(List<Member> file) {
+        return reloader.apply(new DataReloader.ChangedFiles(null, null, file, null, List.of()));
+    }
+}